@@ -3,10 +3,6 @@ package org.battleplugins.arena.module.restoration;
 import com.sk89q.worldedit.EditSession;
 import com.sk89q.worldedit.WorldEdit;
 import com.sk89q.worldedit.bukkit.BukkitAdapter;
-import com.sk89q.worldedit.extent.clipboard.Clipboard;
-import com.sk89q.worldedit.extent.clipboard.io.ClipboardFormat;
-import com.sk89q.worldedit.extent.clipboard.io.ClipboardFormats;
-import com.sk89q.worldedit.extent.clipboard.io.ClipboardReader;
 import com.sk89q.worldedit.function.operation.Operation;
 import com.sk89q.worldedit.math.BlockVector3;
 import com.sk89q.worldedit.session.ClipboardHolder;
@@ -15,6 +11,7 @@ import org.battleplugins.arena.BattleArena;
 import org.battleplugins.arena.competition.LiveCompetition;
 import org.battleplugins.arena.competition.map.options.Bounds;
 import org.battleplugins.arena.util.BlockUtil;
+import org.battleplugins.arena.util.SchematicCache;
 
 import java.io.IOException;
 import java.nio.file.Files;
@@ -31,27 +28,39 @@ class ArenaRestorationUtil {
         }
 
         // Restore the arena
-        Clipboard clipboard;
-        ClipboardFormat format = ClipboardFormats.findByFile(path.toFile());
-        if (format == null) {
+        SchematicCache.Lease lease;
+        try {
+            lease = SchematicCache.acquire(path);
+        } catch (IOException e) {
+            // Error reading schematic
+            arena.getPlugin().error("Failed to restore map {} for arena {} due to an error reading the schematic!", competition.getMap().getName(), arena.getName(), e);
+            return;
+        }
+
+        if (lease == null) {
             // Invalid format
             arena.getPlugin().warn("Could not restore map {} for arena {} as the schematic format is invalid!", competition.getMap().getName(), arena.getName());
             return;
         }
 
-        try (ClipboardReader reader = format.getReader(Files.newInputStream(path))) {
-            clipboard = reader.read();
-        } catch (IOException e) {
-            // Error reading schematic
-            arena.getPlugin().error("Failed to restore map {} for arena {} due to an error reading the schematic!", competition.getMap().getName(), arena.getName(), e);
-            return;
+        EditSession session;
+        Operation operation;
+        try {
+            session = WorldEdit.getInstance().newEditSession(BukkitAdapter.adapt(competition.getMap().getWorld()));
+            operation = new ClipboardHolder(lease.getClipboard()).createPaste(session)
+                    .to(BlockVector3.at(bounds.getMinX(), bounds.getMinY(), bounds.getMinZ()))
+                    .build();
+        } catch (RuntimeException e) {
+            lease.close();
+            throw e;
         }
 
-        EditSession session = WorldEdit.getInstance().newEditSession(BukkitAdapter.adapt(competition.getMap().getWorld()));
-        Operation operation = new ClipboardHolder(clipboard).createPaste(session)
-                .to(BlockVector3.at(bounds.getMinX(), bounds.getMinY(), bounds.getMinZ()))
-                .build();
+        // The clipboard is only returned to the cache once the paste is done with it
+        Runnable release = () -> {
+            session.close();
+            lease.close();
+        };
 
-        BlockUtil.runOperationSliced(BattleArena.getInstance(), operation, 7_000_000L, session::close);
+        BlockUtil.runOperationSliced(BattleArena.getInstance(), operation, 7_000_000L, release, release);
     }
 }
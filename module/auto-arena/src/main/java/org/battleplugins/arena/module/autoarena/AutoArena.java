@@ -1,20 +1,17 @@
 package org.battleplugins.arena.module.autoarena;
 
-import org.battleplugins.arena.Arena;
 import org.battleplugins.arena.ArenaPlayer;
 import org.battleplugins.arena.BattleArenaApi;
-import org.battleplugins.arena.competition.Competition;
 import org.battleplugins.arena.competition.LiveCompetition;
 import org.battleplugins.arena.competition.PlayerRole;
 import org.battleplugins.arena.competition.map.options.Bounds;
 import org.battleplugins.arena.event.player.ArenaLeaveEvent;
 import org.battleplugins.arena.module.ArenaModule;
 import org.battleplugins.arena.module.ArenaModuleInitializer;
+import org.bukkit.Location;
 import org.bukkit.event.EventHandler;
 import org.bukkit.event.player.PlayerMoveEvent;
 
-import java.util.List;
-
 /**
  * A module that automatically places players into an arena when they walk into an arena's bounds.
  */
@@ -38,22 +35,17 @@ public class AutoArena implements ArenaModuleInitializer {
         }
 
         // Player is not in an arena - let's check if they are in the bounds of a map
-        for (Arena arena : BattleArenaApi.get().getArenas()) {
-            if (!arena.isModuleEnabled(ID)) {
+        // Maps of arenas without this module may overlap, so check every competition in the chunk
+        Location to = event.getTo();
+        for (LiveCompetition<?> competition : BattleArenaApi.get().getCompetitionsInChunk(to.getWorld(), to.getBlockX() >> 4, to.getBlockZ() >> 4)) {
+            if (!competition.getArena().isModuleEnabled(ID)) {
                 continue;
             }
 
-            List<Competition<?>> competitions = BattleArenaApi.get().getCompetitions(arena);
-            for (Competition<?> competition : competitions) {
-                if (!(competition instanceof LiveCompetition<?> liveCompetition)) {
-                    continue;
-                }
-
-                Bounds bounds = liveCompetition.getMap().getBounds();
-                if (liveCompetition.getMap().getWorld().equals(event.getPlayer().getWorld()) && bounds != null && bounds.isInside(event.getTo())) {
-                    liveCompetition.join(event.getPlayer(), PlayerRole.PLAYING);
-                    return;
-                }
+            Bounds bounds = competition.getMap().getBounds();
+            if (bounds != null && bounds.isInside(to)) {
+                competition.join(event.getPlayer(), PlayerRole.PLAYING);
+                return;
             }
         }
     }
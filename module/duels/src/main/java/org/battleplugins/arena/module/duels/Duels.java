@@ -1,7 +1,5 @@
 package org.battleplugins.arena.module.duels;
 
-import com.google.gson.JsonArray;
-import com.google.gson.JsonObject;
 import org.battleplugins.arena.Arena;
 import org.battleplugins.arena.ArenaPlayer;
 import org.battleplugins.arena.BattleArena;
@@ -33,8 +31,10 @@ import org.battleplugins.arena.competition.phase.LiveCompetitionPhase;
 import org.battleplugins.arena.competition.phase.phases.VictoryPhase;
 import org.battleplugins.arena.module.ArenaModule;
 import org.battleplugins.arena.module.ArenaModuleInitializer;
+import org.battleplugins.arena.proxy.ProxyDestination;
 import org.battleplugins.arena.proxy.ProxyDuelRequestEvent;
 import org.battleplugins.arena.proxy.SerializedPlayer;
+import org.battleplugins.arena.proxy.message.ProxyMessage;
 import org.battleplugins.arena.team.ArenaTeam;
 import org.bukkit.Bukkit;
 import org.bukkit.GameMode;
@@ -715,40 +715,23 @@ public class Duels implements ArenaModuleInitializer, DuelSeriesProvider {
             return;
         }
 
-        JsonObject joinPayload = new JsonObject();
-        joinPayload.addProperty("type", "arena_join");
-        joinPayload.addProperty("arena", arena.getName());
-        joinPayload.addProperty("map", map.getName());
-        joinPayload.addProperty("duel", true);
-
-        JsonArray playerData = new JsonArray();
-        requesterParty.forEach(participant -> playerData.add(this.serializePlayer(participant)));
-        opponentParty.forEach(participant -> playerData.add(this.serializePlayer(participant)));
-        joinPayload.add("players", playerData);
+        List<SerializedPlayer> playerData = new ArrayList<>();
+        requesterParty.forEach(participant -> playerData.add(SerializedPlayer.toSerializedPlayer(participant)));
+        opponentParty.forEach(participant -> playerData.add(SerializedPlayer.toSerializedPlayer(participant)));
 
         String origin = plugin.getMainConfig().getProxyServerName();
-        if (origin != null && !origin.isEmpty()) {
-            joinPayload.addProperty("origin", origin);
-        }
-
-        plugin.getConnector().sendToRouter(joinPayload.toString());
-
-        JsonObject duelPayload = new JsonObject();
-        duelPayload.addProperty("type", "duel_req");
-        duelPayload.addProperty("arena", arena.getName());
-        duelPayload.addProperty("map", map.getName());
-        duelPayload.add("requester", this.serializePlayer(requester));
-        duelPayload.add("target", this.serializePlayer(opponent));
-        duelPayload.add("requesterParty", this.serializeRoster(requesterParty));
-        duelPayload.add("targetParty", this.serializeRoster(opponentParty));
-        duelPayload.add("players", playerData.deepCopy());
-        duelPayload.addProperty("rounds", normalizeRounds(rounds));
-
-        if (origin != null && !origin.isEmpty()) {
-            duelPayload.addProperty("origin", origin);
-        }
-
-        plugin.getConnector().sendToRouter(duelPayload.toString());
+        plugin.getConnector().sendToRouter(new ProxyMessage.ArenaJoin(arena.getName(), map.getName(), true, origin, playerData), ProxyDestination.host());
+        plugin.getConnector().sendToRouter(new ProxyMessage.DuelRequest(
+                arena.getName(),
+                map.getName(),
+                origin,
+                SerializedPlayer.toSerializedPlayer(requester),
+                SerializedPlayer.toSerializedPlayer(opponent),
+                this.serializeRoster(requesterParty),
+                this.serializeRoster(opponentParty),
+                playerData,
+                normalizeRounds(rounds)
+        ), ProxyDestination.host());
 
         for (Player participant : allParticipants) {
             plugin.addPendingProxyJoin(participant.getUniqueId());
@@ -756,10 +739,10 @@ public class Duels implements ArenaModuleInitializer, DuelSeriesProvider {
         }
     }
 
-    private JsonArray serializeRoster(Collection<Player> players) {
-        JsonArray array = new JsonArray();
-        players.forEach(player -> array.add(player.getUniqueId().toString()));
-        return array;
+    private List<UUID> serializeRoster(Collection<Player> players) {
+        List<UUID> roster = new ArrayList<>(players.size());
+        players.forEach(player -> roster.add(player.getUniqueId()));
+        return roster;
     }
 
     private LiveCompetition<?> findOrJoinCompetition(Arena arena, @Nullable LiveCompetitionMap preferredMap) {
@@ -1022,13 +1005,7 @@ public class Duels implements ArenaModuleInitializer, DuelSeriesProvider {
 
             if (!origins.isEmpty()) {
                 for (String origin : origins) {
-                    JsonObject payload = new JsonObject();
-                    payload.addProperty("type", "duel_result");
-                    payload.addProperty("message", miniMessage);
-                    if (origin != null && !origin.isEmpty()) {
-                        payload.addProperty("origin", origin);
-                    }
-                    plugin.getConnector().sendToRouter(payload.toString());
+                    plugin.getConnector().sendToRouter(new ProxyMessage.DuelResult(origin, miniMessage), ProxyDestination.server(origin));
                 }
             }
         }
@@ -1396,28 +1373,6 @@ public class Duels implements ArenaModuleInitializer, DuelSeriesProvider {
 
         return List.copyOf(ordered);
     }
-
-    private JsonObject serializePlayer(Player player) {
-        org.battleplugins.arena.proxy.SerializedPlayer serialized =
-                org.battleplugins.arena.proxy.SerializedPlayer.toSerializedPlayer(player);
-        JsonObject playerObject = new JsonObject();
-        playerObject.addProperty("uuid", serialized.getUuid());
-        if (!serialized.getElements().isEmpty()) {
-            JsonArray elementsArray = new JsonArray();
-            serialized.getElements().forEach(element -> elementsArray.add(element.name()));
-            playerObject.add("elements", elementsArray);
-        }
-        if (!serialized.getAbilities().isEmpty()) {
-            JsonObject abilitiesObject = new JsonObject();
-            serialized.getAbilities().forEach((slot, ability) ->
-                    abilitiesObject.addProperty(String.valueOf(slot), ability));
-            playerObject.add("abilities", abilitiesObject);
-        }
-        if (serialized.getOrigin() != null && !serialized.getOrigin().isEmpty()) {
-            playerObject.addProperty("origin", serialized.getOrigin());
-        }
-        return playerObject;
-    }
 }
 
 
@@ -13,6 +13,7 @@ import org.battleplugins.arena.queue.QueueService;
 import org.battleplugins.arena.resolver.Resolver;
 import org.battleplugins.arena.resolver.ResolverKey;
 import org.battleplugins.arena.resolver.ResolverKeys;
+import org.battleplugins.arena.stat.store.StatPersistence;
 import org.battleplugins.arena.team.ArenaTeam;
 import org.battleplugins.arena.util.Util;
 import org.bukkit.entity.Player;
@@ -67,10 +68,12 @@ public class BattleArenaExpansion extends PlaceholderExpansion {
         if (arenaPlayer != null && params.startsWith("competition")) {
             String placeholder = String.join("_", split).substring("competition_".length());
 
-            Resolver resolver = arenaPlayer.resolve();
             ResolverKey<?> resolverKey = ResolverKeys.get(placeholder.replace("_", "-"));
-            if (resolverKey != null && resolver.has(resolverKey)) {
-                return resolver.resolveToString(resolverKey);
+            if (resolverKey != null) {
+                Resolver resolver = arenaPlayer.resolve();
+                if (resolver.has(resolverKey)) {
+                    return resolver.resolveToString(resolverKey);
+                }
             }
 
             // Additional placeholders for competition
@@ -143,6 +146,21 @@ public class BattleArenaExpansion extends PlaceholderExpansion {
             }
         }
 
+        if (placeholder.startsWith("lifetime_")) {
+            StatPersistence persistence = this.plugin.getStatPersistence();
+            if (player == null || persistence == null) {
+                return null;
+            }
+
+            // Stats which are not cached are loaded in the background, so nothing is shown until they are
+            Double value = persistence.getCachedStat(player.getUniqueId(), arena.getName(), placeholder.substring("lifetime_".length()));
+            if (value == null) {
+                return "";
+            }
+
+            return value == Math.rint(value) ? String.valueOf(value.longValue()) : String.valueOf(value);
+        }
+
         switch (placeholder) {
             case "active_competitions": {
                 return String.valueOf(this.plugin.getCompetitions(arena).size());
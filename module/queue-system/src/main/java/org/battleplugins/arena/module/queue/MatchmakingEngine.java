@@ -0,0 +1,498 @@
+package org.battleplugins.arena.module.queue;
+
+import org.battleplugins.arena.Arena;
+import org.battleplugins.arena.competition.map.LiveCompetitionMap;
+import org.battleplugins.arena.proxy.SerializedPlayer;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.NavigableSet;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Keeps the players queued on the proxy host, and makes matches from them.
+ * <p>
+ * The players queued for an arena are indexed by the bitmask of their
+ * elements, in the order they queued in. Whether a matchup of a map can be
+ * filled is decided from the number of players per bitmask alone, and only
+ * the players of bitmasks which fit a matchup are looked at to pick the players
+ * of a match. Matches are made off the main thread; players which were picked
+ * for a match are held back until the match has started, or put back at their
+ * old position in the queue if it could not be started.
+ * <p>
+ * Players are also indexed by their rating, which is looked up once when they
+ * join the queue. Matches are searched for among the players whose rating is
+ * within a window around the rating of one of the players who waited the
+ * longest, and that window widens the longer the player waits, so players
+ * are matched with players of a similar skill first. In arenas without
+ * ratings, every player has the same rating, and the window covers everyone.
+ */
+final class MatchmakingEngine {
+    // Half of the width of the rating window of a player who just joined the queue
+    private static final double INITIAL_WINDOW = 50;
+    // How much the window widens per second a player is queued
+    private static final double WINDOW_GROWTH_PER_SECOND = 5;
+    // Windows wider than this match players of any rating
+    private static final double MAX_WINDOW = 1000;
+    // Players who waited the longest whose window is searched in a single pass
+    private static final int MAX_ANCHORS = 32;
+
+    private final Map<String, ArenaQueue> queues = new ConcurrentHashMap<>();
+
+    /**
+     * Adds the given player to the queue of the given arena, or
+     * removes them if they are already queued for it.
+     * <p>
+     * Players added without a rating are only matched once
+     * their rating was set through {@link #rate}.
+     *
+     * @param arenaName the name of the arena
+     * @param origin the server the player is on
+     * @param player the player
+     * @param rated whether the player can be matched right away, rather than once they are rated
+     * @return the queued player if the player was added to the queue, or null if removed
+     */
+    @Nullable
+    Candidate toggle(String arenaName, String origin, SerializedPlayer player, boolean rated) {
+        return this.queues.computeIfAbsent(arenaName.toLowerCase(Locale.ROOT), k -> new ArenaQueue()).toggle(origin, player, rated);
+    }
+
+    /**
+     * Sets the rating of a player who was added to the queue without one.
+     * If the rating could not be looked up, the player is given the median
+     * rating of the queue, so they are still matched.
+     *
+     * @param arenaName the name of the arena
+     * @param candidate the queued player
+     * @param rating the rating of the player, or NaN if it could not be looked up
+     */
+    void rate(String arenaName, Candidate candidate, double rating) {
+        ArenaQueue queue = this.queues.get(arenaName.toLowerCase(Locale.ROOT));
+        if (queue != null) {
+            queue.rate(candidate, rating);
+        }
+    }
+
+    /**
+     * Removes the given player from every queue.
+     *
+     * @param uuid the unique id of the player
+     */
+    void remove(String uuid) {
+        for (ArenaQueue queue : this.queues.values()) {
+            queue.remove(uuid);
+        }
+    }
+
+    /**
+     * Makes as many matches as possible from the players queued for the given arena.
+     *
+     * @param arena the arena
+     * @param maps the maps of the arena which queued players can be matched on
+     * @return the matches
+     */
+    List<Match> findMatches(Arena arena, List<MapPlans> maps) {
+        ArenaQueue queue = this.queues.get(arena.getName().toLowerCase(Locale.ROOT));
+        if (queue == null || maps.isEmpty()) {
+            return List.of();
+        }
+
+        return queue.findMatches(arena, maps);
+    }
+
+    /**
+     * Puts the players of a match which could not be started back
+     * in the queue, at the position they were at before.
+     *
+     * @param match the match
+     */
+    void requeue(Match match) {
+        ArenaQueue queue = this.queues.get(match.arena().getName().toLowerCase(Locale.ROOT));
+        if (queue != null) {
+            queue.requeue(match.players());
+        }
+    }
+
+    /**
+     * Marks the given match as started, so its players
+     * are no longer held back.
+     *
+     * @param match the match
+     */
+    void complete(Match match) {
+        ArenaQueue queue = this.queues.get(match.arena().getName().toLowerCase(Locale.ROOT));
+        if (queue != null) {
+            queue.complete(match.players());
+        }
+    }
+
+    /**
+     * Gets the names of the arenas which have a queue.
+     *
+     * @return the names of the arenas
+     */
+    List<String> getArenaNames() {
+        return List.copyOf(this.queues.keySet());
+    }
+
+    /**
+     * A queued player.
+     *
+     * @param sequence the position of the player in the queue of the arena
+     * @param origin the server the player is on
+     * @param player the player
+     * @param elements the bitmask of the elements of the player
+     * @param queuedAt the time the player joined the queue, in milliseconds
+     * @param rating the rating of the player, or NaN if it is not known yet
+     */
+    record Candidate(long sequence, String origin, SerializedPlayer player, int elements, long queuedAt, double rating) {
+
+        Candidate withRating(double rating) {
+            return new Candidate(this.sequence, this.origin, this.player, this.elements, this.queuedAt, rating);
+        }
+
+        boolean isRated() {
+            return !Double.isNaN(this.rating);
+        }
+    }
+
+    /**
+     * The compiled matchups of a map.
+     *
+     * @param map the map
+     * @param plans the compiled matchups, in the order they are tried in
+     */
+    record MapPlans(LiveCompetitionMap map, List<MatchupPlan> plans) {
+    }
+
+    /**
+     * A match made from queued players.
+     *
+     * @param arena the arena
+     * @param map the map to play on
+     * @param players the players
+     */
+    record Match(Arena arena, LiveCompetitionMap map, List<Candidate> players) {
+    }
+
+    /**
+     * The queued players a match is searched for among.
+     */
+    private interface CandidateSource {
+
+        /**
+         * Gets the number of players per element bitmask.
+         */
+        int[] counts();
+
+        /**
+         * Iterates over the players who could be part of a match
+         * of the given plan, in the order they queued in.
+         */
+        Iterator<Candidate> candidates(MatchupPlan plan);
+    }
+
+    private static final class ArenaQueue implements CandidateSource {
+        private static final Comparator<Candidate> BY_RATING = Comparator.comparingDouble(Candidate::rating)
+                .thenComparingLong(Candidate::sequence);
+
+        private final Map<String, Candidate> queued = new HashMap<>();
+        // Players picked for a match which has not started yet
+        private final Map<String, Candidate> matching = new HashMap<>();
+
+        // Rated players only, as players are only matched once their rating is known
+        private final List<NavigableMap<Long, Candidate>> byElements = new ArrayList<>(MatchupPlan.MASK_COUNT);
+        private final int[] counts = new int[MatchupPlan.MASK_COUNT];
+        private final NavigableMap<Long, Candidate> byWaitTime = new TreeMap<>();
+        private final NavigableSet<Candidate> byRating = new TreeSet<>(BY_RATING);
+        private long nextSequence;
+
+        ArenaQueue() {
+            for (int mask = 0; mask < MatchupPlan.MASK_COUNT; mask++) {
+                this.byElements.add(new TreeMap<>());
+            }
+        }
+
+        synchronized Candidate toggle(String origin, SerializedPlayer player, boolean rated) {
+            Candidate existing = this.queued.remove(player.getUuid());
+            if (existing != null) {
+                this.unindex(existing);
+                return null;
+            }
+
+            // Leaving while a match is being started means the player is not put back
+            if (this.matching.remove(player.getUuid()) != null) {
+                return null;
+            }
+
+            Candidate candidate = new Candidate(
+                    this.nextSequence++,
+                    origin,
+                    player,
+                    MatchupPlan.mask(player.getElements()),
+                    System.currentTimeMillis(),
+                    rated ? 0 : Double.NaN
+            );
+
+            this.queued.put(player.getUuid(), candidate);
+            this.index(candidate);
+            return candidate;
+        }
+
+        synchronized void rate(Candidate candidate, double rating) {
+            Candidate queued = this.queued.get(candidate.player().getUuid());
+
+            // The player may have left, or left and joined again, in the meantime
+            if (queued == null || queued.sequence() != candidate.sequence() || queued.isRated()) {
+                return;
+            }
+
+            if (Double.isNaN(rating)) {
+                rating = this.medianRating();
+            }
+
+            Candidate rated = queued.withRating(rating);
+            this.queued.put(rated.player().getUuid(), rated);
+            this.index(rated);
+        }
+
+        synchronized void remove(String uuid) {
+            Candidate candidate = this.queued.remove(uuid);
+            if (candidate != null) {
+                this.unindex(candidate);
+            }
+
+            this.matching.remove(uuid);
+        }
+
+        synchronized List<Match> findMatches(Arena arena, List<MapPlans> maps) {
+            List<Match> matches = new ArrayList<>();
+            List<MapPlans> order = new ArrayList<>(maps);
+            long now = System.currentTimeMillis();
+            while (!this.byWaitTime.isEmpty()) {
+                // Shuffle maps so that selection order is randomized
+                Collections.shuffle(order);
+
+                Match match = null;
+                int anchors = 0;
+                for (Candidate anchor : this.byWaitTime.values()) {
+                    CandidateSource source = this.window(anchor, now);
+                    match = this.findMatch(arena, order, source);
+
+                    // If no match can be made from every player, none can be made from fewer
+                    if (match != null || source == this || ++anchors == MAX_ANCHORS) {
+                        break;
+                    }
+                }
+
+                if (match == null) {
+                    break;
+                }
+
+                for (Candidate candidate : match.players()) {
+                    this.queued.remove(candidate.player().getUuid());
+                    this.unindex(candidate);
+                    this.matching.put(candidate.player().getUuid(), candidate);
+                }
+
+                matches.add(match);
+            }
+
+            return matches;
+        }
+
+        @Nullable
+        private Match findMatch(Arena arena, List<MapPlans> maps, CandidateSource source) {
+            int[] counts = source.counts();
+            for (MapPlans map : maps) {
+                for (MatchupPlan plan : map.plans()) {
+                    if (!plan.isFeasible(counts)) {
+                        continue;
+                    }
+
+                    List<Candidate> players = plan.select(source.candidates(plan));
+                    if (players != null) {
+                        return new Match(arena, map.map(), players);
+                    }
+                }
+            }
+
+            return null;
+        }
+
+        /**
+         * Gets the players whose rating is within the window of the given player.
+         */
+        private CandidateSource window(Candidate anchor, long now) {
+            double window = INITIAL_WINDOW + WINDOW_GROWTH_PER_SECOND * Math.max(0, now - anchor.queuedAt()) / 1000D;
+            double min = anchor.rating() - window;
+            double max = anchor.rating() + window;
+            if (window >= MAX_WINDOW || (this.byRating.first().rating() >= min && this.byRating.last().rating() <= max)) {
+                return this;
+            }
+
+            List<Candidate> players = new ArrayList<>(this.byRating.subSet(
+                    new Candidate(Long.MIN_VALUE, "", null, 0, 0, min), true,
+                    new Candidate(Long.MAX_VALUE, "", null, 0, 0, max), true
+            ));
+
+            players.sort(Comparator.comparingLong(Candidate::sequence));
+            return new WindowSource(players);
+        }
+
+        private double medianRating() {
+            if (this.byRating.isEmpty()) {
+                return 0;
+            }
+
+            Iterator<Candidate> iterator = this.byRating.iterator();
+            for (int i = 0; i < this.byRating.size() / 2; i++) {
+                iterator.next();
+            }
+
+            return iterator.next().rating();
+        }
+
+        synchronized void requeue(List<Candidate> players) {
+            for (Candidate candidate : players) {
+                if (this.matching.remove(candidate.player().getUuid()) == null) {
+                    continue;
+                }
+
+                this.queued.put(candidate.player().getUuid(), candidate);
+                this.index(candidate);
+            }
+        }
+
+        synchronized void complete(List<Candidate> players) {
+            for (Candidate candidate : players) {
+                this.matching.remove(candidate.player().getUuid());
+            }
+        }
+
+        private void index(Candidate candidate) {
+            if (!candidate.isRated()) {
+                return;
+            }
+
+            this.byElements.get(candidate.elements()).put(candidate.sequence(), candidate);
+            this.counts[candidate.elements()]++;
+            this.byWaitTime.put(candidate.sequence(), candidate);
+            this.byRating.add(candidate);
+        }
+
+        private void unindex(Candidate candidate) {
+            if (this.byElements.get(candidate.elements()).remove(candidate.sequence()) != null) {
+                this.counts[candidate.elements()]--;
+                this.byWaitTime.remove(candidate.sequence());
+                this.byRating.remove(candidate);
+            }
+        }
+
+        @Override
+        public int[] counts() {
+            return this.counts;
+        }
+
+        /**
+         * Iterates over the queued players who could be part of a match
+         * of the given plan, in the order they queued in, by merging the
+         * queues of the bitmasks the plan accepts.
+         */
+        @Override
+        public Iterator<Candidate> candidates(MatchupPlan plan) {
+            PriorityQueue<PeekingIterator> heads = new PriorityQueue<>(Comparator.comparingLong(head -> head.peek().sequence()));
+            for (int mask = 0; mask < MatchupPlan.MASK_COUNT; mask++) {
+                if (this.counts[mask] > 0 && plan.accepts(mask)) {
+                    heads.add(new PeekingIterator(this.byElements.get(mask).values().iterator()));
+                }
+            }
+
+            return new Iterator<>() {
+
+                @Override
+                public boolean hasNext() {
+                    return !heads.isEmpty();
+                }
+
+                @Override
+                public Candidate next() {
+                    PeekingIterator head = heads.poll();
+                    if (head == null) {
+                        throw new NoSuchElementException();
+                    }
+
+                    Candidate next = head.next();
+                    if (head.hasNext()) {
+                        heads.add(head);
+                    }
+
+                    return next;
+                }
+            };
+        }
+    }
+
+    /**
+     * The players within the rating window of a player, in the order they queued in.
+     */
+    private static final class WindowSource implements CandidateSource {
+        private final List<Candidate> players;
+        private final int[] counts = new int[MatchupPlan.MASK_COUNT];
+
+        WindowSource(List<Candidate> players) {
+            this.players = players;
+            for (Candidate candidate : players) {
+                this.counts[candidate.elements()]++;
+            }
+        }
+
+        @Override
+        public int[] counts() {
+            return this.counts;
+        }
+
+        @Override
+        public Iterator<Candidate> candidates(MatchupPlan plan) {
+            return this.players.stream()
+                    .filter(candidate -> plan.accepts(candidate.elements()))
+                    .iterator();
+        }
+    }
+
+    private static final class PeekingIterator {
+        private final Iterator<Candidate> iterator;
+        private Candidate next;
+
+        PeekingIterator(Iterator<Candidate> iterator) {
+            this.iterator = iterator;
+            this.next = iterator.next();
+        }
+
+        Candidate peek() {
+            return this.next;
+        }
+
+        boolean hasNext() {
+            return this.next != null;
+        }
+
+        Candidate next() {
+            Candidate current = this.next;
+            this.next = this.iterator.hasNext() ? this.iterator.next() : null;
+            return current;
+        }
+    }
+}
@@ -0,0 +1,397 @@
+package org.battleplugins.arena.module.queue;
+
+import org.battleplugins.arena.competition.map.ElementMatchup;
+import org.battleplugins.arena.proxy.Elements;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * An {@link ElementMatchup} of a map, compiled into the number of
+ * players of each element the matchup has room for.
+ * <p>
+ * Queued players are described by the bitmask of their elements, and a player
+ * can take up a slot of any of its elements. Whether a matchup can be filled is
+ * then a bipartite matching problem between players and element slots. Since
+ * players with the same elements are interchangeable, it is first checked on
+ * the number of queued players per bitmask only, in constant time. Players are
+ * then picked in the order they queued in, using augmenting paths, which always
+ * finds a match containing the players who waited the longest.
+ */
+final class MatchupPlan {
+    static final int ELEMENT_COUNT = Elements.values().length;
+    static final int MASK_COUNT = 1 << ELEMENT_COUNT;
+
+    // Players of any element, including players without an element
+    private static final int ANY = -1;
+
+    // The number of players of each element this matchup has room for
+    private final int[] capacity;
+    // The number of players which must be given one of these slots
+    private final int required;
+    // Players which can be added once the required players were found
+    private final int fillerMask;
+    private final int minPlayers;
+    private final int maxPlayers;
+    // The team size of a constraint matchup, whose players are split into two teams
+    private final int teamSize;
+    private final int[] teamLimits;
+
+    private MatchupPlan(int[] capacity, int required, int fillerMask, int minPlayers, int maxPlayers, int teamSize, int[] teamLimits) {
+        this.capacity = capacity;
+        this.required = required;
+        this.fillerMask = fillerMask;
+        this.minPlayers = minPlayers;
+        this.maxPlayers = maxPlayers;
+        this.teamSize = teamSize;
+        this.teamLimits = teamLimits;
+    }
+
+    /**
+     * Creates a plan for a map without any matchups, which
+     * any player can join.
+     *
+     * @param minPlayers the minimum number of players of a match
+     * @param maxPlayers the maximum number of players of a match
+     * @return the plan
+     */
+    static MatchupPlan open(int minPlayers, int maxPlayers) {
+        return new MatchupPlan(new int[ELEMENT_COUNT], 0, ANY, minPlayers, maxPlayers, 0, new int[0]);
+    }
+
+    /**
+     * Compiles the given matchup.
+     *
+     * @param matchup the matchup
+     * @param minPlayers the minimum number of players of a match
+     * @param maxPlayers the maximum number of players of a match
+     * @param minPlayersPerTeam the minimum number of players of a team
+     * @return the plan, or null if the matchup can never be filled
+     */
+    @Nullable
+    static MatchupPlan compile(ElementMatchup matchup, int minPlayers, int maxPlayers, int minPlayersPerTeam) {
+        int[] capacity = new int[ELEMENT_COUNT];
+        if (matchup.isConstraint()) {
+            int teamSize = matchup.constraintTeamSize();
+            if (teamSize <= 0 || teamSize * 2 > maxPlayers) {
+                return null;
+            }
+
+            int[] limits = new int[ELEMENT_COUNT];
+            for (Elements element : Elements.values()) {
+                limits[element.ordinal()] = teamSize;
+            }
+
+            Map<Elements, Integer> rawLimits = matchup.constraintMaxPerElement();
+            if (rawLimits != null) {
+                for (Map.Entry<Elements, Integer> entry : rawLimits.entrySet()) {
+                    if (entry.getKey() == null || entry.getValue() == null) {
+                        continue;
+                    }
+
+                    // A limit of zero means the element is not limited
+                    int limit = Math.max(0, Math.min(teamSize, entry.getValue()));
+                    if (limit > 0) {
+                        limits[entry.getKey().ordinal()] = limit;
+                    }
+                }
+            }
+
+            // If the players of a match fit the limits of both teams together,
+            // they can always be split into two teams which fit the limits
+            for (int element = 0; element < ELEMENT_COUNT; element++) {
+                capacity[element] = limits[element] * 2;
+            }
+
+            return new MatchupPlan(capacity, teamSize * 2, 0, teamSize * 2, teamSize * 2, teamSize, limits);
+        }
+
+        if (matchup.isComposition()) {
+            if (matchup.leftElements().size() != matchup.rightElements().size()) {
+                return null;
+            }
+
+            for (Elements element : matchup.leftElements()) {
+                capacity[element.ordinal()]++;
+            }
+
+            for (Elements element : matchup.rightElements()) {
+                capacity[element.ordinal()]++;
+            }
+
+            int slots = matchup.leftElements().size() + matchup.rightElements().size();
+            if (slots > maxPlayers) {
+                return null;
+            }
+
+            return new MatchupPlan(capacity, slots, 0, slots, slots, 0, new int[0]);
+        }
+
+        // Both sides need enough players, and anyone of either element can fill up the rest
+        Elements left = matchup.leftElements().get(0);
+        Elements right = matchup.rightElements().get(0);
+        int required = Math.max(1, minPlayersPerTeam);
+        capacity[left.ordinal()] += required;
+        capacity[right.ordinal()] += required;
+
+        int fillerMask = bit(left) | bit(right);
+        return new MatchupPlan(capacity, required * 2, fillerMask, Math.max(minPlayers, required * 2), maxPlayers, 0, new int[0]);
+    }
+
+    /**
+     * Checks whether a match could be made from queued players, given only
+     * the number of queued players per element bitmask.
+     * <p>
+     * The number of players which can be given a slot is the maximum flow from
+     * the players to the slots, which by the max-flow min-cut theorem is the
+     * smallest number of slots of a set of elements, plus the players who do
+     * not only play elements from that set. With a handful of elements, every
+     * set is checked directly.
+     *
+     * @param counts the number of queued players per element bitmask
+     * @return whether a match can be made
+     */
+    boolean isFeasible(int[] counts) {
+        int total = 0;
+        for (int count : counts) {
+            total += count;
+        }
+
+        if (this.fillerMask == ANY) {
+            return Math.min(total, this.maxPlayers) >= this.minPlayers;
+        }
+
+        // Number of players whose elements are a subset of each mask
+        int[] subsetCounts = counts.clone();
+        for (int element = 0; element < ELEMENT_COUNT; element++) {
+            for (int mask = 0; mask < MASK_COUNT; mask++) {
+                if ((mask & (1 << element)) != 0) {
+                    subsetCounts[mask] += subsetCounts[mask ^ (1 << element)];
+                }
+            }
+        }
+
+        int maxMatched = Integer.MAX_VALUE;
+        for (int mask = 0; mask < MASK_COUNT; mask++) {
+            int slots = 0;
+            for (int element = 0; element < ELEMENT_COUNT; element++) {
+                if ((mask & (1 << element)) != 0) {
+                    slots += this.capacity[element];
+                }
+            }
+
+            maxMatched = Math.min(maxMatched, slots + total - subsetCounts[mask]);
+        }
+
+        if (maxMatched < this.required) {
+            return false;
+        }
+
+        int fillers = 0;
+        for (int mask = 0; mask < MASK_COUNT; mask++) {
+            if ((mask & this.fillerMask) != 0) {
+                fillers += counts[mask];
+            }
+        }
+
+        return Math.max(this.required, Math.min(fillers, this.maxPlayers)) >= this.minPlayers;
+    }
+
+    /**
+     * Gets whether players with the given elements could be part of a match.
+     *
+     * @param elements the bitmask of the elements of the players
+     * @return whether the players could be part of a match
+     */
+    boolean accepts(int elements) {
+        if (this.fillerMask == ANY || (elements & this.fillerMask) != 0) {
+            return true;
+        }
+
+        for (int element = 0; element < ELEMENT_COUNT; element++) {
+            if ((elements & (1 << element)) != 0 && this.capacity[element] > 0) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * Picks the players of a match from the given candidates.
+     *
+     * @param candidates the candidates, in the order they queued in
+     * @return the players of the match, or null if no match can be made
+     */
+    @Nullable
+    List<MatchmakingEngine.Candidate> select(Iterator<MatchmakingEngine.Candidate> candidates) {
+        List<MatchmakingEngine.Candidate> selected = new ArrayList<>();
+        List<MatchmakingEngine.Candidate> skipped = new ArrayList<>();
+
+        Assignment assignment = new Assignment(this.capacity, this.required);
+        while (assignment.size() < this.required && candidates.hasNext()) {
+            MatchmakingEngine.Candidate candidate = candidates.next();
+            if (assignment.add(candidate)) {
+                selected.add(candidate);
+            } else {
+                skipped.add(candidate);
+            }
+        }
+
+        if (assignment.size() < this.required) {
+            return null;
+        }
+
+        // Fill up the match with the players who waited the longest
+        if (this.fillerMask != 0) {
+            Iterator<MatchmakingEngine.Candidate> fillers = skipped.iterator();
+            while (selected.size() < this.maxPlayers) {
+                MatchmakingEngine.Candidate candidate;
+                if (fillers.hasNext()) {
+                    candidate = fillers.next();
+                } else if (candidates.hasNext()) {
+                    candidate = candidates.next();
+                } else {
+                    break;
+                }
+
+                if (this.fillerMask == ANY || (candidate.elements() & this.fillerMask) != 0) {
+                    selected.add(candidate);
+                }
+            }
+        }
+
+        if (selected.size() < this.minPlayers) {
+            return null;
+        }
+
+        if (this.teamSize > 0) {
+            return assignment.splitTeams(this.teamSize, this.teamLimits);
+        }
+
+        selected.sort(Comparator.comparingLong(MatchmakingEngine.Candidate::sequence));
+        return selected;
+    }
+
+    static int mask(Iterable<Elements> elements) {
+        int mask = 0;
+        for (Elements element : elements) {
+            mask |= bit(element);
+        }
+
+        return mask;
+    }
+
+    private static int bit(Elements element) {
+        return 1 << element.ordinal();
+    }
+
+    /**
+     * Players assigned to element slots. A player is only added if it can be
+     * given a slot, possibly by moving players who were added earlier to a
+     * slot of another one of their elements.
+     */
+    private static final class Assignment {
+        private final int[] capacity;
+        private final int[] load = new int[ELEMENT_COUNT];
+        private final MatchmakingEngine.Candidate[] players;
+        private final int[] assigned;
+        private int size;
+
+        Assignment(int[] capacity, int maxSize) {
+            this.capacity = capacity;
+            this.players = new MatchmakingEngine.Candidate[maxSize];
+            this.assigned = new int[maxSize];
+        }
+
+        int size() {
+            return this.size;
+        }
+
+        boolean add(MatchmakingEngine.Candidate candidate) {
+            if (this.size == this.players.length) {
+                return false;
+            }
+
+            this.players[this.size] = candidate;
+            if (!this.augment(this.size, new int[] { 0 })) {
+                this.players[this.size] = null;
+                return false;
+            }
+
+            this.size++;
+            return true;
+        }
+
+        // Every element is visited at most once, so this is bounded by
+        // the number of elements times the number of assigned players
+        private boolean augment(int index, int[] visited) {
+            int elements = this.players[index].elements();
+            for (int element = 0; element < ELEMENT_COUNT; element++) {
+                int bit = 1 << element;
+                if ((elements & bit) == 0 || (visited[0] & bit) != 0 || this.capacity[element] == 0) {
+                    continue;
+                }
+
+                visited[0] |= bit;
+                if (this.load[element] < this.capacity[element]) {
+                    this.assign(index, element);
+                    return true;
+                }
+
+                for (int other = 0; other < this.size; other++) {
+                    if (other != index && this.assigned[other] == element && this.augment(other, visited)) {
+                        this.load[element]--;
+                        this.assign(index, element);
+                        return true;
+                    }
+                }
+            }
+
+            return false;
+        }
+
+        private void assign(int index, int element) {
+            this.assigned[index] = element;
+            this.load[element]++;
+        }
+
+        List<MatchmakingEngine.Candidate> splitTeams(int teamSize, int[] limits) {
+            // Players of each element which go to the first team. At least the players
+            // over the limit of the second team have to, and then any up to the team size.
+            int[] firstTeam = new int[ELEMENT_COUNT];
+            int remaining = teamSize;
+            for (int element = 0; element < ELEMENT_COUNT; element++) {
+                firstTeam[element] = Math.max(0, this.load[element] - limits[element]);
+                remaining -= firstTeam[element];
+            }
+
+            for (int element = 0; element < ELEMENT_COUNT && remaining > 0; element++) {
+                int extra = Math.min(remaining, Math.min(this.load[element], limits[element]) - firstTeam[element]);
+                firstTeam[element] += extra;
+                remaining -= extra;
+            }
+
+            List<MatchmakingEngine.Candidate> teamOne = new ArrayList<>(teamSize);
+            List<MatchmakingEngine.Candidate> teamTwo = new ArrayList<>(teamSize);
+            for (int i = 0; i < this.size; i++) {
+                int element = this.assigned[i];
+                if (firstTeam[element] > 0) {
+                    firstTeam[element]--;
+                    teamOne.add(this.players[i]);
+                } else {
+                    teamTwo.add(this.players[i]);
+                }
+            }
+
+            List<MatchmakingEngine.Candidate> teams = new ArrayList<>(teamSize * 2);
+            teams.addAll(teamOne);
+            teams.addAll(teamTwo);
+            return teams;
+        }
+    }
+}
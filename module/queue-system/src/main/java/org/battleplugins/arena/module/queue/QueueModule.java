@@ -1,12 +1,9 @@
 package org.battleplugins.arena.module.queue;
 
-import com.google.gson.JsonArray;
-import com.google.gson.JsonObject;
 import org.battleplugins.arena.Arena;
 import org.battleplugins.arena.BattleArena;
 import org.battleplugins.arena.competition.map.ElementMatchup;
 import org.battleplugins.arena.competition.map.LiveCompetitionMap;
-import org.battleplugins.arena.competition.map.options.Spawns;
 import org.battleplugins.arena.event.BattleArenaPostInitializeEvent;
 import org.battleplugins.arena.event.BattleArenaReloadedEvent;
 import org.battleplugins.arena.event.arena.ArenaCreateExecutorEvent;
@@ -14,8 +11,10 @@ import org.battleplugins.arena.module.ArenaModule;
 import org.battleplugins.arena.module.ArenaModuleInitializer;
 import org.battleplugins.arena.options.Teams;
 import org.battleplugins.arena.proxy.Elements;
+import org.battleplugins.arena.proxy.ProxyDestination;
 import org.battleplugins.arena.proxy.ProxyQueueJoinEvent;
 import org.battleplugins.arena.proxy.SerializedPlayer;
+import org.battleplugins.arena.proxy.message.ProxyMessage;
 import org.battleplugins.arena.queue.QueueService;
 import org.battleplugins.arena.util.IntRange;
 import org.bukkit.Bukkit;
@@ -29,6 +28,9 @@ import org.slf4j.LoggerFactory;
 import java.time.Duration;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
  * A module that adds a proxy-wide queue system for arenas.
@@ -41,16 +43,25 @@ import java.util.concurrent.ConcurrentHashMap;
 public class QueueModule implements ArenaModuleInitializer, QueueService {
     public static final String ID = "queue-system";
 
-    // arenaName -> originServer -> queued players
-    private static final Map<String, Map<String, Deque<SerializedPlayer>>> QUEUES = new ConcurrentHashMap<>();
+    // The queue system cannot depend on the ranked module, so it is referenced by ID
+    private static final String RANKED_MODULE_ID = "ranked";
+
+    private static final MatchmakingEngine ENGINE = new MatchmakingEngine();
     private static final Logger log = LoggerFactory.getLogger(QueueModule.class);
     // Local queued tracker per backend for /<arena> queue toggling
     private final Set<UUID> localQueued = ConcurrentHashMap.newKeySet();
     private final Map<UUID, Long> queueStartTimes = new ConcurrentHashMap<>();
-    private record QueuedEntry(String origin, SerializedPlayer player) {}
-    private record MatchSelection(LiveCompetitionMap map, List<QueuedEntry> players) {}
 
-    private record Slot(Elements requiredElement) { }
+    // Compiled matchups of each map, only accessed from the main thread
+    private final Map<LiveCompetitionMap, CompiledMap> compiledMaps = new WeakHashMap<>();
+    private final ExecutorService matchmaker = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "BattleArena-Matchmaking");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final AtomicBoolean matchmaking = new AtomicBoolean();
+
+    private record CompiledMap(List<ElementMatchup> matchups, int minPlayers, int maxPlayers, MatchmakingEngine.MapPlans plans) {}
 
     private static BukkitTask scannerTask;
 
@@ -65,25 +76,7 @@ public class QueueModule implements ArenaModuleInitializer, QueueService {
      * @return true if the player was added to the queue, false if removed
      */
     public static boolean toggleQueue(String arenaName, String origin, SerializedPlayer player) {
-        String arenaKey = arenaName.toLowerCase(Locale.ROOT);
-        String originKey = origin == null ? "" : origin;
-
-        Map<String, Deque<SerializedPlayer>> byOrigin = QUEUES.computeIfAbsent(arenaKey, k -> new ConcurrentHashMap<>());
-        Deque<SerializedPlayer> queue = byOrigin.computeIfAbsent(originKey, k -> new ArrayDeque<>());
-
-        // Toggle entry for this UUID.
-        synchronized (queue) {
-            Iterator<SerializedPlayer> iterator = queue.iterator();
-            while (iterator.hasNext()) {
-                if (iterator.next().getUuid().equals(player.getUuid())) {
-                    iterator.remove();
-                    return false;
-                }
-            }
-
-            queue.addLast(player);
-            return true;
-        }
+        return ENGINE.toggle(arenaName, origin == null ? "" : origin, player, true) != null;
     }
 
     /**
@@ -92,13 +85,7 @@ public class QueueModule implements ArenaModuleInitializer, QueueService {
      * @param uuid the player UUID (string form) to remove
      */
     public static void removeFromQueues(String uuid) {
-        for (Map<String, Deque<SerializedPlayer>> byOrigin : QUEUES.values()) {
-            for (Deque<SerializedPlayer> queue : byOrigin.values()) {
-                synchronized (queue) {
-                    queue.removeIf(p -> p.getUuid().equals(uuid));
-                }
-            }
-        }
+        ENGINE.remove(uuid);
     }
 
     @EventHandler
@@ -128,7 +115,45 @@ public class QueueModule implements ArenaModuleInitializer, QueueService {
             return;
         }
 
-        toggleQueue(event.getArena().getName(), event.getOriginServer(), event.getPlayer());
+        Arena arena = event.getArena();
+        BattleArena plugin = BattleArena.getInstance();
+        org.battleplugins.arena.ranked.RankedApi rankedApi = plugin == null ? null : plugin.getRankedApi();
+        if (rankedApi == null || !arena.isModuleEnabled(RANKED_MODULE_ID)) {
+            toggleQueue(arena.getName(), event.getOriginServer(), event.getPlayer());
+            return;
+        }
+
+        String origin = event.getOriginServer();
+        MatchmakingEngine.Candidate candidate = ENGINE.toggle(arena.getName(), origin == null ? "" : origin, event.getPlayer(), false);
+        if (candidate == null) {
+            return;
+        }
+
+        // The rating is looked up once when joining, as it requires a round trip to Redis
+        Bukkit.getScheduler().runTaskAsynchronously(plugin, () -> ENGINE.rate(arena.getName(), candidate, rating(rankedApi, candidate.player())));
+    }
+
+    private static double rating(org.battleplugins.arena.ranked.RankedApi rankedApi, SerializedPlayer player) {
+        try {
+            UUID playerId = UUID.fromString(player.getUuid());
+
+            // ELO is tracked per element, so rate the player by the elements they queued with
+            Map<Elements, Double> elo = rankedApi.getAllElo(playerId);
+            double total = 0;
+            int rated = 0;
+            for (Elements element : player.getElements()) {
+                Double value = elo.get(element);
+                if (value != null) {
+                    total += value;
+                    rated++;
+                }
+            }
+
+            return rated == 0 ? rankedApi.getAverageElo(playerId) : total / rated;
+        } catch (Exception e) {
+            log.warn("Failed to look up the rating of queued player {}", player.getUuid(), e);
+            return Double.NaN;
+        }
     }
 
     @EventHandler
@@ -153,16 +178,7 @@ public class QueueModule implements ArenaModuleInitializer, QueueService {
             removeFromQueues(uuid);
         } else if (plugin.getConnector() != null) {
             // Notify the proxy host so it can clear this player from any queues.
-            JsonObject payload = new JsonObject();
-            payload.addProperty("type", "queue_leave");
-            payload.addProperty("uuid", uuid);
-
-            String origin = plugin.getMainConfig().getProxyServerName();
-            if (origin != null && !origin.isEmpty()) {
-                payload.addProperty("origin", origin);
-            }
-
-            plugin.getConnector().sendToRouter(payload.toString());
+            plugin.getConnector().sendToRouter(new ProxyMessage.QueueLeave(playerId, plugin.getMainConfig().getProxyServerName()), ProxyDestination.host());
         }
     }
 
@@ -181,536 +197,155 @@ public class QueueModule implements ArenaModuleInitializer, QueueService {
             return;
         }
 
-        for (Map.Entry<String, Map<String, Deque<SerializedPlayer>>> arenaEntry : QUEUES.entrySet()) {
-            String arenaName = arenaEntry.getKey();
+        // Wait for the previous pass if it is still running
+        if (!this.matchmaking.compareAndSet(false, true)) {
+            return;
+        }
+
+        // Maps are compiled on the main thread, as the maps of an arena may change
+        Map<Arena, List<MatchmakingEngine.MapPlans>> arenas = new HashMap<>();
+        for (String arenaName : ENGINE.getArenaNames()) {
             Arena arena = plugin.getArena(arenaName);
             if (arena == null) {
                 continue;
             }
 
-            // Derive match size constraints from the arena's team configuration and map spawns.
-            Teams teams = arena.getTeams();
-            IntRange teamSize = teams.getTeamSize();
-            IntRange teamAmount = teams.getTeamAmount();
-
-            int minPlayers = Math.max(1, teamSize.getMin() * teamAmount.getMin());
-            int minPlayersPerTeam = Math.max(1, teamSize.getMin());
-            int maxPlayersBase;
-            if (teamSize.getMax() == Integer.MAX_VALUE || teamAmount.getMax() == Integer.MAX_VALUE) {
-                maxPlayersBase = Integer.MAX_VALUE;
-            } else {
-                maxPlayersBase = teamSize.getMax() * teamAmount.getMax();
-            }
-
-            // Prefer proxy/remote maps for queued games.
-            List<LiveCompetitionMap> remoteMaps = new ArrayList<>(plugin.getMaps(arena)
-                    .stream()
-                    .filter(LiveCompetitionMap::isRemote)
-                    .toList());
-
-            if (remoteMaps.isEmpty()) {
-                continue;
-            }
-
-            // Shuffle maps so that selection order is randomized.
-            Collections.shuffle(remoteMaps);
-
-            Map<String, Deque<SerializedPlayer>> byOrigin = arenaEntry.getValue();
-            while (true) {
-                int queuedPlayers = totalQueuedPlayers(byOrigin);
-                if (queuedPlayers < minPlayers) {
-                    break;
-                }
-
-                int count = Math.min(maxPlayersBase, queuedPlayers);
-                List<QueuedEntry> batch = takePlayerBatch(byOrigin, count);
-                if (batch.size() < minPlayers) {
-                    requeueEntries(byOrigin, batch);
-                    break;
-                }
-
-                // Choose a map for this batch based on matchups and shuffle order.
-                MatchSelection selection = selectMapForBatch(remoteMaps, batch, minPlayersPerTeam);
-                if (selection == null) {
-                    // No map exists whose matchups fit all players in this batch; requeue
-                    // them at the front and wait for a better combination.
-                    requeueEntries(byOrigin, batch);
-                    break;
-                }
-
-                LiveCompetitionMap map = selection.map();
-                List<QueuedEntry> selectedPlayers = selection.players();
-                if (selectedPlayers.isEmpty()) {
-                    requeueEntries(byOrigin, batch);
-                    break;
-                }
-
-                if (selectedPlayers.size() < batch.size()) {
-                    List<QueuedEntry> leftovers = new ArrayList<>(batch);
-                    leftovers.removeAll(selectedPlayers);
-                    requeueEntries(byOrigin, leftovers);
-                }
-
-                // Adjust maxPlayers by spawn count for the selected map.
-                int maxPlayers = maxPlayersBase;
-                Spawns spawns = map.getSpawns();
-                if (spawns != null && spawns.getSpawnPointCount() > 0 && maxPlayers != Integer.MAX_VALUE) {
-                    maxPlayers = Math.min(maxPlayers, spawns.getSpawnPointCount());
-                }
-
-                if (map.getType() == org.battleplugins.arena.competition.map.MapType.DYNAMIC) {
-                    // Prepare the dynamic competition on the proxy host *before*
-                    // signalling to non-host servers to move players.
-                    map.createDynamicCompetitionAsync(arena).whenComplete((competition, ex) -> {
-                        if (ex != null || competition == null) {
-                            plugin.warn("Failed to prepare dynamic competition for queued match in arena {} map {}.", arena.getName(), map.getName());
-                            // In case of failure, requeue the players at the front so they can try again later.
-                            requeueEntries(byOrigin, selectedPlayers);
-                            return;
-                        }
-
-                        sendQueueMatch(plugin, arena, competition.getMap().getName(), selectedPlayers);
-                    });
-                } else {
-                    // Static remote map: already present on the host; just use the queue_match
-                    // pipeline so non-host servers move players only when signalled.
-                    sendQueueMatch(plugin, arena, map.getName(), selectedPlayers);
-                }
-            }
-        }
-    }
-
-    private MatchSelection selectMapForBatch(List<LiveCompetitionMap> maps, List<QueuedEntry> batch, int minPlayersPerTeam) {
-        for (LiveCompetitionMap map : maps) {
-            List<ElementMatchup> matchups = map.getMatchups();
-            if (matchups.isEmpty()) {
-                BattleArena.getInstance().getLogger().info("Map has no element restrictions; allowing the full batch through");
-                // Map has no element restrictions; allow the full batch through.
-                return new MatchSelection(map, new ArrayList<>(batch));
-            }
-
-            for (ElementMatchup matchup : matchups) {
-                List<QueuedEntry> selection = allocatePlayersForMatchup(matchup, batch, minPlayersPerTeam);
-                if (selection != null) {
-                    return new MatchSelection(map, selection);
-                }
+            List<MatchmakingEngine.MapPlans> maps = this.compileMaps(plugin, arena);
+            if (!maps.isEmpty()) {
+                arenas.put(arena, maps);
             }
         }
 
-        // No map found where all players fit the matchups
-        return null;
-    }
-
-    private List<QueuedEntry> allocatePlayersForMatchup(ElementMatchup matchup,
-                                                        List<QueuedEntry> batch,
-                                                        int minPlayersPerTeam) {
-        if (matchup.isConstraint()) {
-            return allocateConstraintMatchup(matchup, batch);
-        }
-        if (matchup.isComposition()) {
-            return allocateCompositionMatchup(matchup, batch);
-        }
-        return allocateLegacyMatchup(matchup, batch, minPlayersPerTeam);
-    }
-
-    private List<QueuedEntry> allocateLegacyMatchup(ElementMatchup matchup,
-                                                    List<QueuedEntry> batch,
-                                                    int minPlayersPerTeam) {
-        Elements leftElement = matchup.leftElements().get(0);
-        Elements rightElement = matchup.rightElements().get(0);
-
-        int leftCount = 0;
-        int rightCount = 0;
-        int flexible = 0;
-        int required = Math.max(1, minPlayersPerTeam);
-
-        for (QueuedEntry queued : batch) {
-            SerializedPlayer sp = queued.player();
-            if (sp.getElements().isEmpty()) {
-                return null;
-            }
-
-            boolean matchesLeft = sp.getElements().contains(leftElement);
-            boolean matchesRight = sp.getElements().contains(rightElement);
-
-            if (!matchesLeft && !matchesRight) {
-                return null;
-            }
-
-            if (matchesLeft && matchesRight) {
-                flexible++;
-            } else if (matchesLeft) {
-                leftCount++;
-            } else if (matchesRight) {
-                rightCount++;
-            }
-        }
-
-        int leftShortfall = Math.max(0, required - leftCount);
-        int rightShortfall = Math.max(0, required - rightCount);
-        int totalFlexibleNeeded = leftShortfall + rightShortfall;
-        if (flexible < totalFlexibleNeeded) {
-            return null;
-        }
-
-        if ((leftCount + flexible) >= required && (rightCount + flexible) >= required) {
-            return new ArrayList<>(batch);
-        }
-
-        return null;
-    }
-
-    private List<QueuedEntry> allocateCompositionMatchup(ElementMatchup matchup,
-                                                         List<QueuedEntry> batch) {
-        List<Elements> leftSlots = matchup.leftElements();
-        List<Elements> rightSlots = matchup.rightElements();
-        if (leftSlots.size() != rightSlots.size()) {
-            log.warn("Ignoring matchup {} due to uneven sides ({} vs {})", matchup, leftSlots.size(), rightSlots.size());
-            return null;
-        }
-
-        int totalSlots = leftSlots.size() + rightSlots.size();
-        if (totalSlots > batch.size()) {
-            return null;
-        }
-
-        List<Slot> slots = new ArrayList<>(totalSlots);
-        for (Elements element : leftSlots) {
-            slots.add(new Slot(element));
-        }
-        for (Elements element : rightSlots) {
-            slots.add(new Slot(element));
-        }
-
-        slots.sort(Comparator.comparingInt(slot -> countEligiblePlayersForSlot(slot, batch)));
-
-        Map<Integer, QueuedEntry> assignment = new HashMap<>();
-        Set<QueuedEntry> used = new HashSet<>();
-        if (!assignSlot(0, slots, batch, assignment, used)) {
-            return null;
-        }
-
-        Set<QueuedEntry> selected = new HashSet<>(assignment.values());
-        List<QueuedEntry> ordered = new ArrayList<>();
-        for (QueuedEntry entry : batch) {
-            if (selected.contains(entry)) {
-                ordered.add(entry);
-            }
-        }
-        return ordered;
-    }
-
-    private List<QueuedEntry> allocateConstraintMatchup(ElementMatchup matchup,
-                                                        List<QueuedEntry> batch) {
-        int teamSize = matchup.constraintTeamSize();
-        if (teamSize <= 0) {
-            return null;
-        }
-
-        int requiredPlayers = teamSize * 2;
-        if (batch.size() < requiredPlayers) {
-            return null;
-        }
-
-        Map<Elements, Integer> limits = normalizeConstraintLimits(matchup.constraintMaxPerElement(), teamSize);
-        List<QueuedEntry> candidates = new ArrayList<>(batch);
-        candidates.sort(Comparator.comparingInt(entry -> entry.player().getElements().size()));
-
-        List<QueuedEntry> selected = new ArrayList<>(requiredPlayers);
-        if (buildConstraintTeams(candidates, teamSize, limits, selected)) {
-            return selected;
+        if (arenas.isEmpty()) {
+            this.matchmaking.set(false);
+            return;
         }
 
-        return null;
-    }
-
-    private Map<Elements, Integer> normalizeConstraintLimits(Map<Elements, Integer> raw, int teamSize) {
-        EnumMap<Elements, Integer> limits = new EnumMap<>(Elements.class);
-        if (raw != null) {
-            for (Map.Entry<Elements, Integer> entry : raw.entrySet()) {
-                if (entry.getKey() == null || entry.getValue() == null) {
-                    continue;
+        this.matchmaker.execute(() -> {
+            try {
+                List<MatchmakingEngine.Match> matches = new ArrayList<>();
+                for (Map.Entry<Arena, List<MatchmakingEngine.MapPlans>> entry : arenas.entrySet()) {
+                    matches.addAll(ENGINE.findMatches(entry.getKey(), entry.getValue()));
                 }
 
-                int limit = Math.max(0, Math.min(teamSize, entry.getValue()));
-                if (limit == 0) {
-                    continue;
+                if (!matches.isEmpty()) {
+                    Bukkit.getScheduler().runTask(plugin, () -> matches.forEach(match -> this.startMatch(plugin, match)));
                 }
-                limits.put(entry.getKey(), limit);
+            } catch (Throwable e) {
+                log.error("Failed to match queued players", e);
+            } finally {
+                this.matchmaking.set(false);
             }
-        }
-        return limits;
+        });
     }
 
-    private boolean buildConstraintTeams(List<QueuedEntry> candidates,
-                                         int teamSize,
-                                         Map<Elements, Integer> limits,
-                                         List<QueuedEntry> selection) {
-        Set<QueuedEntry> used = new HashSet<>();
-        List<QueuedEntry> teamOne = new ArrayList<>(teamSize);
-        Map<Elements, Integer> teamOneCounts = new EnumMap<>(Elements.class);
-        return fillFirstTeam(candidates, teamSize, limits, selection, used, teamOne, teamOneCounts);
-    }
+    private List<MatchmakingEngine.MapPlans> compileMaps(BattleArena plugin, Arena arena) {
+        // Derive match size constraints from the arena's team configuration.
+        Teams teams = arena.getTeams();
+        IntRange teamSize = teams.getTeamSize();
+        IntRange teamAmount = teams.getTeamAmount();
 
-    private boolean fillFirstTeam(List<QueuedEntry> candidates,
-                                  int teamSize,
-                                  Map<Elements, Integer> limits,
-                                  List<QueuedEntry> selection,
-                                  Set<QueuedEntry> used,
-                                  List<QueuedEntry> currentTeam,
-                                  Map<Elements, Integer> counts) {
-        if (currentTeam.size() == teamSize) {
-            List<QueuedEntry> teamTwo = new ArrayList<>(teamSize);
-            Map<Elements, Integer> teamTwoCounts = new EnumMap<>(Elements.class);
-            if (fillTeam(candidates, teamSize, limits, teamTwo, used, teamTwoCounts)) {
-                selection.addAll(currentTeam);
-                selection.addAll(teamTwo);
-                return true;
-            }
-            return false;
+        int minPlayers = Math.max(1, teamSize.getMin() * teamAmount.getMin());
+        int minPlayersPerTeam = Math.max(1, teamSize.getMin());
+        int maxPlayers;
+        if (teamSize.getMax() == Integer.MAX_VALUE || teamAmount.getMax() == Integer.MAX_VALUE) {
+            maxPlayers = Integer.MAX_VALUE;
+        } else {
+            maxPlayers = teamSize.getMax() * teamAmount.getMax();
         }
 
-        for (QueuedEntry entry : candidates) {
-            if (used.contains(entry)) {
+        // Prefer proxy/remote maps for queued games.
+        List<MatchmakingEngine.MapPlans> maps = new ArrayList<>();
+        for (LiveCompetitionMap map : plugin.getMaps(arena)) {
+            if (!map.isRemote()) {
                 continue;
             }
-            SerializedPlayer player = entry.player();
-            if (player.getElements().isEmpty()) {
-                continue;
-            }
-
-            for (Elements element : player.getElements()) {
-                if (!canUseElement(element, teamSize, limits, counts)) {
-                    continue;
-                }
-
-                used.add(entry);
-                currentTeam.add(entry);
-                incrementElementCount(counts, element);
 
-                if (fillFirstTeam(candidates, teamSize, limits, selection, used, currentTeam, counts)) {
-                    return true;
-                }
+            List<ElementMatchup> matchups = map.getMatchups();
+            CompiledMap compiled = this.compiledMaps.get(map);
+            if (compiled == null || compiled.minPlayers() != minPlayers || compiled.maxPlayers() != maxPlayers || !compiled.matchups().equals(matchups)) {
+                compiled = new CompiledMap(matchups, minPlayers, maxPlayers, new MatchmakingEngine.MapPlans(map, compileMatchups(map, matchups, minPlayers, maxPlayers, minPlayersPerTeam)));
+                this.compiledMaps.put(map, compiled);
+            }
 
-                decrementElementCount(counts, element);
-                currentTeam.remove(currentTeam.size() - 1);
-                used.remove(entry);
+            if (!compiled.plans().plans().isEmpty()) {
+                maps.add(compiled.plans());
             }
         }
 
-        return false;
+        return maps;
     }
 
-    private boolean fillTeam(List<QueuedEntry> candidates,
-                             int teamSize,
-                             Map<Elements, Integer> limits,
-                             List<QueuedEntry> team,
-                             Set<QueuedEntry> used,
-                             Map<Elements, Integer> counts) {
-        if (team.size() == teamSize) {
-            return true;
+    private static List<MatchupPlan> compileMatchups(LiveCompetitionMap map,
+                                                     List<ElementMatchup> matchups,
+                                                     int minPlayers,
+                                                     int maxPlayers,
+                                                     int minPlayersPerTeam) {
+        if (matchups.isEmpty()) {
+            // Map has no element restrictions; allow anyone through.
+            return List.of(MatchupPlan.open(minPlayers, maxPlayers));
         }
 
-        for (QueuedEntry entry : candidates) {
-            if (used.contains(entry)) {
-                continue;
-            }
-            SerializedPlayer player = entry.player();
-            if (player.getElements().isEmpty()) {
+        List<MatchupPlan> plans = new ArrayList<>(matchups.size());
+        for (ElementMatchup matchup : matchups) {
+            MatchupPlan plan = MatchupPlan.compile(matchup, minPlayers, maxPlayers, minPlayersPerTeam);
+            if (plan == null) {
+                log.warn("Ignoring matchup {} of map {} as it can never be filled.", matchup, map.getName());
                 continue;
             }
 
-            for (Elements element : player.getElements()) {
-                if (!canUseElement(element, teamSize, limits, counts)) {
-                    continue;
-                }
-
-                used.add(entry);
-                team.add(entry);
-                incrementElementCount(counts, element);
-
-                if (fillTeam(candidates, teamSize, limits, team, used, counts)) {
-                    return true;
-                }
-
-                decrementElementCount(counts, element);
-                team.remove(team.size() - 1);
-                used.remove(entry);
-            }
+            plans.add(plan);
         }
 
-        return false;
+        return plans;
     }
 
-    private boolean canUseElement(Elements element,
-                                  int teamSize,
-                                  Map<Elements, Integer> limits,
-                                  Map<Elements, Integer> counts) {
-        int limit = limits.getOrDefault(element, teamSize);
-        if (limit <= 0) {
-            return false;
-        }
-
-        return counts.getOrDefault(element, 0) < limit;
-    }
-
-    private void incrementElementCount(Map<Elements, Integer> counts, Elements element) {
-        counts.put(element, counts.getOrDefault(element, 0) + 1);
-    }
+    private void startMatch(BattleArena plugin, MatchmakingEngine.Match match) {
+        Arena arena = match.arena();
+        LiveCompetitionMap map = match.map();
+        if (map.getType() == org.battleplugins.arena.competition.map.MapType.DYNAMIC) {
+            // Prepare the dynamic competition on the proxy host *before*
+            // signalling to non-host servers to move players.
+            map.createDynamicCompetitionAsync(arena).whenComplete((competition, ex) -> {
+                if (ex != null || competition == null) {
+                    plugin.warn("Failed to prepare dynamic competition for queued match in arena {} map {}.", arena.getName(), map.getName());
+                    // In case of failure, requeue the players at their old position so they can try again later.
+                    ENGINE.requeue(match);
+                    return;
+                }
 
-    private void decrementElementCount(Map<Elements, Integer> counts, Elements element) {
-        int current = counts.getOrDefault(element, 0);
-        if (current <= 1) {
-            counts.remove(element);
+                ENGINE.complete(match);
+                sendQueueMatch(plugin, arena, competition.getMap().getName(), match.players());
+            });
         } else {
-            counts.put(element, current - 1);
+            // Static remote map: already present on the host; just use the queue_match
+            // pipeline so non-host servers move players only when signalled.
+            ENGINE.complete(match);
+            sendQueueMatch(plugin, arena, map.getName(), match.players());
         }
     }
 
-    private int countEligiblePlayersForSlot(Slot slot, List<QueuedEntry> batch) {
-        int count = 0;
-        for (QueuedEntry entry : batch) {
-            if (playerHasElement(entry.player(), slot.requiredElement)) {
-                count++;
-            }
-        }
-        return count;
-    }
-
-    private boolean assignSlot(int index,
-                               List<Slot> slots,
-                               List<QueuedEntry> batch,
-                               Map<Integer, QueuedEntry> assignment,
-                               Set<QueuedEntry> used) {
-        if (index >= slots.size()) {
-            return true;
-        }
-
-        Slot slot = slots.get(index);
-        for (QueuedEntry entry : batch) {
-            if (used.contains(entry)) {
-                continue;
-            }
-            if (!playerHasElement(entry.player(), slot.requiredElement)) {
-                continue;
-            }
-
-            used.add(entry);
-            assignment.put(index, entry);
-            if (assignSlot(index + 1, slots, batch, assignment, used)) {
-                return true;
-            }
-            used.remove(entry);
-            assignment.remove(index);
-        }
-
-        return false;
-    }
-
-    private boolean playerHasElement(SerializedPlayer player, Elements element) {
-        return player.getElements().contains(element);
-    }
-
     private void sendQueueMatch(BattleArena plugin,
                                 Arena arena,
                                 String mapName,
-                                List<QueuedEntry> batch) {
-        JsonObject payload = new JsonObject();
-        payload.addProperty("type", "queue_match");
-        payload.addProperty("arena", arena.getName());
-        payload.addProperty("map", mapName);
-        String sharedOrigin = sharedOrigin(batch);
-        if (!sharedOrigin.isEmpty()) {
-            payload.addProperty("origin", sharedOrigin);
+                                List<MatchmakingEngine.Candidate> batch) {
+        if (plugin.getConnector() == null) {
+            return;
         }
 
-        JsonArray playersArray = new JsonArray();
-        for (QueuedEntry queued : batch) {
+        List<SerializedPlayer> players = new ArrayList<>(batch.size());
+        for (MatchmakingEngine.Candidate queued : batch) {
             SerializedPlayer sp = queued.player();
-            JsonObject playerObject = new JsonObject();
-            playerObject.addProperty("uuid", sp.getUuid());
-            if (!queued.origin().isEmpty()) {
-                playerObject.addProperty("origin", queued.origin());
-            }
-
-            if (!sp.getElements().isEmpty()) {
-                JsonArray elementsArray = new JsonArray();
-                sp.getElements().forEach(element -> elementsArray.add(element.name()));
-                playerObject.add("elements", elementsArray);
-            }
-
-            if (!sp.getAbilities().isEmpty()) {
-                JsonObject abilitiesObject = new JsonObject();
-                sp.getAbilities().forEach((slot, ability) ->
-                        abilitiesObject.addProperty(String.valueOf(slot), ability));
-                playerObject.add("abilities", abilitiesObject);
-            }
-
-            playersArray.add(playerObject);
-        }
-
-        payload.add("players", playersArray);
-        plugin.getConnector().sendToRouter(payload.toString());
-    }
-
-    private int totalQueuedPlayers(Map<String, Deque<SerializedPlayer>> byOrigin) {
-        int total = 0;
-        for (Deque<SerializedPlayer> queue : byOrigin.values()) {
-            synchronized (queue) {
-                total += queue.size();
-            }
-        }
-        return total;
-    }
-
-    private List<QueuedEntry> takePlayerBatch(Map<String, Deque<SerializedPlayer>> byOrigin, int maxPlayers) {
-        List<QueuedEntry> batch = new ArrayList<>();
-        if (maxPlayers <= 0) {
-            return batch;
+            players.add(new SerializedPlayer(sp.getUuid(), sp.getElements(), sp.getAbilities(), queued.origin().isEmpty() ? null : queued.origin()));
         }
 
-        List<Map.Entry<String, Deque<SerializedPlayer>>> origins = new ArrayList<>(byOrigin.entrySet());
-        while (batch.size() < maxPlayers) {
-            boolean progressed = false;
-            for (Map.Entry<String, Deque<SerializedPlayer>> originEntry : origins) {
-                Deque<SerializedPlayer> queue = originEntry.getValue();
-                SerializedPlayer next = null;
-                synchronized (queue) {
-                    if (!queue.isEmpty()) {
-                        next = queue.removeFirst();
-                    }
-                }
-
-                if (next != null) {
-                    batch.add(new QueuedEntry(originEntry.getKey(), next));
-                    progressed = true;
-                    if (batch.size() >= maxPlayers) {
-                        break;
-                    }
-                }
-            }
-
-            if (!progressed) {
-                break;
-            }
-        }
-
-        return batch;
-    }
-
-    private void requeueEntries(Map<String, Deque<SerializedPlayer>> byOrigin, List<QueuedEntry> entries) {
-        for (int i = entries.size() - 1; i >= 0; i--) {
-            QueuedEntry entry = entries.get(i);
-            Deque<SerializedPlayer> queue = byOrigin.computeIfAbsent(entry.origin(), k -> new ArrayDeque<>());
-            synchronized (queue) {
-                queue.addFirst(entry.player());
-            }
-        }
+        String sharedOrigin = sharedOrigin(batch);
+        plugin.getConnector().sendQueueMatch(new ProxyMessage.QueueMatch(arena.getName(), mapName, false, sharedOrigin, players));
     }
 
-    private String sharedOrigin(List<QueuedEntry> entries) {
+    private String sharedOrigin(List<MatchmakingEngine.Candidate> entries) {
         String shared = null;
-        for (QueuedEntry entry : entries) {
+        for (MatchmakingEngine.Candidate entry : entries) {
             String origin = entry.origin();
             if (origin == null || origin.isEmpty()) {
                 return "";
@@ -779,16 +414,7 @@ public class QueueModule implements ArenaModuleInitializer, QueueService {
             return false;
         }
 
-        JsonObject payload = new JsonObject();
-        payload.addProperty("type", "queue_leave");
-        payload.addProperty("uuid", playerId.toString());
-
-        String origin = plugin.getMainConfig().getProxyServerName();
-        if (origin != null && !origin.isEmpty()) {
-            payload.addProperty("origin", origin);
-        }
-
-        plugin.getConnector().sendToRouter(payload.toString());
+        plugin.getConnector().sendToRouter(new ProxyMessage.QueueLeave(playerId, plugin.getMainConfig().getProxyServerName()), ProxyDestination.host());
         return true;
     }
 
@@ -1,7 +1,5 @@
 package org.battleplugins.arena.module.queue;
 
-import com.google.gson.JsonArray;
-import com.google.gson.JsonObject;
 import org.battleplugins.arena.Arena;
 import org.battleplugins.arena.BattleArena;
 import org.battleplugins.arena.command.ArenaCommand;
@@ -9,7 +7,9 @@ import org.battleplugins.arena.command.SubCommandExecutor;
 import org.battleplugins.arena.feature.party.Parties;
 import org.battleplugins.arena.feature.party.Party;
 import org.battleplugins.arena.messages.Messages;
+import org.battleplugins.arena.proxy.ProxyDestination;
 import org.battleplugins.arena.proxy.SerializedPlayer;
+import org.battleplugins.arena.proxy.message.ProxyMessage;
 import org.bukkit.entity.Player;
 
 import java.util.Locale;
@@ -71,45 +71,13 @@ public class QueueModulePerArenaExecutor implements SubCommandExecutor {
             Messages.ALREADY_IN_ARENA.send(player, "Cannot queue, already in arena.");
             return;
         } else if (plugin.getConnector() != null) {
-            JsonObject payload = new JsonObject();
-
             if (adding) {
                 // Joining the queue remotely
-                payload.addProperty("type", "queue_join");
-                payload.addProperty("arena", this.parentCommand);
-
-                if (!origin.isEmpty()) {
-                    payload.addProperty("origin", origin);
-                }
-
-                JsonObject playerObject = new JsonObject();
-                playerObject.addProperty("uuid", serialized.getUuid());
-
-                if (!serialized.getElements().isEmpty()) {
-                    JsonArray elementsArray = new JsonArray();
-                    serialized.getElements().forEach(element -> elementsArray.add(element.name()));
-                    playerObject.add("elements", elementsArray);
-                }
-
-                if (!serialized.getAbilities().isEmpty()) {
-                    JsonObject abilitiesObject = new JsonObject();
-                    serialized.getAbilities().forEach((slot, ability) ->
-                            abilitiesObject.addProperty(String.valueOf(slot), ability));
-                    playerObject.add("abilities", abilitiesObject);
-                }
-
-                payload.add("player", playerObject);
+                plugin.getConnector().sendToRouter(new ProxyMessage.QueueJoin(this.parentCommand, null, origin, serialized), ProxyDestination.host());
             } else {
                 // Leaving the queue remotely
-                payload.addProperty("type", "queue_leave");
-                payload.addProperty("uuid", serialized.getUuid());
-
-                if (!origin.isEmpty()) {
-                    payload.addProperty("origin", origin);
-                }
+                plugin.getConnector().sendToRouter(new ProxyMessage.QueueLeave(playerId, origin), ProxyDestination.host());
             }
-
-            plugin.getConnector().sendToRouter(payload.toString());
         }
 
         if (adding) {
@@ -0,0 +1,310 @@
+package org.battleplugins.arena.module.ranked;
+
+import org.battleplugins.arena.proxy.Elements;
+import org.bukkit.Bukkit;
+import org.bukkit.OfflinePlayer;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.HandlerList;
+import org.bukkit.event.Listener;
+import org.bukkit.event.player.PlayerJoinEvent;
+import org.bukkit.plugin.Plugin;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import redis.clients.jedis.JedisPubSub;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Local read-through cache for ranked data, used by the placeholders.
+ * <p>
+ * Reads never block on Redis. A cache miss returns nothing and schedules a
+ * load, while a stale entry is still served and refreshed in the background.
+ * Entries are invalidated when this server writes a player's ELO, and when any
+ * other server announces a change over the Redis invalidation channel.
+ */
+public class RankedCache implements Listener {
+    private static final Logger log = LoggerFactory.getLogger(RankedCache.class);
+    private static final String GLOBAL_LEADERBOARD = "global";
+    private static final long RESUBSCRIBE_DELAY_MILLIS = 5000;
+
+    private final Plugin plugin;
+    private final RankedRedisClient redis;
+    private final RankedConfig config;
+    private final long ttlMillis;
+    private final Map<UUID, Cached<RankedSnapshot>> players;
+    private final Map<String, Cached<List<String>>> leaderboards = new ConcurrentHashMap<>();
+    // Keys with a load in flight, and whether they were invalidated since the load started
+    private final Map<Object, Boolean> loading = new ConcurrentHashMap<>();
+    private final ExecutorService loader;
+
+    private volatile boolean running = true;
+    private JedisPubSub subscriber;
+    private Thread subscriberThread;
+
+    public RankedCache(Plugin plugin, RankedRedisClient redis, RankedConfig config) {
+        this.plugin = plugin;
+        this.redis = redis;
+        this.config = config;
+        this.ttlMillis = TimeUnit.SECONDS.toMillis(Math.max(1, config.getCacheTtlSeconds()));
+
+        int maxPlayers = Math.max(1, config.getCacheMaxPlayers());
+        this.players = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<UUID, Cached<RankedSnapshot>> eldest) {
+                return this.size() > maxPlayers;
+            }
+        });
+
+        AtomicInteger threadId = new AtomicInteger();
+        this.loader = Executors.newFixedThreadPool(2, runnable -> {
+            Thread thread = new Thread(runnable, "BattleArena Ranked Cache #" + threadId.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Starts listening for invalidations published by other servers.
+     */
+    public void start() {
+        this.subscriber = new JedisPubSub() {
+
+            @Override
+            public void onMessage(String channel, String message) {
+                List<UUID> playerIds = new ArrayList<>();
+                for (String id : message.split(",")) {
+                    try {
+                        playerIds.add(UUID.fromString(id));
+                    } catch (IllegalArgumentException ignored) {
+                    }
+                }
+
+                invalidateLocally(playerIds);
+            }
+        };
+
+        this.subscriberThread = new Thread(() -> {
+            while (running) {
+                try {
+                    redis.subscribeInvalidations(subscriber);
+                } catch (Exception e) {
+                    if (!running) {
+                        return;
+                    }
+
+                    log.warn("Lost ranked cache invalidation subscription, retrying in {}ms", RESUBSCRIBE_DELAY_MILLIS, e);
+                    try {
+                        Thread.sleep(RESUBSCRIBE_DELAY_MILLIS);
+                    } catch (InterruptedException ex) {
+                        return;
+                    }
+                }
+            }
+        }, "BattleArena Ranked Cache Subscriber");
+
+        this.subscriberThread.setDaemon(true);
+        this.subscriberThread.start();
+    }
+
+    /**
+     * Gets the cached snapshot for a player, scheduling a load if
+     * it is missing or stale.
+     *
+     * @param playerId the player
+     * @return the cached snapshot, or null if it has not been loaded yet
+     */
+    public RankedSnapshot getSnapshot(UUID playerId) {
+        Cached<RankedSnapshot> cached = players.get(playerId);
+        if (cached == null || cached.isStale()) {
+            refreshPlayer(playerId);
+        }
+
+        return cached == null ? null : cached.value();
+    }
+
+    /**
+     * Gets the name of the player at the given leaderboard position,
+     * scheduling a refresh of the leaderboard if it is missing or stale.
+     *
+     * @param element the element of the leaderboard, or null for the global leaderboard
+     * @param position the one-based leaderboard position
+     * @return the name of the player, or null if unknown or not loaded yet
+     */
+    public String getNameAtRank(Elements element, int position) {
+        if (position <= 0 || position > config.getLeaderboardCacheSize()) {
+            return null;
+        }
+
+        String key = element == null ? GLOBAL_LEADERBOARD : element.name();
+        Cached<List<String>> cached = leaderboards.get(key);
+        if (cached == null || cached.isStale()) {
+            refreshLeaderboard(key, element);
+        }
+
+        if (cached == null || position > cached.value().size()) {
+            return null;
+        }
+
+        return cached.value().get(position - 1);
+    }
+
+    /**
+     * Invalidates the given players on this server and announces
+     * the change to every other server.
+     * <p>
+     * This performs a Redis call, so must not be called from the main thread.
+     *
+     * @param playerIds the players whose ELO changed
+     */
+    public void invalidate(Collection<UUID> playerIds) {
+        invalidateLocally(playerIds);
+        try {
+            redis.publishInvalidation(playerIds);
+        } catch (Exception e) {
+            log.warn("Failed to publish ranked cache invalidation for {}", playerIds, e);
+        }
+    }
+
+    private void invalidateLocally(Collection<UUID> playerIds) {
+        for (UUID playerId : playerIds) {
+            loading.replace(playerId, true);
+            players.computeIfPresent(playerId, (id, cached) -> cached.expire());
+        }
+
+        // Any ELO change can shift the leaderboards
+        loading.replaceAll((key, invalidated) -> key instanceof String || invalidated);
+        leaderboards.replaceAll((key, cached) -> cached.expire());
+    }
+
+    @EventHandler
+    public void onJoin(PlayerJoinEvent event) {
+        // Warm the cache so placeholders resolve as soon as possible
+        refreshPlayer(event.getPlayer().getUniqueId());
+    }
+
+    private void refreshPlayer(UUID playerId) {
+        submit(playerId, () -> {
+            store(players, playerId, redis.loadSnapshot(playerId, config.getDefaultElo()));
+            return CompletableFuture.completedFuture(null);
+        });
+    }
+
+    private void refreshLeaderboard(String key, Elements element) {
+        submit(key, () -> {
+            List<UUID> playerIds = redis.getTopPlayers(element, config.getLeaderboardCacheSize());
+
+            // The Bukkit API is not thread safe, so names are looked up on the main thread
+            CompletableFuture<Void> future = new CompletableFuture<>();
+            Bukkit.getScheduler().runTask(plugin, () -> {
+                try {
+                    store(leaderboards, key, getNames(playerIds));
+                    future.complete(null);
+                } catch (RuntimeException e) {
+                    future.completeExceptionally(e);
+                }
+            });
+
+            return future;
+        });
+    }
+
+    private static List<String> getNames(List<UUID> playerIds) {
+        List<String> names = new ArrayList<>(playerIds.size());
+        for (UUID playerId : playerIds) {
+            OfflinePlayer player = Bukkit.getOfflinePlayer(playerId);
+            String name = player.getName();
+            names.add(name != null ? name : playerId.toString());
+        }
+
+        return List.copyOf(names);
+    }
+
+    private <K, T> void store(Map<K, Cached<T>> cache, K key, T value) {
+        cache.put(key, new Cached<>(value, expiry()));
+
+        // The value may have been read before a change which invalidated it, in
+        // which case it is only served until the next load instead of a full TTL
+        if (Boolean.TRUE.equals(loading.get(key))) {
+            cache.computeIfPresent(key, (k, cached) -> cached.expire());
+        }
+    }
+
+    private void submit(Object key, Supplier<CompletableFuture<?>> task) {
+        // Only one load per key may be in flight at a time, including
+        // any part of it which is finished on the main thread
+        if (!running || loading.putIfAbsent(key, false) != null) {
+            return;
+        }
+
+        try {
+            loader.execute(() -> {
+                CompletableFuture<?> completion;
+                try {
+                    completion = task.get();
+                } catch (Exception e) {
+                    completion = CompletableFuture.failedFuture(e);
+                }
+
+                completion.whenComplete((result, e) -> {
+                    if (e != null) {
+                        log.warn("Failed to refresh ranked cache entry {}", key, e);
+                    }
+
+                    loading.remove(key);
+                });
+            });
+        } catch (RejectedExecutionException e) {
+            loading.remove(key);
+        }
+    }
+
+    private long expiry() {
+        return System.currentTimeMillis() + ttlMillis;
+    }
+
+    public void shutdown() {
+        running = false;
+        HandlerList.unregisterAll(this);
+
+        if (subscriber != null) {
+            try {
+                subscriber.unsubscribe();
+            } catch (Exception ignored) {
+            }
+        }
+
+        if (subscriberThread != null) {
+            subscriberThread.interrupt();
+        }
+
+        loader.shutdownNow();
+        players.clear();
+        leaderboards.clear();
+    }
+
+    private record Cached<T>(T value, long expiresAt) {
+
+        boolean isStale() {
+            return System.currentTimeMillis() >= expiresAt;
+        }
+
+        Cached<T> expire() {
+            return new Cached<>(value, 0);
+        }
+    }
+}
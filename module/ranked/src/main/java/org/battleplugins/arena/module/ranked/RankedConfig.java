@@ -54,6 +54,15 @@ public class RankedConfig {
     @ArenaOption(name = "performance-k-multiplier", description = "Multiplier applied to the performance score to stretch/shrink K-factor influence.", required = true)
     private double performanceKMultiplier = 1.0;
 
+    @ArenaOption(name = "cache-ttl-seconds", description = "How long cached ELO, ranks and leaderboards are served before being refreshed in the background.")
+    private int cacheTtlSeconds = 30;
+
+    @ArenaOption(name = "cache-max-players", description = "Maximum number of players whose ELO and ranks are kept in the local cache.")
+    private int cacheMaxPlayers = 2000;
+
+    @ArenaOption(name = "leaderboard-cache-size", description = "Maximum leaderboard position served by the leaderboard placeholders.")
+    private int leaderboardCacheSize = 100;
+
     public double getDefaultElo() {
         return defaultElo;
     }
@@ -109,4 +118,16 @@ public class RankedConfig {
     public double getPerformanceKMultiplier() {
         return performanceKMultiplier;
     }
+
+    public int getCacheTtlSeconds() {
+        return cacheTtlSeconds;
+    }
+
+    public int getCacheMaxPlayers() {
+        return cacheMaxPlayers;
+    }
+
+    public int getLeaderboardCacheSize() {
+        return leaderboardCacheSize;
+    }
 }
@@ -159,7 +159,8 @@ public class RankedMatchListener implements Listener {
                         loserElement,
                         winnerFactors.winnerDamageGiven(),
                         loserFactors.winnerDamageGiven());
-                service.updateAfterMatch(winnerId, loserId, winnerElement, loserElement, winnerFactors, loserFactors);
+                service.updateAfterMatch(winnerId, loserId, winnerElement, loserElement, winnerFactors, loserFactors)
+                        .whenComplete((update, error) -> logUpdate(winnerId, loserId, update, error));
             }
         }
 
@@ -292,7 +293,8 @@ public class RankedMatchListener implements Listener {
                             firstElement,
                             secondPlayer.getName(),
                             secondElement);
-                    service.updateAfterDraw(firstId, secondId, firstElement, secondElement, firstFactors, secondFactors);
+                    service.updateAfterDraw(firstId, secondId, firstElement, secondElement, firstFactors, secondFactors)
+                            .whenComplete((update, error) -> logUpdate(firstId, secondId, update, error));
                 }
             }
 
@@ -359,6 +361,17 @@ public class RankedMatchListener implements Listener {
         return Collections.emptyMap();
     }
 
+    private void logUpdate(UUID firstId, UUID secondId, RankedEloUpdate update, Throwable error) {
+        if (error != null) {
+            log.warn("Failed to update ranked ELO for {} and {}", firstId, secondId, error);
+            return;
+        }
+
+        debug("Applied ranked update for {} ({} -> {}) and {} ({} -> {})",
+                firstId, update.winnerOld(), update.winnerNew(),
+                secondId, update.loserOld(), update.loserNew());
+    }
+
     private String describeCompetition(Competition<?> competition) {
         if (competition == null) {
             return "unknown";
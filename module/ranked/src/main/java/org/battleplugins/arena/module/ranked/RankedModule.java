@@ -30,6 +30,7 @@ public class RankedModule implements ArenaModuleInitializer {
 
     private RankedConfig config;
     private RankedRedisClient redisClient;
+    private RankedCache cache;
     private RankedService rankedService;
     private RankedPlaceholderExpansion placeholders;
     private RankedMatchListener matchListener;
@@ -88,7 +89,8 @@ public class RankedModule implements ArenaModuleInitializer {
 
         try {
             this.redisClient = new RankedRedisClient(plugin, this.config);
-            this.rankedService = new RankedService(this.redisClient, this.config);
+            this.cache = new RankedCache(plugin, this.redisClient, this.config);
+            this.rankedService = new RankedService(this.redisClient, this.cache, this.config);
             plugin.setRankedApi(new RankedApiAdapter(this.rankedService));
         } catch (Exception e) {
             plugin.error("Failed to start ranked Redis client.", e);
@@ -114,6 +116,15 @@ public class RankedModule implements ArenaModuleInitializer {
             this.matchListener = null;
         }
 
+        if (this.rankedService != null) {
+            this.rankedService.shutdown();
+        }
+
+        if (this.cache != null) {
+            this.cache.shutdown();
+            this.cache = null;
+        }
+
         if (this.redisClient != null) {
             this.redisClient.close();
             this.redisClient = null;
@@ -133,7 +144,7 @@ public class RankedModule implements ArenaModuleInitializer {
             return;
         }
 
-        this.placeholders = new RankedPlaceholderExpansion(this.rankedService);
+        this.placeholders = new RankedPlaceholderExpansion(this.rankedService.getCache(), this.config);
         this.placeholders.register();
     }
 
@@ -144,6 +155,9 @@ public class RankedModule implements ArenaModuleInitializer {
 
         this.matchListener = new RankedMatchListener(plugin, this.rankedService);
         org.bukkit.Bukkit.getPluginManager().registerEvents(this.matchListener, plugin);
+
+        this.cache.start();
+        org.bukkit.Bukkit.getPluginManager().registerEvents(this.cache, plugin);
     }
 
     public RankedService getRankedService() {
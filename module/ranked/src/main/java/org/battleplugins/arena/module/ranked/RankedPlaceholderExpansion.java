@@ -2,8 +2,6 @@ package org.battleplugins.arena.module.ranked;
 
 import me.clip.placeholderapi.expansion.PlaceholderExpansion;
 import org.battleplugins.arena.proxy.Elements;
-import org.bukkit.Bukkit;
-import org.bukkit.OfflinePlayer;
 import org.bukkit.entity.Player;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
@@ -21,12 +19,17 @@ import java.util.UUID;
  *   %ranked_rank_global%      - rank by average ELO (if enabled)
  *   %<element>_rank{n}%       - username at leaderboard position n for <element> (e.g. %air_rank1%, %fire_rank{5}%)
  *   %global_rank{n}%          - username at global leaderboard position n
+ * <p>
+ * Placeholders are resolved from the {@link RankedCache} and never wait on
+ * Redis, so they resolve to an empty string until the data has been loaded.
  */
 public class RankedPlaceholderExpansion extends PlaceholderExpansion {
-    private final RankedService rankedService;
+    private final RankedCache cache;
+    private final RankedConfig config;
 
-    public RankedPlaceholderExpansion(RankedService rankedService) {
-        this.rankedService = rankedService;
+    public RankedPlaceholderExpansion(RankedCache cache, RankedConfig config) {
+        this.cache = cache;
+        this.config = config;
     }
 
     @Override
@@ -46,7 +49,7 @@ public class RankedPlaceholderExpansion extends PlaceholderExpansion {
 
     @Override
     public @Nullable String onPlaceholderRequest(Player player, @NotNull String params) {
-        if (rankedService == null) {
+        if (cache == null) {
             return "";
         }
 
@@ -55,29 +58,30 @@ public class RankedPlaceholderExpansion extends PlaceholderExpansion {
 
         if (lowered.startsWith("elo_")) {
             String elementName = lowered.substring("elo_".length());
+            RankedSnapshot snapshot = playerId == null ? null : cache.getSnapshot(playerId);
             if (isGlobal(elementName)) {
-                if (!rankedService.getConfig().isUseGlobalAverage()) {
+                if (!config.isUseGlobalAverage() || snapshot == null) {
                     return "";
                 }
-                return formatElo(rankedService.getAverageElo(playerId));
+                return formatElo(snapshot.getAverageElo(config.getDefaultElo()));
             }
 
             Elements element = parseElement(elementName);
-            if (element == null) {
+            if (element == null || snapshot == null) {
                 return "";
             }
 
-            return formatElo(rankedService.getElo(playerId, element));
+            return formatElo(snapshot.getElo(element, config.getDefaultElo()));
         }
 
         if (lowered.startsWith("rank_")) {
             String elementName = lowered.substring("rank_".length());
             if (isGlobal(elementName)) {
-                if (playerId == null) {
+                RankedSnapshot snapshot = playerId == null ? null : cache.getSnapshot(playerId);
+                if (snapshot == null || snapshot.globalRank() == null) {
                     return "";
                 }
-                Long rank = rankedService.getGlobalRank(playerId);
-                return rank == null ? "" : String.valueOf(rank);
+                return String.valueOf(snapshot.globalRank());
             }
 
             Elements element = parseElement(elementName);
@@ -85,10 +89,8 @@ public class RankedPlaceholderExpansion extends PlaceholderExpansion {
                 return "";
             }
 
-            if (playerId == null) {
-                return "";
-            }
-            Long rank = rankedService.getRank(playerId, element);
+            RankedSnapshot snapshot = playerId == null ? null : cache.getSnapshot(playerId);
+            Long rank = snapshot == null ? null : snapshot.getRank(element);
             return rank == null ? "" : String.valueOf(rank);
         }
 
@@ -146,27 +148,17 @@ public class RankedPlaceholderExpansion extends PlaceholderExpansion {
             return "";
         }
 
-        UUID targetId;
+        String name;
         if (isGlobal(elementToken)) {
-            targetId = rankedService.getGlobalPlayerAtRank(position);
+            name = cache.getNameAtRank(null, position);
         } else {
             Elements element = parseElement(elementToken);
             if (element == null) {
                 return "";
             }
-            targetId = rankedService.getPlayerAtRank(element, position);
-        }
-
-        if (targetId == null) {
-            return "";
-        }
-
-        OfflinePlayer offline = Bukkit.getOfflinePlayer(targetId);
-        if (offline == null) {
-            return "";
+            name = cache.getNameAtRank(element, position);
         }
 
-        String name = offline.getName();
-        return name != null ? name : targetId.toString();
+        return name == null ? "" : name;
     }
 }
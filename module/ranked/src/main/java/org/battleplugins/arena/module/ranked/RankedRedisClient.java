@@ -5,10 +5,13 @@ import org.battleplugins.arena.proxy.Elements;
 import org.slf4j.Logger;
 import redis.clients.jedis.*;
 
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.EnumMap;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
+import java.util.function.BiFunction;
 
 /**
  * Thin Redis wrapper responsible for all ranked/ELO storage.
@@ -16,6 +19,7 @@ import java.util.UUID;
  *   <prefix>:elo:<uuid>:<element>  -> string ELO value
  *   <prefix>:leaderboard:<element> -> sorted set for element-specific ranking
  *   <prefix>:leaderboard:global    -> sorted set for average/global ranking
+ *   <prefix>:invalidate            -> pub/sub channel announcing players whose ELO changed
  */
 public class RankedRedisClient {
     private final BattleArena plugin;
@@ -110,6 +114,102 @@ public class RankedRedisClient {
         }
     }
 
+    /**
+     * Reads the current ELO of two players, computes their new ELO with the
+     * given function and writes the results back, along with any leaderboard
+     * changes, in a single transaction.
+     * <p>
+     * This costs two round-trips regardless of whether the global leaderboard
+     * is maintained, and must not be called from the main thread.
+     *
+     * @param firstId the first player
+     * @param firstElement the element the first player played as
+     * @param secondId the second player
+     * @param secondElement the element the second player played as
+     * @param fallback the ELO to use for players without a stored value
+     * @param calculation computes the update from the first and second player's current ELO
+     * @return the applied update
+     */
+    public RankedEloUpdate applyEloUpdate(UUID firstId,
+                                          Elements firstElement,
+                                          UUID secondId,
+                                          Elements secondElement,
+                                          double fallback,
+                                          BiFunction<Double, Double, RankedEloUpdate> calculation) {
+        boolean globalLeaderboard = config.isMaintainLeaderboards() && config.isUseGlobalAverage();
+        try (Jedis jedis = pool.getResource()) {
+            // Only the played elements are needed unless we have to
+            // recompute the averages for the global leaderboard
+            Pipeline pipeline = jedis.pipelined();
+            Map<Elements, Response<String>> firstResponses = readElo(pipeline, firstId, globalLeaderboard ? null : firstElement);
+            Map<Elements, Response<String>> secondResponses = readElo(pipeline, secondId, globalLeaderboard ? null : secondElement);
+            pipeline.sync();
+
+            Map<Elements, Double> firstElo = parseElo(firstId, firstResponses, fallback);
+            Map<Elements, Double> secondElo = parseElo(secondId, secondResponses, fallback);
+
+            RankedEloUpdate update = calculation.apply(firstElo.get(firstElement), secondElo.get(secondElement));
+            firstElo.put(firstElement, update.winnerNew());
+            secondElo.put(secondElement, update.loserNew());
+
+            Transaction transaction = jedis.multi();
+            transaction.set(eloKey(firstId, firstElement), Double.toString(update.winnerNew()));
+            transaction.set(eloKey(secondId, secondElement), Double.toString(update.loserNew()));
+            if (config.isMaintainLeaderboards()) {
+                transaction.zadd(leaderboardKey(firstElement), update.winnerNew(), firstId.toString());
+                transaction.zadd(leaderboardKey(secondElement), update.loserNew(), secondId.toString());
+            }
+
+            if (globalLeaderboard) {
+                transaction.zadd(globalLeaderboardKey(), average(firstElo), firstId.toString());
+                transaction.zadd(globalLeaderboardKey(), average(secondElo), secondId.toString());
+            }
+
+            transaction.exec();
+            return update;
+        }
+    }
+
+    private Map<Elements, Response<String>> readElo(Pipeline pipeline, UUID playerId, Elements element) {
+        Map<Elements, Response<String>> responses = new EnumMap<>(Elements.class);
+        if (element != null) {
+            responses.put(element, pipeline.get(eloKey(playerId, element)));
+            return responses;
+        }
+
+        for (Elements value : Elements.values()) {
+            responses.put(value, pipeline.get(eloKey(playerId, value)));
+        }
+        return responses;
+    }
+
+    private Map<Elements, Double> parseElo(UUID playerId, Map<Elements, Response<String>> responses, double fallback) {
+        Map<Elements, Double> values = new EnumMap<>(Elements.class);
+        for (Map.Entry<Elements, Response<String>> entry : responses.entrySet()) {
+            String value = entry.getValue().get();
+            if (value == null) {
+                values.put(entry.getKey(), fallback);
+                continue;
+            }
+
+            try {
+                values.put(entry.getKey(), Double.parseDouble(value));
+            } catch (NumberFormatException ex) {
+                log.warn("Invalid ELO value '{}' for {} {}. Using fallback.", value, playerId, entry.getKey().name());
+                values.put(entry.getKey(), fallback);
+            }
+        }
+        return values;
+    }
+
+    private static double average(Map<Elements, Double> values) {
+        double total = 0.0;
+        for (double value : values.values()) {
+            total += value;
+        }
+        return total / values.size();
+    }
+
     public Long getRank(UUID playerId, Elements element) {
         if (!config.isMaintainLeaderboards()) {
             return null;
@@ -174,6 +274,111 @@ public class RankedRedisClient {
         }
     }
 
+    /**
+     * Loads the ELO and ranks of a player for every element in a single
+     * round-trip.
+     *
+     * @param playerId the player to load
+     * @param fallback the ELO to use for elements without a stored value
+     * @return the loaded snapshot
+     */
+    public RankedSnapshot loadSnapshot(UUID playerId, double fallback) {
+        boolean leaderboards = config.isMaintainLeaderboards();
+        boolean globalLeaderboard = leaderboards && config.isUseGlobalAverage();
+        try (Jedis jedis = pool.getResource()) {
+            Pipeline pipeline = jedis.pipelined();
+            Map<Elements, Response<String>> eloResponses = readElo(pipeline, playerId, null);
+            Map<Elements, Response<Long>> rankResponses = new EnumMap<>(Elements.class);
+            if (leaderboards) {
+                for (Elements element : Elements.values()) {
+                    rankResponses.put(element, pipeline.zrevrank(leaderboardKey(element), playerId.toString()));
+                }
+            }
+
+            Response<Long> globalRankResponse = globalLeaderboard ? pipeline.zrevrank(globalLeaderboardKey(), playerId.toString()) : null;
+            pipeline.sync();
+
+            Map<Elements, Long> ranks = new EnumMap<>(Elements.class);
+            for (Map.Entry<Elements, Response<Long>> entry : rankResponses.entrySet()) {
+                Long rank = entry.getValue().get();
+                if (rank != null) {
+                    ranks.put(entry.getKey(), rank + 1);
+                }
+            }
+
+            Long globalRank = globalRankResponse == null ? null : globalRankResponse.get();
+            return new RankedSnapshot(
+                    parseElo(playerId, eloResponses, fallback),
+                    ranks,
+                    globalRank == null ? null : globalRank + 1
+            );
+        }
+    }
+
+    /**
+     * Gets the top players of a leaderboard, in order.
+     *
+     * @param element the element of the leaderboard, or null for the global leaderboard
+     * @param size the maximum amount of players to return
+     * @return the top players of the leaderboard
+     */
+    public List<UUID> getTopPlayers(Elements element, int size) {
+        if (!config.isMaintainLeaderboards() || size <= 0 || (element == null && !config.isUseGlobalAverage())) {
+            return List.of();
+        }
+
+        try (Jedis jedis = pool.getResource()) {
+            List<String> ids = jedis.zrevrange(element == null ? globalLeaderboardKey() : leaderboardKey(element), 0, size - 1L);
+            if (ids == null || ids.isEmpty()) {
+                return List.of();
+            }
+
+            List<UUID> players = new ArrayList<>(ids.size());
+            for (String id : ids) {
+                UUID playerId = parseUuid(id);
+                if (playerId != null) {
+                    players.add(playerId);
+                }
+            }
+            return players;
+        }
+    }
+
+    /**
+     * Announces to every server that the ELO of the given players changed.
+     *
+     * @param playerIds the players whose ELO changed
+     */
+    public void publishInvalidation(Collection<UUID> playerIds) {
+        if (playerIds.isEmpty()) {
+            return;
+        }
+
+        StringBuilder message = new StringBuilder();
+        for (UUID playerId : playerIds) {
+            if (!message.isEmpty()) {
+                message.append(',');
+            }
+            message.append(playerId);
+        }
+
+        try (Jedis jedis = pool.getResource()) {
+            jedis.publish(invalidationChannel(), message.toString());
+        }
+    }
+
+    /**
+     * Subscribes to ELO invalidations published by any server. This blocks
+     * until the subscriber is unsubscribed.
+     *
+     * @param subscriber the subscriber receiving comma-separated player ids
+     */
+    public void subscribeInvalidations(JedisPubSub subscriber) {
+        try (Jedis jedis = pool.getResource()) {
+            jedis.subscribe(subscriber, invalidationChannel());
+        }
+    }
+
     private UUID parseUuid(String raw) {
         try {
             return UUID.fromString(raw);
@@ -200,4 +405,8 @@ public class RankedRedisClient {
     private String globalLeaderboardKey() {
         return prefix + ":leaderboard:global";
     }
+
+    private String invalidationChannel() {
+        return prefix + ":invalidate";
+    }
 }
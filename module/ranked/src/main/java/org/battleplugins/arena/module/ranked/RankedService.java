@@ -2,24 +2,45 @@ package org.battleplugins.arena.module.ranked;
 
 import org.battleplugins.arena.proxy.Elements;
 
+import java.util.List;
 import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Public-facing ranked API for other modules to query/update ELO.
  * <p>
  * All reads/writes are routed through {@link RankedRedisClient} to
  * ensure Redis remains the single source of truth.
+ * <p>
+ * Writes are queued on a dedicated writer thread rather than performed on
+ * the calling thread. Since there is a single writer, updates are applied
+ * in the order they were submitted, so consecutive updates to the same
+ * player always see each other. Once a write has been applied, the
+ * affected players are invalidated in the {@link RankedCache} of every server.
  */
 public class RankedService {
+    private static final long SHUTDOWN_TIMEOUT_SECONDS = 10;
+
     private final RankedRedisClient redis;
     private final EloCalculator calculator;
     private final RankedConfig config;
+    private final RankedCache cache;
+    private final ExecutorService writer;
 
-    public RankedService(RankedRedisClient redis, RankedConfig config) {
+    public RankedService(RankedRedisClient redis, RankedCache cache, RankedConfig config) {
         this.redis = redis;
+        this.cache = cache;
         this.calculator = new EloCalculator(config);
         this.config = config;
+        this.writer = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "BattleArena Ranked Writer");
+            thread.setDaemon(true);
+            return thread;
+        });
     }
 
     public double getElo(UUID playerId, Elements element) {
@@ -43,51 +64,53 @@ public class RankedService {
         return total / all.size();
     }
 
-    public void setElo(UUID playerId, Elements element, double value) {
+    public CompletableFuture<Void> setElo(UUID playerId, Elements element, double value) {
         double clamped = calculator.clamp(value);
-        redis.setElo(playerId, element, clamped);
-        if (config.isUseGlobalAverage()) {
-            redis.updateGlobalLeaderboard(playerId, getAverageElo(playerId));
-        }
+        return CompletableFuture.runAsync(() -> {
+            redis.setElo(playerId, element, clamped);
+            if (config.isUseGlobalAverage()) {
+                redis.updateGlobalLeaderboard(playerId, getAverageElo(playerId));
+            }
+
+            cache.invalidate(List.of(playerId));
+        }, writer);
     }
 
-    public RankedEloUpdate updateAfterMatch(UUID winnerId, UUID loserId, Elements element) {
+    public CompletableFuture<RankedEloUpdate> updateAfterMatch(UUID winnerId, UUID loserId, Elements element) {
         return updateAfterMatch(winnerId, loserId, element, RankedMatchFactors.empty());
     }
 
-    public RankedEloUpdate updateAfterMatch(UUID winnerId,
+    public CompletableFuture<RankedEloUpdate> updateAfterMatch(UUID winnerId,
                                             UUID loserId,
                                             Elements element,
                                             RankedMatchFactors factors) {
         return updateAfterMatch(winnerId, loserId, element, element, factors, factors);
     }
 
-    public RankedEloUpdate updateAfterMatch(UUID winnerId,
-                                            UUID loserId,
-                                            Elements winnerElement,
-                                            Elements loserElement,
-                                            RankedMatchFactors winnerFactors,
-                                            RankedMatchFactors loserFactors) {
-        double winnerElo = getElo(winnerId, winnerElement);
-        double loserElo = getElo(loserId, loserElement);
-
-        RankedEloUpdate update = calculator.calculateWithFactors(winnerElo, loserElo, winnerFactors);
-        redis.setElo(winnerId, winnerElement, update.winnerNew());
-        redis.setElo(loserId, loserElement, update.loserNew());
-
-        if (config.isUseGlobalAverage()) {
-            redis.updateGlobalLeaderboard(winnerId, getAverageElo(winnerId));
-            redis.updateGlobalLeaderboard(loserId, getAverageElo(loserId));
-        }
+    public CompletableFuture<RankedEloUpdate> updateAfterMatch(UUID winnerId,
+                                                               UUID loserId,
+                                                               Elements winnerElement,
+                                                               Elements loserElement,
+                                                               RankedMatchFactors winnerFactors,
+                                                               RankedMatchFactors loserFactors) {
+        return CompletableFuture.supplyAsync(() -> {
+            RankedEloUpdate update = redis.applyEloUpdate(
+                    winnerId, winnerElement,
+                    loserId, loserElement,
+                    config.getDefaultElo(),
+                    (winnerElo, loserElo) -> calculator.calculateWithFactors(winnerElo, loserElo, winnerFactors)
+            );
 
-        return update;
+            cache.invalidate(List.of(winnerId, loserId));
+            return update;
+        }, writer);
     }
 
-    public RankedEloUpdate updateAfterDraw(UUID firstPlayerId, UUID secondPlayerId, Elements element) {
+    public CompletableFuture<RankedEloUpdate> updateAfterDraw(UUID firstPlayerId, UUID secondPlayerId, Elements element) {
         return updateAfterDraw(firstPlayerId, secondPlayerId, element, element);
     }
 
-    public RankedEloUpdate updateAfterDraw(UUID firstPlayerId,
+    public CompletableFuture<RankedEloUpdate> updateAfterDraw(UUID firstPlayerId,
                                            UUID secondPlayerId,
                                            Elements firstElement,
                                            Elements secondElement) {
@@ -95,25 +118,23 @@ public class RankedService {
                 RankedMatchFactors.empty(), RankedMatchFactors.empty());
     }
 
-    public RankedEloUpdate updateAfterDraw(UUID firstPlayerId,
-                                           UUID secondPlayerId,
-                                           Elements firstElement,
-                                           Elements secondElement,
-                                           RankedMatchFactors firstFactors,
-                                           RankedMatchFactors secondFactors) {
-        double firstElo = getElo(firstPlayerId, firstElement);
-        double secondElo = getElo(secondPlayerId, secondElement);
-
-        RankedEloUpdate update = calculator.calculateDrawWithFactors(firstElo, secondElo, firstFactors, secondFactors);
-        redis.setElo(firstPlayerId, firstElement, update.winnerNew());
-        redis.setElo(secondPlayerId, secondElement, update.loserNew());
-
-        if (config.isUseGlobalAverage()) {
-            redis.updateGlobalLeaderboard(firstPlayerId, getAverageElo(firstPlayerId));
-            redis.updateGlobalLeaderboard(secondPlayerId, getAverageElo(secondPlayerId));
-        }
+    public CompletableFuture<RankedEloUpdate> updateAfterDraw(UUID firstPlayerId,
+                                                              UUID secondPlayerId,
+                                                              Elements firstElement,
+                                                              Elements secondElement,
+                                                              RankedMatchFactors firstFactors,
+                                                              RankedMatchFactors secondFactors) {
+        return CompletableFuture.supplyAsync(() -> {
+            RankedEloUpdate update = redis.applyEloUpdate(
+                    firstPlayerId, firstElement,
+                    secondPlayerId, secondElement,
+                    config.getDefaultElo(),
+                    (firstElo, secondElo) -> calculator.calculateDrawWithFactors(firstElo, secondElo, firstFactors, secondFactors)
+            );
 
-        return update;
+            cache.invalidate(List.of(firstPlayerId, secondPlayerId));
+            return update;
+        }, writer);
     }
 
     public Long getRank(UUID playerId, Elements element) {
@@ -132,7 +153,24 @@ public class RankedService {
         return redis.getGlobalPlayerAtRank(rank);
     }
 
+    public RankedCache getCache() {
+        return cache;
+    }
+
     public RankedConfig getConfig() {
         return config;
     }
+
+    /**
+     * Stops accepting new writes and waits for all queued
+     * writes to be flushed to Redis.
+     */
+    public void shutdown() {
+        writer.shutdown();
+        try {
+            writer.awaitTermination(SHUTDOWN_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
 }
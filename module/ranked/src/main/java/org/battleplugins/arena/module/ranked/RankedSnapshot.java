@@ -0,0 +1,39 @@
+package org.battleplugins.arena.module.ranked;
+
+import org.battleplugins.arena.proxy.Elements;
+
+import java.util.Map;
+
+/**
+ * A point-in-time view of a player's ELO and leaderboard ranks.
+ *
+ * @param elo the player's ELO for every element
+ * @param ranks the player's rank for each element they are ranked in
+ * @param globalRank the player's rank on the global leaderboard, or null if unranked
+ */
+public record RankedSnapshot(
+        Map<Elements, Double> elo,
+        Map<Elements, Long> ranks,
+        Long globalRank
+) {
+
+    public double getElo(Elements element, double fallback) {
+        return elo.getOrDefault(element, fallback);
+    }
+
+    public double getAverageElo(double fallback) {
+        if (elo.isEmpty()) {
+            return fallback;
+        }
+
+        double total = 0.0;
+        for (double value : elo.values()) {
+            total += value;
+        }
+        return total / elo.size();
+    }
+
+    public Long getRank(Elements element) {
+        return ranks.get(element);
+    }
+}
@@ -3,28 +3,31 @@ package org.battleplugins.arena.module.scoreboard;
 import net.kyori.adventure.text.Component;
 import net.kyori.adventure.text.serializer.legacy.LegacyComponentSerializer;
 import org.battleplugins.arena.ArenaPlayer;
-import org.battleplugins.arena.BattleArena;
 import org.battleplugins.arena.module.scoreboard.line.ScoreboardLineCreator;
 import org.battleplugins.arena.util.Version;
 import org.bukkit.Bukkit;
 import org.bukkit.ChatColor;
-import org.bukkit.scheduler.BukkitTask;
 import org.bukkit.scoreboard.*;
 
 import java.util.ArrayList;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
 
 public class ScoreboardHandler {
     private static final ChatColor[] CHAT_COLORS = ChatColor.values();
+    // API introduced in 1.20.4
+    private static final boolean SUPPORTS_NUMBER_FORMAT = Version.getServerVersion().isCompatible("1.20.4");
 
     private final Scoreboards scoreboards;
     private final ArenaPlayer player;
     private final ScoreboardTemplate template;
 
     private Scoreboard previousScoreboard;
-    private BukkitTask updateTask;
 
+    private Component lastTitle;
     private List<Component> lastLines = new ArrayList<>();
+    private List<String> lastEntries = new ArrayList<>();
 
     public ScoreboardHandler(Scoreboards scoreboards, ArenaPlayer player, ScoreboardTemplate template) {
         this.scoreboards = scoreboards;
@@ -32,10 +35,22 @@ public class ScoreboardHandler {
         this.template = template;
     }
 
-    private List<Component> constructLines() {
+    public ArenaPlayer getPlayer() {
+        return this.player;
+    }
+
+    public ScoreboardTemplate getTemplate() {
+        return this.template;
+    }
+
+    private List<Component> constructLines(Map<ScoreboardLineCreator, List<Component>> sharedLines) {
         List<Component> lines = new ArrayList<>();
         for (ScoreboardLineCreator creator : this.template.getLines()) {
-            lines.addAll(creator.createLines(this.player));
+            if (creator.isShared()) {
+                lines.addAll(sharedLines.computeIfAbsent(creator, key -> key.createLines(this.player)));
+            } else {
+                lines.addAll(creator.createLines(this.player));
+            }
         }
 
         return lines;
@@ -54,31 +69,28 @@ public class ScoreboardHandler {
         Objective objective = scoreboard.registerNewObjective("ba_sidebar", Criteria.DUMMY, title);
         objective.setDisplaySlot(DisplaySlot.SIDEBAR);
 
-        Version serverVersion = Version.getServerVersion();
-        // API introduced in 1.20.4
-        if (serverVersion.isCompatible("1.20.4")) {
+        if (SUPPORTS_NUMBER_FORMAT) {
             objective.numberFormat(io.papermc.paper.scoreboard.numbers.NumberFormat.blank());
         }
 
-        List<Component> lines = this.constructLines();
+        List<Component> lines = this.constructLines(new IdentityHashMap<>());
+        List<String> entries = new ArrayList<>(lines.size());
         for (int i = 0; i < lines.size(); i++) {
-            Component line = lines.get(i);
-            String text = LegacyComponentSerializer.legacySection().serialize(line);
-
-            Score score = objective.getScore(entryPrefix(i) + text);
-            score.setScore(lines.size() - i);
-            // API introduced in 1.20.4
-            if (serverVersion.isCompatible("1.20.4")) {
-                score.customName(line);
-            }
+            entries.add(setLine(objective, lines, i));
         }
 
+        this.lastTitle = title;
         this.lastLines = lines;
-        this.updateTask = Bukkit.getScheduler().runTaskTimer(BattleArena.getInstance(), this::updateScoreboard, 0, this.template.getRefreshTime().toMillis() / 50);
+        this.lastEntries = entries;
+        this.scoreboards.getScheduler().register(this);
         return scoreboard;
     }
 
     public void updateScoreboard() {
+        this.updateScoreboard(new IdentityHashMap<>());
+    }
+
+    void updateScoreboard(Map<ScoreboardLineCreator, List<Component>> sharedLines) {
         Scoreboard scoreboard = this.player.getPlayer().getScoreboard();
         Objective objective = scoreboard.getObjective(DisplaySlot.SIDEBAR);
         if (objective == null) {
@@ -86,29 +98,22 @@ public class ScoreboardHandler {
         }
 
         Component title = this.player.resolve().resolveToComponent(this.template.getTitle());
-        objective.displayName(title);
+        if (!title.equals(this.lastTitle)) {
+            objective.displayName(title);
+            this.lastTitle = title;
+        }
 
-        List<Component> lines = this.constructLines();
+        List<Component> lines = this.constructLines(sharedLines);
 
         // Line size has not changed - we can run a far more optimized update cycle
         if (this.lastLines.size() == lines.size()) {
             for (int i = 0; i < lines.size(); i++) {
-                Component line = lines.get(i);
-                Component lastLine = this.lastLines.get(i);
-                if (line.equals(lastLine)) {
+                if (lines.get(i).equals(this.lastLines.get(i))) {
                     continue;
                 }
 
-                String lastText = LegacyComponentSerializer.legacySection().serialize(lastLine);
-                scoreboard.resetScores(entryPrefix(i) + lastText);
-
-                String text = LegacyComponentSerializer.legacySection().serialize(line);
-                Score score = objective.getScore(entryPrefix(i) + text);
-                score.setScore(lines.size() - i);
-                // API introduced in 1.20.4
-                if (Version.getServerVersion().isCompatible("1.20.4")) {
-                    score.customName(line);
-                }
+                scoreboard.resetScores(this.lastEntries.get(i));
+                this.lastEntries.set(i, setLine(objective, lines, i));
             }
 
             this.lastLines = lines;
@@ -117,32 +122,21 @@ public class ScoreboardHandler {
 
         // Slightly more complicated logic if the line size has changed
         // We need to clear the scoreboard and re-add all the lines
-        for (int i = 0; i < this.lastLines.size(); i++) {
-            Component line = this.lastLines.get(i);
-            String text = LegacyComponentSerializer.legacySection().serialize(line);
-            scoreboard.resetScores(entryPrefix(i) + text);
+        for (String entry : this.lastEntries) {
+            scoreboard.resetScores(entry);
         }
 
+        List<String> entries = new ArrayList<>(lines.size());
         for (int i = 0; i < lines.size(); i++) {
-            Component line = lines.get(i);
-            String text = LegacyComponentSerializer.legacySection().serialize(line);
-
-            Score score = objective.getScore(entryPrefix(i) + text);
-            score.setScore(lines.size() - i);
-            // API introduced in 1.20.4
-            if (Version.getServerVersion().isCompatible("1.20.4")) {
-                score.customName(line);
-            }
+            entries.add(setLine(objective, lines, i));
         }
 
         this.lastLines = lines;
+        this.lastEntries = entries;
     }
 
     public void removeScoreboard() {
-        if (this.updateTask != null) {
-            this.updateTask.cancel();
-            this.updateTask = null;
-        }
+        this.scoreboards.getScheduler().unregister(this);
 
         if (this.scoreboards.getConfig().shouldReplaceScoreboard() && this.previousScoreboard != null) {
             this.player.getPlayer().setScoreboard(this.previousScoreboard);
@@ -152,6 +146,19 @@ public class ScoreboardHandler {
         this.player.getPlayer().getScoreboard().clearSlot(DisplaySlot.SIDEBAR);
     }
 
+    private static String setLine(Objective objective, List<Component> lines, int index) {
+        Component line = lines.get(index);
+        String entry = entryPrefix(index) + LegacyComponentSerializer.legacySection().serialize(line);
+
+        Score score = objective.getScore(entry);
+        score.setScore(lines.size() - index);
+        if (SUPPORTS_NUMBER_FORMAT) {
+            score.customName(line);
+        }
+
+        return entry;
+    }
+
     private static String entryPrefix(int index) {
         return CHAT_COLORS[(int) Math.floor(index / 16D)].toString() + CHAT_COLORS[index % 16].toString();
     }
@@ -0,0 +1,118 @@
+package org.battleplugins.arena.module.scoreboard;
+
+import net.kyori.adventure.text.Component;
+import org.battleplugins.arena.BattleArena;
+import org.battleplugins.arena.competition.Competition;
+import org.battleplugins.arena.module.scoreboard.line.ScoreboardLineCreator;
+import org.bukkit.Bukkit;
+import org.bukkit.scheduler.BukkitTask;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Refreshes every {@link ScoreboardHandler} from a single task.
+ * <p>
+ * Handlers are grouped by the competition they are in and the template they
+ * display, and every group is refreshed together. Lines which do not depend on
+ * the viewer are therefore only created once per group, rather than once per
+ * player. Groups are spread across the ticks of their refresh time, so the
+ * work of refreshing many competitions does not all land on the same tick.
+ */
+public class ScoreboardScheduler {
+    private final Map<GroupKey, Group> groups = new HashMap<>();
+    private final Map<ScoreboardHandler, GroupKey> handlers = new HashMap<>();
+
+    private BukkitTask task;
+    private long tick;
+    private int nextOffset;
+
+    /**
+     * Starts refreshing the given handler.
+     *
+     * @param handler the handler to refresh
+     */
+    public void register(ScoreboardHandler handler) {
+        GroupKey key = new GroupKey(handler.getPlayer().getCompetition(), handler.getTemplate());
+        if (this.handlers.putIfAbsent(handler, key) != null) {
+            return;
+        }
+
+        Group group = this.groups.computeIfAbsent(key, k -> {
+            long period = Math.max(1, k.template().getRefreshTime().toMillis() / 50);
+            return new Group(period, this.nextOffset++ % period);
+        });
+
+        group.handlers.add(handler);
+
+        if (this.task == null) {
+            this.task = Bukkit.getScheduler().runTaskTimer(BattleArena.getInstance(), this::tick, 1, 1);
+        }
+    }
+
+    /**
+     * Stops refreshing the given handler.
+     *
+     * @param handler the handler to stop refreshing
+     */
+    public void unregister(ScoreboardHandler handler) {
+        GroupKey key = this.handlers.remove(handler);
+        if (key == null) {
+            return;
+        }
+
+        Group group = this.groups.get(key);
+        if (group != null && group.handlers.remove(handler) && group.handlers.isEmpty()) {
+            this.groups.remove(key);
+        }
+
+        if (this.groups.isEmpty()) {
+            this.stop();
+        }
+    }
+
+    /**
+     * Stops refreshing every handler.
+     */
+    public void stop() {
+        if (this.task != null) {
+            this.task.cancel();
+            this.task = null;
+        }
+
+        this.groups.clear();
+        this.handlers.clear();
+    }
+
+    private void tick() {
+        long tick = this.tick++;
+        for (Group group : List.copyOf(this.groups.values())) {
+            if (tick % group.period != group.offset) {
+                continue;
+            }
+
+            // Lines which are the same for every viewer are shared within the group
+            Map<ScoreboardLineCreator, List<Component>> sharedLines = new IdentityHashMap<>();
+            for (ScoreboardHandler handler : List.copyOf(group.handlers)) {
+                handler.updateScoreboard(sharedLines);
+            }
+        }
+    }
+
+    private record GroupKey(Competition<?> competition, ScoreboardTemplate template) {
+    }
+
+    private static class Group {
+        private final List<ScoreboardHandler> handlers = new ArrayList<>();
+        private final long period;
+        private final long offset;
+
+        Group(long period, long offset) {
+            this.period = period;
+            this.offset = offset;
+        }
+    }
+}
@@ -32,6 +32,8 @@ public class Scoreboards implements ArenaModuleInitializer, ArenaListener {
     public static final EventActionType<ApplyScoreboardAction> APPLY_SCOREBOARD_ACTION = EventActionType.create("apply-scoreboard", ApplyScoreboardAction.class, ApplyScoreboardAction::new);
     public static final EventActionType<RemoveScoreboardAction> REMOVE_SCOREBOARD_ACTION = EventActionType.create("remove-scoreboard", RemoveScoreboardAction.class, RemoveScoreboardAction::new);
 
+    private final ScoreboardScheduler scheduler = new ScoreboardScheduler();
+
     private ScoreboardsConfig config;
 
     public Scoreboards() {
@@ -93,4 +95,8 @@ public class Scoreboards implements ArenaModuleInitializer, ArenaListener {
     public ScoreboardsConfig getConfig() {
         return this.config;
     }
+
+    public ScoreboardScheduler getScheduler() {
+        return this.scheduler;
+    }
 }
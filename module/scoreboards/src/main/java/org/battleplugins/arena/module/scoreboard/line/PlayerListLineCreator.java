@@ -13,6 +13,8 @@ import java.util.ArrayList;
 import java.util.List;
 
 public class PlayerListLineCreator implements ScoreboardLineCreator {
+    // Scoreboards before 1.20.4 only support named colors
+    private static final boolean REQUIRES_NAMED_COLORS = Version.getServerVersion().isLessThan("1.20.4");
 
     @ArenaOption(name = "max-entries", description = "The maximum number of entries to display on the scoreboard.", required = true)
     private int maxEntries;
@@ -46,7 +48,7 @@ public class PlayerListLineCreator implements ScoreboardLineCreator {
             Component component = Component.text(arenaPlayer.getPlayer().getName());
             if (this.showTeamColor && arenaPlayer.getTeam() != null) {
                 TextColor color = arenaPlayer.getTeam().getTextColor();
-                if (Version.getServerVersion().isLessThan("1.20.4")) {
+                if (REQUIRES_NAMED_COLORS) {
                     color = NamedTextColor.nearestTo(color);
                 }
                 component = component.color(color);
@@ -72,4 +74,9 @@ public class PlayerListLineCreator implements ScoreboardLineCreator {
 
         return lines;
     }
+
+    @Override
+    public boolean isShared() {
+        return true;
+    }
 }
@@ -15,4 +15,15 @@ public interface ScoreboardLineCreator {
     );
 
     List<Component> createLines(ArenaPlayer player);
+
+    /**
+     * Gets whether the lines created by this creator are the same for
+     * every player in a competition, meaning they only need to be
+     * created once per competition rather than once per player.
+     *
+     * @return whether the lines are shared between players
+     */
+    default boolean isShared() {
+        return false;
+    }
 }
@@ -5,6 +5,7 @@ import net.kyori.adventure.text.format.NamedTextColor;
 import net.kyori.adventure.text.format.TextColor;
 import org.battleplugins.arena.ArenaPlayer;
 import org.battleplugins.arena.BattleArena;
+import org.battleplugins.arena.competition.StatLeaderboard;
 import org.battleplugins.arena.config.ArenaOption;
 import org.battleplugins.arena.stat.ArenaStat;
 import org.battleplugins.arena.stat.ArenaStats;
@@ -15,6 +16,8 @@ import java.util.ArrayList;
 import java.util.List;
 
 public class TopStatLineCreator implements ScoreboardLineCreator {
+    // Scoreboards before 1.20.4 only support named colors
+    private static final boolean REQUIRES_NAMED_COLORS = Version.getServerVersion().isLessThan("1.20.4");
 
     @ArenaOption(name = "max-entries", description = "The maximum number of entries to display on the scoreboard.", required = true)
     private int maxEntries;
@@ -45,21 +48,14 @@ public class TopStatLineCreator implements ScoreboardLineCreator {
         }
 
         List<Component> lines = new ArrayList<>(this.maxEntries);
-        List<ArenaPlayer> players = player.getCompetition().getPlayers()
-                .stream()
-                .sorted((player1, player2) -> {
-                    int value1 = statOrDefault(player1, (ArenaStat<Number>) stat).intValue();
-                    int value2 = statOrDefault(player2, (ArenaStat<Number>) stat).intValue();
-                    return this.ascending ? Integer.compare(value1, value2) : Integer.compare(value2, value1);
-                })
-                .limit(this.maxEntries)
-                .toList();
+        StatLeaderboard leaderboard = player.getCompetition().getLeaderboards().get((ArenaStat<Number>) stat);
+        List<ArenaPlayer> players = this.ascending ? leaderboard.getBottom(this.maxEntries) : leaderboard.getTop(this.maxEntries);
 
         for (ArenaPlayer arenaPlayer : players) {
             Component component = Component.text(arenaPlayer.getPlayer().getName());
             if (this.showTeamColor && arenaPlayer.getTeam() != null) {
                 TextColor color = arenaPlayer.getTeam().getTextColor();
-                if (Version.getServerVersion().isLessThan("1.20.4")) {
+                if (REQUIRES_NAMED_COLORS) {
                     color = NamedTextColor.nearestTo(color);
                 }
                 component = component.color(color);
@@ -74,6 +70,11 @@ public class TopStatLineCreator implements ScoreboardLineCreator {
         return lines;
     }
 
+    @Override
+    public boolean isShared() {
+        return true;
+    }
+
     private static Number statOrDefault(ArenaPlayer player, ArenaStat<Number> stat) {
         return player.stat(stat).orElse(stat.getDefaultValue());
     }
@@ -16,9 +16,10 @@ import org.battleplugins.arena.util.Version;
 import java.awt.*;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Set;
 
 public class TopTeamStatLineCreator implements ScoreboardLineCreator {
+    // Scoreboards before 1.20.4 only support named colors
+    private static final boolean REQUIRES_NAMED_COLORS = Version.getServerVersion().isLessThan("1.20.4");
 
     @ArenaOption(name = "max-entries", description = "The maximum number of entries to display on the scoreboard.", required = true)
     private int maxEntries;
@@ -63,7 +64,7 @@ public class TopTeamStatLineCreator implements ScoreboardLineCreator {
 
             Component component;
             TextColor color = team.getTextColor();
-            if (Version.getServerVersion().isLessThan("1.20.4")) {
+            if (REQUIRES_NAMED_COLORS) {
                 component = Component.text(team.getName(), color);
             } else {
                 component = team.getFormattedName();
@@ -76,16 +77,15 @@ public class TopTeamStatLineCreator implements ScoreboardLineCreator {
         return lines;
     }
 
+    @Override
+    public boolean isShared() {
+        return true;
+    }
+
     private static Number statOrDefault(TeamManager manager, ArenaTeam team, ArenaStat<Number> stat) {
         StatHolder stats = manager.getStats(team);
         if (stats.stat(stat).isEmpty()) {
-            Set<ArenaPlayer> players = manager.getPlayersOnTeam(team);
-            int score = 0;
-            for (ArenaPlayer teamPlayer : players) {
-                score += teamPlayer.stat(stat).orElse(stat.getDefaultValue()).intValue();
-            }
-
-            return score;
+            return (int) manager.getCompetition().getLeaderboards().get(stat).getTeamTotal(team);
         } else {
             return stats.stat(stat).orElse(stat.getDefaultValue());
         }
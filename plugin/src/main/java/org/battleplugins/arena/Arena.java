@@ -104,6 +104,8 @@ public class Arena implements ArenaLike, ArenaListener, ConfigHolder, Resolvable
     private final ArenaEventManager eventManager;
     private final Map<String, ConfigurationSection> config = new HashMap<>();
 
+    private Resolver resolver;
+
     public Arena() {
         this.eventManager = new ArenaEventManager(this);
     }
@@ -333,8 +335,13 @@ public class Arena implements ArenaLike, ArenaListener, ConfigHolder, Resolvable
 
     @Override
     public Resolver resolve() {
-        return Resolver.builder()
-                .define(ResolverKeys.ARENA, ResolverProvider.simple(this, Arena::getName))
-                .build();
+        // Every competition and player resolver extends this one, and it never changes
+        if (this.resolver == null) {
+            this.resolver = Resolver.builder()
+                    .define(ResolverKeys.ARENA, ResolverProvider.simple(this, Arena::getName))
+                    .build();
+        }
+
+        return this.resolver;
     }
 }
@@ -9,8 +9,9 @@ import org.battleplugins.arena.event.player.ArenaTeamJoinEvent;
 import org.battleplugins.arena.event.player.ArenaTeamLeaveEvent;
 import org.battleplugins.arena.resolver.*;
 import org.battleplugins.arena.stat.ArenaStat;
-import org.battleplugins.arena.stat.ArenaStats;
 import org.battleplugins.arena.stat.StatHolder;
+import org.battleplugins.arena.stat.StatValues;
+import org.battleplugins.arena.stat.store.StatPersistence;
 import org.battleplugins.arena.team.ArenaTeam;
 import org.bukkit.entity.Player;
 import org.bukkit.metadata.FixedMetadataValue;
@@ -19,6 +20,8 @@ import org.jetbrains.annotations.Nullable;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Function;
 
 /**
@@ -26,6 +29,7 @@ import java.util.function.Function;
  */
 public class ArenaPlayer implements StatHolder, Resolvable {
     private static final String ARENA_PLAYER_META_KEY = "arena-player";
+    private static final Map<UUID, ArenaPlayer> ARENA_PLAYERS = new ConcurrentHashMap<>();
 
     private final Player player;
     private final Arena arena;
@@ -33,7 +37,7 @@ public class ArenaPlayer implements StatHolder, Resolvable {
 
     private final PlayerStorage storage;
 
-    private final Map<ArenaStat<?>, Object> stats = new HashMap<>();
+    private final StatValues stats = new StatValues();
     private final Map<Class<?>, Object> metadata = new HashMap<>();
 
     private PlayerRole role;
@@ -41,18 +45,20 @@ public class ArenaPlayer implements StatHolder, Resolvable {
     @Nullable
     private ArenaTeam team;
 
+    // Reads the player's state when resolved, so it is only rebuilt when the
+    // competition's resolver changes or a stat is given a value for the first time
+    private CachedResolver cachedResolver;
+
     public ArenaPlayer(Player player, Arena arena, LiveCompetition<?> competition) {
         this.player = player;
         this.arena = arena;
         this.competition = competition;
         this.storage = new PlayerStorage(this);
 
-        this.setMetadata();
+        this.register();
 
         // Register default stats
-        for (ArenaStat<?> stat : ArenaStats.values()) {
-            this.stats.put(stat, stat.getDefaultValue());
-        }
+        this.stats.setDefaults();
     }
 
     /**
@@ -149,15 +155,25 @@ public class ArenaPlayer implements StatHolder, Resolvable {
         }
 
         this.team = team;
+        this.competition.getLeaderboards().update(this);
     }
 
     /**
-     * Removes the metadata associated with this player.
+     * Removes this arena player from the player registry, along
+     * with the metadata associated with this player.
      */
     public void remove() {
+        ARENA_PLAYERS.remove(this.player.getUniqueId(), this);
         this.removeMetadata();
     }
 
+    void register() {
+        ARENA_PLAYERS.put(this.player.getUniqueId(), this);
+        this.setMetadata();
+    }
+
+    // The Bukkit metadata is no longer read by BattleArena, and is only
+    // kept so third party plugins which read it continue to work
     void setMetadata() {
         this.player.setMetadata(ARENA_PLAYER_META_KEY, new FixedMetadataValue(this.arena.getPlugin(), this));
     }
@@ -189,7 +205,37 @@ public class ArenaPlayer implements StatHolder, Resolvable {
     @Override
     @Nullable
     public <T> T getStat(ArenaStat<T> stat) {
-        return (T) this.stats.get(stat);
+        return this.stats.get(stat);
+    }
+
+    /**
+     * Returns the value of the given integer {@link ArenaStat}, without
+     * boxing it.
+     *
+     * @param stat the stat to get
+     * @return the value of the stat, or its default value if it is not set
+     */
+    public int getInt(ArenaStat<Integer> stat) {
+        return this.stats.getInt(stat);
+    }
+
+    /**
+     * Adds the given amount to the value of the given integer {@link ArenaStat}.
+     * A stat which is not set is treated as zero.
+     *
+     * @param stat the stat to add to
+     * @param amount the amount to add
+     */
+    public void addInt(ArenaStat<Integer> stat, int amount) {
+        Integer oldValue = this.stats.has(stat) ? this.stats.getInt(stat) : null;
+        Integer newValue = this.statChange(stat, oldValue, (oldValue == null ? 0 : oldValue) + amount);
+        if (newValue == null) {
+            this.stats.set(stat, null);
+        } else {
+            this.stats.setInt(stat, newValue);
+        }
+
+        this.competition.getLeaderboards().update(this, stat);
     }
 
     /**
@@ -212,12 +258,12 @@ public class ArenaPlayer implements StatHolder, Resolvable {
      * @param <T> the type of the stat
      */
     @Override
-    @SuppressWarnings("unchecked")
     public <T> void computeStat(ArenaStat<T> stat, Function<? super T, ? extends T> computeFunction) {
-        this.stats.compute(stat, (key, oldValue) -> {
-            T newValue = computeFunction.apply((T) oldValue);
-            return this.statChange(stat, (T) oldValue, newValue);
-        });
+        T oldValue = this.stats.get(stat);
+        T newValue = computeFunction.apply(oldValue);
+        this.stats.set(stat, this.statChange(stat, oldValue, newValue));
+
+        this.competition.getLeaderboards().update(this, stat);
     }
 
     private <T> T statChange(ArenaStat<T> stat, T oldValue, T newValue) {
@@ -276,13 +322,20 @@ public class ArenaPlayer implements StatHolder, Resolvable {
      * Resets the state of this player.
      */
     public void resetState() {
-        // TODO: Save stats in a remote location (BattleTracker)
+        this.saveStats();
         this.stats.clear();
+        this.competition.getLeaderboards().update(this);
 
         this.competition.getTeamManager().leaveTeam(this);
         this.competition.findAndJoinTeamIfApplicable(this);
     }
 
+    private void saveStats() {
+        StatPersistence persistence = BattleArena.getInstance().getStatPersistence();
+        if (persistence != null) {
+            persistence.recordBeforeReset(this);
+        }
+    }
 
     @Override
     public String describe() {
@@ -291,39 +344,43 @@ public class ArenaPlayer implements StatHolder, Resolvable {
 
     @Override
     public Resolver resolve() {
-        Resolver.Builder builder = this.competition.resolve().toBuilder()
-                .define(ResolverKeys.PLAYER, ResolverProvider.simple(this, this.player::getName));
+        Resolver parent = this.competition.resolve();
+        int statVersion = this.stats.getVersion();
 
-        if (this.team != null) {
-            builder.define(ResolverKeys.TEAM, ResolverProvider.simple(this.team, ArenaTeam::getName, ArenaTeam::getFormattedName));
+        CachedResolver cached = this.cachedResolver;
+        if (cached != null && cached.parent() == parent && cached.statVersion() == statVersion) {
+            return cached.resolver();
         }
 
-        for (Map.Entry<ArenaStat<?>, Object> entry : this.stats.entrySet()) {   
-            ResolverKey<Object> statKey = ResolverKey.create("stat_" + entry.getKey().getKey(), Object.class);
-            builder.define(statKey, ResolverProvider.simple(entry.getValue(), String::valueOf));
-        }
+        Resolver.Builder builder = parent.toBuilder()
+                .define(ResolverKeys.PLAYER, ResolverProvider.simple(this, this.player::getName))
+                .define(ResolverKeys.TEAM, ResolverProvider.lazy(this::getTeam, ArenaTeam::getName, ArenaTeam::getFormattedName));
+
+        this.stats.forEach((stat, value) -> this.defineStat(builder, stat));
 
         this.arena.getPlugin().module("duels").ifPresent(container -> {
             Object mainClass = container.mainClass();
             if (mainClass instanceof DuelSeriesProvider provider) {
-                provider.getSeriesSnapshot(this.competition).ifPresent(snapshot -> {
-                    builder.define(ResolverKeys.DUEL_REQUESTER,
-                            ResolverProvider.simple(snapshot.requesterName(), String::valueOf));
-                    builder.define(ResolverKeys.DUEL_TARGET,
-                            ResolverProvider.simple(snapshot.targetName(), String::valueOf));
-                    builder.define(ResolverKeys.DUEL_REQUESTER_WINS,
-                            ResolverProvider.simple(snapshot.requesterWins(), String::valueOf));
-                    builder.define(ResolverKeys.DUEL_TARGET_WINS,
-                            ResolverProvider.simple(snapshot.targetWins(), String::valueOf));
-                    builder.define(ResolverKeys.DUEL_WINS_NEEDED,
-                            ResolverProvider.simple(snapshot.winsNeeded(), String::valueOf));
-                    builder.define(ResolverKeys.DUEL_TOTAL_ROUNDS,
-                            ResolverProvider.simple(snapshot.totalRounds(), String::valueOf));
-                });
+                this.defineDuel(builder, provider, ResolverKeys.DUEL_REQUESTER, DuelSeriesProvider.DuelSeriesSnapshot::requesterName);
+                this.defineDuel(builder, provider, ResolverKeys.DUEL_TARGET, DuelSeriesProvider.DuelSeriesSnapshot::targetName);
+                this.defineDuel(builder, provider, ResolverKeys.DUEL_REQUESTER_WINS, DuelSeriesProvider.DuelSeriesSnapshot::requesterWins);
+                this.defineDuel(builder, provider, ResolverKeys.DUEL_TARGET_WINS, DuelSeriesProvider.DuelSeriesSnapshot::targetWins);
+                this.defineDuel(builder, provider, ResolverKeys.DUEL_WINS_NEEDED, DuelSeriesProvider.DuelSeriesSnapshot::winsNeeded);
+                this.defineDuel(builder, provider, ResolverKeys.DUEL_TOTAL_ROUNDS, DuelSeriesProvider.DuelSeriesSnapshot::totalRounds);
             }
         });
 
-        return builder.build();
+        Resolver resolver = builder.build();
+        this.cachedResolver = new CachedResolver(parent, statVersion, resolver);
+        return resolver;
+    }
+
+    private void defineStat(Resolver.Builder builder, ArenaStat<?> stat) {
+        builder.define(ResolverKeys.stat(stat), ResolverProvider.<Object>lazy(() -> this.stats.get(stat), String::valueOf));
+    }
+
+    private <T> void defineDuel(Resolver.Builder builder, DuelSeriesProvider provider, ResolverKey<T> key, Function<DuelSeriesProvider.DuelSeriesSnapshot, T> value) {
+        builder.define(key, ResolverProvider.lazy(() -> provider.getSeriesSnapshot(this.competition).map(value).orElse(null), String::valueOf));
     }
 
     @Override
@@ -352,10 +409,25 @@ public class ArenaPlayer implements StatHolder, Resolvable {
      */
     @Nullable
     public static ArenaPlayer getArenaPlayer(Player player) {
-        if (player == null || !player.hasMetadata(ARENA_PLAYER_META_KEY)) {
+        if (player == null) {
             return null;
         }
 
-        return (ArenaPlayer) player.getMetadata(ARENA_PLAYER_META_KEY).get(0).value();
+        return ARENA_PLAYERS.get(player.getUniqueId());
+    }
+
+    /**
+     * Gets the {@link ArenaPlayer} associated with the given player {@link UUID}.
+     *
+     * @param uuid the unique id of the player to get the arena player of
+     * @return the arena player associated with the given player, or
+     *         null if the player is not in a competition
+     */
+    @Nullable
+    public static ArenaPlayer getArenaPlayer(UUID uuid) {
+        return ARENA_PLAYERS.get(uuid);
+    }
+
+    private record CachedResolver(Resolver parent, int statVersion, Resolver resolver) {
     }
 }
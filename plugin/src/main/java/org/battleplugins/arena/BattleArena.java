@@ -1,7 +1,5 @@
 package org.battleplugins.arena;
 
-import com.google.gson.JsonArray;
-import com.google.gson.JsonObject;
 import org.battleplugins.arena.command.BACommandExecutor;
 import org.battleplugins.arena.command.BaseCommandExecutor;
 import org.battleplugins.arena.command.DuelCommandExecutor;
@@ -28,13 +26,17 @@ import org.battleplugins.arena.module.ArenaModuleContainer;
 import org.battleplugins.arena.module.ArenaModuleLoader;
 import org.battleplugins.arena.module.ModuleLoadException;
 import org.battleplugins.arena.proxy.Connector;
+import org.battleplugins.arena.proxy.ProxyDestination;
 import org.battleplugins.arena.proxy.ProxySpectateHandler;
 import org.battleplugins.arena.proxy.SerializedPlayer;
+import org.battleplugins.arena.proxy.message.ProxyMessage;
+import org.battleplugins.arena.stat.store.StatPersistence;
 import org.battleplugins.arena.team.ArenaTeams;
 import org.battleplugins.arena.util.*;
 import org.bstats.bukkit.Metrics;
 import org.bukkit.Bukkit;
 import org.bukkit.GameRule;
+import org.bukkit.Location;
 import org.bukkit.World;
 import org.bukkit.WorldCreator;
 import org.bukkit.command.PluginCommand;
@@ -57,7 +59,6 @@ import java.nio.file.Path;
 import java.util.*;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.function.Consumer;
 import java.util.function.Supplier;
 import java.util.stream.Stream;
 
@@ -97,6 +98,7 @@ public class BattleArena extends JavaPlugin implements LoggerHolder, BattleArena
     private static final SlotPool MAP_POOL = new SlotPool();
     private static final InstanceAllocator INSTANCE_ALLOCATOR = new InstanceAllocator();
     private Connector connector;
+    private StatPersistence statPersistence;
     private boolean initialized;
     private final Set<java.util.UUID> pendingProxyJoins = java.util.concurrent.ConcurrentHashMap.newKeySet();
     private final Set<java.util.UUID> pendingProxySpectates = java.util.concurrent.ConcurrentHashMap.newKeySet();
@@ -215,7 +217,7 @@ public class BattleArena extends JavaPlugin implements LoggerHolder, BattleArena
         new Metrics(this, PLUGIN_ID);
 
         // Cheeky little message about BattleTracker <3
-        if (Bukkit.getPluginManager().getPlugin("BattleTracker") == null) {
+        if (!this.config.isStatsEnabled() && Bukkit.getPluginManager().getPlugin("BattleTracker") == null) {
             this.warn("----------------------------------------");
             this.warn("BattleTracker not found! Arena statistics will not be saved.");
             this.warn("You can download BattleTracker at: https://modrinth.com/project/battletracker.");
@@ -231,6 +233,12 @@ public class BattleArena extends JavaPlugin implements LoggerHolder, BattleArena
             connector.connect();
         }
 
+        InventoryBackup.start();
+
+        if (this.config.isStatsEnabled()) {
+            this.statPersistence = StatPersistence.create(this, this.config);
+        }
+
         this.debugMode = this.config.isDebugMode();
 
         if (Files.notExists(this.arenasPath)) {
@@ -286,6 +294,16 @@ public class BattleArena extends JavaPlugin implements LoggerHolder, BattleArena
         // Close all active competitions
         this.competitionManager.completeAllActiveCompetitions();
         this.dynamicArenaCache.shutdown();
+        SchematicCache.clear();
+
+        // Make sure backups queued in the background are written before shutting down
+        InventoryBackup.flush();
+
+        // Save the stats of every player who left the competitions closed above
+        if (this.statPersistence != null) {
+            this.statPersistence.shutdown();
+            this.statPersistence = null;
+        }
 
         // Stop all scheduled events
         this.eventScheduler.stopAllEvents();
@@ -379,7 +397,7 @@ public class BattleArena extends JavaPlugin implements LoggerHolder, BattleArena
                 this.connector.sendSyncConfig();
             } else {
                 // Non-host servers request the latest maps from the host via the TCP router.
-                this.connector.sendToRouter("{\"type\":\"sync_request\"}");
+                this.connector.sendToRouter(new ProxyMessage.SyncRequest(this.config.getProxyServerName()), ProxyDestination.host());
             }
         }
 
@@ -593,6 +611,30 @@ public class BattleArena extends JavaPlugin implements LoggerHolder, BattleArena
         return this.competitionManager.getCompetitions(arena, name);
     }
 
+    /**
+     * Returns the {@link LiveCompetition} whose map contains the given {@link Location}.
+     *
+     * @param location the location to get the competition at
+     * @return the competition at the given location, or null if not found
+     */
+    @Nullable
+    public LiveCompetition<?> getCompetitionAt(Location location) {
+        return this.competitionManager.getIndex().getCompetitionAt(location);
+    }
+
+    /**
+     * Returns all the {@link LiveCompetition}s whose maps overlap the
+     * given chunk.
+     *
+     * @param world the world of the chunk
+     * @param chunkX the x coordinate of the chunk
+     * @param chunkZ the z coordinate of the chunk
+     * @return all the competitions overlapping the given chunk
+     */
+    public List<LiveCompetition<?>> getCompetitionsInChunk(World world, int chunkX, int chunkZ) {
+        return this.competitionManager.getIndex().getCompetitions(world, chunkX, chunkZ);
+    }
+
     /**
      * Returns a currently active {@link Competition} for the given {@link Arena},
      * {@link Player}, {@link PlayerRole} and map name. If no competition is found,
@@ -695,6 +737,16 @@ public class BattleArena extends JavaPlugin implements LoggerHolder, BattleArena
         return this.connector;
     }
 
+    /**
+     * Returns the persistence used to save the lifetime stats of players.
+     *
+     * @return the stat persistence, or null if saving stats is disabled
+     */
+    @Nullable
+    public StatPersistence getStatPersistence() {
+        return this.statPersistence;
+    }
+
     @Nullable
     public ProxySpectateHandler getProxySpectateHandler() {
         return this.proxySpectateHandler;
@@ -937,23 +989,9 @@ public class BattleArena extends JavaPlugin implements LoggerHolder, BattleArena
                         return;
                     }
 
-                    try {
-                        Configuration configuration = YamlConfiguration.loadConfiguration(Files.newBufferedReader(mapPath));
-                        LiveCompetitionMap map = ArenaConfigParser.newInstance(mapPath, arena.getMapFactory().getMapClass(), configuration, this);
-                        if (map.getBounds() == null && map.getType() == MapType.DYNAMIC) {
-                            // Cannot create dynamic map without bounds
-                            this.warn("Map {} for arena {} is dynamic but does not have bounds!", map.getName(), arena.getName());
-                            return;
-                        }
-
-                        if (map.isRemote() || !proxy) {
-                            this.addArenaMap(arena, map);
-                        }
-                        this.info("Loaded map {} for arena {}.", map.getName(), arena.getName());
-                    } catch (IOException e) {
-                        throw new RuntimeException("Error reading competition config", e);
-                    } catch (ParseException e) {
-                        ParseException.handle(e);
+                    LiveCompetitionMap map = this.loadArenaMap(arena, mapPath);
+                    if (map != null && (map.isRemote() || !proxy)) {
+                        this.addArenaMap(arena, map);
                     }
                 });
             } catch (IOException e) {
@@ -962,6 +1000,59 @@ public class BattleArena extends JavaPlugin implements LoggerHolder, BattleArena
         }
     }
 
+    /**
+     * Reloads the remote maps stored in the given map files, which have
+     * been synchronized from the proxy host. Every other map is left as is.
+     *
+     * @param mapPaths the paths of the map files which changed
+     */
+    public void reloadRemoteMaps(Collection<Path> mapPaths) {
+        Path mapsPath = this.getMapsPath();
+        for (Path mapPath : mapPaths) {
+            Path relativePath = mapsPath.relativize(mapPath);
+            if (relativePath.getNameCount() < 2 || Files.notExists(mapPath)) {
+                continue;
+            }
+
+            Arena arena = this.getArena(relativePath.getName(0).toString());
+            if (arena == null) {
+                continue;
+            }
+
+            LiveCompetitionMap map = this.loadArenaMap(arena, mapPath);
+            if (map == null) {
+                continue;
+            }
+
+            List<LiveCompetitionMap> maps = this.arenaMaps.computeIfAbsent(arena, k -> new ArrayList<>());
+            maps.removeIf(existing -> existing.isRemote() && existing.getName().equals(map.getName()));
+            if (map.isRemote()) {
+                maps.add(map);
+            }
+        }
+    }
+
+    @Nullable
+    private LiveCompetitionMap loadArenaMap(Arena arena, Path mapPath) {
+        try {
+            Configuration configuration = YamlConfiguration.loadConfiguration(Files.newBufferedReader(mapPath));
+            LiveCompetitionMap map = ArenaConfigParser.newInstance(mapPath, arena.getMapFactory().getMapClass(), configuration, this);
+            if (map.getBounds() == null && map.getType() == MapType.DYNAMIC) {
+                // Cannot create dynamic map without bounds
+                this.warn("Map {} for arena {} is dynamic but does not have bounds!", map.getName(), arena.getName());
+                return null;
+            }
+
+            this.info("Loaded map {} for arena {}.", map.getName(), arena.getName());
+            return map;
+        } catch (IOException e) {
+            throw new RuntimeException("Error reading competition config", e);
+        } catch (ParseException e) {
+            ParseException.handle(e);
+            return null;
+        }
+    }
+
     private void clearDynamicMaps() {
         for (File file : Bukkit.getWorldContainer().listFiles()) {
             if (file.isDirectory() && file.getName().startsWith("ba-dynamic")) {
@@ -1081,30 +1172,19 @@ public class BattleArena extends JavaPlugin implements LoggerHolder, BattleArena
             return true;
         }
 
-        return this.sendProxySpectateRequest(spectator, payload -> {
-            payload.addProperty("mode", "arena");
-            if (arena != null) {
-                payload.addProperty("arena", arena.getName());
-            }
-            if (mapName != null && !mapName.isEmpty()) {
-                payload.addProperty("map", mapName);
-            }
-        });
+        return this.sendProxySpectateRequest(spectator, ProxySpectateHandler.ProxySpectateRequest.Mode.ARENA, arena.getName(), mapName, null, null);
     }
 
     public boolean requestProxyPlayerSpectate(Player spectator, @Nullable java.util.UUID targetId, @Nullable String targetName) {
-        return this.sendProxySpectateRequest(spectator, payload -> {
-            payload.addProperty("mode", "player");
-            if (targetId != null) {
-                payload.addProperty("target", targetId.toString());
-            }
-            if (targetName != null && !targetName.isEmpty()) {
-                payload.addProperty("targetName", targetName);
-            }
-        });
+        return this.sendProxySpectateRequest(spectator, ProxySpectateHandler.ProxySpectateRequest.Mode.PLAYER, null, null, targetId, targetName);
     }
 
-    private boolean sendProxySpectateRequest(Player spectator, Consumer<JsonObject> payloadCustomizer) {
+    private boolean sendProxySpectateRequest(Player spectator,
+                                             ProxySpectateHandler.ProxySpectateRequest.Mode mode,
+                                             @Nullable String arenaName,
+                                             @Nullable String mapName,
+                                             @Nullable java.util.UUID targetId,
+                                             @Nullable String targetName) {
         if (!this.getMainConfig().isProxySupport() || this.getMainConfig().isProxyHost()) {
             return false;
         }
@@ -1120,38 +1200,12 @@ public class BattleArena extends JavaPlugin implements LoggerHolder, BattleArena
         }
 
         SerializedPlayer serialized = SerializedPlayer.toSerializedPlayer(spectator);
-        JsonObject payload = new JsonObject();
-        payload.addProperty("type", "spectate_request");
-
-        String origin = this.getMainConfig().getProxyServerName();
-        if (origin != null && !origin.isEmpty()) {
-            payload.addProperty("origin", origin);
-        }
-
-        JsonObject spectatorObject = new JsonObject();
-        spectatorObject.addProperty("uuid", serialized.getUuid());
-
-        if (!serialized.getElements().isEmpty()) {
-            JsonArray elementsArray = new JsonArray();
-            serialized.getElements().forEach(element -> elementsArray.add(element.name()));
-            spectatorObject.add("elements", elementsArray);
-        }
-
-        if (!serialized.getAbilities().isEmpty()) {
-            JsonObject abilitiesObject = new JsonObject();
-            serialized.getAbilities().forEach((slot, ability) -> abilitiesObject.addProperty(String.valueOf(slot), ability));
-            spectatorObject.add("abilities", abilitiesObject);
-        }
-
-        if (serialized.getOrigin() != null && !serialized.getOrigin().isEmpty()) {
-            spectatorObject.addProperty("origin", serialized.getOrigin());
-        }
-
-        payload.add("spectator", spectatorObject);
-        payloadCustomizer.accept(payload);
+        ProxyMessage.SpectateRequest request = new ProxyMessage.SpectateRequest(
+                this.getMainConfig().getProxyServerName(), serialized, mode, arenaName, mapName, targetId, targetName
+        );
 
         this.addPendingProxySpectate(spectator.getUniqueId());
-        this.connector.sendToRouter(payload.toString());
+        this.connector.sendToRouter(request, ProxyDestination.host());
         Messages.PROXY_SPECTATE_PREPARING.send(spectator);
         return true;
     }
@@ -1263,16 +1317,13 @@ public class BattleArena extends JavaPlugin implements LoggerHolder, BattleArena
             return;
         }
 
-        JsonObject payload = new JsonObject();
-        payload.addProperty("type", "duel_roster");
-        JsonArray players = new JsonArray();
+        List<String> players = new ArrayList<>();
         for (String name : names) {
             if (name != null && !name.isEmpty()) {
                 players.add(name);
             }
         }
-        payload.add("players", players);
-        connector.sendToRouter(payload.toString());
+        connector.sendToRouter(new ProxyMessage.DuelRoster(players), ProxyDestination.broadcast());
     }
 
     /**
@@ -2,9 +2,12 @@ package org.battleplugins.arena;
 
 import org.battleplugins.arena.competition.Competition;
 import org.battleplugins.arena.competition.CompetitionResult;
+import org.battleplugins.arena.competition.LiveCompetition;
 import org.battleplugins.arena.competition.PlayerRole;
 import org.battleplugins.arena.competition.event.EventScheduler;
 import org.battleplugins.arena.competition.map.CompetitionMap;
+import org.bukkit.Location;
+import org.bukkit.World;
 import org.bukkit.entity.Player;
 import org.bukkit.plugin.Plugin;
 import org.jetbrains.annotations.Nullable;
@@ -117,6 +120,26 @@ public interface BattleArenaApi {
      */
     List<Competition<?>> getCompetitions(Arena arena, String name);
 
+    /**
+     * Returns the {@link LiveCompetition} whose map contains the given {@link Location}.
+     *
+     * @param location the location to get the competition at
+     * @return the competition at the given location, or null if not found
+     */
+    @Nullable
+    LiveCompetition<?> getCompetitionAt(Location location);
+
+    /**
+     * Returns all the {@link LiveCompetition}s whose maps overlap the
+     * given chunk.
+     *
+     * @param world the world of the chunk
+     * @param chunkX the x coordinate of the chunk
+     * @param chunkZ the z coordinate of the chunk
+     * @return all the competitions overlapping the given chunk
+     */
+    List<LiveCompetition<?>> getCompetitionsInChunk(World world, int chunkX, int chunkZ);
+
     /**
      * Finds a joinable {@link Competition} for the given {@link Player} and {@link PlayerRole}.
      *
@@ -36,6 +36,18 @@ public class BattleArenaConfig {
     @ArenaOption(name = "cache-dynamic-arenas", description = "Whether dynamic arenas should be cached and restored between matches.", required = true)
     private boolean cacheDynamicArenas;
 
+    @ArenaOption(name = "schematic-cache-size", description = "The amount of memory, in megabytes, that decoded schematics may use while cached.")
+    private int schematicCacheSize = 256;
+
+    @ArenaOption(name = "cache-reset-max-changes", description = "The maximum number of changed blocks a cached dynamic arena can have to be reset block by block, rather than rebuilt in full.")
+    private int cacheResetMaxChanges = 4096;
+
+    @ArenaOption(name = "dynamic-pool-fills-per-tick", description = "The maximum number of pooled dynamic map copies that may start building each tick.")
+    private int dynamicPoolFillsPerTick = 1;
+
+    @ArenaOption(name = "dynamic-pool-max-concurrent-fills", description = "The maximum number of pooled dynamic map copies that may be building at once.")
+    private int dynamicPoolMaxConcurrentFills = 2;
+
     @ArenaOption(name = "disabled-modules", description = "Modules that are disabled by default.")
     private List<String> disabledModules;
 
@@ -72,6 +84,51 @@ public class BattleArenaConfig {
     @ArenaOption(name = "redis-channel", description = "Redis pub/sub channel for proxy messaging")
     private String redisChannel = "battlearena:proxy";
 
+    @ArenaOption(name = "proxy-message-format", description = "The format proxy messages are sent in (json or binary).")
+    private String proxyMessageFormat = "json";
+
+    @ArenaOption(name = "proxy-directed-messages", description = "Whether proxy messages for a single server are only sent to that server.")
+    private boolean proxyDirectedMessages = false;
+
+    @ArenaOption(name = "proxy-max-pending-messages", description = "The maximum number of received proxy messages waiting to be handled.")
+    private int proxyMaxPendingMessages = 1024;
+
+    @ArenaOption(name = "stats-enabled", description = "Whether the lifetime stats of players should be saved.")
+    private boolean statsEnabled = true;
+
+    @ArenaOption(name = "stats-storage", description = "Where lifetime stats are saved (file, sql or redis).")
+    private String statsStorage = "file";
+
+    @ArenaOption(name = "stats-tracked", description = "The stats which are saved when a match ends.")
+    private List<String> trackedStats = List.of("kills", "deaths");
+
+    @ArenaOption(name = "stats-flush-interval", description = "How often, in seconds, pending stat changes are saved.")
+    private int statsFlushInterval = 30;
+
+    @ArenaOption(name = "stats-batch-size", description = "The maximum number of stat changes saved at once.")
+    private int statsBatchSize = 256;
+
+    @ArenaOption(name = "stats-max-pending-writes", description = "The maximum number of stat changes waiting to be saved.")
+    private int statsMaxPendingWrites = 16384;
+
+    @ArenaOption(name = "stats-cache-size", description = "The number of players whose lifetime stats are kept in memory.")
+    private int statsCacheSize = 1000;
+
+    @ArenaOption(name = "stats-sql-url", description = "JDBC url of the database stats are saved to.")
+    private String statsSqlUrl = "";
+
+    @ArenaOption(name = "stats-sql-username", description = "Username for the stats database.")
+    private String statsSqlUsername = "";
+
+    @ArenaOption(name = "stats-sql-password", description = "Password for the stats database.")
+    private String statsSqlPassword = "";
+
+    @ArenaOption(name = "stats-sql-table", description = "The table stats are saved in.")
+    private String statsSqlTable = "battlearena_stats";
+
+    @ArenaOption(name = "stats-redis-prefix", description = "Prefix of the Redis keys stats are saved in.")
+    private String statsRedisPrefix = "battlearena:stats";
+
     public String getConfigVersion() {
         return this.configVersion;
     }
@@ -112,6 +169,22 @@ public class BattleArenaConfig {
         return this.cacheDynamicArenas;
     }
 
+    public int getSchematicCacheSize() {
+        return this.schematicCacheSize;
+    }
+
+    public int getCacheResetMaxChanges() {
+        return this.cacheResetMaxChanges;
+    }
+
+    public int getDynamicPoolFillsPerTick() {
+        return this.dynamicPoolFillsPerTick;
+    }
+
+    public int getDynamicPoolMaxConcurrentFills() {
+        return this.dynamicPoolMaxConcurrentFills;
+    }
+
     public boolean isProxyHost() {
         return proxyHost;
     }
@@ -148,6 +221,66 @@ public class BattleArenaConfig {
         return redisChannel;
     }
 
+    public String getProxyMessageFormat() {
+        return this.proxyMessageFormat;
+    }
+
+    public boolean isProxyDirectedMessages() {
+        return this.proxyDirectedMessages;
+    }
+
+    public int getProxyMaxPendingMessages() {
+        return this.proxyMaxPendingMessages;
+    }
+
+    public boolean isStatsEnabled() {
+        return this.statsEnabled;
+    }
+
+    public String getStatsStorage() {
+        return this.statsStorage;
+    }
+
+    public List<String> getTrackedStats() {
+        return this.trackedStats == null ? List.of() : List.copyOf(this.trackedStats);
+    }
+
+    public int getStatsFlushInterval() {
+        return this.statsFlushInterval;
+    }
+
+    public int getStatsBatchSize() {
+        return this.statsBatchSize;
+    }
+
+    public int getStatsMaxPendingWrites() {
+        return this.statsMaxPendingWrites;
+    }
+
+    public int getStatsCacheSize() {
+        return this.statsCacheSize;
+    }
+
+    public String getStatsSqlUrl() {
+        return this.statsSqlUrl;
+    }
+
+    public String getStatsSqlUsername() {
+        return this.statsSqlUsername;
+    }
+
+    public String getStatsSqlPassword() {
+        return this.statsSqlPassword;
+    }
+
+    public String getStatsSqlTable() {
+        return this.statsSqlTable;
+    }
+
+    public String getStatsRedisPrefix() {
+        return this.statsRedisPrefix;
+    }
+
     public static class Updater implements ConfigUpdater<BattleArenaConfig> {
 
         @Override
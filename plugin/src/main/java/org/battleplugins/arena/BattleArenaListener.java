@@ -5,6 +5,7 @@ import net.kyori.adventure.text.serializer.plain.PlainTextComponentSerializer;
 import org.battleplugins.arena.competition.PlayerStorage;
 import org.battleplugins.arena.editor.ArenaEditorWizard;
 import org.battleplugins.arena.event.BattleArenaPostInitializeEvent;
+import org.battleplugins.arena.stat.store.StatPersistence;
 import org.battleplugins.arena.util.Util;
 import org.bukkit.Location;
 import org.bukkit.event.EventHandler;
@@ -48,6 +49,12 @@ class BattleArenaListener implements Listener {
 
     @EventHandler
     public void onJoin(PlayerJoinEvent event) {
+        // Stats may have been saved by another server sharing the same storage
+        StatPersistence statPersistence = this.plugin.getStatPersistence();
+        if (statPersistence != null) {
+            statPersistence.invalidate(event.getPlayer().getUniqueId());
+        }
+
         // Check to see if the player has a last location stored from when they last logged off.
         // If so, we need to teleport them to that location when they join the server.
         PersistentDataContainer container = event.getPlayer().getPersistentDataContainer();
@@ -1,7 +1,5 @@
 package org.battleplugins.arena.command;
 
-import com.google.gson.JsonArray;
-import com.google.gson.JsonObject;
 import net.kyori.adventure.text.Component;
 import net.kyori.adventure.text.format.NamedTextColor;
 import org.battleplugins.arena.Arena;
@@ -30,6 +28,9 @@ import org.battleplugins.arena.module.ArenaModuleContainer;
 import org.battleplugins.arena.options.ArenaOptionType;
 import org.battleplugins.arena.options.TeamSelection;
 import org.battleplugins.arena.options.types.BooleanArenaOption;
+import org.battleplugins.arena.proxy.ProxyDestination;
+import org.battleplugins.arena.proxy.SerializedPlayer;
+import org.battleplugins.arena.proxy.message.ProxyMessage;
 import org.battleplugins.arena.queue.QueueService;
 import org.battleplugins.arena.team.ArenaTeam;
 import org.bukkit.Bukkit;
@@ -568,42 +569,14 @@ public class ArenaCommandExecutor extends BaseCommandExecutor {
                 Messages.ARENA_ERROR.send(player, "Preparing arena on proxy host. Please wait...");
             }
 
-            JsonObject payload = new JsonObject();
-            payload.addProperty("type", "arena_join");
-            payload.addProperty("arena", this.arena.getName());
-            payload.addProperty("map", map.getName());
-
-            JsonArray playerData = new JsonArray();
+            List<SerializedPlayer> playerData = new ArrayList<>();
             for (Player player : players) {
-                org.battleplugins.arena.proxy.SerializedPlayer serializedPlayer =
-                        org.battleplugins.arena.proxy.SerializedPlayer.toSerializedPlayer(player);
-
-                JsonObject playerObject = new JsonObject();
-                playerObject.addProperty("uuid", serializedPlayer.getUuid());
-
-                if (!serializedPlayer.getElements().isEmpty()) {
-                    JsonArray elementsArray = new JsonArray();
-                    serializedPlayer.getElements().forEach(element -> elementsArray.add(element.name()));
-                    playerObject.add("elements", elementsArray);
-                }
-
-                if (!serializedPlayer.getAbilities().isEmpty()) {
-                    JsonObject abilitiesObject = new JsonObject();
-                    serializedPlayer.getAbilities().forEach((slot, ability) ->
-                            abilitiesObject.addProperty(String.valueOf(slot), ability));
-                    playerObject.add("abilities", abilitiesObject);
-                }
-
-                playerData.add(playerObject);
-            }
-            payload.add("players", playerData);
-
-            String origin = plugin.getMainConfig().getProxyServerName();
-            if (origin != null && !origin.isEmpty()) {
-                payload.addProperty("origin", origin);
+                playerData.add(SerializedPlayer.toSerializedPlayer(player));
             }
 
-            plugin.getConnector().sendToRouter(payload.toString());
+            plugin.getConnector().sendToRouter(new ProxyMessage.ArenaJoin(
+                    this.arena.getName(), map.getName(), false, plugin.getMainConfig().getProxyServerName(), playerData
+            ), ProxyDestination.host());
         }
 
         return true;
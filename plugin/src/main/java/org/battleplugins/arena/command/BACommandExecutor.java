@@ -11,6 +11,8 @@ import org.battleplugins.arena.competition.CompetitionType;
 import org.battleplugins.arena.competition.event.EventOptions;
 import org.battleplugins.arena.competition.event.EventType;
 import org.battleplugins.arena.messages.Messages;
+import org.battleplugins.arena.proxy.Connector;
+import org.battleplugins.arena.proxy.ProxyMessageExecutor;
 import org.battleplugins.arena.util.InventoryBackup;
 import org.battleplugins.arena.util.OptionSelector;
 import org.battleplugins.arena.util.Util;
@@ -128,6 +130,24 @@ public class BACommandExecutor extends BaseCommandExecutor {
                 });
     }
 
+    @ArenaCommand(commands = "proxy", description = "Shows the state of the proxy connector.", permissionNode = "proxy")
+    public void proxy(CommandSender sender) {
+        Connector connector = BattleArena.getInstance().getConnector();
+        if (connector == null) {
+            Messages.PROXY_NOT_ENABLED.send(sender);
+            return;
+        }
+
+        ProxyMessageExecutor.Stats stats = connector.getMessageStats();
+        Messages.HEADER.sendCentered(sender, Messages.PROXY);
+        Messages.PROXY_MESSAGES_QUEUED.send(sender, Integer.toString(stats.queued()));
+        Messages.PROXY_MESSAGES_HANDLED.send(sender, Long.toString(stats.handled()), Long.toString(stats.dropped()));
+        Messages.PROXY_MESSAGES_LATENCY.send(sender,
+                String.format(Locale.ROOT, "%.2f", stats.averageLatencyMicros() / 1000D),
+                String.format(Locale.ROOT, "%.2f", stats.maxLatencyMicros() / 1000D)
+        );
+    }
+
     @ArenaCommand(commands = "start", description = "Starts an event manually.", permissionNode = "start")
     public void event(CommandSender sender, Arena arena) {
         if (arena.getType() != CompetitionType.EVENT) {
@@ -7,12 +7,16 @@ import net.kyori.adventure.text.format.NamedTextColor;
 import org.battleplugins.arena.BattleArena;
 import org.battleplugins.arena.proxy.Elements;
 import org.battleplugins.arena.ranked.RankedApi;
+import org.battleplugins.arena.stat.ArenaStat;
+import org.battleplugins.arena.stat.ArenaStats;
+import org.battleplugins.arena.stat.store.StatPersistence;
 import org.bukkit.Bukkit;
 import org.bukkit.OfflinePlayer;
 import org.bukkit.command.Command;
 import org.bukkit.command.CommandSender;
 import org.bukkit.command.TabExecutor;
 import org.bukkit.entity.Player;
+import org.jetbrains.annotations.Nullable;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -24,11 +28,14 @@ import java.nio.charset.StandardCharsets;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.StringJoiner;
+import java.util.TreeMap;
 import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
 
 /**
- * Global /stats command that pulls ranked ELO if the ranked module is present.
+ * Global /stats command that shows lifetime stats, and pulls
+ * ranked ELO if the ranked module is present.
  */
 public class StatsCommandExecutor extends BaseCommandExecutor {
     private static final Logger log = LoggerFactory.getLogger(StatsCommandExecutor.class);
@@ -45,7 +52,7 @@ public class StatsCommandExecutor extends BaseCommandExecutor {
 
     @ArenaCommand(
             commands = {"stats"},
-            description = "Show ranked ELO stats for yourself or another player.",
+            description = "Show stats for yourself or another player.",
             permissionNode = "stats",
             minArgs = 0,
             maxArgs = 1
@@ -56,7 +63,7 @@ public class StatsCommandExecutor extends BaseCommandExecutor {
 
     @ArenaCommand(
             commands = {"stats"},
-            description = "Show ranked ELO stats for another player.",
+            description = "Show stats for another player.",
             permissionNode = "stats",
             minArgs = 1,
             maxArgs = 1
@@ -75,21 +82,19 @@ public class StatsCommandExecutor extends BaseCommandExecutor {
             return CommandResult.COMMAND_ERROR_HANDLED;
         }
 
-        Optional<RankedApi> rankedServiceOpt = resolveRankedService();
-        if (rankedServiceOpt.isEmpty()) {
-            sender.sendMessage(Component.text("Ranked module is not active on this server.", NamedTextColor.RED));
+        RankedApi rankedService = resolveRankedService().orElse(null);
+        if (rankedService == null && this.plugin.getStatPersistence() == null) {
+            sender.sendMessage(Component.text("Stats are not available on this server.", NamedTextColor.RED));
             return CommandResult.COMMAND_ERROR_HANDLED;
         }
 
-        RankedApi rankedService = rankedServiceOpt.get();
-
         if (target != null && target.getName() != null && !target.hasPlayedBefore()) {
             String lookupName = target.getName();
             resolveFromMojang(lookupName).whenComplete((resolvedId, throwable) -> {
                 Bukkit.getScheduler().runTask(this.plugin, () -> {
                     if (throwable != null) {
                         log.warn("Failed to resolve Mojang UUID for {}", lookupName, throwable);
-                        sender.sendMessage(Component.text("Unable to resolve ranked stats for " + lookupName + " right now.", NamedTextColor.RED));
+                        sender.sendMessage(Component.text("Unable to resolve stats for " + lookupName + " right now.", NamedTextColor.RED));
                         return;
                     }
 
@@ -98,13 +103,23 @@ public class StatsCommandExecutor extends BaseCommandExecutor {
                         return;
                     }
 
-                    this.sendRankedStats(sender, rankedService, resolvedId, lookupName);
+                    this.sendStats(sender, rankedService, resolvedId, lookupName);
                 });
             });
             return CommandResult.SUCCESS;
         }
 
-        return this.sendRankedStats(sender, rankedService, id, name);
+        return this.sendStats(sender, rankedService, id, name);
+    }
+
+    private CommandResult sendStats(CommandSender sender, @Nullable RankedApi rankedService, UUID id, String name) {
+        CommandResult result = CommandResult.SUCCESS;
+        if (rankedService != null) {
+            result = this.sendRankedStats(sender, rankedService, id, name);
+        }
+
+        this.sendLifetimeStats(sender, id, name);
+        return result;
     }
 
     private CommandResult sendRankedStats(CommandSender sender, RankedApi rankedService, UUID id, String name) {
@@ -132,6 +147,41 @@ public class StatsCommandExecutor extends BaseCommandExecutor {
         }
     }
 
+    private void sendLifetimeStats(CommandSender sender, UUID id, String name) {
+        StatPersistence persistence = this.plugin.getStatPersistence();
+        if (persistence == null) {
+            return;
+        }
+
+        // Stats are loaded off the main thread if they are not cached
+        persistence.getStats(id).whenComplete((stats, throwable) -> Bukkit.getScheduler().runTask(this.plugin, () -> {
+            if (throwable != null) {
+                sender.sendMessage(Component.text("Unable to fetch stats right now.", NamedTextColor.RED));
+                return;
+            }
+
+            if (stats.isEmpty()) {
+                sender.sendMessage(Component.text("No stats recorded for " + name + ".", NamedTextColor.YELLOW));
+                return;
+            }
+
+            sender.sendMessage(Component.text("Stats for " + name, NamedTextColor.GOLD));
+            for (Map.Entry<String, Map<String, Double>> arenaStats : new TreeMap<>(stats).entrySet()) {
+                StringJoiner joiner = new StringJoiner(", ");
+                for (Map.Entry<String, Double> entry : new TreeMap<>(arenaStats.getValue()).entrySet()) {
+                    ArenaStat<?> stat = ArenaStats.get(entry.getKey());
+                    joiner.add((stat == null ? entry.getKey() : stat.getName()) + ": " + formatStat(entry.getValue()));
+                }
+
+                sender.sendMessage(Component.text(" - " + arenaStats.getKey() + ": " + joiner, NamedTextColor.YELLOW));
+            }
+        }));
+    }
+
+    private static String formatStat(double value) {
+        return value == Math.rint(value) ? String.valueOf((long) value) : String.format("%.2f", value);
+    }
+
     private Optional<RankedApi> resolveRankedService() {
         return Optional.ofNullable(plugin.getRankedApi());
     }
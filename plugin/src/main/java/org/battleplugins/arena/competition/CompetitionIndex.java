@@ -0,0 +1,175 @@
+package org.battleplugins.arena.competition;
+
+import org.battleplugins.arena.competition.map.LiveCompetitionMap;
+import org.battleplugins.arena.competition.map.options.Bounds;
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongConsumer;
+
+/**
+ * A spatial index of the bounds of every {@link LiveCompetition}, used to
+ * find the competition a location belongs to without checking every
+ * competition on the server.
+ * <p>
+ * Competitions are bucketed by world and by every chunk their bounds
+ * overlap, so a lookup only has to check the competitions overlapping
+ * a single chunk. Buckets are copy-on-write, meaning the index can be
+ * queried from any thread.
+ */
+public final class CompetitionIndex {
+    private static final LiveCompetition<?>[] NO_COMPETITIONS = new LiveCompetition<?>[0];
+
+    private final Map<UUID, Map<Long, LiveCompetition<?>[]>> worlds = new ConcurrentHashMap<>();
+    private final Map<LiveCompetition<?>, Entry> entries = new ConcurrentHashMap<>();
+
+    /**
+     * Adds the given competition to the index. Competitions
+     * without bounds are not indexed.
+     *
+     * @param competition the competition to add
+     */
+    public void add(LiveCompetition<?> competition) {
+        LiveCompetitionMap map = competition.getMap();
+        Bounds bounds = map.getBounds();
+        World world = map.getWorld();
+        if (bounds == null || world == null) {
+            return;
+        }
+
+        Entry entry = new Entry(world.getUID(), bounds);
+        if (this.entries.putIfAbsent(competition, entry) != null) {
+            return;
+        }
+
+        Map<Long, LiveCompetition<?>[]> chunks = this.worlds.computeIfAbsent(entry.world(), key -> new ConcurrentHashMap<>());
+        entry.forEachChunk(key -> chunks.compute(key, (k, competitions) -> {
+            LiveCompetition<?>[] current = competitions == null ? NO_COMPETITIONS : competitions;
+            LiveCompetition<?>[] updated = Arrays.copyOf(current, current.length + 1);
+            updated[current.length] = competition;
+            return updated;
+        }));
+    }
+
+    /**
+     * Removes the given competition from the index.
+     *
+     * @param competition the competition to remove
+     */
+    public void remove(LiveCompetition<?> competition) {
+        Entry entry = this.entries.remove(competition);
+        if (entry == null) {
+            return;
+        }
+
+        Map<Long, LiveCompetition<?>[]> chunks = this.worlds.get(entry.world());
+        if (chunks == null) {
+            return;
+        }
+
+        entry.forEachChunk(key -> chunks.computeIfPresent(key, (k, competitions) -> {
+            LiveCompetition<?>[] updated = Arrays.stream(competitions)
+                    .filter(other -> other != competition)
+                    .toArray(LiveCompetition<?>[]::new);
+
+            return updated.length == 0 ? null : updated;
+        }));
+    }
+
+    /**
+     * Gets the competition whose map contains the given location.
+     *
+     * @param location the location
+     * @return the competition containing the location, or null if none
+     */
+    @Nullable
+    public LiveCompetition<?> getCompetitionAt(Location location) {
+        World world = location.getWorld();
+        if (world == null) {
+            return null;
+        }
+
+        return this.getCompetitionAt(world, location.getX(), location.getY(), location.getZ());
+    }
+
+    /**
+     * Gets the competition whose map contains the given position.
+     *
+     * @param world the world of the position
+     * @param x the x coordinate
+     * @param y the y coordinate
+     * @param z the z coordinate
+     * @return the competition containing the position, or null if none
+     */
+    @Nullable
+    public LiveCompetition<?> getCompetitionAt(World world, double x, double y, double z) {
+        Map<Long, LiveCompetition<?>[]> chunks = this.worlds.get(world.getUID());
+        if (chunks == null) {
+            return null;
+        }
+
+        LiveCompetition<?>[] competitions = chunks.get(chunkKey((int) Math.floor(x) >> 4, (int) Math.floor(z) >> 4));
+        if (competitions == null) {
+            return null;
+        }
+
+        for (LiveCompetition<?> competition : competitions) {
+            Entry entry = this.entries.get(competition);
+            if (entry != null && entry.bounds().isInside(x, y, z)) {
+                return competition;
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * Gets every competition whose map overlaps the given chunk.
+     *
+     * @param world the world of the chunk
+     * @param chunkX the x coordinate of the chunk
+     * @param chunkZ the z coordinate of the chunk
+     * @return the competitions overlapping the chunk
+     */
+    public List<LiveCompetition<?>> getCompetitions(World world, int chunkX, int chunkZ) {
+        Map<Long, LiveCompetition<?>[]> chunks = this.worlds.get(world.getUID());
+        if (chunks == null) {
+            return List.of();
+        }
+
+        LiveCompetition<?>[] competitions = chunks.get(chunkKey(chunkX, chunkZ));
+        return competitions == null ? List.of() : List.of(competitions);
+    }
+
+    /**
+     * Gets whether any competition overlaps the given world.
+     *
+     * @param world the world
+     * @return whether any competition is in the world
+     */
+    public boolean hasCompetitions(World world) {
+        Map<Long, LiveCompetition<?>[]> chunks = this.worlds.get(world.getUID());
+        return chunks != null && !chunks.isEmpty();
+    }
+
+    private static long chunkKey(int chunkX, int chunkZ) {
+        return ((long) chunkX << 32) | (chunkZ & 0xFFFFFFFFL);
+    }
+
+    private record Entry(UUID world, Bounds bounds) {
+
+        void forEachChunk(LongConsumer consumer) {
+            for (int chunkX = this.bounds.getMinX() >> 4; chunkX <= this.bounds.getMaxX() >> 4; chunkX++) {
+                for (int chunkZ = this.bounds.getMinZ() >> 4; chunkZ <= this.bounds.getMaxZ() >> 4; chunkZ++) {
+                    consumer.accept(chunkKey(chunkX, chunkZ));
+                }
+            }
+        }
+    }
+}
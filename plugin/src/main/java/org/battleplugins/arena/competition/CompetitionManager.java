@@ -20,6 +20,7 @@ import java.util.concurrent.CompletableFuture;
 
 public class CompetitionManager {
     private final Map<Arena, List<Competition<?>>> competitions = new HashMap<>();
+    private final CompetitionIndex index = new CompetitionIndex();
 
     private final BattleArena plugin;
 
@@ -32,6 +33,16 @@ public class CompetitionManager {
         return competitions == null ? List.of() : List.copyOf(competitions);
     }
 
+    /**
+     * Gets the spatial index of every live competition, which
+     * can be used to look up competitions by location.
+     *
+     * @return the competition index
+     */
+    public CompetitionIndex getIndex() {
+        return this.index;
+    }
+
     public List<Competition<?>> getCompetitions(Arena arena, String name) {
         List<Competition<?>> competitions = this.getCompetitions(arena);
         return competitions.stream()
@@ -153,6 +164,10 @@ public class CompetitionManager {
 
     public void addCompetition(Arena arena, Competition<?> competition) {
         this.competitions.computeIfAbsent(arena, k -> new ArrayList<>()).add(competition);
+        if (competition instanceof LiveCompetition<?> liveCompetition) {
+            this.index.add(liveCompetition);
+        }
+
         this.plugin.getServer().getPluginManager().callEvent(new ArenaCreateCompetitionEvent(arena, competition));
     }
 
@@ -176,6 +191,8 @@ public class CompetitionManager {
 
         boolean removed = competitions.remove(competition);
         if (removed && competition instanceof LiveCompetition<?> liveCompetition) {
+            this.index.remove(liveCompetition);
+
             // De-reference any remaining resources
             liveCompetition.getVictoryManager().end(true);
 
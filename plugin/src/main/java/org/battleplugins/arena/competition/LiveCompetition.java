@@ -3,6 +3,7 @@ package org.battleplugins.arena.competition;
 import org.battleplugins.arena.Arena;
 import org.battleplugins.arena.ArenaLike;
 import org.battleplugins.arena.ArenaPlayer;
+import org.battleplugins.arena.BattleArena;
 import org.battleplugins.arena.competition.map.CompetitionMap;
 import org.battleplugins.arena.competition.map.LiveCompetitionMap;
 import org.battleplugins.arena.competition.map.options.Spawns;
@@ -23,6 +24,7 @@ import org.battleplugins.arena.resolver.Resolvable;
 import org.battleplugins.arena.resolver.Resolver;
 import org.battleplugins.arena.resolver.ResolverKeys;
 import org.battleplugins.arena.resolver.ResolverProvider;
+import org.battleplugins.arena.stat.store.StatPersistence;
 import org.battleplugins.arena.team.ArenaTeam;
 import org.battleplugins.arena.team.ArenaTeams;
 import org.bukkit.entity.Player;
@@ -50,9 +52,14 @@ public class LiveCompetition<T extends Competition<T>> implements ArenaLike, Com
     private final CompetitionListener<T> competitionListener;
     private final OptionsListener<T> optionsListener;
     private final StatListener<T> statListener;
-    
+
+    private final StatLeaderboards leaderboards = new StatLeaderboards(this);
+
     private final int maxPlayers;
 
+    // Only rebuilt once the phase changes, as everything else it provides is read when resolved
+    private CachedResolver cachedResolver;
+
     public LiveCompetition(Arena arena, CompetitionType type, LiveCompetitionMap map) {
         this.arena = arena;
         this.type = type;
@@ -241,6 +248,8 @@ public class LiveCompetition<T extends Competition<T>> implements ArenaLike, Com
             this.teamManager.joinTeam(player, team);
         }
 
+        this.leaderboards.update(player);
+
         if (player.getRole() == PlayerRole.PLAYING) {
             ArenaJoinEvent event = new ArenaJoinEvent(player);
             this.arena.getEventManager().callEvent(event);
@@ -271,6 +280,12 @@ public class LiveCompetition<T extends Competition<T>> implements ArenaLike, Com
         this.playersByRole.get(player.getRole()).remove(player);
 
         this.teamManager.leaveTeam(player);
+        this.leaderboards.update(player);
+
+        StatPersistence persistence = BattleArena.getInstance().getStatPersistence();
+        if (persistence != null) {
+            persistence.record(player);
+        }
 
         ArenaLeaveEvent event = new ArenaLeaveEvent(player, cause);
         this.arena.getEventManager().callEvent(event);
@@ -293,6 +308,7 @@ public class LiveCompetition<T extends Competition<T>> implements ArenaLike, Com
         this.playersByRole.computeIfAbsent(role, e -> new HashSet<>()).add(player);
 
         player.setRole(role);
+        this.leaderboards.update(player);
     }
 
     /**
@@ -346,6 +362,16 @@ public class LiveCompetition<T extends Competition<T>> implements ArenaLike, Com
         return this.teamManager;
     }
 
+    /**
+     * Gets the {@link StatLeaderboards} which rank the players
+     * of the competition by their stats.
+     *
+     * @return the stat leaderboards
+     */
+    public final StatLeaderboards getLeaderboards() {
+        return this.leaderboards;
+    }
+
     /**
      * Gets the {@link VictoryManager} responsible for managing the victory conditions
      * of the competition.
@@ -428,20 +454,31 @@ public class LiveCompetition<T extends Competition<T>> implements ArenaLike, Com
 
     @Override
     public Resolver resolve() {
+        CompetitionPhase<T> phase = this.getPhaseManager().getCurrentPhase();
+        CachedResolver cached = this.cachedResolver;
+        if (cached != null && cached.phase() == phase) {
+            return cached.resolver();
+        }
+
         Resolver.Builder builder = this.arena.resolve().toBuilder()
-                .define(ResolverKeys.ALIVE_PLAYERS, ResolverProvider.simple(this.getAlivePlayerCount(), String::valueOf))
+                .define(ResolverKeys.ALIVE_PLAYERS, ResolverProvider.lazy(this::getAlivePlayerCount, String::valueOf))
                 .define(ResolverKeys.COMPETITION, ResolverProvider.simple(this.getCompetition(), this.getMap()::getName))
-                .define(ResolverKeys.ONLINE_PLAYERS, ResolverProvider.simple(this.getAlivePlayerCount() + this.getSpectatorCount(), String::valueOf))
+                .define(ResolverKeys.ONLINE_PLAYERS, ResolverProvider.lazy(() -> this.getAlivePlayerCount() + this.getSpectatorCount(), String::valueOf))
                 .define(ResolverKeys.MAP, ResolverProvider.simple(this.getMap(), CompetitionMap::getName))
-                .define(ResolverKeys.MAX_PLAYERS, ResolverProvider.simple(this.getMaxPlayers(), String::valueOf))
-                .define(ResolverKeys.PHASE, ResolverProvider.simple(this.getPhaseManager().getCurrentPhase(), p -> p.getType().getName()))
-                .define(ResolverKeys.SPECTATORS, ResolverProvider.simple(this.getSpectatorCount(), String::valueOf));
+                .define(ResolverKeys.MAX_PLAYERS, ResolverProvider.lazy(this::getMaxPlayers, String::valueOf))
+                .define(ResolverKeys.PHASE, ResolverProvider.simple(phase, p -> p.getType().getName()))
+                .define(ResolverKeys.SPECTATORS, ResolverProvider.lazy(this::getSpectatorCount, String::valueOf));
 
         this.getVictoryManager().resolve().mergeInto(builder);
-        if (this.getPhaseManager().getCurrentPhase() instanceof LiveCompetitionPhase<?> phase) {
-            phase.resolve().mergeInto(builder);
+        if (phase instanceof LiveCompetitionPhase<?> livePhase) {
+            livePhase.resolve().mergeInto(builder);
         }
-        
-        return builder.build();
+
+        Resolver resolver = builder.build();
+        this.cachedResolver = new CachedResolver(phase, resolver);
+        return resolver;
+    }
+
+    private record CachedResolver(CompetitionPhase<?> phase, Resolver resolver) {
     }
 }
@@ -12,8 +12,11 @@ import org.bukkit.entity.Projectile;
 import org.bukkit.event.EventPriority;
 import org.bukkit.event.block.Action;
 import org.bukkit.event.block.BlockBreakEvent;
+import org.bukkit.event.block.BlockBurnEvent;
+import org.bukkit.event.block.BlockExplodeEvent;
 import org.bukkit.event.block.BlockPlaceEvent;
 import org.bukkit.event.entity.EntityDamageByEntityEvent;
+import org.bukkit.event.entity.EntityExplodeEvent;
 import org.bukkit.event.entity.FoodLevelChangeEvent;
 import org.bukkit.event.entity.PlayerDeathEvent;
 import org.bukkit.event.player.PlayerDropItemEvent;
@@ -37,6 +40,27 @@ class OptionsListener<T extends Competition<T>> implements ArenaListener, Compet
         }
     }
 
+    @ArenaEventHandler(priority = EventPriority.LOWEST)
+    public void onBlockExplode(BlockExplodeEvent event) {
+        if (!this.competition.option(ArenaOptionType.BLOCK_BREAK).map(BooleanArenaOption::isEnabled).orElse(true)) {
+            event.blockList().clear();
+        }
+    }
+
+    @ArenaEventHandler(priority = EventPriority.LOWEST)
+    public void onEntityExplode(EntityExplodeEvent event) {
+        if (!this.competition.option(ArenaOptionType.BLOCK_BREAK).map(BooleanArenaOption::isEnabled).orElse(true)) {
+            event.blockList().clear();
+        }
+    }
+
+    @ArenaEventHandler(priority = EventPriority.LOWEST)
+    public void onBlockBurn(BlockBurnEvent event) {
+        if (!this.competition.option(ArenaOptionType.BLOCK_BREAK).map(BooleanArenaOption::isEnabled).orElse(true)) {
+            event.setCancelled(true);
+        }
+    }
+
     @ArenaEventHandler(priority = EventPriority.LOWEST)
     public void onBlockPlace(BlockPlaceEvent event) {
         if (!this.competition.option(ArenaOptionType.BLOCK_PLACE).map(BooleanArenaOption::isEnabled).orElse(true)) {
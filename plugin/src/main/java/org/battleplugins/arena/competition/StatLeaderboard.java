@@ -0,0 +1,199 @@
+package org.battleplugins.arena.competition;
+
+import org.battleplugins.arena.ArenaPlayer;
+import org.battleplugins.arena.stat.ArenaStat;
+import org.battleplugins.arena.team.ArenaTeam;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * An ordered index of the values a numeric {@link ArenaStat} has for
+ * every player in a competition.
+ * <p>
+ * The index is kept sorted as stats change, rather than sorting every player
+ * each time the leaders are requested. Players are held in an array ordered from
+ * the highest to the lowest value, so the rank of a player is found with a binary
+ * search and the top entries are simply the front of the array. The total value
+ * of every team is maintained alongside it.
+ * <p>
+ * Leaderboards are only accessed from the main thread.
+ */
+public final class StatLeaderboard {
+    private static final Comparator<Entry> ORDER = (entry1, entry2) -> {
+        int compare = Double.compare(entry2.value, entry1.value);
+        return compare == 0 ? Long.compare(entry1.sequence, entry2.sequence) : compare;
+    };
+
+    private final ArenaStat<? extends Number> stat;
+    private final List<Entry> entries = new ArrayList<>();
+    private final Map<ArenaPlayer, Entry> players = new HashMap<>();
+    private final Map<ArenaTeam, Double> teamTotals = new HashMap<>();
+
+    private long sequence;
+
+    StatLeaderboard(ArenaStat<? extends Number> stat) {
+        this.stat = stat;
+    }
+
+    /**
+     * Gets the {@link ArenaStat} this leaderboard is for.
+     *
+     * @return the stat this leaderboard is for
+     */
+    public ArenaStat<? extends Number> getStat() {
+        return this.stat;
+    }
+
+    /**
+     * Gets the players with the highest values.
+     *
+     * @param limit the maximum amount of players to return
+     * @return the players with the highest values, from the highest to the lowest
+     */
+    public List<ArenaPlayer> getTop(int limit) {
+        int size = Math.min(limit, this.entries.size());
+        List<ArenaPlayer> players = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            players.add(this.entries.get(i).player);
+        }
+
+        return players;
+    }
+
+    /**
+     * Gets the players with the lowest values.
+     *
+     * @param limit the maximum amount of players to return
+     * @return the players with the lowest values, from the lowest to the highest
+     */
+    public List<ArenaPlayer> getBottom(int limit) {
+        int size = Math.min(limit, this.entries.size());
+        List<ArenaPlayer> players = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            players.add(this.entries.get(this.entries.size() - i - 1).player);
+        }
+
+        return players;
+    }
+
+    /**
+     * Gets the rank of the given player, where the player
+     * with the highest value has a rank of 1.
+     *
+     * @param player the player to get the rank of
+     * @return the rank of the player, or -1 if the player is not ranked
+     */
+    public int getRank(ArenaPlayer player) {
+        Entry entry = this.players.get(player);
+        if (entry == null) {
+            return -1;
+        }
+
+        return Collections.binarySearch(this.entries, entry, ORDER) + 1;
+    }
+
+    /**
+     * Gets the value the stat has for the given player, as
+     * known to this leaderboard.
+     *
+     * @param player the player to get the value for
+     * @return the value of the stat for the player
+     */
+    public double getValue(ArenaPlayer player) {
+        Entry entry = this.players.get(player);
+        return entry == null ? this.stat.getDefaultValue().doubleValue() : entry.value;
+    }
+
+    /**
+     * Gets the total value of the stat for every player on the given team.
+     *
+     * @param team the team to get the total for
+     * @return the total value of the stat for the team
+     */
+    public double getTeamTotal(ArenaTeam team) {
+        return this.teamTotals.getOrDefault(team, 0D);
+    }
+
+    /**
+     * Gets the amount of players on this leaderboard.
+     *
+     * @return the amount of players on this leaderboard
+     */
+    public int size() {
+        return this.entries.size();
+    }
+
+    void update(ArenaPlayer player) {
+        Number number = player.getStat(this.stat);
+        double value = number == null ? this.stat.getDefaultValue().doubleValue() : number.doubleValue();
+        ArenaTeam team = player.getTeam();
+
+        Entry entry = this.players.get(player);
+        if (entry == null) {
+            entry = new Entry(player, this.sequence++);
+            entry.value = value;
+            entry.team = team;
+
+            this.players.put(player, entry);
+            this.insert(entry);
+            this.addToTeam(team, value);
+            return;
+        }
+
+        if (entry.value == value && entry.team == team) {
+            return;
+        }
+
+        this.addToTeam(entry.team, -entry.value);
+        this.addToTeam(team, value);
+        entry.team = team;
+
+        if (entry.value != value) {
+            this.entries.remove(Collections.binarySearch(this.entries, entry, ORDER));
+            entry.value = value;
+            this.insert(entry);
+        }
+    }
+
+    void remove(ArenaPlayer player) {
+        Entry entry = this.players.remove(player);
+        if (entry == null) {
+            return;
+        }
+
+        this.entries.remove(Collections.binarySearch(this.entries, entry, ORDER));
+        this.addToTeam(entry.team, -entry.value);
+    }
+
+    private void insert(Entry entry) {
+        int index = Collections.binarySearch(this.entries, entry, ORDER);
+        this.entries.add(-index - 1, entry);
+    }
+
+    private void addToTeam(@Nullable ArenaTeam team, double value) {
+        if (team != null) {
+            this.teamTotals.merge(team, value, Double::sum);
+        }
+    }
+
+    private static class Entry {
+        private final ArenaPlayer player;
+        // Breaks ties so players with the same value keep a stable order
+        private final long sequence;
+
+        private double value;
+        @Nullable
+        private ArenaTeam team;
+
+        Entry(ArenaPlayer player, long sequence) {
+            this.player = player;
+            this.sequence = sequence;
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package org.battleplugins.arena.competition;
+
+import org.battleplugins.arena.ArenaPlayer;
+import org.battleplugins.arena.stat.ArenaStat;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Holds the {@link StatLeaderboard}s of a {@link LiveCompetition}.
+ * <p>
+ * A leaderboard is only created and kept up to date once it has been
+ * requested for a stat, so stats nobody ranks players by cost nothing.
+ */
+public final class StatLeaderboards {
+    private final LiveCompetition<?> competition;
+    private final Map<ArenaStat<?>, StatLeaderboard> leaderboards = new HashMap<>();
+
+    StatLeaderboards(LiveCompetition<?> competition) {
+        this.competition = competition;
+    }
+
+    /**
+     * Gets the leaderboard for the given {@link ArenaStat}, creating
+     * it from the players in the competition if it does not exist.
+     *
+     * @param stat the stat to get the leaderboard for
+     * @return the leaderboard for the stat
+     */
+    public StatLeaderboard get(ArenaStat<? extends Number> stat) {
+        StatLeaderboard leaderboard = this.leaderboards.get(stat);
+        if (leaderboard == null) {
+            leaderboard = new StatLeaderboard(stat);
+            for (ArenaPlayer player : this.competition.getPlayers()) {
+                leaderboard.update(player);
+            }
+
+            this.leaderboards.put(stat, leaderboard);
+        }
+
+        return leaderboard;
+    }
+
+    /**
+     * Updates every leaderboard with the current stats,
+     * team and role of the given player.
+     *
+     * @param player the player to update
+     */
+    public void update(ArenaPlayer player) {
+        if (this.leaderboards.isEmpty()) {
+            return;
+        }
+
+        boolean ranked = this.competition.getPlayers().contains(player);
+        for (StatLeaderboard leaderboard : this.leaderboards.values()) {
+            if (ranked) {
+                leaderboard.update(player);
+            } else {
+                leaderboard.remove(player);
+            }
+        }
+    }
+
+    /**
+     * Updates the leaderboard of the given {@link ArenaStat}
+     * with the current value for the given player.
+     *
+     * @param player the player to update
+     * @param stat the stat which changed
+     */
+    public void update(ArenaPlayer player, ArenaStat<?> stat) {
+        StatLeaderboard leaderboard = this.leaderboards.get(stat);
+        if (leaderboard != null && this.competition.getPlayers().contains(player)) {
+            leaderboard.update(player);
+        }
+    }
+}
@@ -39,15 +39,15 @@ class StatListener<T extends Competition<T>> implements ArenaListener, Competiti
 
     @ArenaEventHandler(priority = EventPriority.LOWEST)
     public void onDeath(ArenaDeathEvent event) {
-        event.getArenaPlayer().computeStat(ArenaStats.DEATHS, old -> (old == null ? 0 : old) + 1);
+        event.getArenaPlayer().addInt(ArenaStats.DEATHS, 1);
         if (event.getArena().isLivesEnabled()) {
-            event.getArenaPlayer().computeStat(ArenaStats.LIVES, old -> (old == null ? 0 : old) - 1);
+            event.getArenaPlayer().addInt(ArenaStats.LIVES, -1);
         }
     }
 
     @ArenaEventHandler(priority = EventPriority.LOWEST)
     public void onKill(ArenaKillEvent event) {
-        event.getKiller().computeStat(ArenaStats.KILLS, old -> (old == null ? 0 : old) + 1);
+        event.getKiller().addInt(ArenaStats.KILLS, 1);
     }
 
     @ArenaEventHandler(priority = EventPriority.LOWEST)
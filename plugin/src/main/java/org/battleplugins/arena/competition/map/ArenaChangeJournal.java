@@ -0,0 +1,201 @@
+package org.battleplugins.arena.competition.map;
+
+import org.battleplugins.arena.competition.map.options.Bounds;
+import org.bukkit.World;
+import org.bukkit.block.Block;
+import org.bukkit.block.BlockState;
+import org.bukkit.block.TileState;
+import org.bukkit.block.data.BlockData;
+import org.bukkit.plugin.Plugin;
+import org.bukkit.scheduler.BukkitRunnable;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Records the blocks changed within a dynamic map copy, so the
+ * copy can be reset by only restoring the blocks that changed.
+ * <p>
+ * The original state of a block is captured the first time it changes,
+ * meaning the journal only grows with the damage done to the map rather
+ * than with its size. Once more blocks have changed than the journal is
+ * allowed to hold, it overflows and the map must be rebuilt in full.
+ * <p>
+ * Journals are only accessed from the main thread.
+ */
+final class ArenaChangeJournal {
+    private static final int RESTORE_BLOCKS_PER_TICK = 2048;
+
+    private final World world;
+    private final Bounds bounds;
+    private final int maxChanges;
+    private final Map<Long, BlockData> blocks = new HashMap<>();
+    private final Map<Long, BlockState> tileStates = new HashMap<>();
+
+    private boolean overflowed;
+    private boolean restoring;
+
+    ArenaChangeJournal(World world, Bounds bounds, int maxChanges) {
+        this.world = world;
+        this.bounds = bounds;
+        this.maxChanges = maxChanges;
+    }
+
+    World getWorld() {
+        return this.world;
+    }
+
+    Bounds getBounds() {
+        return this.bounds;
+    }
+
+    /**
+     * Records that the given block is about to change. This must be
+     * called before the block has been modified.
+     *
+     * @param block the block that is about to change
+     */
+    void record(Block block) {
+        long key = this.key(block.getX(), block.getY(), block.getZ());
+        if (key < 0) {
+            return;
+        }
+
+        BlockState state = block.getState(false);
+        if (state instanceof TileState) {
+            // Keep a snapshot so the contents of the tile entity are restored too
+            this.record(key, null, block.getState());
+        } else {
+            this.record(key, block.getBlockData(), null);
+        }
+    }
+
+    /**
+     * Records the state a block had before it changed.
+     *
+     * @param state the state of the block before it changed
+     */
+    void record(BlockState state) {
+        long key = this.key(state.getX(), state.getY(), state.getZ());
+        if (key < 0) {
+            return;
+        }
+
+        if (state instanceof TileState) {
+            this.record(key, null, state);
+        } else {
+            this.record(key, state.getBlockData(), null);
+        }
+    }
+
+    private void record(long key, BlockData data, BlockState state) {
+        if (this.overflowed || this.restoring || this.blocks.containsKey(key) || this.tileStates.containsKey(key)) {
+            return;
+        }
+
+        if (this.blocks.size() + this.tileStates.size() >= this.maxChanges) {
+            this.overflow();
+            return;
+        }
+
+        if (state != null) {
+            this.tileStates.put(key, state);
+        } else {
+            this.blocks.put(key, data);
+        }
+    }
+
+    /**
+     * Marks the journal as overflowed, meaning it can no
+     * longer be used to reset the map.
+     */
+    void overflow() {
+        this.overflowed = true;
+        this.blocks.clear();
+        this.tileStates.clear();
+    }
+
+    boolean isOverflowed() {
+        return this.overflowed;
+    }
+
+    int size() {
+        return this.blocks.size() + this.tileStates.size();
+    }
+
+    /**
+     * Clears the journal, for instance after the map has been rebuilt.
+     */
+    void clear() {
+        this.overflowed = false;
+        this.blocks.clear();
+        this.tileStates.clear();
+    }
+
+    /**
+     * Restores every recorded block to its original state, spreading
+     * the work over multiple ticks if many blocks have changed.
+     *
+     * @param plugin the plugin to schedule the restoration with
+     * @param onComplete run once every block has been restored
+     */
+    void restore(Plugin plugin, Runnable onComplete) {
+        List<Runnable> changes = new ArrayList<>(this.size());
+        for (Map.Entry<Long, BlockData> entry : this.blocks.entrySet()) {
+            Block block = this.block(entry.getKey());
+            BlockData data = entry.getValue();
+            changes.add(() -> block.setBlockData(data, false));
+        }
+
+        for (BlockState state : this.tileStates.values()) {
+            changes.add(() -> state.update(true, false));
+        }
+
+        this.clear();
+        if (changes.size() <= RESTORE_BLOCKS_PER_TICK) {
+            changes.forEach(Runnable::run);
+            onComplete.run();
+            return;
+        }
+
+        // Ignore our own changes while the restoration is in progress
+        this.restoring = true;
+        Iterator<Runnable> iterator = changes.iterator();
+        new BukkitRunnable() {
+
+            @Override
+            public void run() {
+                for (int i = 0; i < RESTORE_BLOCKS_PER_TICK && iterator.hasNext(); i++) {
+                    iterator.next().run();
+                }
+
+                if (!iterator.hasNext()) {
+                    restoring = false;
+                    this.cancel();
+                    onComplete.run();
+                }
+            }
+        }.runTaskTimer(plugin, 0L, 1L);
+    }
+
+    private Block block(long key) {
+        int x = (int) (key >> 42) + this.bounds.getMinX();
+        int y = (int) ((key >> 21) & 0x1FFFFF) + this.bounds.getMinY();
+        int z = (int) (key & 0x1FFFFF) + this.bounds.getMinZ();
+        return this.world.getBlockAt(x, y, z);
+    }
+
+    private long key(int x, int y, int z) {
+        if (!this.bounds.isInside(x, y, z)) {
+            return -1;
+        }
+
+        // Positions are stored relative to the minimum corner of the bounds
+        return ((long) (x - this.bounds.getMinX()) << 42)
+                | ((long) (y - this.bounds.getMinY()) << 21)
+                | (z - this.bounds.getMinZ());
+    }
+}
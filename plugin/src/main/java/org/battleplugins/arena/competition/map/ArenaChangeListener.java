@@ -0,0 +1,235 @@
+package org.battleplugins.arena.competition.map;
+
+import com.destroystokyo.paper.event.block.BlockDestroyEvent;
+import org.bukkit.block.Block;
+import org.bukkit.block.BlockFace;
+import org.bukkit.block.BlockState;
+import org.bukkit.block.data.BlockData;
+import org.bukkit.block.data.Openable;
+import org.bukkit.block.data.Powerable;
+import org.bukkit.block.data.type.Switch;
+import org.bukkit.event.Event;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.block.BlockBreakEvent;
+import org.bukkit.event.block.BlockBurnEvent;
+import org.bukkit.event.block.BlockExplodeEvent;
+import org.bukkit.event.block.BlockFadeEvent;
+import org.bukkit.event.block.BlockFormEvent;
+import org.bukkit.event.block.BlockFromToEvent;
+import org.bukkit.event.block.BlockGrowEvent;
+import org.bukkit.event.block.BlockIgniteEvent;
+import org.bukkit.event.block.BlockMultiPlaceEvent;
+import org.bukkit.event.block.BlockPistonExtendEvent;
+import org.bukkit.event.block.BlockPistonRetractEvent;
+import org.bukkit.event.block.BlockPlaceEvent;
+import org.bukkit.event.block.BlockSpreadEvent;
+import org.bukkit.event.block.FluidLevelChangeEvent;
+import org.bukkit.event.block.LeavesDecayEvent;
+import org.bukkit.event.block.SignChangeEvent;
+import org.bukkit.event.entity.EntityChangeBlockEvent;
+import org.bukkit.event.entity.EntityExplodeEvent;
+import org.bukkit.event.inventory.InventoryMoveItemEvent;
+import org.bukkit.event.inventory.InventoryOpenEvent;
+import org.bukkit.event.player.PlayerBucketEmptyEvent;
+import org.bukkit.event.player.PlayerBucketFillEvent;
+import org.bukkit.event.player.PlayerInteractEvent;
+import org.bukkit.inventory.BlockInventoryHolder;
+import org.bukkit.inventory.Inventory;
+
+import java.util.List;
+
+/**
+ * Feeds block changes within dynamic map copies into
+ * their {@link ArenaChangeJournal}.
+ * <p>
+ * Changes are recorded at the monitor priority, once it is known the event
+ * will not be cancelled, but before the block has actually been modified.
+ * Besides blocks being broken and placed, this covers blocks toggled in place
+ * by players and containers or signs whose contents are edited, since a reset
+ * only restores what the journal has recorded.
+ */
+final class ArenaChangeListener implements Listener {
+    private final DynamicArenaCache cache;
+
+    ArenaChangeListener(DynamicArenaCache cache) {
+        this.cache = cache;
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onBlockBreak(BlockBreakEvent event) {
+        this.record(event.getBlock());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onBlockPlace(BlockPlaceEvent event) {
+        // The block has already been placed by the time the event is called
+        if (event instanceof BlockMultiPlaceEvent multiPlaceEvent) {
+            for (BlockState state : multiPlaceEvent.getReplacedBlockStates()) {
+                this.record(state);
+            }
+        } else {
+            this.record(event.getBlockReplacedState());
+        }
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onBlockDestroy(BlockDestroyEvent event) {
+        // Called for blocks destroyed by the server, such as attached
+        // blocks popping off once the block supporting them is broken
+        this.record(event.getBlock());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onBlockBurn(BlockBurnEvent event) {
+        this.record(event.getBlock());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onBlockFade(BlockFadeEvent event) {
+        this.record(event.getBlock());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onBlockForm(BlockFormEvent event) {
+        this.record(event.getBlock());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onBlockSpread(BlockSpreadEvent event) {
+        this.record(event.getBlock());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onBlockFromTo(BlockFromToEvent event) {
+        this.record(event.getToBlock());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onBlockGrow(BlockGrowEvent event) {
+        this.record(event.getBlock());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onBlockIgnite(BlockIgniteEvent event) {
+        this.record(event.getBlock());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onFluidLevelChange(FluidLevelChangeEvent event) {
+        this.record(event.getBlock());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onLeavesDecay(LeavesDecayEvent event) {
+        this.record(event.getBlock());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onBlockExplode(BlockExplodeEvent event) {
+        this.record(event.getBlock());
+        this.record(event.blockList());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onEntityExplode(EntityExplodeEvent event) {
+        this.record(event.blockList());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onEntityChangeBlock(EntityChangeBlockEvent event) {
+        this.record(event.getBlock());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onPistonExtend(BlockPistonExtendEvent event) {
+        this.recordPiston(event.getBlock(), event.getBlocks(), event.getDirection());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onPistonRetract(BlockPistonRetractEvent event) {
+        this.recordPiston(event.getBlock(), event.getBlocks(), event.getDirection());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onBucketEmpty(PlayerBucketEmptyEvent event) {
+        this.record(event.getBlock());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onBucketFill(PlayerBucketFillEvent event) {
+        this.record(event.getBlock());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onInteract(PlayerInteractEvent event) {
+        Block block = event.getClickedBlock();
+        if (block == null || event.useInteractedBlock() == Event.Result.DENY) {
+            return;
+        }
+
+        // Doors, trapdoors, gates, levers, buttons and pressure plates toggle in place
+        BlockData data = block.getBlockData();
+        if (data instanceof Openable || data instanceof Powerable || data instanceof Switch) {
+            this.record(block);
+        }
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onInventoryOpen(InventoryOpenEvent event) {
+        // Snapshot containers before their contents can be edited
+        this.record(event.getInventory());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onInventoryMoveItem(InventoryMoveItemEvent event) {
+        this.record(event.getSource());
+        this.record(event.getDestination());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onSignChange(SignChangeEvent event) {
+        this.record(event.getBlock());
+    }
+
+    private void recordPiston(Block piston, List<Block> blocks, BlockFace direction) {
+        // The piston head sits on either side of the piston depending on
+        // whether it is extending or retracting
+        this.record(piston);
+        this.record(piston.getRelative(direction));
+        this.record(piston.getRelative(direction.getOppositeFace()));
+
+        // Both the blocks being moved and the blocks they are moved into change
+        for (Block block : blocks) {
+            this.record(block);
+            this.record(block.getRelative(direction));
+        }
+    }
+
+    private void record(List<Block> blocks) {
+        for (Block block : blocks) {
+            this.record(block);
+        }
+    }
+
+    private void record(Inventory inventory) {
+        if (inventory.getHolder(false) instanceof BlockInventoryHolder holder) {
+            this.record(holder.getBlock());
+        }
+    }
+
+    private void record(Block block) {
+        ArenaChangeJournal journal = this.cache.getJournal(block.getWorld(), block.getX(), block.getY(), block.getZ());
+        if (journal != null) {
+            journal.record(block);
+        }
+    }
+
+    private void record(BlockState state) {
+        ArenaChangeJournal journal = this.cache.getJournal(state.getWorld(), state.getX(), state.getY(), state.getZ());
+        if (journal != null) {
+            journal.record(state);
+        }
+    }
+}
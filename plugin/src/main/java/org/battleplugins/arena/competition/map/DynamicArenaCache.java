@@ -1,30 +1,68 @@
 package org.battleplugins.arena.competition.map;
 
+import org.battleplugins.arena.Arena;
 import org.battleplugins.arena.BattleArena;
 import org.battleplugins.arena.BattleArenaConfig;
 import org.battleplugins.arena.competition.map.options.Bounds;
 import org.battleplugins.arena.util.BlockUtil;
+import org.bukkit.Bukkit;
 import org.bukkit.World;
+import org.bukkit.event.HandlerList;
+import org.bukkit.scheduler.BukkitTask;
 import org.jetbrains.annotations.Nullable;
 
+import java.util.ArrayList;
 import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Locale;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Caches dynamic arena copies so they can be recycled between matches.
+ * <p>
+ * Maps may additionally request a pool of idle copies to be kept ready, so
+ * that a match can start without waiting for the map to be built. Pools are
+ * topped up in the background, with the number of copies started per tick and
+ * the number of copies building at once both limited to avoid lag spikes.
+ * <p>
+ * When a map is reset between matches, only the blocks recorded in its
+ * {@link ArenaChangeJournal} are restored. The map is only rebuilt in full
+ * if more blocks changed than the journal can hold.
  */
 public final class DynamicArenaCache {
+    private static final long FILL_RETRY_DELAY = TimeUnit.SECONDS.toMillis(30);
 
     private final BattleArena plugin;
     private final Map<String, Deque<LiveCompetitionMap>> cached = new ConcurrentHashMap<>();
     private final Map<LiveCompetitionMap, CacheEntry> metadata = new ConcurrentHashMap<>();
+    private final Map<String, Pool> pools = new ConcurrentHashMap<>();
+    private final AtomicInteger filling = new AtomicInteger();
+    private final Map<LiveCompetitionMap, ArenaChangeJournal> journals = new HashMap<>();
+    private final Map<Long, List<ArenaChangeJournal>> journalChunks = new HashMap<>();
+    private final ArenaChangeListener changeListener = new ArenaChangeListener(this);
     private volatile boolean suspended;
 
+    private BukkitTask fillTask;
+
     private record CacheEntry(String key, LiveCompetitionMap template) {}
 
+    /**
+     * The amount of copies of a template which exist or are being built.
+     */
+    private static final class Pool {
+        private final AtomicInteger total = new AtomicInteger();
+        private final AtomicInteger filling = new AtomicInteger();
+        // Copies which are idle, but still being reset before they can be borrowed
+        private final AtomicInteger resetting = new AtomicInteger();
+        private volatile long retryAt;
+    }
+
     public DynamicArenaCache(BattleArena plugin) {
         this.plugin = plugin;
     }
@@ -62,7 +100,14 @@ public final class DynamicArenaCache {
             return;
         }
 
-        this.metadata.put(copy, new CacheEntry(this.cacheKey(template), template));
+        String key = this.cacheKey(template);
+        if (this.metadata.put(copy, new CacheEntry(key, template)) == null) {
+            this.pool(key).total.incrementAndGet();
+        }
+
+        if (template.isCacheResetEnabled() && copy.getBounds() != null && copy.getWorld() != null) {
+            this.addJournal(copy);
+        }
     }
 
     /**
@@ -73,7 +118,7 @@ public final class DynamicArenaCache {
      */
     public boolean recycle(LiveCompetitionMap map) {
         if (!this.isEnabled()) {
-            this.metadata.remove(map);
+            this.untrack(map);
             return false;
         }
 
@@ -82,12 +127,35 @@ public final class DynamicArenaCache {
             return false;
         }
 
-        this.enqueue(entry.key(), map);
+        // Let the map be torn down if the pool already has enough idle copies
+        int maxIdle = entry.template().getPoolMaxIdle();
+        Pool pool = this.pool(entry.key());
+        if (maxIdle > 0 && this.idleCount(entry.key()) + pool.resetting.get() >= maxIdle) {
+            this.untrack(map);
+            return false;
+        }
 
-        if (entry.template().isCacheResetEnabled()) {
-            BattleArena.getInstance().getLogger().info("Cache resetting");
-            this.resetAsync(map, entry);
+        if (!entry.template().isCacheResetEnabled()) {
+            this.enqueue(entry.key(), map);
+            return true;
         }
+
+        // Only hand the map out again once it has been fully reset
+        pool.resetting.incrementAndGet();
+        this.resetAsync(map, entry, () -> {
+            pool.resetting.decrementAndGet();
+            if (this.metadata.get(map) != entry) {
+                // Released while it was being reset
+                return;
+            }
+
+            if (!this.isEnabled()) {
+                this.release(map);
+                return;
+            }
+
+            this.enqueue(entry.key(), map);
+        });
         return true;
     }
 
@@ -99,58 +167,183 @@ public final class DynamicArenaCache {
         this.flush();
     }
 
+    /**
+     * Discards a copy which could not be used, releasing its slot.
+     *
+     * @param map the copy to discard
+     */
+    public void discard(LiveCompetitionMap map) {
+        this.release(map);
+    }
+
     public void suspend() {
         this.suspended = true;
+        if (this.fillTask != null) {
+            this.fillTask.cancel();
+            this.fillTask = null;
+            HandlerList.unregisterAll(this.changeListener);
+        }
     }
 
     public void resume() {
         this.suspended = false;
+        if (this.fillTask == null) {
+            this.fillTask = Bukkit.getScheduler().runTaskTimer(this.plugin, this::fill, 1L, 1L);
+            Bukkit.getPluginManager().registerEvents(this.changeListener, this.plugin);
+        }
+    }
+
+    /**
+     * Gets the change journal of the map copy containing the given position.
+     *
+     * @param world the world of the position
+     * @param x the x coordinate
+     * @param y the y coordinate
+     * @param z the z coordinate
+     * @return the journal of the map copy, or null if the position is not
+     *         within a map copy being journaled
+     */
+    @Nullable
+    ArenaChangeJournal getJournal(World world, int x, int y, int z) {
+        if (this.journalChunks.isEmpty()) {
+            return null;
+        }
+
+        List<ArenaChangeJournal> journals = this.journalChunks.get(chunkKey(x >> 4, z >> 4));
+        if (journals == null) {
+            return null;
+        }
+
+        for (ArenaChangeJournal journal : journals) {
+            if (journal.getWorld() == world && journal.getBounds().isInside(x, y, z)) {
+                return journal;
+            }
+        }
+
+        return null;
     }
 
     public void flush() {
-        for (LiveCompetitionMap map : Map.copyOf(this.metadata).keySet()) {
-            this.release(map);
+        // Copies in use stay tracked, and are torn down once their competition ends
+        for (Deque<LiveCompetitionMap> queue : this.cached.values()) {
+            for (LiveCompetitionMap map : List.copyOf(queue)) {
+                this.release(map);
+            }
         }
         this.cached.clear();
+        this.pools.values().removeIf(pool -> pool.total.get() <= 0 && pool.filling.get() == 0);
+    }
+
+    private void fill() {
+        if (!this.isEnabled() || !this.plugin.isInitialized()
+                || this.plugin.getServer().getPluginManager().getPlugin("WorldEdit") == null) {
+            return;
+        }
+
+        BattleArenaConfig config = this.plugin.getMainConfig();
+        int started = 0;
+        for (Map.Entry<Arena, List<LiveCompetitionMap>> entry : this.plugin.getArenaMaps().entrySet()) {
+            for (LiveCompetitionMap template : entry.getValue()) {
+                if (started >= config.getDynamicPoolFillsPerTick() || this.filling.get() >= config.getDynamicPoolMaxConcurrentFills()) {
+                    return;
+                }
+
+                if (this.fillPool(entry.getKey(), template)) {
+                    started++;
+                }
+            }
+        }
+    }
+
+    private boolean fillPool(Arena arena, LiveCompetitionMap template) {
+        if (template.getType() != MapType.DYNAMIC || template.getPoolMinIdle() <= 0 || template.getBounds() == null) {
+            return false;
+        }
+
+        String key = this.cacheKey(template);
+        Pool pool = this.pool(key);
+        if (System.currentTimeMillis() < pool.retryAt) {
+            return false;
+        }
+
+        int filling = pool.filling.get();
+        if (this.idleCount(key) + pool.resetting.get() + filling >= template.getPoolMinIdle()) {
+            return false;
+        }
+
+        int maxTotal = template.getPoolMaxTotal();
+        if (maxTotal >= 0 && pool.total.get() + filling >= maxTotal) {
+            return false;
+        }
+
+        pool.filling.incrementAndGet();
+        this.filling.incrementAndGet();
+
+        CompletableFuture<LiveCompetitionMap> future;
+        try {
+            future = template.createDynamicCopyAsync(arena);
+        } catch (RuntimeException e) {
+            pool.filling.decrementAndGet();
+            this.filling.decrementAndGet();
+            throw e;
+        }
+
+        future.whenComplete((copy, error) -> {
+            pool.filling.decrementAndGet();
+            this.filling.decrementAndGet();
+
+            if (copy == null) {
+                this.plugin.warn("Failed to build pooled copy of map {} in arena {}, retrying in {}s.", template.getName(), arena.getName(), TimeUnit.MILLISECONDS.toSeconds(FILL_RETRY_DELAY));
+                pool.retryAt = System.currentTimeMillis() + FILL_RETRY_DELAY;
+                return;
+            }
+
+            if (!this.isEnabled() || !this.metadata.containsKey(copy)) {
+                this.release(copy);
+                return;
+            }
+
+            this.enqueue(key, copy);
+        });
+
+        return true;
     }
 
-    private void resetAsync(LiveCompetitionMap map, CacheEntry entry) {
+    private void resetAsync(LiveCompetitionMap map, CacheEntry entry, Runnable onReset) {
         Bounds destination = map.getBounds();
         Bounds source = entry.template().getBounds();
         if (destination == null || source == null) {
-            this.failReset(map);
+            this.failReset(map, onReset);
             return;
         }
 
         if (map.getWorld() == null) {
-            this.failReset(map);
+            this.failReset(map, onReset);
             return;
         }
 
-        this.repopulate(map, entry, source, destination);
+        // Only restore the blocks that changed if we know all of them
+        ArenaChangeJournal journal = this.journals.get(map);
+        if (journal != null && !journal.isOverflowed()) {
+            journal.restore(this.plugin, onReset);
+            return;
+        }
+
+        if (journal != null) {
+            journal.clear();
+        }
+
+        this.repopulate(map, entry, source, destination, onReset);
     }
 
-    private void repopulate(LiveCompetitionMap map, CacheEntry entry, Bounds source, Bounds destination) {
+    private void repopulate(LiveCompetitionMap map, CacheEntry entry, Bounds source, Bounds destination, Runnable onReset) {
         BattleArenaConfig config = this.plugin.getMainConfig();
         LiveCompetitionMap template = entry.template();
 
-        Runnable markReady = () -> {}; // no-op, we no longer gate reuse
-
-        boolean started = false;
-        if (config != null && config.isSchematicUsage()) {
-            started = BlockUtil.pasteSchematic(
-                    template.getName(),
-                    template.getArena().getName(),
-                    map.getWorld(),
-                    destination,
-                    markReady
-            );
-        }
-
-        if (!started) {
+        Runnable copy = () -> {
             World sourceWorld = template.getWorld();
             if (sourceWorld == null) {
-                this.failReset(map);
+                this.failReset(map, onReset);
                 return;
             }
 
@@ -159,21 +352,38 @@ public final class DynamicArenaCache {
                     map.getWorld(),
                     source,
                     destination,
-                    markReady
+                    onReset
             );
 
             if (!copied) {
-                this.failReset(map);
+                this.failReset(map, onReset);
             }
+        };
+
+        boolean started = false;
+        if (config != null && config.isSchematicUsage()) {
+            started = BlockUtil.pasteSchematic(
+                    template.getName(),
+                    template.getArena().getName(),
+                    map.getWorld(),
+                    destination,
+                    onReset,
+                    copy
+            );
+        }
+
+        if (!started) {
+            copy.run();
         }
     }
 
-    private void failReset(LiveCompetitionMap map) {
+    private void failReset(LiveCompetitionMap map, Runnable onReset) {
         this.plugin.warn("Failed to reset cached arena {} - leaving current state in place.", map.getName());
+        onReset.run();
     }
 
     private void release(LiveCompetitionMap map) {
-        CacheEntry entry = this.metadata.remove(map);
+        CacheEntry entry = this.untrack(map);
         if (entry != null) {
             Deque<LiveCompetitionMap> queue = this.cached.get(entry.key());
             if (queue != null) {
@@ -195,6 +405,66 @@ public final class DynamicArenaCache {
         return !this.suspended && config != null && config.isCacheDynamicArenas();
     }
 
+    private void addJournal(LiveCompetitionMap map) {
+        Bounds bounds = map.getBounds();
+        ArenaChangeJournal journal = new ArenaChangeJournal(map.getWorld(), bounds, this.plugin.getMainConfig().getCacheResetMaxChanges());
+        if (this.journals.putIfAbsent(map, journal) != null) {
+            return;
+        }
+
+        for (int chunkX = bounds.getMinX() >> 4; chunkX <= bounds.getMaxX() >> 4; chunkX++) {
+            for (int chunkZ = bounds.getMinZ() >> 4; chunkZ <= bounds.getMaxZ() >> 4; chunkZ++) {
+                this.journalChunks.computeIfAbsent(chunkKey(chunkX, chunkZ), key -> new ArrayList<>(1)).add(journal);
+            }
+        }
+    }
+
+    private void removeJournal(LiveCompetitionMap map) {
+        ArenaChangeJournal journal = this.journals.remove(map);
+        if (journal == null) {
+            return;
+        }
+
+        Bounds bounds = journal.getBounds();
+        for (int chunkX = bounds.getMinX() >> 4; chunkX <= bounds.getMaxX() >> 4; chunkX++) {
+            for (int chunkZ = bounds.getMinZ() >> 4; chunkZ <= bounds.getMaxZ() >> 4; chunkZ++) {
+                long key = chunkKey(chunkX, chunkZ);
+                List<ArenaChangeJournal> journals = this.journalChunks.get(key);
+                if (journals != null && journals.remove(journal) && journals.isEmpty()) {
+                    this.journalChunks.remove(key);
+                }
+            }
+        }
+    }
+
+    private static long chunkKey(int chunkX, int chunkZ) {
+        return ((long) chunkX << 32) | (chunkZ & 0xFFFFFFFFL);
+    }
+
+    @Nullable
+    private CacheEntry untrack(LiveCompetitionMap map) {
+        this.removeJournal(map);
+
+        CacheEntry entry = this.metadata.remove(map);
+        if (entry != null) {
+            Pool pool = this.pools.get(entry.key());
+            if (pool != null) {
+                pool.total.decrementAndGet();
+            }
+        }
+
+        return entry;
+    }
+
+    private Pool pool(String key) {
+        return this.pools.computeIfAbsent(key, k -> new Pool());
+    }
+
+    private int idleCount(String key) {
+        Deque<LiveCompetitionMap> queue = this.cached.get(key);
+        return queue == null ? 0 : queue.size();
+    }
+
     private void enqueue(String key, LiveCompetitionMap map) {
         this.cached.computeIfAbsent(key, k -> new ConcurrentLinkedDeque<>()).addLast(map);
     }
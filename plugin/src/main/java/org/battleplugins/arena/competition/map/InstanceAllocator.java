@@ -2,18 +2,45 @@ package org.battleplugins.arena.competition.map;
 
 import org.battleplugins.arena.competition.map.options.Bounds;
 
-import java.util.*;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeSet;
 import java.util.concurrent.locks.ReentrantLock;
 
 /**
  * Allocates non-overlapping regions inside the shared
  * instances world so dynamic maps cannot collide.
+ * <p>
+ * Regions are handed out by a quadtree buddy allocator over the X and Z
+ * axes. The world is divided into chunks, and each map is given a square
+ * block of chunks whose side is the smallest power of two fitting the map
+ * and its spacing. Free blocks are tracked per size in Z-order, so the block
+ * closest to the origin is always used first and released blocks are merged
+ * back with their siblings, allowing holes to be reused by maps of any size.
+ * Both reserving and releasing a region take O(log n) time.
  */
 public final class InstanceAllocator {
+    private static final int CHUNK_SIZE = 16;
+    // The largest block is 2^18 chunks (~4 million blocks) across
+    private static final int MAX_LEVEL = 18;
+
     private final ReentrantLock lock = new ReentrantLock();
-    private final Map<Integer, Bounds> reservations = new HashMap<>();
+    private final Map<Integer, Reservation> reservations = new HashMap<>();
+    private final TreeSet<Long>[] freeBlocks;
+
+    public record Allocation(int offsetX, int offsetZ, Bounds shiftedBounds) {}
 
-    public record Allocation(int offsetX, Bounds shiftedBounds) {}
+    private record Reservation(int level, long index) {}
+
+    @SuppressWarnings("unchecked")
+    public InstanceAllocator() {
+        this.freeBlocks = new TreeSet[MAX_LEVEL + 1];
+        for (int level = 0; level <= MAX_LEVEL; level++) {
+            this.freeBlocks[level] = new TreeSet<>();
+        }
+
+        this.freeBlocks[MAX_LEVEL].add(0L);
+    }
 
     /**
      * Reserves a region for the supplied slot.
@@ -28,26 +55,30 @@ public final class InstanceAllocator {
             throw new IllegalArgumentException("Cannot reserve instances space without bounds");
         }
 
+        int footprint = Math.max(template.getMaxX() - template.getMinX(), template.getMaxZ() - template.getMinZ()) + 1 + spacing;
+        int chunks = Math.max(1, (footprint + CHUNK_SIZE - 1) / CHUNK_SIZE);
+        int level = 32 - Integer.numberOfLeadingZeros(chunks - 1);
+        if (level > MAX_LEVEL) {
+            throw new IllegalArgumentException("Bounds are too large to reserve instances space for");
+        }
+
         lock.lock();
         try {
-            int width = template.getMaxX() - template.getMinX();
-            int candidateMinX = 0;
-            List<Bounds> sorted = new ArrayList<>(this.reservations.values());
-            sorted.sort(Comparator.comparingInt(Bounds::getMinX));
-
-            for (Bounds existing : sorted) {
-                int availableEnd = existing.getMinX() - spacing;
-                if (candidateMinX + width <= availableEnd) {
-                    break;
-                }
-
-                candidateMinX = existing.getMaxX() + spacing;
+            Reservation previous = this.reservations.remove(slot);
+            if (previous != null) {
+                this.free(previous.level(), previous.index());
+            }
+
+            long index = this.allocate(level);
+            if (index < 0) {
+                throw new IllegalStateException("No instances space left to reserve for slot " + slot);
             }
 
-            int offsetX = candidateMinX - template.getMinX();
-            Bounds shifted = template.shift(offsetX, 0, 0);
-            this.reservations.put(slot, shifted);
-            return new Allocation(offsetX, shifted);
+            this.reservations.put(slot, new Reservation(level, index));
+
+            int offsetX = compact(index) * CHUNK_SIZE - template.getMinX();
+            int offsetZ = compact(index >>> 1) * CHUNK_SIZE - template.getMinZ();
+            return new Allocation(offsetX, offsetZ, template.shift(offsetX, 0, offsetZ));
         } finally {
             lock.unlock();
         }
@@ -61,9 +92,80 @@ public final class InstanceAllocator {
     public void release(int slot) {
         lock.lock();
         try {
-            this.reservations.remove(slot);
+            Reservation reservation = this.reservations.remove(slot);
+            if (reservation != null) {
+                this.free(reservation.level(), reservation.index());
+            }
         } finally {
             lock.unlock();
         }
     }
+
+    private long allocate(int level) {
+        if (level > MAX_LEVEL) {
+            return -1;
+        }
+
+        TreeSet<Long> free = this.freeBlocks[level];
+        if (!free.isEmpty()) {
+            return free.pollFirst();
+        }
+
+        // Split the closest larger block into four, keeping the first
+        long parent = this.allocate(level + 1);
+        if (parent < 0) {
+            return -1;
+        }
+
+        long step = 1L << (2 * level);
+        free.add(parent + step);
+        free.add(parent + 2 * step);
+        free.add(parent + 3 * step);
+        return parent;
+    }
+
+    private void free(int level, long index) {
+        while (level < MAX_LEVEL) {
+            long step = 1L << (2 * level);
+            long parent = index & ~((step << 2) - 1);
+
+            // Merge with the siblings if all of them are free
+            TreeSet<Long> free = this.freeBlocks[level];
+            boolean merge = true;
+            for (int i = 0; i < 4 && merge; i++) {
+                long sibling = parent + i * step;
+                merge = sibling == index || free.contains(sibling);
+            }
+
+            if (!merge) {
+                break;
+            }
+
+            for (int i = 0; i < 4; i++) {
+                free.remove(parent + i * step);
+            }
+
+            index = parent;
+            level++;
+        }
+
+        this.freeBlocks[level].add(index);
+    }
+
+    /**
+     * Extracts every other bit of a Z-order index, starting
+     * from the lowest bit.
+     *
+     * @param index the Z-order index
+     * @return the compacted coordinate
+     */
+    private static int compact(long index) {
+        long value = index & 0x5555555555555555L;
+        value = (value | (value >>> 1)) & 0x3333333333333333L;
+        value = (value | (value >>> 2)) & 0x0F0F0F0F0F0F0F0FL;
+        value = (value | (value >>> 4)) & 0x00FF00FF00FF00FFL;
+        value = (value | (value >>> 8)) & 0x0000FFFF0000FFFFL;
+        value = (value | (value >>> 16)) & 0x00000000FFFFFFFFL;
+        return (int) value;
+    }
 }
@@ -65,9 +65,19 @@ public class LiveCompetitionMap implements ArenaLike, CompetitionMap, PostProces
 
     private World mapWorld;
     private World parentWorld;
-    private int offset;
+    private int offsetX;
+    private int offsetZ;
     private int slot;
 
+    @ArenaOption(name = "pool-min-idle", description = "The number of idle copies of this dynamic map to keep built in the background.")
+    private int poolMinIdle;
+
+    @ArenaOption(name = "pool-max-idle", description = "The maximum number of idle copies of this dynamic map to keep once a match has finished. Set to 0 for no limit.")
+    private int poolMaxIdle;
+
+    @ArenaOption(name = "pool-max-total", description = "The maximum number of copies of this dynamic map that may exist at once, before the pool stops building new ones. Set to -1 for no limit.")
+    private int poolMaxTotal = -1;
+
     @ArenaOption(name = "proxy", description = "Makes the map a proxy")
     private boolean remote;
 
@@ -358,6 +368,7 @@ public class LiveCompetitionMap implements ArenaLike, CompetitionMap, PostProces
         int slot = BattleArena.getMapPool().acquire();
         InstanceAllocator.Allocation allocation = BattleArena.getInstanceAllocator().reserve(slot, this.bounds, BattleArena.SLOT_SPACING);
         int offsetX = allocation.offsetX();
+        int offsetZ = allocation.offsetZ();
         Bounds shiftedBounds = allocation.shiftedBounds();
         World world = BattleArena.instancesWorld();
 
@@ -371,8 +382,8 @@ public class LiveCompetitionMap implements ArenaLike, CompetitionMap, PostProces
         world.setAutoSave(false);
 
         BattleArenaConfig config = this.getArena().getPlugin().getMainConfig();
-        Spawns shiftedSpawns = this.spawns == null ? null : this.spawns.shift(offsetX, 0, 0);
-        DominationMapSettings shiftedDomination = this.domination == null ? null : this.domination.shift(offsetX, 0, 0);
+        Spawns shiftedSpawns = this.spawns == null ? null : this.spawns.shift(offsetX, 0, offsetZ);
+        DominationMapSettings shiftedDomination = this.domination == null ? null : this.domination.shift(offsetX, 0, offsetZ);
 
         // If schematic usage is disabled in the config OR schematic pasting fails,
         // then attempt to fall back to copying the map directly from the map world.
@@ -402,7 +413,8 @@ public class LiveCompetitionMap implements ArenaLike, CompetitionMap, PostProces
         }
 
         copy.slot = slot;
-        copy.offset = offsetX;
+        copy.offsetX = offsetX;
+        copy.offsetZ = offsetZ;
         // Copy additional fields for custom maps
         if (copy.getClass() != LiveCompetitionMap.class) {
             Util.copyFields(this, copy);
@@ -446,6 +458,38 @@ public class LiveCompetitionMap implements ArenaLike, CompetitionMap, PostProces
             return future;
         }
 
+        this.createDynamicCopyAsync(arena).thenAccept(copy -> {
+            if (copy == null) {
+                future.complete(null);
+                return;
+            }
+
+            try {
+                LiveCompetition<?> competition = copy.createCompetition(arena);
+                arena.getPlugin().addCompetition(arena, competition);
+                future.complete(competition);
+            } catch (Throwable t) {
+                BattleArena.getInstance().error("Failed to prepare dynamic competition for map " + this.name, t);
+                arena.getPlugin().getDynamicArenaCache().discard(copy);
+                future.complete(null);
+            }
+        });
+
+        return future;
+    }
+
+    /**
+     * Creates a new copy of this map in the instances world asynchronously,
+     * without creating a competition for it.
+     * <p>
+     * The copy is tracked by the {@link DynamicArenaCache} so it can be
+     * recycled once it is no longer in use.
+     *
+     * @param arena the arena to create the copy for
+     * @return a future completing with the created copy or null on failure
+     */
+    final java.util.concurrent.CompletableFuture<LiveCompetitionMap> createDynamicCopyAsync(Arena arena) {
+        java.util.concurrent.CompletableFuture<LiveCompetitionMap> future = new java.util.concurrent.CompletableFuture<>();
         if (this.bounds == null) {
             BattleArena.getInstance().error("Cannot create dynamic competition for map {} - bounds are not defined!", this.name);
             future.complete(null);
@@ -455,6 +499,7 @@ public class LiveCompetitionMap implements ArenaLike, CompetitionMap, PostProces
         int slot = BattleArena.getMapPool().acquire();
         InstanceAllocator.Allocation allocation = BattleArena.getInstanceAllocator().reserve(slot, this.bounds, BattleArena.SLOT_SPACING);
         int offsetX = allocation.offsetX();
+        int offsetZ = allocation.offsetZ();
         Bounds shiftedBounds = allocation.shiftedBounds();
         World world = BattleArena.instancesWorld();
 
@@ -466,8 +511,8 @@ public class LiveCompetitionMap implements ArenaLike, CompetitionMap, PostProces
         }
 
         BattleArenaConfig config = this.getArena().getPlugin().getMainConfig();
-        Spawns shiftedSpawns = this.spawns == null ? null : this.spawns.shift(offsetX, 0, 0);
-        DominationMapSettings shiftedDomination = this.domination == null ? null : this.domination.shift(offsetX, 0, 0);
+        Spawns shiftedSpawns = this.spawns == null ? null : this.spawns.shift(offsetX, 0, offsetZ);
+        DominationMapSettings shiftedDomination = this.domination == null ? null : this.domination.shift(offsetX, 0, offsetZ);
 
         Runnable onReady = () -> {
             try {
@@ -482,7 +527,8 @@ public class LiveCompetitionMap implements ArenaLike, CompetitionMap, PostProces
                 );
 
                 copy.slot = slot;
-                copy.offset = offsetX;
+                copy.offsetX = offsetX;
+                copy.offsetZ = offsetZ;
                 // Copy additional fields for custom maps
                 if (copy.getClass() != LiveCompetitionMap.class) {
                     Util.copyFields(this, copy);
@@ -492,11 +538,8 @@ public class LiveCompetitionMap implements ArenaLike, CompetitionMap, PostProces
                 copy.parentWorld = this.mapWorld;
                 copy.postProcess();
 
-                LiveCompetition<?> competition = copy.createCompetition(arena);
-                arena.getPlugin().addCompetition(arena, competition);
                 arena.getPlugin().getDynamicArenaCache().track(this, copy);
-
-                future.complete(competition);
+                future.complete(copy);
             } catch (Throwable t) {
                 BattleArena.getInstance().error("Failed to prepare dynamic competition for map " + this.name, t);
                 BattleArena.getInstanceAllocator().release(slot);
@@ -505,9 +548,18 @@ public class LiveCompetitionMap implements ArenaLike, CompetitionMap, PostProces
             }
         };
 
+        // If the schematic turns out to be unreadable, fall back to a world copy
+        Runnable onPasteFailed = () -> {
+            if (!BlockUtil.copyToWorld(this.mapWorld, world, this.bounds, shiftedBounds, onReady)) {
+                BattleArena.getInstanceAllocator().release(slot);
+                BattleArena.getMapPool().release(slot);
+                future.complete(null);
+            }
+        };
+
         boolean started = false;
 
-        if (!config.isSchematicUsage() || !BlockUtil.pasteSchematic(this.name, this.getArena().getName(), world, shiftedBounds, onReady)) {
+        if (!config.isSchematicUsage() || !BlockUtil.pasteSchematic(this.name, this.getArena().getName(), world, shiftedBounds, onReady, onPasteFailed)) {
             // Either schematic usage is disabled or paste failed, fall back to world copy.
             if (!BlockUtil.copyToWorld(this.mapWorld, world, this.bounds, shiftedBounds, onReady)) {
                 BattleArena.getInstanceAllocator().release(slot);
@@ -533,8 +585,9 @@ public class LiveCompetitionMap implements ArenaLike, CompetitionMap, PostProces
         this.slot = slot;
     }
 
-    public void setOffset(int offset) {
-        this.offset = offset;
+    public void setOffset(int offsetX, int offsetZ) {
+        this.offsetX = offsetX;
+        this.offsetZ = offsetZ;
     }
 
     /**
@@ -561,4 +614,16 @@ public class LiveCompetitionMap implements ArenaLike, CompetitionMap, PostProces
     public boolean isCacheResetEnabled() {
         return this.cacheReset;
     }
+
+    public int getPoolMinIdle() {
+        return this.poolMinIdle;
+    }
+
+    public int getPoolMaxIdle() {
+        return this.poolMaxIdle;
+    }
+
+    public int getPoolMaxTotal() {
+        return this.poolMaxTotal;
+    }
 }
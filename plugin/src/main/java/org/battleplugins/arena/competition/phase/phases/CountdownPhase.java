@@ -85,7 +85,7 @@ public class CountdownPhase<T extends LiveCompetition<T>> extends LiveCompetitio
     @Override
     public Resolver resolve() {
         return super.resolve().toBuilder()
-                .define(ResolverKeys.REMAINING_START_TIME, ResolverProvider.simple(Duration.ofSeconds(this.countdown + 1), Util::toTimeString))
+                .define(ResolverKeys.REMAINING_START_TIME, ResolverProvider.lazy(() -> Duration.ofSeconds(this.countdown + 1), Util::toTimeString))
                 .build();
     }
 }
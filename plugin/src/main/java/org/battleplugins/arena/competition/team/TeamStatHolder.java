@@ -4,10 +4,9 @@ import org.battleplugins.arena.ArenaPlayer;
 import org.battleplugins.arena.event.player.ArenaStatChangeEvent;
 import org.battleplugins.arena.stat.ArenaStat;
 import org.battleplugins.arena.stat.StatHolder;
+import org.battleplugins.arena.stat.StatValues;
 import org.battleplugins.arena.team.ArenaTeam;
 
-import java.util.HashMap;
-import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 import java.util.function.Function;
@@ -16,7 +15,7 @@ public class TeamStatHolder implements StatHolder {
     private final TeamManager teamManager;
     private final ArenaTeam team;
 
-    private final Map<ArenaStat<?>, Object> globalStats = new HashMap<>();
+    private final StatValues globalStats = new StatValues();
 
     public TeamStatHolder(TeamManager teamManager, ArenaTeam team) {
         this.teamManager = teamManager;
@@ -31,8 +30,8 @@ public class TeamStatHolder implements StatHolder {
     @SuppressWarnings("unchecked")
     @Override
     public <T> T getStat(ArenaStat<T> stat) {
-        if (this.globalStats.containsKey(stat)) {
-            return (T) this.globalStats.get(stat);
+        if (this.globalStats.has(stat)) {
+            return this.globalStats.get(stat);
         }
 
         if (!Number.class.isAssignableFrom(stat.getType())) {
@@ -74,15 +73,14 @@ public class TeamStatHolder implements StatHolder {
 
     @Override
     public <T> void setStat(ArenaStat<T> stat, T value) {
-        this.globalStats.put(stat, value);
+        this.globalStats.set(stat, value);
     }
 
     @Override
     public <T> void computeStat(ArenaStat<T> stat, Function<? super T, ? extends T> computeFunction) {
-        this.globalStats.compute(stat, (key, oldValue) -> {
-            T newValue = computeFunction.apply((T) oldValue);
-            return this.statChange(stat, (T) oldValue, newValue);
-        });
+        T oldValue = this.globalStats.get(stat);
+        T newValue = computeFunction.apply(oldValue);
+        this.globalStats.set(stat, this.statChange(stat, oldValue, newValue));
     }
 
     @Override
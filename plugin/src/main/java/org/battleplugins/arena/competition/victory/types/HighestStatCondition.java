@@ -2,6 +2,7 @@ package org.battleplugins.arena.competition.victory.types;
 
 import org.battleplugins.arena.ArenaPlayer;
 import org.battleplugins.arena.competition.LiveCompetition;
+import org.battleplugins.arena.competition.StatLeaderboard;
 import org.battleplugins.arena.competition.team.TeamStatHolder;
 import org.battleplugins.arena.competition.victory.VictoryCondition;
 import org.battleplugins.arena.config.ArenaOption;
@@ -51,19 +52,16 @@ public class HighestStatCondition<T extends LiveCompetition<T>> extends VictoryC
                     return;
                 }
 
-                Set<ArenaPlayer> players = this.competition.getTeamManager().getPlayersOnTeam(team);
-                int score = 0;
-                for (ArenaPlayer teamPlayer : players) {
-                    if (teamPlayer == player) {
-                        score += event.getNewValue().intValue();
-                        continue;
-                    }
-
-                    score += teamPlayer.stat(this.stat).orElse(0).intValue();
+                if (this.winAfter == -1) {
+                    return;
                 }
 
-                if (this.winAfter != -1 && score >= this.winAfter) {
-                    this.advanceToNextPhase(players);
+                // The leaderboard still holds the old value of the player, since
+                // the event is called before the new value has been stored
+                StatLeaderboard leaderboard = this.competition.getLeaderboards().get(this.stat);
+                double score = leaderboard.getTeamTotal(team) - leaderboard.getValue(player) + event.getNewValue().doubleValue();
+                if (score >= this.winAfter) {
+                    this.advanceToNextPhase(this.competition.getTeamManager().getPlayersOnTeam(team));
                 }
             }
 
@@ -100,13 +98,10 @@ public class HighestStatCondition<T extends LiveCompetition<T>> extends VictoryC
 
     @Override
     public Set<ArenaPlayer> identifyPotentialVictors() {
-        return this.competition.getPlayers().stream()
-                .sorted((player1, player2) ->
-                        player2.stat(this.stat).orElse(0).intValue() - player1.stat(this.stat).orElse(0).intValue()
-                )
+        StatLeaderboard leaderboard = this.competition.getLeaderboards().get(this.stat);
+        return leaderboard.getTop(1).stream() // Limit number of victors to 1
                 // No need to check win after here, since it will be done earlier if they should win
-                .filter(player -> (int) player.stat(this.stat).orElse(0) > 0)
-                .limit(1) // Limit number of victors to 1
+                .filter(player -> (int) leaderboard.getValue(player) > 0)
                 .flatMap(player -> {
                     // Still need to check if the player is on a team, since we grant
                     // the victory based on whether the team won. If the player is to
@@ -57,8 +57,8 @@ public class TimeLimitCondition<T extends LiveCompetition<T>> extends VictoryCon
     @Override
     public Resolver resolve() {
         return super.resolve().toBuilder()
-                .define(ResolverKeys.TIME_REMAINING, ResolverProvider.simple(this.getTimeRemaining(), Util::toTimeString))
-                .define(ResolverKeys.TIME_REMAINING_SHORT, ResolverProvider.simple(this.getTimeRemaining(), Util::toTimeStringShort))
+                .define(ResolverKeys.TIME_REMAINING, ResolverProvider.lazy(this::getTimeRemaining, Util::toTimeString))
+                .define(ResolverKeys.TIME_REMAINING_SHORT, ResolverProvider.lazy(this::getTimeRemaining, Util::toTimeStringShort))
                 .build();
     }
 }
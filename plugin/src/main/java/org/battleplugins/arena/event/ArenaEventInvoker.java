@@ -0,0 +1,133 @@
+package org.battleplugins.arena.event;
+
+import org.bukkit.event.Event;
+import org.jetbrains.annotations.Nullable;
+
+import java.lang.invoke.CallSite;
+import java.lang.invoke.LambdaConversionException;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+
+/**
+ * A compiled invoker for an {@link ArenaEventHandler} method.
+ * <p>
+ * Invokers are created once when a listener is registered, and are
+ * bound to the listener instance. Where possible, the invoker is generated
+ * through the {@link LambdaMetafactory} so calling it is as fast as calling
+ * the handler method directly. Listeners which are not accessible to BattleArena
+ * (i.e. those loaded by a module class loader) fall back to a {@link MethodHandle}.
+ */
+@FunctionalInterface
+interface ArenaEventInvoker {
+
+    /**
+     * Invokes the handler method.
+     *
+     * @param event the event to pass to the handler
+     * @param argument the second argument to pass to the handler, or
+     *                 null if the handler only accepts the event
+     * @throws Throwable if the handler method throws an exception
+     */
+    void invoke(Event event, @Nullable Object argument) throws Throwable;
+
+    /**
+     * Creates an invoker for the given handler method.
+     *
+     * @param listener the listener the method belongs to
+     * @param method the handler method, accepting either one or two parameters
+     * @return the invoker for the handler method
+     * @throws ReflectiveOperationException if the method could not be accessed
+     */
+    static ArenaEventInvoker create(ArenaListener listener, Method method) throws ReflectiveOperationException {
+        if (!Modifier.isStatic(method.getModifiers())) {
+            try {
+                return createLambda(listener, method);
+            } catch (ReflectiveOperationException | LambdaConversionException ignored) {
+                // The listener is not in our module, so we cannot spin
+                // a lambda for it. Fall back to a method handle instead.
+            }
+        }
+
+        return createHandle(listener, method);
+    }
+
+    private static ArenaEventInvoker createLambda(ArenaListener listener, Method method) throws ReflectiveOperationException, LambdaConversionException {
+        Class<?> listenerClass = method.getDeclaringClass();
+        MethodHandles.Lookup lookup = MethodHandles.privateLookupIn(listenerClass, MethodHandles.lookup());
+        MethodHandle handle = lookup.unreflect(method);
+        MethodType instantiatedType = MethodType.methodType(void.class, method.getParameterTypes());
+
+        if (method.getParameterCount() == 1) {
+            CallSite callSite = LambdaMetafactory.metafactory(
+                    lookup,
+                    "invoke",
+                    MethodType.methodType(SingleArgument.class, listenerClass),
+                    MethodType.methodType(void.class, Object.class),
+                    handle,
+                    instantiatedType
+            );
+
+            SingleArgument invoker = (SingleArgument) instantiate(callSite, listener);
+            return (event, argument) -> invoker.invoke(event);
+        }
+
+        CallSite callSite = LambdaMetafactory.metafactory(
+                lookup,
+                "invoke",
+                MethodType.methodType(DoubleArgument.class, listenerClass),
+                MethodType.methodType(void.class, Object.class, Object.class),
+                handle,
+                instantiatedType
+        );
+
+        DoubleArgument invoker = (DoubleArgument) instantiate(callSite, listener);
+        return invoker::invoke;
+    }
+
+    private static Object instantiate(CallSite callSite, ArenaListener listener) {
+        try {
+            return callSite.getTarget().invoke(listener);
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable e) {
+            // The factory of a lambda only captures the listener, so this should never happen
+            throw new IllegalStateException("Failed to create event invoker", e);
+        }
+    }
+
+    private static ArenaEventInvoker createHandle(ArenaListener listener, Method method) throws ReflectiveOperationException {
+        // The method has already been made accessible, so our own lookup can unreflect it
+        MethodHandle handle = MethodHandles.lookup().unreflect(method);
+        if (!Modifier.isStatic(method.getModifiers())) {
+            handle = handle.bindTo(listener);
+        }
+
+        if (method.getParameterCount() == 1) {
+            MethodHandle singleHandle = handle.asType(MethodType.methodType(void.class, Object.class));
+            return (event, argument) -> {
+                singleHandle.invokeExact((Object) event);
+            };
+        }
+
+        MethodHandle doubleHandle = handle.asType(MethodType.methodType(void.class, Object.class, Object.class));
+        return (event, argument) -> {
+            doubleHandle.invokeExact((Object) event, argument);
+        };
+    }
+
+    @FunctionalInterface
+    interface SingleArgument {
+
+        void invoke(Object event) throws Throwable;
+    }
+
+    @FunctionalInterface
+    interface DoubleArgument {
+
+        void invoke(Object event, Object argument) throws Throwable;
+    }
+}
@@ -1,11 +1,9 @@
 package org.battleplugins.arena.event;
 
-import org.apache.commons.lang3.tuple.Pair;
 import org.battleplugins.arena.Arena;
 import org.battleplugins.arena.ArenaPlayer;
 import org.battleplugins.arena.BattleArena;
 import org.battleplugins.arena.competition.Competition;
-import org.battleplugins.arena.competition.CompetitionLike;
 import org.battleplugins.arena.competition.LiveCompetition;
 import org.battleplugins.arena.event.action.EventAction;
 import org.battleplugins.arena.event.action.types.DelayAction;
@@ -15,15 +13,18 @@ import org.battleplugins.arena.event.player.ArenaPlayerEvent;
 import org.battleplugins.arena.resolver.Resolver;
 import org.battleplugins.arena.util.PolymorphicHashMap;
 import org.bukkit.Bukkit;
+import org.bukkit.Location;
 import org.bukkit.entity.Player;
 import org.bukkit.event.Event;
-import org.bukkit.event.EventException;
 import org.bukkit.event.HandlerList;
 import org.bukkit.event.block.BlockBreakEvent;
 import org.bukkit.event.block.BlockCanBuildEvent;
+import org.bukkit.event.block.BlockEvent;
 import org.bukkit.event.block.BlockPlaceEvent;
+import org.bukkit.event.entity.EntityChangeBlockEvent;
 import org.bukkit.event.entity.EntityDamageByEntityEvent;
 import org.bukkit.event.entity.EntityEvent;
+import org.bukkit.event.entity.EntityExplodeEvent;
 import org.bukkit.event.player.PlayerEvent;
 import org.jetbrains.annotations.Nullable;
 
@@ -35,6 +36,8 @@ import java.util.function.Function;
  * Manages events for an {@link Arena}.
  */
 public class ArenaEventManager {
+    private static final ArenaEventRouter ROUTER = new ArenaEventRouter();
+
     private static final Map<Class<? extends Event>, Function<Event, Player>> PLAYER_EVENT_RESOLVERS = new PolymorphicHashMap<>() {
         {
             this.put(PlayerEvent.class, event -> ((PlayerEvent) event).getPlayer());
@@ -58,6 +61,16 @@ public class ArenaEventManager {
         }
     };
 
+    // Events which are not always caused by a player, but can be
+    // resolved to a competition by where they occurred
+    private static final Map<Class<? extends Event>, Function<Event, Location>> LOCATION_EVENT_RESOLVERS = new PolymorphicHashMap<>() {
+        {
+            this.put(BlockEvent.class, event -> ((BlockEvent) event).getBlock().getLocation());
+            this.put(EntityExplodeEvent.class, event -> ((EntityExplodeEvent) event).getLocation());
+            this.put(EntityChangeBlockEvent.class, event -> ((EntityChangeBlockEvent) event).getBlock().getLocation());
+        }
+    };
+
     private final Map<Class<? extends Event>, List<Function<Event, LiveCompetition<?>>>> arenaEventResolvers = new PolymorphicHashMap<>();
     private final Map<Class<? extends ArenaEvent>, Function<ArenaEvent, Set<ArenaPlayer>>> capturedPlayerResolvers = new HashMap<>() {
         {
@@ -66,7 +79,7 @@ public class ArenaEventManager {
         }
     };
 
-    private final List<ArenaListener> trackedListeners = new ArrayList<>();
+    private final Map<ArenaListener, List<ArenaEventRouter.Handler>> trackedListeners = new HashMap<>();
     private final Arena arena;
 
     public ArenaEventManager(Arena arena) {
@@ -162,10 +175,11 @@ public class ArenaEventManager {
                 return;
             }
 
+            Resolver eventResolver = event.resolve();
             for (ArenaPlayer player : new HashSet<>(players)) {
                 // Resolve with ArenaPlayer context
                 Resolver.Builder resolver = player.resolve().toBuilder();
-                event.resolve().mergeInto(resolver);
+                eventResolver.mergeInto(resolver);
 
                 try {
                     action.call(player, resolver.build());
@@ -189,8 +203,9 @@ public class ArenaEventManager {
      *
      * @param listener the listener to register
      */
+    @SuppressWarnings("unchecked")
     public void registerEvents(ArenaListener listener) {
-        this.trackedListeners.add(listener);
+        List<ArenaEventRouter.Handler> handlers = this.trackedListeners.computeIfAbsent(listener, key -> new ArrayList<>());
 
         for (Method method : listener.getClass().getDeclaredMethods()) {
             method.setAccessible(true);
@@ -208,89 +223,22 @@ public class ArenaEventManager {
 
             // The first argument should be an ArenaEvent or a Player event
             Class<?> eventClass = method.getParameterTypes()[0];
-            if (!ArenaEvent.class.isAssignableFrom(eventClass) && PLAYER_EVENT_RESOLVERS.get(eventClass) == null && this.arenaEventResolvers.get(eventClass) == null) {
+            if (!ArenaEvent.class.isAssignableFrom(eventClass) && PLAYER_EVENT_RESOLVERS.get(eventClass) == null && LOCATION_EVENT_RESOLVERS.get(eventClass) == null && this.arenaEventResolvers.get(eventClass) == null) {
                 this.arena.getPlugin().warn("Event method {} ({}) in {} was not an ArenaEvent or a Player event. Custom resolvers can be added using the ArenaEventManager#registerArenaResolver.", method.getName(), eventClass.getSimpleName(), listener.getClass());
                 continue;
             }
 
-            Bukkit.getPluginManager().registerEvent((Class<? extends Event>) eventClass, listener, eventHandler.priority(), (eventListener, event) -> {
-                Pair<Arena, Competition<?>> pair = this.extractContext(event);
-                if (pair == null) {
-                    return;
-                }
-
-                Arena arena = pair.getKey();
-                Competition<?> competition = pair.getValue();
-
-                // Only call the event if the arena matches
-                if (!arena.equals(this.arena)) {
-                    return;
-                }
-
-                // We are listening in a Competition, so only call the event if the Competition matches
-                if (listener instanceof CompetitionLike<?> like && !like.getCompetition().equals(competition)) {
-                    return;
-                }
-
-                // Ensure args are the same
-                if (!eventClass.isAssignableFrom(event.getClass())) {
-                    return;
-                }
+            ArenaEventRouter.Argument argument = ArenaEventRouter.Argument.of(method);
+            if (argument == null) {
+                this.arena.getPlugin().warn("Event method {} in {} has unsupported parameters. The second parameter must be a Competition or an ArenaPlayer. Not registering.", method.getName(), listener.getClass());
+                continue;
+            }
 
-                if (method.getParameterCount() == 1) {
-                    try {
-                        method.invoke(eventListener, event);
-                    } catch (Exception e) {
-                        throw new EventException(e, "Error executing ArenaEvent: " + eventClass);
-                    }
-                } else if (method.getParameterCount() == 2) {
-                    // BattleArena offers a bit of flexibility with the second parameter.
-                    // Events that are just normal ArenaEvents can have a second parameter be
-                    // a Competition, whereas a ArenaPlayerEvent can have a second parameter be
-                    // an ArenaPlayer or a Competition.
-                    Class<?> parameterType = method.getParameterTypes()[1];
-                    if (Competition.class.isAssignableFrom(parameterType)) {
-                        try {
-                            method.invoke(eventListener, event, competition);
-                        } catch (Exception e) {
-                            throw new EventException(e, "Error executing ArenaEvent: " + eventClass);
-                        }
-                    } else if (ArenaPlayer.class.isAssignableFrom(parameterType)) {
-                        if (ArenaPlayerEvent.class.isAssignableFrom(eventClass)) {
-                            try {
-                                method.invoke(eventListener, event, ((ArenaPlayerEvent) event).getArenaPlayer());
-                                return;
-                            } catch (Exception e) {
-                                throw new EventException(e, "Error executing ArenaPlayerEvent: " + eventClass);
-                            }
-                        }
-
-                        Function<Event, Player> eventPlayerFunction = PLAYER_EVENT_RESOLVERS.get(eventClass);
-                        if (eventPlayerFunction == null) {
-                            this.arena.getPlugin().warn("Could not find event player function for event {}", eventClass);
-                            return;
-                        }
-
-                        Player player = eventPlayerFunction.apply(event);
-                        if (player == null) {
-                            this.arena.getPlugin().warn("Could not find player for event {}", eventClass);
-                            return;
-                        }
-
-                        ArenaPlayer arenaPlayer = ArenaPlayer.getArenaPlayer(player);
-                        if (arenaPlayer == null) {
-                            this.arena.getPlugin().warn("Could not find ArenaPlayer for event {}", eventClass);
-                            return;
-                        }
-
-                        try {
-                            method.invoke(eventListener, event, arenaPlayer);
-                        } catch (Exception e) {
-                            throw new EventException(e, "Error executing ArenaPlayerEvent: " + eventClass);
-                        }
-                    }
-                }
-            }, BattleArena.getInstance(), eventHandler.ignoreCancelled());
+            try {
+                handlers.add(ROUTER.register(this, listener, method, (Class<? extends Event>) eventClass, eventHandler, argument));
+            } catch (ReflectiveOperationException e) {
+                this.arena.getPlugin().error("Failed to register event method {} in {}.", method.getName(), listener.getClass(), e);
+            }
         }
     }
 
@@ -300,44 +248,66 @@ public class ArenaEventManager {
      * @param listener the listener to unregister
      */
     public void unregisterEvents(ArenaListener listener) {
+        List<ArenaEventRouter.Handler> handlers = this.trackedListeners.remove(listener);
+        if (handlers != null) {
+            handlers.forEach(ROUTER::unregister);
+        }
+
         HandlerList.unregisterAll(listener);
-        this.trackedListeners.remove(listener);
     }
 
     /**
      * Unregisters all listeners from listening for events.
      */
     public void unregisterAll() {
-        for (ArenaListener listener : this.trackedListeners) {
-            HandlerList.unregisterAll(listener);
+        for (Map.Entry<ArenaListener, List<ArenaEventRouter.Handler>> entry : this.trackedListeners.entrySet()) {
+            entry.getValue().forEach(ROUTER::unregister);
+            HandlerList.unregisterAll(entry.getKey());
         }
 
         this.trackedListeners.clear();
     }
 
+    /**
+     * Extracts the context of an event which can be resolved without
+     * any arena specific resolvers.
+     *
+     * @param event the event to extract the context from
+     * @return the context of the event, or null if it could not be resolved
+     */
     @Nullable
-    private Pair<Arena, Competition<?>> extractContext(Event event) {
+    static ArenaEventRouter.Context extractContext(Event event) {
         if (event instanceof ArenaEvent arenaEvent) {
-            return Pair.of(arenaEvent.getArena(), arenaEvent.getCompetition());
+            return new ArenaEventRouter.Context(arenaEvent.getArena(), arenaEvent.getCompetition(), null, false);
         }
 
         Function<Event, Player> eventPlayerFunction = PLAYER_EVENT_RESOLVERS.get(event.getClass());
-
-        playerEventResolver:
         if (eventPlayerFunction != null) {
             Player player = eventPlayerFunction.apply(event);
             if (player == null) {
-                break playerEventResolver;
+                return null;
             }
 
             ArenaPlayer arenaPlayer = ArenaPlayer.getArenaPlayer(player);
             if (arenaPlayer == null) {
-                break playerEventResolver;
+                return null;
             }
 
-            return Pair.of(arenaPlayer.getArena(), arenaPlayer.getCompetition());
+            return new ArenaEventRouter.Context(arenaPlayer.getArena(), arenaPlayer.getCompetition(), arenaPlayer, false);
         }
 
+        return null;
+    }
+
+    /**
+     * Extracts the context of an event using the custom resolvers
+     * registered for this arena.
+     *
+     * @param event the event to extract the context from
+     * @return the context of the event, or null if it could not be resolved
+     */
+    @Nullable
+    ArenaEventRouter.Context extractResolvedContext(Event event) {
         List<Function<Event, LiveCompetition<?>>> resolvers = this.arenaEventResolvers.get(event.getClass());
         if (resolvers != null) {
             for (Function<Event, LiveCompetition<?>> resolver : resolvers) {
@@ -347,11 +317,39 @@ public class ArenaEventManager {
                         return null;
                     }
 
-                    return Pair.of(competition.getArena(), competition);
+                    return new ArenaEventRouter.Context(competition.getArena(), competition, null, false);
                 }
             }
         }
 
         return null;
     }
+
+    /**
+     * Extracts the context of an event which was not caused by a player
+     * from the competition whose map the event occurred in.
+     *
+     * @param event the event to extract the context from
+     * @return the context of the event, or null if it could not be resolved
+     */
+    @Nullable
+    static ArenaEventRouter.Context extractLocatedContext(Event event) {
+        Function<Event, Location> eventLocationFunction = LOCATION_EVENT_RESOLVERS.get(event.getClass());
+        if (eventLocationFunction == null) {
+            return null;
+        }
+
+        // Events caused by a player are always resolved from the player
+        Function<Event, Player> eventPlayerFunction = PLAYER_EVENT_RESOLVERS.get(event.getClass());
+        if (eventPlayerFunction != null && eventPlayerFunction.apply(event) != null) {
+            return null;
+        }
+
+        LiveCompetition<?> competition = BattleArena.getInstance().getCompetitionAt(eventLocationFunction.apply(event));
+        if (competition == null) {
+            return null;
+        }
+
+        return new ArenaEventRouter.Context(competition.getArena(), competition, null, true);
+    }
 }
@@ -0,0 +1,374 @@
+package org.battleplugins.arena.event;
+
+import org.battleplugins.arena.Arena;
+import org.battleplugins.arena.ArenaPlayer;
+import org.battleplugins.arena.BattleArena;
+import org.battleplugins.arena.competition.Competition;
+import org.battleplugins.arena.competition.CompetitionLike;
+import org.battleplugins.arena.event.player.ArenaPlayerEvent;
+import org.bukkit.Bukkit;
+import org.bukkit.event.Cancellable;
+import org.bukkit.event.Event;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.HandlerList;
+import org.bukkit.event.Listener;
+import org.bukkit.plugin.EventExecutor;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Routes Bukkit events to the {@link ArenaEventHandler} methods registered
+ * through every {@link ArenaEventManager}.
+ * <p>
+ * Rather than registering a Bukkit listener for every handler method of every
+ * listener instance, a single Bukkit listener is registered for each event class
+ * and priority. When an event is fired, the {@link Arena} and {@link Competition}
+ * it belongs to are resolved once, and the event is only dispatched to the handlers
+ * registered for that arena and competition. This means the cost of an event depends
+ * on the handlers of the competition it occurred in, rather than on the amount of
+ * competitions running on the server.
+ */
+final class ArenaEventRouter {
+    private static final Handler[] NO_HANDLERS = new Handler[0];
+
+    private final Map<RouteKey, Route> routes = new HashMap<>();
+    private long sequence;
+
+    /**
+     * Registers a handler method with this router.
+     *
+     * @param manager the event manager the handler is registered through
+     * @param listener the listener the handler method belongs to
+     * @param method the handler method
+     * @param eventClass the event class the handler listens for
+     * @param eventHandler the annotation on the handler method
+     * @param argument the second argument the handler method accepts
+     * @return the registered handler
+     * @throws ReflectiveOperationException if an invoker could not be created for the method
+     */
+    Handler register(ArenaEventManager manager, ArenaListener listener, Method method, Class<? extends Event> eventClass, ArenaEventHandler eventHandler, Argument argument) throws ReflectiveOperationException {
+        ArenaEventInvoker invoker = ArenaEventInvoker.create(listener, method);
+        Route route = this.routes.computeIfAbsent(new RouteKey(eventClass, eventHandler.priority()), Route::new);
+
+        Competition<?> competition = listener instanceof CompetitionLike<?> like ? like.getCompetition() : null;
+        Handler handler = new Handler(route, manager, listener, method, invoker, argument, competition, eventHandler.ignoreCancelled(), this.sequence++);
+        route.add(handler);
+        return handler;
+    }
+
+    /**
+     * Unregisters a handler from this router.
+     *
+     * @param handler the handler to unregister
+     */
+    void unregister(Handler handler) {
+        Route route = handler.route;
+        route.remove(handler);
+
+        if (route.isEmpty()) {
+            route.unregister();
+            this.routes.remove(route.key);
+        }
+    }
+
+    /**
+     * The context an event was resolved to.
+     *
+     * @param arena the arena the event occurred in
+     * @param competition the competition the event occurred in
+     * @param player the player the event was resolved from, if any
+     * @param located whether the event was resolved from where it occurred
+     */
+    record Context(Arena arena, Competition<?> competition, @Nullable ArenaPlayer player, boolean located) {
+    }
+
+    private record RouteKey(Class<? extends Event> eventClass, EventPriority priority) {
+    }
+
+    /**
+     * A single Bukkit listener for an event class and priority, which
+     * dispatches to the handlers of each arena.
+     */
+    private static final class Route implements Listener, EventExecutor {
+        private final RouteKey key;
+        private final Map<Arena, ArenaRoute> arenas = new ConcurrentHashMap<>();
+
+        private boolean registered;
+
+        Route(RouteKey key) {
+            this.key = key;
+        }
+
+        void add(Handler handler) {
+            this.arenas.computeIfAbsent(handler.manager.getArena(), arena -> new ArenaRoute(handler.manager)).add(handler);
+
+            if (!this.registered) {
+                Bukkit.getPluginManager().registerEvent(this.key.eventClass(), this, this.key.priority(), this, BattleArena.getInstance(), false);
+                this.registered = true;
+            }
+        }
+
+        void remove(Handler handler) {
+            Arena arena = handler.manager.getArena();
+            ArenaRoute arenaRoute = this.arenas.get(arena);
+            if (arenaRoute == null) {
+                return;
+            }
+
+            arenaRoute.remove(handler);
+            if (arenaRoute.isEmpty()) {
+                this.arenas.remove(arena);
+            }
+        }
+
+        boolean isEmpty() {
+            return this.arenas.isEmpty();
+        }
+
+        void unregister() {
+            HandlerList.unregisterAll(this);
+            this.registered = false;
+        }
+
+        @Override
+        public void execute(@NotNull Listener listener, @NotNull Event event) {
+            // Subclasses without their own handler list share the handler
+            // list of their parent, so ensure the event is what we expect
+            if (!this.key.eventClass().isInstance(event)) {
+                return;
+            }
+
+            Context context = ArenaEventManager.extractContext(event);
+            if (context != null) {
+                ArenaRoute arenaRoute = this.arenas.get(context.arena());
+                if (arenaRoute != null) {
+                    arenaRoute.dispatch(event, context);
+                }
+
+                return;
+            }
+
+            // The event could not be resolved from a player, so fall back
+            // to the custom resolvers registered for each arena
+            boolean dispatched = false;
+            for (ArenaRoute arenaRoute : this.arenas.values()) {
+                Context resolvedContext = arenaRoute.manager.extractResolvedContext(event);
+                if (resolvedContext != null && arenaRoute.manager.getArena().equals(resolvedContext.arena())) {
+                    arenaRoute.dispatch(event, resolvedContext);
+                    dispatched = true;
+                }
+            }
+
+            if (dispatched) {
+                return;
+            }
+
+            // Finally, resolve the event from the competition it occurred in
+            Context locatedContext = ArenaEventManager.extractLocatedContext(event);
+            if (locatedContext != null) {
+                ArenaRoute arenaRoute = this.arenas.get(locatedContext.arena());
+                if (arenaRoute != null) {
+                    arenaRoute.dispatch(event, locatedContext);
+                }
+            }
+        }
+    }
+
+    /**
+     * The handlers for a single arena within a {@link Route}.
+     */
+    private static final class ArenaRoute {
+        private final ArenaEventManager manager;
+        private final Map<Competition<?>, Handler[]> competitionHandlers = new ConcurrentHashMap<>();
+
+        private volatile Handler[] arenaHandlers = NO_HANDLERS;
+
+        ArenaRoute(ArenaEventManager manager) {
+            this.manager = manager;
+        }
+
+        void add(Handler handler) {
+            if (handler.competition == null) {
+                this.arenaHandlers = append(this.arenaHandlers, handler);
+            } else {
+                this.competitionHandlers.compute(handler.competition, (competition, handlers) -> append(handlers == null ? NO_HANDLERS : handlers, handler));
+            }
+        }
+
+        void remove(Handler handler) {
+            if (handler.competition == null) {
+                this.arenaHandlers = without(this.arenaHandlers, handler);
+            } else {
+                this.competitionHandlers.computeIfPresent(handler.competition, (competition, handlers) -> {
+                    Handler[] remaining = without(handlers, handler);
+                    return remaining.length == 0 ? null : remaining;
+                });
+            }
+        }
+
+        boolean isEmpty() {
+            return this.arenaHandlers.length == 0 && this.competitionHandlers.isEmpty();
+        }
+
+        void dispatch(Event event, Context context) {
+            Handler[] arenaHandlers = this.arenaHandlers;
+            Handler[] competitionHandlers = context.competition() == null ? NO_HANDLERS : this.competitionHandlers.getOrDefault(context.competition(), NO_HANDLERS);
+
+            // Merge both handler sets so handlers are called in the
+            // order they were registered in
+            int arenaIndex = 0;
+            int competitionIndex = 0;
+            while (arenaIndex < arenaHandlers.length || competitionIndex < competitionHandlers.length) {
+                Handler handler;
+                if (competitionIndex >= competitionHandlers.length || (arenaIndex < arenaHandlers.length && arenaHandlers[arenaIndex].sequence < competitionHandlers[competitionIndex].sequence)) {
+                    handler = arenaHandlers[arenaIndex++];
+                } else {
+                    handler = competitionHandlers[competitionIndex++];
+                }
+
+                handler.execute(event, context);
+            }
+        }
+
+        private static Handler[] append(Handler[] handlers, Handler handler) {
+            Handler[] newHandlers = Arrays.copyOf(handlers, handlers.length + 1);
+            newHandlers[handlers.length] = handler;
+            return newHandlers;
+        }
+
+        private static Handler[] without(Handler[] handlers, Handler handler) {
+            for (int i = 0; i < handlers.length; i++) {
+                if (handlers[i] != handler) {
+                    continue;
+                }
+
+                Handler[] newHandlers = new Handler[handlers.length - 1];
+                System.arraycopy(handlers, 0, newHandlers, 0, i);
+                System.arraycopy(handlers, i + 1, newHandlers, i, handlers.length - i - 1);
+                return newHandlers;
+            }
+
+            return handlers;
+        }
+    }
+
+    /**
+     * An {@link ArenaEventHandler} method registered with the router.
+     */
+    static final class Handler {
+        private final Route route;
+        private final ArenaEventManager manager;
+        private final ArenaListener listener;
+        private final Method method;
+        private final ArenaEventInvoker invoker;
+        private final Argument argument;
+        @Nullable
+        private final Competition<?> competition;
+        private final boolean ignoreCancelled;
+        private final long sequence;
+
+        Handler(Route route, ArenaEventManager manager, ArenaListener listener, Method method, ArenaEventInvoker invoker, Argument argument, @Nullable Competition<?> competition, boolean ignoreCancelled, long sequence) {
+            this.route = route;
+            this.manager = manager;
+            this.listener = listener;
+            this.method = method;
+            this.invoker = invoker;
+            this.argument = argument;
+            this.competition = competition;
+            this.ignoreCancelled = ignoreCancelled;
+            this.sequence = sequence;
+        }
+
+        void execute(Event event, Context context) {
+            if (this.ignoreCancelled && event instanceof Cancellable cancellable && cancellable.isCancelled()) {
+                return;
+            }
+
+            Object argument = switch (this.argument) {
+                case NONE -> null;
+                case COMPETITION -> context.competition();
+                case EVENT_PLAYER -> ((ArenaPlayerEvent) event).getArenaPlayer();
+                case CONTEXT_PLAYER -> context.player();
+            };
+
+            if (argument == null && this.argument == Argument.CONTEXT_PLAYER) {
+                // Events resolved from where they occurred have no player
+                if (context.located()) {
+                    return;
+                }
+
+                this.manager.getArena().getPlugin().warn("Could not find ArenaPlayer for event {}", this.route.key.eventClass());
+                return;
+            }
+
+            try {
+                this.invoker.invoke(event, argument);
+            } catch (Throwable e) {
+                this.manager.getArena().getPlugin().error("Could not pass event {} to {}#{}", event.getEventName(), this.listener.getClass().getName(), this.method.getName(), e);
+            }
+        }
+    }
+
+    /**
+     * The second argument passed to an {@link ArenaEventHandler} method.
+     * <p>
+     * BattleArena offers a bit of flexibility with the second parameter.
+     * Events that are just normal ArenaEvents can have a second parameter be
+     * a Competition, whereas a ArenaPlayerEvent can have a second parameter be
+     * an ArenaPlayer or a Competition. This is resolved once when the handler
+     * is registered rather than every time the handler is called.
+     */
+    enum Argument {
+        /**
+         * The handler only accepts the event.
+         */
+        NONE,
+        /**
+         * The handler accepts the {@link Competition} the event occurred in.
+         */
+        COMPETITION,
+        /**
+         * The handler accepts the {@link ArenaPlayer} of an {@link ArenaPlayerEvent}.
+         */
+        EVENT_PLAYER,
+        /**
+         * The handler accepts the {@link ArenaPlayer} the event was resolved from.
+         */
+        CONTEXT_PLAYER;
+
+        /**
+         * Resolves the argument for the given handler method.
+         *
+         * @param method the handler method
+         * @return the argument for the handler method, or null if
+         *         the method signature is not supported
+         */
+        @Nullable
+        static Argument of(Method method) {
+            if (method.getParameterCount() == 1) {
+                return NONE;
+            }
+
+            if (method.getParameterCount() != 2) {
+                return null;
+            }
+
+            Class<?> parameterType = method.getParameterTypes()[1];
+            if (Competition.class.isAssignableFrom(parameterType)) {
+                return COMPETITION;
+            }
+
+            if (ArenaPlayer.class.isAssignableFrom(parameterType)) {
+                return ArenaPlayerEvent.class.isAssignableFrom(method.getParameterTypes()[0]) ? EVENT_PLAYER : CONTEXT_PLAYER;
+            }
+
+            return null;
+        }
+    }
+}
@@ -204,6 +204,11 @@ public final class Messages {
     public static final Message BACKUP_INFO = message("util-backup-info", "Backup <secondary>{}</secondary>");
     public static final Message MODULES = message("util-modules", "Modules");
     public static final Message MODULE = message("util-module", "<gray>-</gray> <secondary>{}:</secondary> {}");
+    public static final Message PROXY = message("util-proxy", "Proxy");
+    public static final Message PROXY_NOT_ENABLED = error("util-proxy-not-enabled", "Proxy support is not enabled on this server!");
+    public static final Message PROXY_MESSAGES_QUEUED = message("util-proxy-messages-queued", "<gray>-</gray> <secondary>Queued messages:</secondary> {}");
+    public static final Message PROXY_MESSAGES_HANDLED = message("util-proxy-messages-handled", "<gray>-</gray> <secondary>Handled messages:</secondary> {} ({} dropped)");
+    public static final Message PROXY_MESSAGES_LATENCY = message("util-proxy-messages-latency", "<gray>-</gray> <secondary>Handling latency:</secondary> {}ms average, {}ms max");
     public static final Message STARTING_RELOAD = info("util-starting-reload", "Reloading BattleArena...");
     public static final Message RELOAD_COMPLETE = success("util-reload-complete", "Reload complete in <secondary>{}</secondary>!");
     public static final Message RELOAD_FAILED = error("util-reload-failed", "Reload failed! Please see the console for more information.");
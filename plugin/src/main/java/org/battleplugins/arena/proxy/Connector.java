@@ -1,49 +1,104 @@
 package org.battleplugins.arena.proxy;
 
-import com.google.gson.JsonArray;
-import com.google.gson.JsonElement;
-import com.google.gson.JsonObject;
-import com.google.gson.JsonParser;
 import net.kyori.adventure.text.Component;
+import org.battleplugins.arena.Arena;
 import org.battleplugins.arena.BattleArena;
 import org.battleplugins.arena.competition.map.LiveCompetitionMap;
+import org.battleplugins.arena.competition.map.MapType;
 import org.battleplugins.arena.messages.Messages;
+import org.battleplugins.arena.proxy.message.ProxyMessage;
+import org.battleplugins.arena.proxy.message.ProxyMessageCodec;
 import org.bukkit.Bukkit;
 import org.bukkit.entity.Player;
+import org.jetbrains.annotations.Nullable;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import redis.clients.jedis.BinaryJedisPubSub;
 import redis.clients.jedis.Jedis;
 import redis.clients.jedis.JedisPool;
 import redis.clients.jedis.JedisPoolConfig;
-import redis.clients.jedis.JedisPubSub;
+import redis.clients.jedis.Pipeline;
+import redis.clients.jedis.exceptions.JedisException;
 
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.StandardCopyOption;
 import java.util.ArrayList;
 import java.util.Base64;
+import java.util.Collection;
 import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Locale;
+import java.util.Queue;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipInputStream;
 import java.util.zip.ZipOutputStream;
 
 public class Connector {
     private static final Logger log = LoggerFactory.getLogger(Connector.class);
+    private static final int MAX_PUBLISH_BATCH = 64;
+
     private final BattleArena plugin;
 
-    private JedisPool jedisPool;
+    private volatile JedisPool jedisPool;
     private Thread subscriberThread;
-    private JedisPubSub subscriber;
+    private BinaryJedisPubSub subscriber;
     private volatile boolean running;
     private final String redisChannel;
+    private final List<String> subscribedChannels;
+    private final boolean directedMessages;
+    private final ProxyMessageCodec.Format messageFormat;
+
+    private final ProxyMessageExecutor messageExecutor;
+    private final ProxyConfigSync configSync;
+    private final ExecutorService publisher = Executors.newSingleThreadExecutor(
+            Thread.ofVirtual().name("BattleArena-Proxy-Publisher").factory()
+    );
+    private final Queue<Outgoing> outgoing = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean publishing = new AtomicBoolean();
 
     public Connector(BattleArena plugin) {
         this.plugin = plugin;
         this.redisChannel = plugin.getMainConfig().getRedisChannel();
+        this.directedMessages = plugin.getMainConfig().isProxyDirectedMessages();
+
+        // Every server listens for broadcasts and on its own inbox, and the
+        // host also listens on the host inbox
+        List<String> channels = new ArrayList<>();
+        channels.add(ProxyDestination.broadcast().channel(this.redisChannel));
+        String serverName = plugin.getMainConfig().getProxyServerName();
+        if (serverName != null && !serverName.isEmpty()) {
+            channels.add(ProxyDestination.server(serverName).channel(this.redisChannel));
+        }
+
+        if (plugin.getMainConfig().isProxyHost()) {
+            channels.add(ProxyDestination.host().channel(this.redisChannel));
+        }
+
+        this.subscribedChannels = List.copyOf(channels);
+
+        ProxyMessageCodec.Format format;
+        try {
+            format = ProxyMessageCodec.Format.valueOf(plugin.getMainConfig().getProxyMessageFormat().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            log.warn("Unknown proxy message format {}, falling back to json.", plugin.getMainConfig().getProxyMessageFormat());
+            format = ProxyMessageCodec.Format.JSON;
+        }
+
+        this.messageFormat = format;
+        this.messageExecutor = new ProxyMessageExecutor(plugin.getMainConfig().getProxyMaxPendingMessages());
+        this.configSync = new ProxyConfigSync(plugin.getDataFolder().toPath(), this.redisChannel);
     }
 
     public void connect() {
@@ -78,30 +133,41 @@ public class Connector {
 
         this.running = true;
 
-        this.subscriber = new JedisPubSub() {
+        this.subscriber = new BinaryJedisPubSub() {
             @Override
-            public void onMessage(String channel, String message) {
-                if (!redisChannel.equals(channel)) {
+            public void onMessage(byte[] channel, byte[] message) {
+                // Decode on the subscriber thread, so malformed messages are
+                // rejected before anything is scheduled for them.
+                ProxyMessage decoded;
+                try {
+                    decoded = ProxyMessageCodec.decode(message);
+                } catch (IOException e) {
+                    log.warn("Rejected malformed proxy message ({} bytes): {}", message.length, e.getMessage());
                     return;
                 }
 
-                log.info("Received message from Redis proxy channel: {}", message);
+                log.debug("Received {} message from Redis proxy channel ({} bytes).", ProxyMessageCodec.typeName(decoded), message.length);
 
-                // Preserve async handling semantics from the old TCP loop.
-                Bukkit.getScheduler().runTaskAsynchronously(plugin, () -> {
+                messageExecutor.submit(orderingKey(decoded), () -> {
                     try {
-                        handleMessages(message);
+                        handle(decoded);
                     } catch (IOException e) {
                         log.warn("Error handling proxy message", e);
                     }
-                });
+                }, isDroppable(decoded));
             }
         };
 
         this.subscriberThread = new Thread(() -> {
             try (Jedis jedis = jedisPool.getResource()) {
-                log.info("Subscribing to Redis channel '{}'.", redisChannel);
-                jedis.subscribe(subscriber, redisChannel);
+                log.info("Subscribing to Redis channels {}.", subscribedChannels);
+
+                byte[][] channels = new byte[subscribedChannels.size()][];
+                for (int i = 0; i < channels.length; i++) {
+                    channels[i] = subscribedChannels.get(i).getBytes(StandardCharsets.UTF_8);
+                }
+
+                jedis.subscribe(subscriber, channels);
             } catch (Exception ex) {
                 if (running) {
                     log.warn("Redis subscriber loop for BattleArena connector stopped unexpectedly.", ex);
@@ -115,683 +181,510 @@ public class Connector {
         this.subscriberThread.start();
     }
 
+    /**
+     * Sends the given message to the given destination, encoded
+     * in the configured message format.
+     *
+     * @param message the message to send
+     * @param destination the destination of the message
+     */
+    public void sendToRouter(ProxyMessage message, ProxyDestination destination) {
+        sendToRouter(message, List.of(destination));
+    }
+
+    /**
+     * Sends the given message to each of the given destinations, encoded
+     * in the configured message format. The message is only encoded once,
+     * and only sent once to destinations which are listed more than once.
+     *
+     * @param message the message to send
+     * @param destinations the destinations of the message
+     */
+    public void sendToRouter(ProxyMessage message, Collection<ProxyDestination> destinations) {
+        if (!running || jedisPool == null) {
+            log.warn("Attempted to send proxy message but Redis connector is not running.");
+            return;
+        }
+
+        byte[] data = ProxyMessageCodec.encode(message, messageFormat);
+        for (String channel : channels(destinations)) {
+            queuePublish(new Outgoing(ProxyMessageCodec.typeName(message), channel.getBytes(StandardCharsets.UTF_8), data));
+        }
+    }
+
+    /**
+     * Sends a message which is already encoded in the JSON format to every server.
+     *
+     * @param msg the message to send
+     * @deprecated use {@link #sendToRouter(ProxyMessage, ProxyDestination)}
+     */
+    @Deprecated
     public void sendToRouter(String msg) {
         if (!running || jedisPool == null) {
             log.warn("Attempted to send proxy message but Redis connector is not running.");
             return;
         }
 
-        Bukkit.getScheduler().runTaskAsynchronously(plugin, () -> {
-            try (Jedis jedis = jedisPool.getResource()) {
-                long receivers = jedis.publish(redisChannel, msg);
-                log.debug("Published message to Redis channel {} ({} receivers): {}", redisChannel, receivers, msg);
-            } catch (Exception ex) {
-                log.warn("Failed to publish proxy message to Redis", ex);
-            }
-        });
+        queuePublish(new Outgoing("json", redisChannel.getBytes(StandardCharsets.UTF_8), msg.getBytes(StandardCharsets.UTF_8)));
     }
 
-    private void disconnect() {
-        log.info("Shutting down BattleArena Redis proxy connector on channel '{}'.", redisChannel);
-        running = false;
+    /**
+     * Gets the counters of the handling of received proxy messages.
+     *
+     * @return the counters
+     */
+    public ProxyMessageExecutor.Stats getMessageStats() {
+        return messageExecutor.getStats();
+    }
 
-        if (subscriber != null) {
-            try {
-                subscriber.unsubscribe();
-            } catch (Exception ignored) {
-            }
-            subscriber = null;
+    private Set<String> channels(Collection<ProxyDestination> destinations) {
+        // Servers running versions without inboxes only listen for broadcasts
+        if (!directedMessages) {
+            return Set.of(redisChannel);
         }
 
-        if (subscriberThread != null) {
-            subscriberThread.interrupt();
-            subscriberThread = null;
+        Set<String> channels = new LinkedHashSet<>();
+        for (ProxyDestination destination : destinations) {
+            channels.add(destination.channel(redisChannel));
         }
 
-        if (jedisPool != null) {
-            jedisPool.close();
-            jedisPool = null;
+        return channels;
+    }
+
+    private void queuePublish(Outgoing message) {
+        outgoing.add(message);
+        if (publishing.compareAndSet(false, true)) {
+            publisher.execute(this::publishQueued);
         }
     }
 
-    void handleMessages(String message) throws IOException {
-        JsonObject object = JsonParser.parseString(message).getAsJsonObject();
+    // Messages are published in the order they were sent from a single thread.
+    // Messages sent while a publish is in flight are published together through
+    // a pipeline, so a burst of messages only takes a single round trip.
+    private void publishQueued() {
+        List<Outgoing> batch = new ArrayList<>();
+        while (true) {
+            Outgoing next;
+            while (batch.size() < MAX_PUBLISH_BATCH && (next = outgoing.poll()) != null) {
+                batch.add(next);
+            }
 
-        String type = object.get("type").getAsString();
+            if (batch.isEmpty()) {
+                publishing.set(false);
 
-        switch (type.toLowerCase()) {
-            case "sync_config": {
-                // Proxy host doesn't sync remote configs; it is the source of truth.
-                if (plugin.getMainConfig().isProxyHost()) {
+                // Something may have been queued after the last poll, but before publishing was reset
+                if (outgoing.isEmpty() || !publishing.compareAndSet(false, true)) {
                     return;
                 }
 
-                log.info("Sync config proxy hosted!");
-
-                // For backwards compatibility, fall back to "data" as maps only.
-                if (object.has("maps")) {
-                    byte[] mapsZip = Base64.getDecoder().decode(object.get("maps").getAsString());
-                    Path mapsPath = plugin.getMapsPath();
-                    unzipToDirectory(mapsZip, mapsPath);
-                }
+                continue;
+            }
 
-                if (object.has("arenas")) {
-                    byte[] arenasZip = Base64.getDecoder().decode(object.get("arenas").getAsString());
-                    Path arenasPath = plugin.getDataFolder().toPath().resolve("arenas");
-                    unzipToDirectory(arenasZip, arenasPath);
-                }
+            publish(batch);
+            batch.clear();
+        }
+    }
 
-                for (List<LiveCompetitionMap> maps : plugin.getArenaMaps().values()) {
-                    maps.removeIf(LiveCompetitionMap::isRemote);
-                }
+    private void publish(List<Outgoing> batch) {
+        JedisPool pool = jedisPool;
+        if (pool == null) {
+            log.warn("Dropped {} proxy messages as the Redis connector has shut down.", batch.size());
+            return;
+        }
 
-                plugin.loadArenaMaps(true);
-                break;
+        try (Jedis jedis = pool.getResource()) {
+            if (batch.size() == 1) {
+                Outgoing message = batch.get(0);
+                long receivers = jedis.publish(message.channel(), message.data());
+                log.debug("Published {} message to Redis channel {} ({} bytes, {} receivers).", message.type(), new String(message.channel(), StandardCharsets.UTF_8), message.data().length, receivers);
+                return;
             }
-            case "sync_request": {
-                // Only the proxy host should answer sync requests.
-                if (!plugin.getMainConfig().isProxyHost()) {
-                    return;
-                }
 
-                Path mapsPath = plugin.getMapsPath();
-                if (!Files.exists(mapsPath)) {
-                    log.warn("Received sync_request but maps directory {} does not exist.", mapsPath);
-                    return;
-                }
-
-                Path arenasPath = plugin.getDataFolder().toPath().resolve("arenas");
+            Pipeline pipeline = jedis.pipelined();
+            for (Outgoing message : batch) {
+                pipeline.publish(message.channel(), message.data());
+            }
 
-                try {
-                    JsonObject response = new JsonObject();
-                    response.addProperty("type", "sync_config");
+            pipeline.sync();
+            log.debug("Published {} proxy messages to Redis in one batch.", batch.size());
+        } catch (Exception ex) {
+            log.warn("Failed to publish {} proxy messages to Redis", batch.size(), ex);
+        }
+    }
 
-                    // If the request specified an origin, echo it back so the response
-                    // is routed directly to the requester instead of broadcast.
-                    if (object.has("origin")) {
-                        response.addProperty("origin", object.get("origin").getAsString());
-                    }
+    private void disconnect() {
+        log.info("Shutting down BattleArena Redis proxy connector on channel '{}'.", redisChannel);
+        running = false;
 
-                    String mapsData = zipFolderToBase64(mapsPath);
-                    response.addProperty("maps", mapsData);
+        if (subscriber != null) {
+            try {
+                subscriber.unsubscribe();
+            } catch (Exception ignored) {
+            }
+            subscriber = null;
+        }
 
-                    if (Files.exists(arenasPath)) {
-                        String arenasData = zipFolderToBase64(arenasPath);
-                        response.addProperty("arenas", arenasData);
-                    }
+        if (subscriberThread != null) {
+            subscriberThread.interrupt();
+            subscriberThread = null;
+        }
 
-                    sendToRouter(response.toString());
-                    log.info("Synced arenas and maps to proxy clients from {}, {}.", arenasPath, mapsPath);
-            } catch (IOException e) {
-                    log.warn("Failed to respond to sync_request: {}", e.getMessage());
-                }
+        messageExecutor.shutdown();
 
-                break;
+        // Publish anything which is still queued before the pool is closed
+        publisher.shutdown();
+        try {
+            if (!publisher.awaitTermination(5, TimeUnit.SECONDS)) {
+                log.warn("Timed out waiting for {} proxy messages to be published.", outgoing.size());
             }
-            // Sent whenever a non-host server wants to enqueue or dequeue a player for a proxy-wide queue.
-            case "queue_join": {
-                if (!plugin.getMainConfig().isProxyHost()) {
-                    return;
-                }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
 
-                String arenaName = object.get("arena").getAsString();
-                final String duelMapName = object.has("map") ? object.get("map").getAsString() : null;
-                String mapName = object.has("map") ? object.get("map").getAsString() : null;
-                org.battleplugins.arena.Arena arena = plugin.getArena(arenaName);
-                if (arena == null) {
-                    log.warn("Received queue_join for unknown arena '{}'.", arenaName);
-                    return;
-                }
+        if (jedisPool != null) {
+            jedisPool.close();
+            jedisPool = null;
+        }
+    }
 
-                String origin = object.has("origin") ? object.get("origin").getAsString() : "";
+    void handle(ProxyMessage message) throws IOException {
+        switch (message) {
+            case ProxyMessage.SyncConfig msg -> handleSyncConfig(msg);
+            case ProxyMessage.SyncRequest msg -> handleSyncRequest(msg);
+            case ProxyMessage.SyncManifest msg -> handleSyncManifest(msg);
+            case ProxyMessage.QueueJoin msg -> handleQueueJoin(msg);
+            case ProxyMessage.QueueLeave msg -> handleQueueLeave(msg);
+            case ProxyMessage.DuelRequest msg -> handleDuelRequest(msg);
+            case ProxyMessage.DuelRoster msg -> handleDuelRoster(msg);
+            case ProxyMessage.DuelResult msg -> handleDuelResult(msg);
+            case ProxyMessage.QueueMatch msg -> handleQueueMatch(msg);
+            case ProxyMessage.ArenaJoin msg -> handleArenaJoin(msg);
+            case ProxyMessage.SpectateRequest msg -> handleSpectateRequest(msg);
+            case ProxyMessage.SpectateReady msg -> handleSpectateReady(msg);
+            case ProxyMessage.SpectateReject msg -> handleSpectateReject(msg);
+        }
+    }
 
-                JsonObject playerObject = object.getAsJsonObject("player");
+    private void handleSyncConfig(ProxyMessage.SyncConfig message) throws IOException {
+        // Proxy host doesn't sync remote configs; it is the source of truth.
+        if (plugin.getMainConfig().isProxyHost()) {
+            return;
+        }
 
-                // Build a SerializedPlayer instance from the JSON payload.
-                String uuid = playerObject.get("uuid").getAsString();
-                org.battleplugins.arena.proxy.SerializedPlayer serializedPlayer =
-                        new org.battleplugins.arena.proxy.SerializedPlayer(uuid);
+        log.info("Sync config proxy hosted!");
 
-                if (playerObject.has("elements") && playerObject.get("elements").isJsonArray()) {
-                    playerObject.getAsJsonArray("elements").forEach(elementEl -> {
-                        try {
-                            org.battleplugins.arena.proxy.Elements element = org.battleplugins.arena.proxy.Elements.valueOf(elementEl.getAsString());
-                            serializedPlayer.getElements().add(element);
-                        } catch (IllegalArgumentException ignored) {
-                            // Ignore unknown elements
-                        }
-                    });
-                }
+        unzipToDirectory(message.maps(), plugin.getMapsPath());
 
-                if (playerObject.has("abilities") && playerObject.get("abilities").isJsonObject()) {
-                    JsonObject abilitiesObject = playerObject.getAsJsonObject("abilities");
-                    abilitiesObject.entrySet().forEach(entry -> {
-                        try {
-                            int slot = Integer.parseInt(entry.getKey());
-                            serializedPlayer.getAbilities().put(slot, entry.getValue().getAsString());
-                        } catch (NumberFormatException ignored) {
-                            // Ignore invalid ability slots
-                        }
-                    });
-                }
+        if (message.arenas() != null) {
+            Path arenasPath = plugin.getDataFolder().toPath().resolve("arenas");
+            unzipToDirectory(message.arenas(), arenasPath);
+        }
 
-                if (playerObject.has("origin") && playerObject.get("origin").isJsonPrimitive()) {
-                    serializedPlayer.setOrigin(playerObject.get("origin").getAsString());
-                } else if (!origin.isEmpty()) {
-                    serializedPlayer.setOrigin(origin);
-                }
+        for (List<LiveCompetitionMap> maps : plugin.getArenaMaps().values()) {
+            maps.removeIf(LiveCompetitionMap::isRemote);
+        }
 
-                Bukkit.getScheduler().runTask(plugin, () ->
-                        org.bukkit.Bukkit.getPluginManager().callEvent(
-                                new org.battleplugins.arena.proxy.ProxyQueueJoinEvent(arena, origin, serializedPlayer)
-                        )
-                );
-                break;
-            }
-            case "queue_leave": {
-                if (!plugin.getMainConfig().isProxyHost()) {
-                    return;
-                }
+        plugin.loadArenaMaps(true);
+    }
 
-                String uuid = object.get("uuid").getAsString();
-                String origin = object.has("origin") ? object.get("origin").getAsString() : "";
+    private void handleSyncRequest(ProxyMessage.SyncRequest message) {
+        // Only the proxy host should answer sync requests.
+        if (!plugin.getMainConfig().isProxyHost()) {
+            return;
+        }
 
-                Bukkit.getScheduler().runTask(plugin, () ->
-                        org.bukkit.Bukkit.getPluginManager().callEvent(
-                                new org.battleplugins.arena.proxy.ProxyQueueLeaveEvent(origin, uuid)
-                        )
-                );
+        Path mapsPath = plugin.getMapsPath();
+        if (!Files.exists(mapsPath)) {
+            log.warn("Received sync_request but maps directory {} does not exist.", mapsPath);
+            return;
+        }
 
-                break;
-            }
-            // Sent whenever the client wants to start a duel on the proxy host
-            case "duel_req": {
-                if (!plugin.getMainConfig().isProxyHost()) {
-                    return;
-                }
+        try {
+            // If the request specified an origin, echo it back and send the
+            // response to the inbox of the requester instead of broadcasting it.
+            sendToRouter(createSyncManifest(message.origin()), ProxyDestination.server(message.origin()));
+            log.info("Sent arena and map manifest to proxy client {}.", message.origin());
+        } catch (IOException | JedisException e) {
+            log.warn("Failed to respond to sync_request: {}", e.getMessage());
+        }
+    }
 
-                String arenaName = object.get("arena").getAsString();
-                final String duelMapName = object.has("map") ? object.get("map").getAsString() : null;
-                JsonElement requesterElement = object.get("requester");
-                JsonElement targetElement = object.get("target");
+    private void handleSyncManifest(ProxyMessage.SyncManifest message) throws IOException {
+        // Proxy host doesn't sync remote configs; it is the source of truth.
+        if (plugin.getMainConfig().isProxyHost()) {
+            return;
+        }
 
-                org.battleplugins.arena.Arena arena = plugin.getArena(arenaName);
-                if (arena == null) {
-                    log.warn("Received proxy duel request for unknown arena '{}'.", arenaName);
-                    return;
-                }
+        JedisPool pool = jedisPool;
+        if (pool == null) {
+            return;
+        }
 
-                org.battleplugins.arena.proxy.SerializedPlayer requester;
-                org.battleplugins.arena.proxy.SerializedPlayer target;
+        List<Path> changed;
+        try (Jedis jedis = pool.getResource()) {
+            changed = configSync.apply(jedis, message);
+        }
 
-                // Backwards compatible format: requester/target as UUID strings
-                if (requesterElement.isJsonPrimitive()) {
-                    String requesterId = requesterElement.getAsString();
-                    requester = new org.battleplugins.arena.proxy.SerializedPlayer(requesterId);
-                } else {
-                    JsonObject requesterObject = requesterElement.getAsJsonObject();
-                    String requesterId = requesterObject.get("uuid").getAsString();
-                    requester = new org.battleplugins.arena.proxy.SerializedPlayer(requesterId);
-
-                    if (requesterObject.has("elements") && requesterObject.get("elements").isJsonArray()) {
-                        requesterObject.getAsJsonArray("elements").forEach(elementEl -> {
-                            try {
-                                org.battleplugins.arena.proxy.Elements element = org.battleplugins.arena.proxy.Elements.valueOf(elementEl.getAsString());
-                                requester.getElements().add(element);
-                            } catch (IllegalArgumentException ignored) {
-                                // Ignore unknown elements
-                            }
-                        });
-                    }
+        if (changed.isEmpty()) {
+            log.info("Arenas and maps are up to date with the proxy host.");
+            return;
+        }
 
-                    if (requesterObject.has("abilities") && requesterObject.get("abilities").isJsonObject()) {
-                        JsonObject abilitiesObject = requesterObject.getAsJsonObject("abilities");
-                        abilitiesObject.entrySet().forEach(entry -> {
-                            try {
-                                int slot = Integer.parseInt(entry.getKey());
-                                requester.getAbilities().put(slot, entry.getValue().getAsString());
-                            } catch (NumberFormatException ignored) {
-                                // Ignore invalid ability slots
-                            }
-                        });
-                    }
-                }
+        Path mapsPath = plugin.getMapsPath();
+        List<Path> changedMaps = changed.stream()
+                .filter(path -> path.startsWith(mapsPath))
+                .toList();
 
-                if (targetElement.isJsonPrimitive()) {
-                    String targetId = targetElement.getAsString();
-                    target = new org.battleplugins.arena.proxy.SerializedPlayer(targetId);
-                } else {
-                    JsonObject targetObject = targetElement.getAsJsonObject();
-                    String targetId = targetObject.get("uuid").getAsString();
-                    target = new org.battleplugins.arena.proxy.SerializedPlayer(targetId);
-
-                    if (targetObject.has("elements") && targetObject.get("elements").isJsonArray()) {
-                        targetObject.getAsJsonArray("elements").forEach(elementEl -> {
-                            try {
-                                org.battleplugins.arena.proxy.Elements element = org.battleplugins.arena.proxy.Elements.valueOf(elementEl.getAsString());
-                                target.getElements().add(element);
-                            } catch (IllegalArgumentException ignored) {
-                                // Ignore unknown elements
-                            }
-                        });
-                    }
+        log.info("Synced {} changed arena and map files from the proxy host.", changed.size());
+        if (changedMaps.size() < changed.size()) {
+            log.info("Changes to arena files take effect after the next reload.");
+        }
 
-                    if (targetObject.has("abilities") && targetObject.get("abilities").isJsonObject()) {
-                        JsonObject abilitiesObject = targetObject.getAsJsonObject("abilities");
-                        abilitiesObject.entrySet().forEach(entry -> {
-                            try {
-                                int slot = Integer.parseInt(entry.getKey());
-                                target.getAbilities().put(slot, entry.getValue().getAsString());
-                            } catch (NumberFormatException ignored) {
-                                // Ignore invalid ability slots
-                            }
-                        });
-                    }
-                }
+        // Only the maps which changed are reloaded
+        if (!changedMaps.isEmpty()) {
+            Bukkit.getScheduler().runTask(plugin, () -> plugin.reloadRemoteMaps(changedMaps));
+        }
+    }
 
-                java.util.Set<java.util.UUID> requesterParty = parseRoster(object, "requesterParty", requester);
-                java.util.Set<java.util.UUID> targetParty = parseRoster(object, "targetParty", target);
-                java.util.List<org.battleplugins.arena.proxy.SerializedPlayer> players = parseSerializedPlayers(object);
-                if (players.isEmpty()) {
-                    players.add(requester);
-                    players.add(target);
-                }
+    // Sent whenever a non-host server wants to enqueue or dequeue a player for a proxy-wide queue.
+    private void handleQueueJoin(ProxyMessage.QueueJoin message) {
+        if (!plugin.getMainConfig().isProxyHost()) {
+            return;
+        }
 
-                String origin = object.has("origin") ? object.get("origin").getAsString() : null;
-                int rounds = 1;
-                if (object.has("rounds")) {
-                    try {
-                        rounds = object.get("rounds").getAsInt();
-                    } catch (Exception ignored) {
-                    }
-                }
-                int duelRounds = rounds;
+        Arena arena = plugin.getArena(message.arena());
+        if (arena == null) {
+            log.warn("Received queue_join for unknown arena '{}'.", message.arena());
+            return;
+        }
 
-                    Bukkit.getScheduler().runTask(plugin, () -> {
-                        org.bukkit.Bukkit.getPluginManager().callEvent(
-                                new org.battleplugins.arena.proxy.ProxyDuelRequestEvent(arena, requester, target, requesterParty, targetParty, players, duelMapName, origin, duelRounds)
-                        );
-                    });
+        String origin = message.origin() == null ? "" : message.origin();
+        SerializedPlayer serializedPlayer = message.player();
+        if (serializedPlayer.getOrigin() == null && !origin.isEmpty()) {
+            serializedPlayer.setOrigin(origin);
+        }
 
-                break;
-            }
-            case "duel_roster": {
-                if (!plugin.getMainConfig().isProxySupport() || plugin.getMainConfig().isProxyHost()) {
-                    break;
-                }
+        Bukkit.getScheduler().runTask(plugin, () ->
+                Bukkit.getPluginManager().callEvent(new ProxyQueueJoinEvent(arena, origin, serializedPlayer))
+        );
+    }
 
-                List<String> duelPlayers = new ArrayList<>();
-                if (object.has("players") && object.get("players").isJsonArray()) {
-                    object.getAsJsonArray("players").forEach(element -> {
-                        if (element.isJsonPrimitive()) {
-                            String name = element.getAsString();
-                            if (name != null && !name.isEmpty()) {
-                                duelPlayers.add(name);
-                            }
-                        }
-                    });
-                }
+    private void handleQueueLeave(ProxyMessage.QueueLeave message) {
+        if (!plugin.getMainConfig().isProxyHost()) {
+            return;
+        }
 
-                plugin.setRemoteDuelPlayers(duelPlayers);
-                break;
-            }
-            case "duel_result": {
-                if (!plugin.getMainConfig().isProxySupport()) {
-                    break;
-                }
+        String origin = message.origin() == null ? "" : message.origin();
+        Bukkit.getScheduler().runTask(plugin, () ->
+                Bukkit.getPluginManager().callEvent(new ProxyQueueLeaveEvent(origin, message.uuid().toString()))
+        );
+    }
 
-                String origin = object.has("origin") ? object.get("origin").getAsString() : "";
-                String thisOrigin = plugin.getMainConfig().getProxyServerName();
-                if (thisOrigin == null || thisOrigin.isEmpty()) {
-                    break;
-                }
+    // Sent whenever the client wants to start a duel on the proxy host
+    private void handleDuelRequest(ProxyMessage.DuelRequest message) {
+        if (!plugin.getMainConfig().isProxyHost()) {
+            return;
+        }
 
-                if (!origin.isEmpty() && !origin.equals(thisOrigin)) {
-                    break;
-                }
+        Arena arena = plugin.getArena(message.arena());
+        if (arena == null) {
+            log.warn("Received proxy duel request for unknown arena '{}'.", message.arena());
+            return;
+        }
 
-                if (!object.has("message")) {
-                    break;
-                }
+        SerializedPlayer requester = message.requester();
+        SerializedPlayer target = message.target();
 
-                String m = object.get("message").getAsString();
-                Bukkit.getScheduler().runTask(plugin, () -> {
-                    var component = Messages.deserializeMiniMessage(m);
-                    Bukkit.broadcast(component);
-                });
-                break;
-            }
-            // Sent whenever the proxy host has matched enough queued players for an arena.
-            // - On the host: this fires a ProxyArenaJoinRequestEvent backed by SerializedPlayer data.
-            // - On non-host servers: this sends the involved players to the proxy host.
-            case "queue_match": {
-                String arenaName = object.get("arena").getAsString();
-                String mapName = object.get("map").getAsString();
-                boolean duel = object.has("duel") && object.get("duel").getAsBoolean();
-                String origin = object.has("origin") ? object.get("origin").getAsString() : "";
-
-                org.battleplugins.arena.Arena arena = plugin.getArena(arenaName);
-                if (arena == null) {
-                    log.warn("Received queue_match for unknown arena '{}'.", arenaName);
-                    return;
-                }
-
-                JsonArray playersArray = object.getAsJsonArray("players");
+        Set<UUID> requesterParty = roster(requester, message.requesterParty());
+        Set<UUID> targetParty = roster(target, message.targetParty());
+        List<SerializedPlayer> players = new ArrayList<>(message.players());
+        if (players.isEmpty()) {
+            players.add(requester);
+            players.add(target);
+        }
 
-                if (plugin.getMainConfig().isProxyHost()) {
-                    if (duel) {
-                        break;
-                    }
-                    java.util.List<org.battleplugins.arena.proxy.SerializedPlayer> players = new java.util.ArrayList<>();
-                    playersArray.forEach(el -> {
-                        JsonObject playerObject = el.getAsJsonObject();
-                        String uuid = playerObject.get("uuid").getAsString();
-                        org.battleplugins.arena.proxy.SerializedPlayer serializedPlayer =
-                                new org.battleplugins.arena.proxy.SerializedPlayer(uuid);
-
-                        if (playerObject.has("elements") && playerObject.get("elements").isJsonArray()) {
-                            playerObject.getAsJsonArray("elements").forEach(elementEl -> {
-                                try {
-                                    org.battleplugins.arena.proxy.Elements element = org.battleplugins.arena.proxy.Elements.valueOf(elementEl.getAsString());
-                                    serializedPlayer.getElements().add(element);
-                                } catch (IllegalArgumentException ignored) {
-                                    // Ignore unknown elements
-                                }
-                            });
-                        }
-
-                        if (playerObject.has("abilities") && playerObject.get("abilities").isJsonObject()) {
-                            JsonObject abilitiesObject = playerObject.getAsJsonObject("abilities");
-                            abilitiesObject.entrySet().forEach(entry -> {
-                                try {
-                                    int slot = Integer.parseInt(entry.getKey());
-                                    serializedPlayer.getAbilities().put(slot, entry.getValue().getAsString());
-                                } catch (NumberFormatException ignored) {
-                                    // Ignore invalid ability slots
-                                }
-                            });
-                        }
-
-                        if (playerObject.has("origin") && playerObject.get("origin").isJsonPrimitive()) {
-                            serializedPlayer.setOrigin(playerObject.get("origin").getAsString());
-                        } else if (origin != null && !origin.isEmpty()) {
-                            serializedPlayer.setOrigin(origin);
-                        }
-
-                        if (playerObject.has("origin") && playerObject.get("origin").isJsonPrimitive()) {
-                            serializedPlayer.setOrigin(playerObject.get("origin").getAsString());
-                        } else if (origin != null && !origin.isEmpty()) {
-                            serializedPlayer.setOrigin(origin);
-                        }
-
-                        players.add(serializedPlayer);
-                    });
-
-                    Bukkit.getScheduler().runTask(plugin, () -> {
-                        org.bukkit.Bukkit.getPluginManager().callEvent(
-                                new org.battleplugins.arena.proxy.ProxyArenaJoinRequestEvent(arena, mapName, players, origin)
-                        );
-                    });
-                } else {
-                    // Non-host servers: send any of the matched players that are currently on this backend
-                    // to the proxy host server.
-                    String thisOrigin = plugin.getMainConfig().getProxyServerName();
-                    if (thisOrigin == null || thisOrigin.isEmpty()) {
-                        break;
-                    }
+        Bukkit.getScheduler().runTask(plugin, () ->
+                Bukkit.getPluginManager().callEvent(
+                        new ProxyDuelRequestEvent(arena, requester, target, requesterParty, targetParty, players, message.map(), message.origin(), message.rounds())
+                )
+        );
+    }
 
-                    if (!origin.isEmpty() && !origin.equals(thisOrigin)) {
-                        break;
-                    }
+    private void handleDuelRoster(ProxyMessage.DuelRoster message) {
+        if (!plugin.getMainConfig().isProxySupport() || plugin.getMainConfig().isProxyHost()) {
+            return;
+        }
 
-                    playersArray.forEach(el -> {
-                        JsonObject playerObject = el.getAsJsonObject();
-                        String playerOrigin = playerObject.has("origin") ? playerObject.get("origin").getAsString() : origin;
-                        if (playerOrigin != null && !playerOrigin.isEmpty() && !playerOrigin.equals(thisOrigin)) {
-                            return;
-                        }
-
-                        String uuid = playerObject.get("uuid").getAsString();
-                        java.util.UUID id = java.util.UUID.fromString(uuid);
-                        org.bukkit.entity.Player player = Bukkit.getPlayer(id);
-                        if (player != null) {
-                            plugin.removePendingProxyJoin(player.getUniqueId());
-                            plugin.sendPlayerToProxyHost(player);
-                        }
-                    });
-                }
+        plugin.setRemoteDuelPlayers(message.players());
+    }
 
-                break;
-            }
-            // Generic arena join on proxy host (e.g. queued games using remote maps)
-            case "arena_join": {
-                if (!plugin.getMainConfig().isProxySupport() || !plugin.getMainConfig().isProxyHost()) {
-                    return;
-                }
+    private void handleDuelResult(ProxyMessage.DuelResult message) {
+        if (!plugin.getMainConfig().isProxySupport() || !isForThisServer(message.origin())) {
+            return;
+        }
 
-                String arenaName = object.get("arena").getAsString();
-                String mapName = object.get("map").getAsString();
-                boolean duel = object.has("duel") && object.get("duel").getAsBoolean();
-                org.battleplugins.arena.Arena arena = plugin.getArena(arenaName);
-                if (arena == null) {
-                    log.warn("Received proxy arena_join for unknown arena '{}'.", arenaName);
-                    return;
-                }
+        Bukkit.getScheduler().runTask(plugin, () -> Bukkit.broadcast(Messages.deserializeMiniMessage(message.message())));
+    }
 
-                String origin = object.has("origin") ? object.get("origin").getAsString() : null;
-                java.util.List<org.battleplugins.arena.proxy.SerializedPlayer> players = new java.util.ArrayList<>();
-                final String joinOrigin = origin;
-                object.getAsJsonArray("players").forEach(el -> {
-                    if (el.isJsonPrimitive()) {
-                        // Backwards compatible format: array of UUID strings
-                        String uuid = el.getAsString();
-                        org.battleplugins.arena.proxy.SerializedPlayer primitivePlayer = new org.battleplugins.arena.proxy.SerializedPlayer(uuid);
-                        if (joinOrigin != null && !joinOrigin.isEmpty()) {
-                            primitivePlayer.setOrigin(joinOrigin);
-                        }
-                        players.add(primitivePlayer);
-                    } else if (el.isJsonObject()) {
-                        JsonObject playerObject = el.getAsJsonObject();
-                        String uuid = playerObject.get("uuid").getAsString();
-                        org.battleplugins.arena.proxy.SerializedPlayer player = new org.battleplugins.arena.proxy.SerializedPlayer(uuid);
-
-                        if (playerObject.has("elements") && playerObject.get("elements").isJsonArray()) {
-                            playerObject.getAsJsonArray("elements").forEach(elementEl -> {
-                                try {
-                                    org.battleplugins.arena.proxy.Elements element = org.battleplugins.arena.proxy.Elements.valueOf(elementEl.getAsString());
-                                    player.getElements().add(element);
-                                } catch (IllegalArgumentException ignored) {
-                                    // Ignore unknown elements for forwards compatibility
-                                }
-                            });
-                        }
-
-                        if (playerObject.has("abilities") && playerObject.get("abilities").isJsonObject()) {
-                            JsonObject abilitiesObject = playerObject.getAsJsonObject("abilities");
-                            abilitiesObject.entrySet().forEach(entry -> {
-                                try {
-                                    int slot = Integer.parseInt(entry.getKey());
-                                    player.getAbilities().put(slot, entry.getValue().getAsString());
-                                } catch (NumberFormatException ignored) {
-                                    // Ignore invalid ability slots
-                                }
-                            });
-                        }
-
-                        if (playerObject.has("origin") && playerObject.get("origin").isJsonPrimitive()) {
-                            player.setOrigin(playerObject.get("origin").getAsString());
-                        } else if (joinOrigin != null && !joinOrigin.isEmpty()) {
-                            player.setOrigin(joinOrigin);
-                        }
-
-                        players.add(player);
-                    }
-                });
+    // Sent whenever the proxy host has matched enough queued players for an arena.
+    // - On the host: this fires a ProxyArenaJoinRequestEvent backed by SerializedPlayer data.
+    // - On non-host servers: this sends the involved players to the proxy host.
+    private void handleQueueMatch(ProxyMessage.QueueMatch message) {
+        Arena arena = plugin.getArena(message.arena());
+        if (arena == null) {
+            log.warn("Received queue_match for unknown arena '{}'.", message.arena());
+            return;
+        }
 
-                org.battleplugins.arena.competition.map.LiveCompetitionMap map =
-                        plugin.getMap(arena, mapName);
-                if (map == null) {
-                    log.warn("Received arena_join for arena {} map {} but map was not found.", arenaName, mapName);
-                    return;
-                }
+        String origin = message.origin() == null ? "" : message.origin();
+        if (plugin.getMainConfig().isProxyHost()) {
+            if (message.duel()) {
+                return;
+            }
 
-                if (!map.isRemote()) {
-                    // Non-remote maps stay local on the host; fire the join event directly.
-                    Bukkit.getScheduler().runTask(plugin, () ->
-                            org.bukkit.Bukkit.getPluginManager().callEvent(
-                                    new org.battleplugins.arena.proxy.ProxyArenaJoinRequestEvent(arena, mapName, players, origin)
-                            )
-                    );
-                    break;
-                }
+            List<SerializedPlayer> players = withOrigin(message.players(), origin);
+            Bukkit.getScheduler().runTask(plugin, () ->
+                    Bukkit.getPluginManager().callEvent(new ProxyArenaJoinRequestEvent(arena, message.map(), players, origin))
+            );
+            return;
+        }
 
-                if (map.getType() == org.battleplugins.arena.competition.map.MapType.DYNAMIC) {
-                    // Prepare the dynamic map first using FAWE, then signal players to move.
-                    map.createDynamicCompetitionAsync(arena).whenComplete((competition, ex) -> {
-                        if (ex != null || competition == null) {
-                            log.warn("Failed to prepare dynamic competition for arena_join in arena {} map {}.", arenaName, mapName);
-                            return;
-                        }
+        // Non-host servers: send any of the matched players that are currently on this backend
+        // to the proxy host server.
+        if (!isForThisServer(message.origin())) {
+            return;
+        }
 
-                        sendQueueMatchForPlayers(arena, competition.getMap().getName(), origin, players, duel);
-                    });
-                } else {
-                    // Static remote map: it's already present; just reuse the same queue_match
-                    // pipeline so non-host servers only move players once the host is ready.
-                    sendQueueMatchForPlayers(arena, map.getName(), origin, players, duel);
-                }
+        String thisOrigin = plugin.getMainConfig().getProxyServerName();
+        for (SerializedPlayer serializedPlayer : message.players()) {
+            String playerOrigin = serializedPlayer.getOrigin() != null ? serializedPlayer.getOrigin() : origin;
+            if (!playerOrigin.isEmpty() && !playerOrigin.equals(thisOrigin)) {
+                continue;
+            }
 
-                break;
+            Player player = Bukkit.getPlayer(UUID.fromString(serializedPlayer.getUuid()));
+            if (player != null) {
+                plugin.removePendingProxyJoin(player.getUniqueId());
+                plugin.sendPlayerToProxyHost(player);
             }
-            case "spectate_request": {
-                if (!plugin.getMainConfig().isProxySupport() || !plugin.getMainConfig().isProxyHost()) {
-                    return;
-                }
+        }
+    }
 
-                ProxySpectateHandler handler = plugin.getProxySpectateHandler();
-                if (handler == null) {
-                    return;
-                }
+    // Generic arena join on proxy host (e.g. queued games using remote maps)
+    private void handleArenaJoin(ProxyMessage.ArenaJoin message) {
+        if (!plugin.getMainConfig().isProxySupport() || !plugin.getMainConfig().isProxyHost()) {
+            return;
+        }
 
-                String origin = object.has("origin") ? object.get("origin").getAsString() : null;
-                JsonElement spectatorElement = object.get("spectator");
-                org.battleplugins.arena.proxy.SerializedPlayer spectator = deserializePlayer(spectatorElement);
-                if (spectator == null) {
-                    log.warn("Received spectate_request without valid spectator payload.");
-                    return;
-                }
+        String arenaName = message.arena();
+        String mapName = message.map();
+        Arena arena = plugin.getArena(arenaName);
+        if (arena == null) {
+            log.warn("Received proxy arena_join for unknown arena '{}'.", arenaName);
+            return;
+        }
 
-                if ((spectator.getOrigin() == null || spectator.getOrigin().isEmpty()) && origin != null && !origin.isEmpty()) {
-                    spectator.setOrigin(origin);
-                }
+        String origin = message.origin();
+        List<SerializedPlayer> players = withOrigin(message.players(), origin);
 
-                ProxySpectateHandler.ProxySpectateRequest.Mode mode;
-                try {
-                    mode = ProxySpectateHandler.ProxySpectateRequest.Mode.valueOf(object.get("mode").getAsString().toUpperCase(java.util.Locale.ROOT));
-                } catch (IllegalArgumentException ex) {
-                    log.warn("Unknown spectate_request mode: {}", object.get("mode"));
-                    return;
-                }
+        LiveCompetitionMap map = plugin.getMap(arena, mapName);
+        if (map == null) {
+            log.warn("Received arena_join for arena {} map {} but map was not found.", arenaName, mapName);
+            return;
+        }
 
-                org.battleplugins.arena.Arena arena = null;
-                if (object.has("arena")) {
-                    String arenaName = object.get("arena").getAsString();
-                    arena = plugin.getArena(arenaName);
-                }
+        if (!map.isRemote()) {
+            // Non-remote maps stay local on the host; fire the join event directly.
+            Bukkit.getScheduler().runTask(plugin, () ->
+                    Bukkit.getPluginManager().callEvent(new ProxyArenaJoinRequestEvent(arena, mapName, players, origin))
+            );
+            return;
+        }
 
-                java.util.UUID targetId = null;
-                if (object.has("target")) {
-                    try {
-                        targetId = java.util.UUID.fromString(object.get("target").getAsString());
-                    } catch (IllegalArgumentException ignored) {
-                        log.warn("Invalid target UUID in spectate_request: {}", object.get("target").getAsString());
-                    }
+        if (map.getType() == MapType.DYNAMIC) {
+            // Prepare the dynamic map first using FAWE, then signal players to move.
+            map.createDynamicCompetitionAsync(arena).whenComplete((competition, ex) -> {
+                if (ex != null || competition == null) {
+                    log.warn("Failed to prepare dynamic competition for arena_join in arena {} map {}.", arenaName, mapName);
+                    return;
                 }
 
-                String targetName = object.has("targetName") ? object.get("targetName").getAsString() : null;
-                String mapName = object.has("map") ? object.get("map").getAsString() : null;
+                sendQueueMatchForPlayers(arena, competition.getMap().getName(), origin, players, message.duel());
+            });
+        } else {
+            // Static remote map: it's already present; just reuse the same queue_match
+            // pipeline so non-host servers only move players once the host is ready.
+            sendQueueMatchForPlayers(arena, map.getName(), origin, players, message.duel());
+        }
+    }
 
-                ProxySpectateHandler.ProxySpectateRequest request =
-                        new ProxySpectateHandler.ProxySpectateRequest(mode, arena, mapName, targetId, targetName, spectator, origin);
+    private void handleSpectateRequest(ProxyMessage.SpectateRequest message) {
+        if (!plugin.getMainConfig().isProxySupport() || !plugin.getMainConfig().isProxyHost()) {
+            return;
+        }
 
-                Bukkit.getScheduler().runTask(plugin, () -> handler.handleRequest(request));
-                break;
-            }
-            case "spectate_ready": {
-                if (!plugin.getMainConfig().isProxySupport() || plugin.getMainConfig().isProxyHost()) {
-                    return;
-                }
+        ProxySpectateHandler handler = plugin.getProxySpectateHandler();
+        if (handler == null) {
+            return;
+        }
 
-                String origin = object.has("origin") ? object.get("origin").getAsString() : "";
-                String thisOrigin = plugin.getMainConfig().getProxyServerName();
-                if (thisOrigin == null || thisOrigin.isEmpty()) {
-                    return;
-                }
+        SerializedPlayer spectator = message.spectator();
+        if (spectator.getOrigin() == null && message.origin() != null) {
+            spectator.setOrigin(message.origin());
+        }
 
-                if (!origin.isEmpty() && !origin.equals(thisOrigin)) {
-                    return;
-                }
+        Arena arena = message.arena() == null ? null : plugin.getArena(message.arena());
+        ProxySpectateHandler.ProxySpectateRequest request = new ProxySpectateHandler.ProxySpectateRequest(
+                message.mode(), arena, message.map(), message.target(), message.targetName(), spectator, message.origin()
+        );
 
-                java.util.UUID id;
-                try {
-                    id = java.util.UUID.fromString(object.get("uuid").getAsString());
-                } catch (IllegalArgumentException ex) {
-                    return;
-                }
+        Bukkit.getScheduler().runTask(plugin, () -> handler.handleRequest(request));
+    }
 
-                Player player = Bukkit.getPlayer(id);
-                plugin.removePendingProxySpectate(id);
+    private void handleSpectateReady(ProxyMessage.SpectateReady message) {
+        if (!plugin.getMainConfig().isProxySupport() || plugin.getMainConfig().isProxyHost()) {
+            return;
+        }
 
-                if (player == null) {
-                    return;
-                }
+        if (!isForThisServer(message.origin())) {
+            return;
+        }
 
-                String mapName = object.has("map") ? object.get("map").getAsString() : "";
-                if (!mapName.isEmpty()) {
-                    Messages.PROXY_SPECTATE_READY.send(player, mapName);
-                }
-                plugin.sendPlayerToProxyHost(player);
-                break;
-            }
-            case "spectate_reject": {
-                if (!plugin.getMainConfig().isProxySupport() || plugin.getMainConfig().isProxyHost()) {
-                    return;
-                }
+        Player player = Bukkit.getPlayer(message.uuid());
+        plugin.removePendingProxySpectate(message.uuid());
 
-                String origin = object.has("origin") ? object.get("origin").getAsString() : "";
-                String thisOrigin = plugin.getMainConfig().getProxyServerName();
-                if (thisOrigin == null || thisOrigin.isEmpty()) {
-                    return;
-                }
+        if (player == null) {
+            return;
+        }
 
-                if (!origin.isEmpty() && !origin.equals(thisOrigin)) {
-                    return;
-                }
+        if (message.map() != null) {
+            Messages.PROXY_SPECTATE_READY.send(player, message.map());
+        }
+        plugin.sendPlayerToProxyHost(player);
+    }
 
-                java.util.UUID id;
-                try {
-                    id = java.util.UUID.fromString(object.get("uuid").getAsString());
-                } catch (IllegalArgumentException ex) {
-                    return;
-                }
+    private void handleSpectateReject(ProxyMessage.SpectateReject message) {
+        if (!plugin.getMainConfig().isProxySupport() || plugin.getMainConfig().isProxyHost()) {
+            return;
+        }
 
-                Player player = Bukkit.getPlayer(id);
-                plugin.removePendingProxySpectate(id);
+        if (!isForThisServer(message.origin())) {
+            return;
+        }
 
-                if (player != null && object.has("reason")) {
-                    String reasonString = object.get("reason").getAsString();
-                    Component reasonComponent = Messages.deserializeMiniMessage(reasonString);
-                    player.sendMessage(reasonComponent);
-                }
+        Player player = Bukkit.getPlayer(message.uuid());
+        plugin.removePendingProxySpectate(message.uuid());
 
-                break;
-            }
+        if (player != null && message.reason() != null) {
+            Component reasonComponent = Messages.deserializeMiniMessage(message.reason());
+            player.sendMessage(reasonComponent);
         }
     }
 
     /**
-     * Sends the current arenas and maps directories to the router so other
-     * BattleArena instances can synchronize their arena configuration.
+     * Sends a manifest of the current arenas and maps directories to the router
+     * so other BattleArena instances can synchronize their arena configuration,
+     * fetching only the files which changed.
      * <p>
      * Intended to be called from the proxy host.
      */
@@ -802,28 +695,33 @@ public class Connector {
             return;
         }
 
-        Path arenasPath = plugin.getDataFolder().toPath().resolve("arenas");
-
-        try {
-            JsonObject response = new JsonObject();
-            response.addProperty("type", "sync_config");
-
-            String mapsData = zipFolderToBase64(mapsPath);
-            response.addProperty("maps", mapsData);
-
-            if (Files.exists(arenasPath)) {
-                String arenasData = zipFolderToBase64(arenasPath);
-                response.addProperty("arenas", arenasData);
+        // Hashing the files and storing the changed ones in Redis is done off the main thread
+        Bukkit.getScheduler().runTaskAsynchronously(plugin, () -> {
+            try {
+                sendToRouter(createSyncManifest(null), ProxyDestination.broadcast());
+                log.info("Sent arena and map manifest to proxy clients.");
+            } catch (IOException | JedisException e) {
+                log.warn("Failed to send sync_manifest to router: {}", e.getMessage());
             }
+        });
+    }
 
-            sendToRouter(response.toString());
-            log.info("Sent arenas and maps to proxy clients from {}, {}.", arenasPath, mapsPath);
-        } catch (IOException e) {
-            log.warn("Failed to send sync_config to router: {}", e.getMessage());
+    private ProxyMessage.SyncManifest createSyncManifest(@Nullable String origin) throws IOException {
+        JedisPool pool = jedisPool;
+        if (!running || pool == null) {
+            throw new IOException("Redis connector is not running");
+        }
+
+        try (Jedis jedis = pool.getResource()) {
+            return configSync.createManifest(jedis, origin);
         }
     }
 
     public static String zipFolderToBase64(Path folderPath) throws IOException {
+        return Base64.getEncoder().encodeToString(zipFolder(folderPath));
+    }
+
+    public static byte[] zipFolder(Path folderPath) throws IOException {
         ByteArrayOutputStream baos = new ByteArrayOutputStream();
         ZipOutputStream zos = new ZipOutputStream(baos);
 
@@ -841,7 +739,7 @@ public class Connector {
         });
 
         zos.close();
-        return Base64.getEncoder().encodeToString(baos.toByteArray());
+        return baos.toByteArray();
     }
 
     public static void unzipToDirectory(byte[] zipBytes, Path outputDir) throws IOException {
@@ -866,136 +764,109 @@ public class Connector {
         disconnect();
     }
 
-    private static java.util.Set<java.util.UUID> parseRoster(JsonObject payload,
-                                                            String field,
-                                                            org.battleplugins.arena.proxy.SerializedPlayer fallback) {
-        java.util.Set<java.util.UUID> roster = new LinkedHashSet<>();
-        try {
-            roster.add(java.util.UUID.fromString(fallback.getUuid()));
-        } catch (IllegalArgumentException ignored) {
-        }
-
-        if (payload.has(field) && payload.get(field).isJsonArray()) {
-            payload.getAsJsonArray(field).forEach(element -> {
-                if (!element.isJsonPrimitive()) {
-                    return;
-                }
-
-                try {
-                    roster.add(java.util.UUID.fromString(element.getAsString()));
-                } catch (IllegalArgumentException ignored) {
-                }
-            });
-        }
-
+    private static Set<UUID> roster(SerializedPlayer leader, List<UUID> party) {
+        Set<UUID> roster = new LinkedHashSet<>();
+        roster.add(UUID.fromString(leader.getUuid()));
+        roster.addAll(party);
         return roster;
     }
 
-    private static java.util.List<org.battleplugins.arena.proxy.SerializedPlayer> parseSerializedPlayers(JsonObject payload) {
-        java.util.List<org.battleplugins.arena.proxy.SerializedPlayer> players = new ArrayList<>();
-        if (payload.has("players") && payload.get("players").isJsonArray()) {
-            payload.getAsJsonArray("players").forEach(element -> {
-                org.battleplugins.arena.proxy.SerializedPlayer player = deserializePlayer(element);
-                if (player != null) {
-                    players.add(player);
+    private static List<SerializedPlayer> withOrigin(List<SerializedPlayer> players, @Nullable String origin) {
+        if (origin != null && !origin.isEmpty()) {
+            for (SerializedPlayer player : players) {
+                if (player.getOrigin() == null) {
+                    player.setOrigin(origin);
                 }
-            });
+            }
         }
 
         return players;
     }
 
-    private static org.battleplugins.arena.proxy.SerializedPlayer deserializePlayer(JsonElement element) {
-        if (element == null) {
-            return null;
-        }
-
-        if (element.isJsonPrimitive()) {
-            return new org.battleplugins.arena.proxy.SerializedPlayer(element.getAsString());
-        }
-
-        if (!element.isJsonObject()) {
-            return null;
+    /**
+     * Gets whether a message sent to the given server should be
+     * handled by this server. Messages without a server are for every server.
+     */
+    private boolean isForThisServer(@Nullable String origin) {
+        String thisOrigin = plugin.getMainConfig().getProxyServerName();
+        if (thisOrigin == null || thisOrigin.isEmpty()) {
+            return false;
         }
 
-        JsonObject playerObject = element.getAsJsonObject();
-        if (!playerObject.has("uuid") || !playerObject.get("uuid").isJsonPrimitive()) {
-            return null;
-        }
+        return origin == null || origin.equals(thisOrigin);
+    }
 
-        String uuid = playerObject.get("uuid").getAsString();
-        org.battleplugins.arena.proxy.SerializedPlayer serialized = new org.battleplugins.arena.proxy.SerializedPlayer(uuid);
+    private void sendQueueMatchForPlayers(Arena arena,
+                                          String readyMapName,
+                                          @Nullable String origin,
+                                          List<SerializedPlayer> players,
+                                          boolean duel) {
+        sendQueueMatch(new ProxyMessage.QueueMatch(arena.getName(), readyMapName, duel, origin, players));
+    }
 
-        if (playerObject.has("elements") && playerObject.get("elements").isJsonArray()) {
-            playerObject.getAsJsonArray("elements").forEach(elementEl -> {
-                try {
-                    org.battleplugins.arena.proxy.Elements parsed = org.battleplugins.arena.proxy.Elements.valueOf(elementEl.getAsString());
-                    serialized.getElements().add(parsed);
-                } catch (IllegalArgumentException ignored) {
-                }
-            });
-        }
+    /**
+     * Sends a queue match to the proxy host, which starts the competition,
+     * and to the servers the matched players are on, which send them over.
+     * <p>
+     * The host handles every copy of a queue match it receives, so it is
+     * only ever sent a single copy.
+     *
+     * @param message the queue match
+     */
+    public void sendQueueMatch(ProxyMessage.QueueMatch message) {
+        String serverName = plugin.getMainConfig().getProxyServerName();
+        boolean host = plugin.getMainConfig().isProxyHost();
+
+        Set<ProxyDestination> destinations = new LinkedHashSet<>();
+        destinations.add(ProxyDestination.host());
+        for (SerializedPlayer player : message.players()) {
+            ProxyDestination destination = ProxyDestination.server(player.getOrigin() != null ? player.getOrigin() : message.origin());
+
+            // A broadcast reaches the host and every server already
+            if (destination.equals(ProxyDestination.broadcast())) {
+                sendToRouter(message, destination);
+                return;
+            }
 
-        if (playerObject.has("abilities") && playerObject.get("abilities").isJsonObject()) {
-            JsonObject abilitiesObject = playerObject.getAsJsonObject("abilities");
-            abilitiesObject.entrySet().forEach(entry -> {
-                try {
-                    int slot = Integer.parseInt(entry.getKey());
-                    serialized.getAbilities().put(slot, entry.getValue().getAsString());
-                } catch (NumberFormatException ignored) {
-                }
-            });
-        }
+            // The inbox of this server is also the inbox of the host
+            if (host && destination.equals(ProxyDestination.server(serverName))) {
+                continue;
+            }
 
-        if (playerObject.has("origin") && playerObject.get("origin").isJsonPrimitive()) {
-            serialized.setOrigin(playerObject.get("origin").getAsString());
+            destinations.add(destination);
         }
 
-        return serialized;
+        sendToRouter(message, destinations);
     }
 
-    private void sendQueueMatchForPlayers(org.battleplugins.arena.Arena arena,
-                                           String readyMapName,
-                                           String origin,
-                                           java.util.List<org.battleplugins.arena.proxy.SerializedPlayer> players,
-                                           boolean duel) {
-        JsonObject payload = new JsonObject();
-        payload.addProperty("type", "queue_match");
-        payload.addProperty("arena", arena.getName());
-        payload.addProperty("map", readyMapName);
-        if (duel) {
-            payload.addProperty("duel", true);
-        }
-        if (origin != null && !origin.isEmpty()) {
-            payload.addProperty("origin", origin);
-        }
-
-        JsonArray playersArray = new JsonArray();
-        for (org.battleplugins.arena.proxy.SerializedPlayer sp : players) {
-            JsonObject playerObject = new JsonObject();
-            playerObject.addProperty("uuid", sp.getUuid());
-
-            if (!sp.getElements().isEmpty()) {
-                JsonArray elementsArray = new JsonArray();
-                sp.getElements().forEach(element -> elementsArray.add(element.name()));
-                playerObject.add("elements", elementsArray);
-            }
-
-            if (!sp.getAbilities().isEmpty()) {
-                JsonObject abilitiesObject = new JsonObject();
-                sp.getAbilities().forEach((slot, ability) ->
-                        abilitiesObject.addProperty(String.valueOf(slot), ability));
-                playerObject.add("abilities", abilitiesObject);
-            }
-
-            if (sp.getOrigin() != null && !sp.getOrigin().isEmpty()) {
-                playerObject.addProperty("origin", sp.getOrigin());
-            }
+    /**
+     * Gets the player the given message is about. Messages about the same
+     * player are handled in the order they were received.
+     */
+    @Nullable
+    private static UUID orderingKey(ProxyMessage message) {
+        return switch (message) {
+            case ProxyMessage.QueueJoin msg -> UUID.fromString(msg.player().getUuid());
+            case ProxyMessage.QueueLeave msg -> msg.uuid();
+            case ProxyMessage.DuelRequest msg -> UUID.fromString(msg.requester().getUuid());
+            case ProxyMessage.SpectateRequest msg -> UUID.fromString(msg.spectator().getUuid());
+            case ProxyMessage.SpectateReady msg -> msg.uuid();
+            case ProxyMessage.SpectateReject msg -> msg.uuid();
+            default -> null;
+        };
+    }
 
-            playersArray.add(playerObject);
-        }
+    private static boolean isDroppable(ProxyMessage message) {
+        // Losing one of these would leave a player stuck in a queue or lose a formed match
+        return switch (message) {
+            case ProxyMessage.QueueJoin msg -> false;
+            case ProxyMessage.QueueLeave msg -> false;
+            case ProxyMessage.QueueMatch msg -> false;
+            case ProxyMessage.ArenaJoin msg -> false;
+            default -> true;
+        };
+    }
 
-        payload.add("players", playersArray);
-        sendToRouter(payload.toString());
+    private record Outgoing(String type, byte[] channel, byte[] data) {
     }
 }
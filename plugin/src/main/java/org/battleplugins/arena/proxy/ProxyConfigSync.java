@@ -0,0 +1,280 @@
+package org.battleplugins.arena.proxy;
+
+import org.battleplugins.arena.proxy.message.ProxyMessage;
+import org.jetbrains.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import redis.clients.jedis.Jedis;
+import redis.clients.jedis.Pipeline;
+import redis.clients.jedis.Response;
+import redis.clients.jedis.params.SetParams;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+/**
+ * Synchronizes the arena and map files of the proxy host to the other
+ * servers on the network.
+ * <p>
+ * The host publishes a {@link ProxyMessage.SyncManifest} with the content
+ * hash of each of its files, and stores the contents of the files in Redis,
+ * split into chunks and keyed by their hash. Other servers compare the
+ * manifest with their own files, and only fetch the files which changed, so
+ * the cost of a sync depends on the size of the change rather than the size
+ * of every arena and map. Since the contents are keyed by their hash, files
+ * which did not change since the last sync are not stored again either.
+ */
+final class ProxyConfigSync {
+    private static final Logger log = LoggerFactory.getLogger(ProxyConfigSync.class);
+
+    static final int CHUNK_SIZE = 256 * 1024;
+
+    // How long the contents of a file are kept in Redis after they were last part of a manifest
+    private static final long CONTENT_TTL_SECONDS = 24 * 60 * 60;
+
+    private static final List<String> DIRECTORIES = List.of("maps", "arenas");
+
+    private final Path dataFolder;
+    private final String keyPrefix;
+
+    // Hashes of files which did not change since they were last hashed
+    private final Map<Path, CachedHash> hashes = new ConcurrentHashMap<>();
+
+    ProxyConfigSync(Path dataFolder, String redisChannel) {
+        this.dataFolder = dataFolder;
+        this.keyPrefix = redisChannel + ":sync:";
+    }
+
+    /**
+     * Creates the manifest of the arena and map files of this server, and
+     * stores the contents of every file which is not in Redis yet.
+     *
+     * @param jedis the Redis connection
+     * @param origin the server which requested the config, or null if sent to every server
+     * @return the manifest
+     * @throws IOException if a file could not be read
+     */
+    ProxyMessage.SyncManifest createManifest(Jedis jedis, @Nullable String origin) throws IOException {
+        List<ProxyMessage.SyncManifest.File> files = new ArrayList<>();
+        for (String directory : DIRECTORIES) {
+            Path root = this.dataFolder.resolve(directory);
+            if (Files.notExists(root)) {
+                continue;
+            }
+
+            try (Stream<Path> paths = Files.walk(root)) {
+                for (Path path : paths.filter(Files::isRegularFile).sorted().toList()) {
+                    String relativePath = this.dataFolder.relativize(path).toString().replace(path.getFileSystem().getSeparator(), "/");
+                    files.add(new ProxyMessage.SyncManifest.File(relativePath, this.hash(path), (int) Files.size(path)));
+                }
+            }
+        }
+
+        // Refresh the expiry of the contents which are already stored, which
+        // also tells which contents are missing and have to be stored.
+        Pipeline pipeline = jedis.pipelined();
+        List<Response<Long>> stored = new ArrayList<>(files.size());
+        for (ProxyMessage.SyncManifest.File file : files) {
+            stored.add(pipeline.expire(this.chunkKey(file.hash(), 0), CONTENT_TTL_SECONDS));
+        }
+
+        pipeline.sync();
+
+        int uploaded = 0;
+        for (int i = 0; i < files.size(); i++) {
+            ProxyMessage.SyncManifest.File file = files.get(i);
+            if (stored.get(i).get() == 1) {
+                this.expireChunks(pipeline, file);
+                continue;
+            }
+
+            byte[] contents = Files.readAllBytes(this.dataFolder.resolve(file.path()));
+            if (!this.hash(contents).equals(file.hash())) {
+                throw new IOException("File " + file.path() + " changed while it was being synced");
+            }
+
+            int chunks = chunkCount(contents.length, CHUNK_SIZE);
+            for (int chunk = 0; chunk < chunks; chunk++) {
+                int start = chunk * CHUNK_SIZE;
+                int end = Math.min(contents.length, start + CHUNK_SIZE);
+
+                byte[] data = new byte[end - start];
+                System.arraycopy(contents, start, data, 0, data.length);
+                pipeline.set(this.chunkKey(file.hash(), chunk), data, SetParams.setParams().ex(CONTENT_TTL_SECONDS));
+            }
+
+            uploaded++;
+        }
+
+        pipeline.sync();
+        log.debug("Created proxy sync manifest of {} files, {} of which were stored in Redis.", files.size(), uploaded);
+
+        return new ProxyMessage.SyncManifest(origin, CHUNK_SIZE, files);
+    }
+
+    /**
+     * Fetches every file of the given manifest which differs from
+     * the file of this server, and writes it to the data folder.
+     *
+     * @param jedis the Redis connection
+     * @param manifest the manifest of the proxy host
+     * @return the paths of the files which changed
+     * @throws IOException if a file could not be written
+     */
+    List<Path> apply(Jedis jedis, ProxyMessage.SyncManifest manifest) throws IOException {
+        if (manifest.chunkSize() <= 0) {
+            throw new IOException("Invalid proxy sync chunk size " + manifest.chunkSize());
+        }
+
+        List<Path> changed = new ArrayList<>();
+        for (ProxyMessage.SyncManifest.File file : manifest.files()) {
+            Path path = this.resolve(file.path());
+            if (path == null) {
+                log.warn("Skipping proxy sync of file {} as it is not in a synced directory.", file.path());
+                continue;
+            }
+
+            if (file.size() < 0) {
+                log.warn("Skipping proxy sync of file {} as it has an invalid size.", file.path());
+                continue;
+            }
+
+            if (Files.exists(path) && Files.size(path) == file.size() && this.hash(path).equals(file.hash())) {
+                continue;
+            }
+
+            byte[] contents = this.fetch(jedis, file, manifest.chunkSize());
+            if (contents == null) {
+                log.warn("Skipping proxy sync of file {} as its contents are no longer stored in Redis.", file.path());
+                continue;
+            }
+
+            if (contents.length != file.size() || !this.hash(contents).equals(file.hash())) {
+                log.warn("Skipping proxy sync of file {} as its contents do not match the manifest.", file.path());
+                continue;
+            }
+
+            this.write(path, contents);
+            changed.add(path);
+        }
+
+        return changed;
+    }
+
+    @Nullable
+    private byte[] fetch(Jedis jedis, ProxyMessage.SyncManifest.File file, int chunkSize) {
+        int chunks = chunkCount(file.size(), chunkSize);
+
+        Pipeline pipeline = jedis.pipelined();
+        List<Response<byte[]>> responses = new ArrayList<>(chunks);
+        for (int chunk = 0; chunk < chunks; chunk++) {
+            responses.add(pipeline.get(this.chunkKey(file.hash(), chunk)));
+        }
+
+        pipeline.sync();
+
+        byte[] contents = new byte[file.size()];
+        int offset = 0;
+        for (Response<byte[]> response : responses) {
+            byte[] data = response.get();
+            if (data == null || offset + data.length > contents.length) {
+                return null;
+            }
+
+            System.arraycopy(data, 0, contents, offset, data.length);
+            offset += data.length;
+        }
+
+        return offset == contents.length ? contents : null;
+    }
+
+    private void expireChunks(Pipeline pipeline, ProxyMessage.SyncManifest.File file) {
+        int chunks = chunkCount(file.size(), CHUNK_SIZE);
+
+        // The expiry of the first chunk has already been refreshed
+        for (int chunk = 1; chunk < chunks; chunk++) {
+            pipeline.expire(this.chunkKey(file.hash(), chunk), CONTENT_TTL_SECONDS);
+        }
+    }
+
+    /**
+     * Resolves the given path of a file in a manifest, making sure
+     * it cannot point outside of the synced directories.
+     */
+    @Nullable
+    private Path resolve(String relativePath) {
+        Path path = this.dataFolder.resolve(relativePath).normalize();
+        for (String directory : DIRECTORIES) {
+            Path root = this.dataFolder.resolve(directory).normalize();
+            if (path.startsWith(root) && !path.equals(root)) {
+                return path;
+            }
+        }
+
+        return null;
+    }
+
+    private String hash(Path path) throws IOException {
+        long size = Files.size(path);
+        FileTime modified = Files.getLastModifiedTime(path);
+
+        CachedHash cached = this.hashes.get(path);
+        if (cached != null && cached.size() == size && cached.modified().equals(modified)) {
+            return cached.hash();
+        }
+
+        String hash = this.hash(Files.readAllBytes(path));
+        this.hashes.put(path, new CachedHash(size, modified, hash));
+        return hash;
+    }
+
+    private String hash(byte[] contents) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(contents));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not supported", e);
+        }
+    }
+
+    private byte[] chunkKey(String hash, int chunk) {
+        return (this.keyPrefix + hash + ":" + chunk).getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static int chunkCount(int size, int chunkSize) {
+        return (size + chunkSize - 1) / chunkSize;
+    }
+
+    private void write(Path path, byte[] contents) throws IOException {
+        Files.createDirectories(path.getParent());
+
+        // Write to a temporary file outside of the synced directories first,
+        // so a map is never loaded while it is only partially written
+        Path tempPath = Files.createTempFile(this.dataFolder, ".sync-", ".tmp");
+        try {
+            Files.write(tempPath, contents);
+            try {
+                Files.move(tempPath, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(tempPath, path, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(tempPath);
+        }
+    }
+
+    private record CachedHash(long size, FileTime modified, String hash) {
+    }
+}
@@ -0,0 +1,85 @@
+package org.battleplugins.arena.proxy;
+
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Objects;
+
+/**
+ * Where a proxy message is sent to.
+ * <p>
+ * Every server listens on the broadcast channel and on its own inbox, named
+ * after its proxy server name, and the proxy host also listens on the host
+ * inbox, named {@code @host} so it cannot clash with a server name. Messages
+ * which are only meant for one server are sent to its inbox, so other servers
+ * never receive them.
+ */
+public final class ProxyDestination {
+    private static final ProxyDestination BROADCAST = new ProxyDestination(null);
+    private static final ProxyDestination HOST = new ProxyDestination("@host");
+
+    @Nullable
+    private final String inbox;
+
+    private ProxyDestination(@Nullable String inbox) {
+        this.inbox = inbox;
+    }
+
+    /**
+     * Gets the destination for messages sent to every server.
+     *
+     * @return the broadcast destination
+     */
+    public static ProxyDestination broadcast() {
+        return BROADCAST;
+    }
+
+    /**
+     * Gets the destination for messages sent to the proxy host.
+     *
+     * @return the host destination
+     */
+    public static ProxyDestination host() {
+        return HOST;
+    }
+
+    /**
+     * Gets the destination for messages sent to the server with the
+     * given proxy server name. If the name is not known, the message is
+     * sent to every server instead.
+     *
+     * @param serverName the proxy server name of the server
+     * @return the destination of the server
+     */
+    public static ProxyDestination server(@Nullable String serverName) {
+        if (serverName == null || serverName.isEmpty()) {
+            return BROADCAST;
+        }
+
+        return new ProxyDestination(serverName);
+    }
+
+    /**
+     * Gets the Redis channel messages to this destination are published on.
+     *
+     * @param baseChannel the configured Redis channel
+     * @return the channel of this destination
+     */
+    public String channel(String baseChannel) {
+        return this.inbox == null ? baseChannel : baseChannel + ":" + this.inbox;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        return obj instanceof ProxyDestination destination && Objects.equals(this.inbox, destination.inbox);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hashCode(this.inbox);
+    }
+
+    @Override
+    public String toString() {
+        return this.inbox == null ? "broadcast" : this.inbox;
+    }
+}
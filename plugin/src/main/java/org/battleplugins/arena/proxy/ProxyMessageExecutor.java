@@ -0,0 +1,210 @@
+package org.battleplugins.arena.proxy;
+
+import org.jetbrains.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Runs the handlers of received proxy messages on virtual threads owned by
+ * the connector, rather than on the shared Bukkit async pool.
+ * <p>
+ * Messages about the same player are handled one at a time in the order they
+ * were received, so a queue join followed by a queue leave can never be
+ * handled the other way around. Messages about different players, or about
+ * no player at all, are handled concurrently. The number of messages waiting
+ * to be handled is bounded, and messages received while the limit is reached
+ * are dropped, so a burst of traffic cannot use up an unbounded amount of memory.
+ * <p>
+ * Messages which change the state of a queue or arena, such as a queue leave or
+ * a formed match, are never dropped, since losing one would leave players stuck
+ * in a remote queue. These are still scheduled once the limit is reached.
+ */
+public final class ProxyMessageExecutor {
+    private static final Logger log = LoggerFactory.getLogger(ProxyMessageExecutor.class);
+    private static final long DROP_WARNING_INTERVAL = TimeUnit.SECONDS.toNanos(10);
+
+    private final ExecutorService executor = Executors.newThreadPerTaskExecutor(
+            Thread.ofVirtual().name("BattleArena-Proxy-", 0).factory()
+    );
+    private final int maxPending;
+
+    // Messages waiting for an earlier message about the same player
+    private final Map<UUID, Queue<Task>> ordered = new HashMap<>();
+
+    private final AtomicInteger pending = new AtomicInteger();
+    private final AtomicLong handled = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong totalLatency = new AtomicLong();
+    private final AtomicLong maxLatency = new AtomicLong();
+    private long droppedSinceWarning;
+    private long lastDropWarning;
+
+    ProxyMessageExecutor(int maxPending) {
+        this.maxPending = Math.max(1, maxPending);
+    }
+
+    /**
+     * Schedules the given handler to run.
+     *
+     * @param player the player the message is about, or null if it is not about a single player
+     * @param handler the handler of the message
+     * @param droppable whether the message may be dropped if the queue is full
+     * @return whether the handler was scheduled, or false if the queue is full
+     */
+    boolean submit(@Nullable UUID player, Runnable handler, boolean droppable) {
+        if (this.pending.incrementAndGet() > this.maxPending && droppable) {
+            this.pending.decrementAndGet();
+            this.dropped.incrementAndGet();
+            this.warnDropped();
+            return false;
+        }
+
+        Task task = new Task(player, handler, System.nanoTime());
+        if (player == null) {
+            return this.execute(task);
+        }
+
+        synchronized (this.ordered) {
+            Queue<Task> queue = this.ordered.get(player);
+            if (queue != null) {
+                // An earlier message about this player is still being handled
+                queue.add(task);
+                return true;
+            }
+
+            this.ordered.put(player, new ArrayDeque<>());
+        }
+
+        return this.execute(task);
+    }
+
+    /**
+     * Gets the current counters of this executor.
+     *
+     * @return the counters
+     */
+    Stats getStats() {
+        long handled = this.handled.get();
+        return new Stats(
+                this.pending.get(),
+                handled,
+                this.dropped.get(),
+                handled == 0 ? 0 : TimeUnit.NANOSECONDS.toMicros(this.totalLatency.get() / handled),
+                TimeUnit.NANOSECONDS.toMicros(this.maxLatency.get())
+        );
+    }
+
+    /**
+     * Stops accepting messages and waits for the
+     * messages which are already queued to be handled.
+     */
+    void shutdown() {
+        this.executor.shutdown();
+        try {
+            if (!this.executor.awaitTermination(5, TimeUnit.SECONDS)) {
+                log.warn("Timed out waiting for {} proxy messages to be handled.", this.pending.get());
+                this.executor.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private boolean execute(Task task) {
+        try {
+            this.executor.execute(() -> this.run(task));
+            return true;
+        } catch (RejectedExecutionException e) {
+            // Received while shutting down
+            this.pending.decrementAndGet();
+            if (task.player() != null) {
+                synchronized (this.ordered) {
+                    this.ordered.remove(task.player());
+                }
+            }
+
+            return false;
+        }
+    }
+
+    private void run(Task task) {
+        Task next = task;
+        while (next != null) {
+            try {
+                next.handler().run();
+            } catch (Throwable e) {
+                log.warn("Error handling proxy message", e);
+            } finally {
+                long latency = System.nanoTime() - next.received();
+                this.totalLatency.addAndGet(latency);
+                this.maxLatency.accumulateAndGet(latency, Math::max);
+                this.handled.incrementAndGet();
+                this.pending.decrementAndGet();
+            }
+
+            next = this.next(next.player());
+        }
+    }
+
+    @Nullable
+    private Task next(@Nullable UUID player) {
+        if (player == null) {
+            return null;
+        }
+
+        synchronized (this.ordered) {
+            Queue<Task> queue = this.ordered.get(player);
+            Task next = queue == null ? null : queue.poll();
+            if (next == null) {
+                this.ordered.remove(player);
+            }
+
+            return next;
+        }
+    }
+
+    private void warnDropped() {
+        long dropped;
+        synchronized (this) {
+            this.droppedSinceWarning++;
+
+            long now = System.nanoTime();
+            if (this.lastDropWarning != 0 && now - this.lastDropWarning < DROP_WARNING_INTERVAL) {
+                return;
+            }
+
+            dropped = this.droppedSinceWarning;
+            this.droppedSinceWarning = 0;
+            this.lastDropWarning = now;
+        }
+
+        log.warn("Dropped {} proxy messages as {} messages were already waiting to be handled.", dropped, this.maxPending);
+    }
+
+    /**
+     * The counters of the proxy message executor.
+     *
+     * @param queued the number of messages waiting to be handled
+     * @param handled the number of messages handled
+     * @param dropped the number of messages dropped because the queue was full
+     * @param averageLatencyMicros the average time from receiving a message until it was handled
+     * @param maxLatencyMicros the longest time from receiving a message until it was handled
+     */
+    public record Stats(int queued, long handled, long dropped, long averageLatencyMicros, long maxLatencyMicros) {
+    }
+
+    private record Task(@Nullable UUID player, Runnable handler, long received) {
+    }
+}
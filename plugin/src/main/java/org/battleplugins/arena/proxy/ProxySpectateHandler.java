@@ -1,6 +1,5 @@
 package org.battleplugins.arena.proxy;
 
-import com.google.gson.JsonObject;
 import org.battleplugins.arena.Arena;
 import org.battleplugins.arena.ArenaLike;
 import org.battleplugins.arena.ArenaPlayer;
@@ -9,6 +8,7 @@ import org.battleplugins.arena.competition.Competition;
 import org.battleplugins.arena.competition.PlayerRole;
 import org.battleplugins.arena.messages.Message;
 import org.battleplugins.arena.messages.Messages;
+import org.battleplugins.arena.proxy.message.ProxyMessage;
 import org.bukkit.Bukkit;
 import org.bukkit.entity.Player;
 import org.bukkit.event.EventHandler;
@@ -106,22 +106,16 @@ public class ProxySpectateHandler implements Listener {
             return;
         }
 
-        JsonObject payload = new JsonObject();
-        payload.addProperty("type", "spectate_ready");
-        payload.addProperty("uuid", pending.serialized().getUuid());
         String arenaName;
         if (pending.competition() instanceof ArenaLike arenaLike) {
             arenaName = arenaLike.getArena().getName();
         } else {
             arenaName = pending.competition().getMap().getName();
         }
-        payload.addProperty("arena", arenaName);
-        payload.addProperty("map", pending.competition().getMap().getName());
-        if (originServer != null && !originServer.isEmpty()) {
-            payload.addProperty("origin", originServer);
-        }
 
-        connector.sendToRouter(payload.toString());
+        connector.sendToRouter(new ProxyMessage.SpectateReady(
+                originServer, UUID.fromString(pending.serialized().getUuid()), arenaName, pending.competition().getMap().getName()
+        ), ProxyDestination.server(originServer));
     }
 
     private void sendReject(SerializedPlayer spectator, String originServer, @Nullable Message reason) {
@@ -130,18 +124,9 @@ public class ProxySpectateHandler implements Listener {
             return;
         }
 
-        JsonObject payload = new JsonObject();
-        payload.addProperty("type", "spectate_reject");
-        payload.addProperty("uuid", spectator.getUuid());
-        if (originServer != null && !originServer.isEmpty()) {
-            payload.addProperty("origin", originServer);
-        }
-
-        if (reason != null) {
-            payload.addProperty("reason", reason.asMiniMessage());
-        }
-
-        connector.sendToRouter(payload.toString());
+        connector.sendToRouter(new ProxyMessage.SpectateReject(
+                originServer, UUID.fromString(spectator.getUuid()), reason == null ? null : reason.asMiniMessage()
+        ), ProxyDestination.server(originServer));
     }
 
     @EventHandler
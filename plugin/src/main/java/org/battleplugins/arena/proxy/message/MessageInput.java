@@ -0,0 +1,130 @@
+package org.battleplugins.arena.proxy.message;
+
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.UUID;
+
+/**
+ * Reads the fields of a binary proxy message written by a {@link MessageOutput}.
+ * <p>
+ * Every length and count is checked against the bytes which are left
+ * before anything is allocated, so a truncated or malicious payload is
+ * rejected with an {@link IOException} instead of allocating large arrays.
+ */
+final class MessageInput {
+    private final byte[] data;
+    private int position;
+
+    MessageInput(byte[] data, int position) {
+        this.data = data;
+        this.position = position;
+    }
+
+    int readByte() throws IOException {
+        if (this.position >= this.data.length) {
+            throw new IOException("Proxy message ended unexpectedly");
+        }
+
+        return this.data[this.position++] & 0xFF;
+    }
+
+    boolean readBoolean() throws IOException {
+        int value = this.readByte();
+        if (value > 1) {
+            throw new IOException("Invalid boolean " + value + " in proxy message");
+        }
+
+        return value == 1;
+    }
+
+    int readVarInt() throws IOException {
+        int value = 0;
+        for (int shift = 0; shift < 35; shift += 7) {
+            int read = this.readByte();
+            value |= (read & 0x7F) << shift;
+            if ((read & 0x80) == 0) {
+                return value;
+            }
+        }
+
+        throw new IOException("Variable length integer in proxy message is too long");
+    }
+
+    /**
+     * Reads the number of elements in a collection, each
+     * of which takes at least the given number of bytes.
+     *
+     * @param minElementSize the minimum size of each element
+     * @return the number of elements
+     * @throws IOException if the count is larger than the rest of the message allows
+     */
+    int readCount(int minElementSize) throws IOException {
+        int count = this.readVarInt();
+        if (count < 0 || (long) count * minElementSize > this.remaining()) {
+            throw new IOException("Invalid collection size " + count + " in proxy message");
+        }
+
+        return count;
+    }
+
+    long readLong() throws IOException {
+        this.require(Long.BYTES);
+
+        long value = 0;
+        for (int i = 0; i < Long.BYTES; i++) {
+            value = (value << 8) | (this.data[this.position++] & 0xFF);
+        }
+
+        return value;
+    }
+
+    UUID readUuid() throws IOException {
+        return new UUID(this.readLong(), this.readLong());
+    }
+
+    @Nullable
+    UUID readNullableUuid() throws IOException {
+        return this.readBoolean() ? this.readUuid() : null;
+    }
+
+    String readString() throws IOException {
+        return new String(this.readBytes(), StandardCharsets.UTF_8);
+    }
+
+    @Nullable
+    String readNullableString() throws IOException {
+        byte[] bytes = this.readNullableBytes();
+        return bytes == null ? null : new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    byte[] readBytes() throws IOException {
+        return this.readRaw(this.readVarInt());
+    }
+
+    @Nullable
+    byte[] readNullableBytes() throws IOException {
+        int length = this.readVarInt();
+        return length == 0 ? null : this.readRaw(length - 1);
+    }
+
+    int remaining() {
+        return this.data.length - this.position;
+    }
+
+    private byte[] readRaw(int length) throws IOException {
+        this.require(length);
+
+        byte[] bytes = Arrays.copyOfRange(this.data, this.position, this.position + length);
+        this.position += length;
+        return bytes;
+    }
+
+    private void require(int length) throws IOException {
+        if (length < 0 || length > this.remaining()) {
+            throw new IOException("Proxy message ended unexpectedly");
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package org.battleplugins.arena.proxy.message;
+
+import org.jetbrains.annotations.Nullable;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.UUID;
+
+/**
+ * Writes the fields of a binary proxy message into a growable buffer.
+ * <p>
+ * Lengths and counts are written as variable length integers, so the
+ * short strings and small collections most messages consist of only
+ * take a single byte of overhead. Optional values are written with
+ * their length offset by one, so zero means the value is absent.
+ */
+final class MessageOutput {
+    private byte[] buffer;
+    private int size;
+
+    MessageOutput(int initialCapacity) {
+        this.buffer = new byte[Math.max(16, initialCapacity)];
+    }
+
+    void writeByte(int value) {
+        this.ensureCapacity(1);
+        this.buffer[this.size++] = (byte) value;
+    }
+
+    void writeBoolean(boolean value) {
+        this.writeByte(value ? 1 : 0);
+    }
+
+    void writeVarInt(int value) {
+        while ((value & ~0x7F) != 0) {
+            this.writeByte((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+
+        this.writeByte(value);
+    }
+
+    void writeLong(long value) {
+        this.ensureCapacity(Long.BYTES);
+        for (int shift = 56; shift >= 0; shift -= 8) {
+            this.buffer[this.size++] = (byte) (value >>> shift);
+        }
+    }
+
+    void writeUuid(UUID uuid) {
+        this.writeLong(uuid.getMostSignificantBits());
+        this.writeLong(uuid.getLeastSignificantBits());
+    }
+
+    void writeNullableUuid(@Nullable UUID uuid) {
+        this.writeBoolean(uuid != null);
+        if (uuid != null) {
+            this.writeUuid(uuid);
+        }
+    }
+
+    void writeString(String value) {
+        this.writeBytes(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    void writeNullableString(@Nullable String value) {
+        this.writeNullableBytes(value == null || value.isEmpty() ? null : value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    void writeBytes(byte[] value) {
+        this.writeVarInt(value.length);
+        this.writeRaw(value);
+    }
+
+    void writeNullableBytes(@Nullable byte[] value) {
+        if (value == null) {
+            this.writeVarInt(0);
+            return;
+        }
+
+        this.writeVarInt(value.length + 1);
+        this.writeRaw(value);
+    }
+
+    byte[] toByteArray() {
+        return Arrays.copyOf(this.buffer, this.size);
+    }
+
+    private void writeRaw(byte[] value) {
+        this.ensureCapacity(value.length);
+        System.arraycopy(value, 0, this.buffer, this.size, value.length);
+        this.size += value.length;
+    }
+
+    private void ensureCapacity(int additional) {
+        if (this.size + additional > this.buffer.length) {
+            this.buffer = Arrays.copyOf(this.buffer, Math.max(this.buffer.length * 2, this.size + additional));
+        }
+    }
+}
@@ -0,0 +1,182 @@
+package org.battleplugins.arena.proxy.message;
+
+import org.battleplugins.arena.proxy.ProxySpectateHandler;
+import org.battleplugins.arena.proxy.SerializedPlayer;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * A message sent between BattleArena servers on a proxy network.
+ * <p>
+ * Every message is validated when it is decoded by the {@link ProxyMessageCodec},
+ * so the fields of a received message can be used as is. Fields marked as
+ * nullable are optional and may be left out by the sender.
+ */
+public sealed interface ProxyMessage {
+
+    /**
+     * The arenas and maps of the proxy host, zipped. Only sent by proxy
+     * hosts running older versions, which do not send a {@link SyncManifest}.
+     *
+     * @param origin the server which requested the config, or null if sent to every server
+     * @param maps the zipped maps directory
+     * @param arenas the zipped arenas directory, or null if the host has none
+     */
+    record SyncConfig(@Nullable String origin, byte[] maps, @Nullable byte[] arenas) implements ProxyMessage {
+    }
+
+    /**
+     * A request for the proxy host to send its arenas and maps.
+     *
+     * @param origin the server requesting the config
+     */
+    record SyncRequest(@Nullable String origin) implements ProxyMessage {
+    }
+
+    /**
+     * The content hash of every arena and map file of the proxy host.
+     * <p>
+     * The contents of the files are not part of the message. They are
+     * stored in Redis in chunks of the given size, keyed by their hash,
+     * so servers only have to fetch the files which they do not have yet.
+     *
+     * @param origin the server which requested the config, or null if sent to every server
+     * @param chunkSize the size of the chunks the contents of the files are stored in
+     * @param files the files of the proxy host
+     */
+    record SyncManifest(@Nullable String origin, int chunkSize, List<File> files) implements ProxyMessage {
+
+        /**
+         * A file of the proxy host.
+         *
+         * @param path the path of the file, relative to the data folder and separated by forward slashes
+         * @param hash the SHA-256 hash of the contents of the file, in hex
+         * @param size the size of the file in bytes
+         */
+        public record File(String path, String hash, int size) {
+        }
+    }
+
+    /**
+     * A player joining a proxy-wide queue.
+     *
+     * @param arena the name of the arena
+     * @param map the name of the map the player prefers, or null for any map
+     * @param origin the server the player is on
+     * @param player the player
+     */
+    record QueueJoin(String arena, @Nullable String map, @Nullable String origin, SerializedPlayer player) implements ProxyMessage {
+    }
+
+    /**
+     * A player leaving every proxy-wide queue.
+     *
+     * @param uuid the unique id of the player
+     * @param origin the server the player is on
+     */
+    record QueueLeave(UUID uuid, @Nullable String origin) implements ProxyMessage {
+    }
+
+    /**
+     * A duel to start on the proxy host.
+     *
+     * @param arena the name of the arena
+     * @param map the name of the map, or null for any map
+     * @param origin the server the duel was requested on
+     * @param requester the player who requested the duel
+     * @param target the player who accepted the duel
+     * @param requesterParty the party of the requester
+     * @param targetParty the party of the target
+     * @param players every player taking part in the duel
+     * @param rounds the number of rounds to play
+     */
+    record DuelRequest(String arena, @Nullable String map, @Nullable String origin,
+                       SerializedPlayer requester, SerializedPlayer target,
+                       List<UUID> requesterParty, List<UUID> targetParty,
+                       List<SerializedPlayer> players, int rounds) implements ProxyMessage {
+    }
+
+    /**
+     * The names of every player in a duel on the proxy host.
+     *
+     * @param players the names of the players
+     */
+    record DuelRoster(List<String> players) implements ProxyMessage {
+    }
+
+    /**
+     * The result of a duel, to be broadcast on the given server.
+     *
+     * @param origin the server to broadcast the result on, or null for every server
+     * @param message the result, in MiniMessage format
+     */
+    record DuelResult(@Nullable String origin, String message) implements ProxyMessage {
+    }
+
+    /**
+     * Players who have been matched for a competition on the proxy host.
+     *
+     * @param arena the name of the arena
+     * @param map the name of the map
+     * @param duel whether the competition is a duel
+     * @param origin the server the players are on, or null if they are on different servers
+     * @param players the matched players
+     */
+    record QueueMatch(String arena, String map, boolean duel, @Nullable String origin,
+                      List<SerializedPlayer> players) implements ProxyMessage {
+    }
+
+    /**
+     * Players joining a competition on the proxy host.
+     *
+     * @param arena the name of the arena
+     * @param map the name of the map
+     * @param duel whether the competition is a duel
+     * @param origin the server the players are on
+     * @param players the joining players
+     */
+    record ArenaJoin(String arena, String map, boolean duel, @Nullable String origin,
+                     List<SerializedPlayer> players) implements ProxyMessage {
+    }
+
+    /**
+     * A player asking to spectate a competition on the proxy host.
+     *
+     * @param origin the server the spectator is on
+     * @param spectator the spectator
+     * @param mode whether an arena or a player is spectated
+     * @param arena the name of the arena to spectate
+     * @param map the name of the map to spectate
+     * @param target the unique id of the player to spectate
+     * @param targetName the name of the player to spectate
+     */
+    record SpectateRequest(@Nullable String origin, SerializedPlayer spectator,
+                           ProxySpectateHandler.ProxySpectateRequest.Mode mode,
+                           @Nullable String arena, @Nullable String map,
+                           @Nullable UUID target, @Nullable String targetName) implements ProxyMessage {
+    }
+
+    /**
+     * A spectate request which the proxy host is ready for.
+     *
+     * @param origin the server the spectator is on
+     * @param uuid the unique id of the spectator
+     * @param arena the name of the spectated arena
+     * @param map the name of the spectated map
+     */
+    record SpectateReady(@Nullable String origin, UUID uuid, @Nullable String arena,
+                         @Nullable String map) implements ProxyMessage {
+    }
+
+    /**
+     * A spectate request which the proxy host rejected.
+     *
+     * @param origin the server the spectator is on
+     * @param uuid the unique id of the spectator
+     * @param reason the reason, in MiniMessage format
+     */
+    record SpectateReject(@Nullable String origin, UUID uuid, @Nullable String reason) implements ProxyMessage {
+    }
+}
@@ -0,0 +1,730 @@
+package org.battleplugins.arena.proxy.message;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonParser;
+import org.battleplugins.arena.proxy.ProxySpectateHandler;
+import org.battleplugins.arena.proxy.SerializedPlayer;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.Locale;
+import java.util.UUID;
+
+/**
+ * Encodes and decodes {@link ProxyMessage}s.
+ * <p>
+ * Messages are encoded in a compact binary format, which starts with a magic
+ * byte, the version of the format and the id of the message type, followed by
+ * the fields of the message in a fixed order. Messages can also be encoded in
+ * the JSON format used by older versions, so servers on a network which still
+ * has older versions on it can keep talking to them.
+ * <p>
+ * Decoding accepts both formats, telling them apart by their first byte.
+ * Any message which is malformed, has an unknown type or was written by a
+ * newer version of the binary format is rejected with an {@link IOException}.
+ */
+public final class ProxyMessageCodec {
+    public static final int VERSION = 1;
+
+    private static final int MAGIC = 0xBA;
+    private static final int JSON_START = '{';
+
+    private ProxyMessageCodec() {
+    }
+
+    /**
+     * Encodes the given message.
+     *
+     * @param message the message to encode
+     * @param format the format to encode the message in
+     * @return the encoded message
+     */
+    public static byte[] encode(ProxyMessage message, Format format) {
+        return switch (format) {
+            case BINARY -> encodeBinary(message);
+            case JSON -> encodeJson(message).toString().getBytes(StandardCharsets.UTF_8);
+        };
+    }
+
+    /**
+     * Decodes a message in either format.
+     *
+     * @param data the encoded message
+     * @return the decoded message
+     * @throws IOException if the message is malformed or not supported
+     */
+    public static ProxyMessage decode(byte[] data) throws IOException {
+        if (data.length == 0) {
+            throw new IOException("Empty proxy message");
+        }
+
+        int first = data[0] & 0xFF;
+        if (first == MAGIC) {
+            return decodeBinary(data);
+        }
+
+        if (first == JSON_START) {
+            return decodeJson(new String(data, StandardCharsets.UTF_8));
+        }
+
+        throw new IOException("Unknown proxy message format " + first);
+    }
+
+    /**
+     * Gets the name of the type of the given message, as used in the JSON format.
+     *
+     * @param message the message
+     * @return the name of the type of the message
+     */
+    public static String typeName(ProxyMessage message) {
+        return Type.of(message).name;
+    }
+
+    private static byte[] encodeBinary(ProxyMessage message) {
+        int capacity = 64;
+        if (message instanceof ProxyMessage.SyncConfig syncConfig) {
+            capacity += syncConfig.maps().length + (syncConfig.arenas() == null ? 0 : syncConfig.arenas().length);
+        }
+
+        MessageOutput output = new MessageOutput(capacity);
+        output.writeByte(MAGIC);
+        output.writeByte(VERSION);
+        output.writeByte(Type.of(message).id);
+
+        switch (message) {
+            case ProxyMessage.SyncConfig msg -> {
+                output.writeNullableString(msg.origin());
+                output.writeBytes(msg.maps());
+                output.writeNullableBytes(msg.arenas());
+            }
+            case ProxyMessage.SyncRequest msg -> output.writeNullableString(msg.origin());
+            case ProxyMessage.SyncManifest msg -> {
+                output.writeNullableString(msg.origin());
+                output.writeVarInt(msg.chunkSize());
+                output.writeVarInt(msg.files().size());
+                for (ProxyMessage.SyncManifest.File file : msg.files()) {
+                    output.writeString(file.path());
+                    output.writeString(file.hash());
+                    output.writeVarInt(file.size());
+                }
+            }
+            case ProxyMessage.QueueJoin msg -> {
+                output.writeString(msg.arena());
+                output.writeNullableString(msg.map());
+                output.writeNullableString(msg.origin());
+                SerializedPlayerCodec.write(output, msg.player());
+            }
+            case ProxyMessage.QueueLeave msg -> {
+                output.writeUuid(msg.uuid());
+                output.writeNullableString(msg.origin());
+            }
+            case ProxyMessage.DuelRequest msg -> {
+                output.writeString(msg.arena());
+                output.writeNullableString(msg.map());
+                output.writeNullableString(msg.origin());
+                SerializedPlayerCodec.write(output, msg.requester());
+                SerializedPlayerCodec.write(output, msg.target());
+                writeUuids(output, msg.requesterParty());
+                writeUuids(output, msg.targetParty());
+                writePlayers(output, msg.players());
+                output.writeVarInt(msg.rounds());
+            }
+            case ProxyMessage.DuelRoster msg -> {
+                output.writeVarInt(msg.players().size());
+                msg.players().forEach(output::writeString);
+            }
+            case ProxyMessage.DuelResult msg -> {
+                output.writeNullableString(msg.origin());
+                output.writeString(msg.message());
+            }
+            case ProxyMessage.QueueMatch msg -> {
+                output.writeString(msg.arena());
+                output.writeString(msg.map());
+                output.writeBoolean(msg.duel());
+                output.writeNullableString(msg.origin());
+                writePlayers(output, msg.players());
+            }
+            case ProxyMessage.ArenaJoin msg -> {
+                output.writeString(msg.arena());
+                output.writeString(msg.map());
+                output.writeBoolean(msg.duel());
+                output.writeNullableString(msg.origin());
+                writePlayers(output, msg.players());
+            }
+            case ProxyMessage.SpectateRequest msg -> {
+                output.writeNullableString(msg.origin());
+                SerializedPlayerCodec.write(output, msg.spectator());
+                output.writeByte(msg.mode().ordinal());
+                output.writeNullableString(msg.arena());
+                output.writeNullableString(msg.map());
+                output.writeNullableUuid(msg.target());
+                output.writeNullableString(msg.targetName());
+            }
+            case ProxyMessage.SpectateReady msg -> {
+                output.writeNullableString(msg.origin());
+                output.writeUuid(msg.uuid());
+                output.writeNullableString(msg.arena());
+                output.writeNullableString(msg.map());
+            }
+            case ProxyMessage.SpectateReject msg -> {
+                output.writeNullableString(msg.origin());
+                output.writeUuid(msg.uuid());
+                output.writeNullableString(msg.reason());
+            }
+        }
+
+        return output.toByteArray();
+    }
+
+    private static ProxyMessage decodeBinary(byte[] data) throws IOException {
+        MessageInput input = new MessageInput(data, 1);
+
+        int version = input.readByte();
+        if (version != VERSION) {
+            throw new IOException("Unsupported proxy message version " + version + " (supported: " + VERSION + ")");
+        }
+
+        Type type = Type.byId(input.readByte());
+        ProxyMessage message = switch (type) {
+            case SYNC_CONFIG -> new ProxyMessage.SyncConfig(input.readNullableString(), input.readBytes(), input.readNullableBytes());
+            case SYNC_REQUEST -> new ProxyMessage.SyncRequest(input.readNullableString());
+            case SYNC_MANIFEST -> {
+                String origin = input.readNullableString();
+                int chunkSize = input.readVarInt();
+
+                // A file is at least an empty path, an empty hash and its size
+                int count = input.readCount(3);
+                List<ProxyMessage.SyncManifest.File> files = new ArrayList<>(count);
+                for (int i = 0; i < count; i++) {
+                    files.add(new ProxyMessage.SyncManifest.File(input.readString(), input.readString(), input.readVarInt()));
+                }
+
+                yield new ProxyMessage.SyncManifest(origin, chunkSize, files);
+            }
+            case QUEUE_JOIN -> new ProxyMessage.QueueJoin(
+                    input.readString(),
+                    input.readNullableString(),
+                    input.readNullableString(),
+                    SerializedPlayerCodec.read(input)
+            );
+            case QUEUE_LEAVE -> new ProxyMessage.QueueLeave(input.readUuid(), input.readNullableString());
+            case DUEL_REQUEST -> new ProxyMessage.DuelRequest(
+                    input.readString(),
+                    input.readNullableString(),
+                    input.readNullableString(),
+                    SerializedPlayerCodec.read(input),
+                    SerializedPlayerCodec.read(input),
+                    readUuids(input),
+                    readUuids(input),
+                    readPlayers(input),
+                    input.readVarInt()
+            );
+            case DUEL_ROSTER -> {
+                int count = input.readCount(1);
+                List<String> players = new ArrayList<>(count);
+                for (int i = 0; i < count; i++) {
+                    players.add(input.readString());
+                }
+
+                yield new ProxyMessage.DuelRoster(players);
+            }
+            case DUEL_RESULT -> new ProxyMessage.DuelResult(input.readNullableString(), input.readString());
+            case QUEUE_MATCH -> new ProxyMessage.QueueMatch(
+                    input.readString(),
+                    input.readString(),
+                    input.readBoolean(),
+                    input.readNullableString(),
+                    readPlayers(input)
+            );
+            case ARENA_JOIN -> new ProxyMessage.ArenaJoin(
+                    input.readString(),
+                    input.readString(),
+                    input.readBoolean(),
+                    input.readNullableString(),
+                    readPlayers(input)
+            );
+            case SPECTATE_REQUEST -> new ProxyMessage.SpectateRequest(
+                    input.readNullableString(),
+                    SerializedPlayerCodec.read(input),
+                    readMode(input.readByte()),
+                    input.readNullableString(),
+                    input.readNullableString(),
+                    input.readNullableUuid(),
+                    input.readNullableString()
+            );
+            case SPECTATE_READY -> new ProxyMessage.SpectateReady(
+                    input.readNullableString(),
+                    input.readUuid(),
+                    input.readNullableString(),
+                    input.readNullableString()
+            );
+            case SPECTATE_REJECT -> new ProxyMessage.SpectateReject(
+                    input.readNullableString(),
+                    input.readUuid(),
+                    input.readNullableString()
+            );
+        };
+
+        if (input.remaining() != 0) {
+            throw new IOException("Proxy message " + type.name + " has " + input.remaining() + " unexpected trailing bytes");
+        }
+
+        return message;
+    }
+
+    private static JsonObject encodeJson(ProxyMessage message) {
+        JsonObject object = new JsonObject();
+        object.addProperty("type", Type.of(message).name);
+
+        switch (message) {
+            case ProxyMessage.SyncConfig msg -> {
+                addOptional(object, "origin", msg.origin());
+                object.addProperty("maps", Base64.getEncoder().encodeToString(msg.maps()));
+                if (msg.arenas() != null) {
+                    object.addProperty("arenas", Base64.getEncoder().encodeToString(msg.arenas()));
+                }
+            }
+            case ProxyMessage.SyncRequest msg -> addOptional(object, "origin", msg.origin());
+            case ProxyMessage.SyncManifest msg -> {
+                addOptional(object, "origin", msg.origin());
+                object.addProperty("chunkSize", msg.chunkSize());
+
+                JsonArray files = new JsonArray();
+                for (ProxyMessage.SyncManifest.File file : msg.files()) {
+                    JsonObject fileObject = new JsonObject();
+                    fileObject.addProperty("path", file.path());
+                    fileObject.addProperty("hash", file.hash());
+                    fileObject.addProperty("size", file.size());
+                    files.add(fileObject);
+                }
+
+                object.add("files", files);
+            }
+            case ProxyMessage.QueueJoin msg -> {
+                object.addProperty("arena", msg.arena());
+                addOptional(object, "map", msg.map());
+                addOptional(object, "origin", msg.origin());
+                object.add("player", SerializedPlayerCodec.toJson(msg.player()));
+            }
+            case ProxyMessage.QueueLeave msg -> {
+                object.addProperty("uuid", msg.uuid().toString());
+                addOptional(object, "origin", msg.origin());
+            }
+            case ProxyMessage.DuelRequest msg -> {
+                object.addProperty("arena", msg.arena());
+                addOptional(object, "map", msg.map());
+                object.add("requester", SerializedPlayerCodec.toJson(msg.requester()));
+                object.add("target", SerializedPlayerCodec.toJson(msg.target()));
+                object.add("requesterParty", uuidsToJson(msg.requesterParty()));
+                object.add("targetParty", uuidsToJson(msg.targetParty()));
+                object.add("players", playersToJson(msg.players()));
+                object.addProperty("rounds", msg.rounds());
+                addOptional(object, "origin", msg.origin());
+            }
+            case ProxyMessage.DuelRoster msg -> {
+                JsonArray players = new JsonArray();
+                msg.players().forEach(players::add);
+                object.add("players", players);
+            }
+            case ProxyMessage.DuelResult msg -> {
+                object.addProperty("message", msg.message());
+                addOptional(object, "origin", msg.origin());
+            }
+            case ProxyMessage.QueueMatch msg -> {
+                object.addProperty("arena", msg.arena());
+                object.addProperty("map", msg.map());
+                if (msg.duel()) {
+                    object.addProperty("duel", true);
+                }
+                addOptional(object, "origin", msg.origin());
+                object.add("players", playersToJson(msg.players()));
+            }
+            case ProxyMessage.ArenaJoin msg -> {
+                object.addProperty("arena", msg.arena());
+                object.addProperty("map", msg.map());
+                if (msg.duel()) {
+                    object.addProperty("duel", true);
+                }
+                object.add("players", playersToJson(msg.players()));
+                addOptional(object, "origin", msg.origin());
+            }
+            case ProxyMessage.SpectateRequest msg -> {
+                addOptional(object, "origin", msg.origin());
+                object.add("spectator", SerializedPlayerCodec.toJson(msg.spectator()));
+                object.addProperty("mode", msg.mode().name().toLowerCase(Locale.ROOT));
+                addOptional(object, "arena", msg.arena());
+                addOptional(object, "map", msg.map());
+                if (msg.target() != null) {
+                    object.addProperty("target", msg.target().toString());
+                }
+                addOptional(object, "targetName", msg.targetName());
+            }
+            case ProxyMessage.SpectateReady msg -> {
+                object.addProperty("uuid", msg.uuid().toString());
+                addOptional(object, "arena", msg.arena());
+                addOptional(object, "map", msg.map());
+                addOptional(object, "origin", msg.origin());
+            }
+            case ProxyMessage.SpectateReject msg -> {
+                object.addProperty("uuid", msg.uuid().toString());
+                addOptional(object, "origin", msg.origin());
+                addOptional(object, "reason", msg.reason());
+            }
+        }
+
+        return object;
+    }
+
+    private static ProxyMessage decodeJson(String json) throws IOException {
+        JsonObject object;
+        try {
+            object = JsonParser.parseString(json).getAsJsonObject();
+        } catch (JsonParseException | IllegalStateException e) {
+            throw new IOException("Invalid JSON proxy message: " + e.getMessage());
+        }
+
+        try {
+            Type type = Type.byName(string(object, "type"));
+            return switch (type) {
+                case SYNC_CONFIG -> new ProxyMessage.SyncConfig(
+                        optionalString(object, "origin"),
+                        // Very old hosts only sent their maps, as "data"
+                        base64(object.has("maps") ? string(object, "maps") : string(object, "data")),
+                        object.has("arenas") ? base64(string(object, "arenas")) : null
+                );
+                case SYNC_REQUEST -> new ProxyMessage.SyncRequest(optionalString(object, "origin"));
+                case SYNC_MANIFEST -> {
+                    List<ProxyMessage.SyncManifest.File> files = new ArrayList<>();
+                    if (object.has("files") && object.get("files").isJsonArray()) {
+                        for (JsonElement element : object.getAsJsonArray("files")) {
+                            JsonObject fileObject = element.getAsJsonObject();
+                            files.add(new ProxyMessage.SyncManifest.File(
+                                    string(fileObject, "path"),
+                                    string(fileObject, "hash"),
+                                    integer(fileObject, "size")
+                            ));
+                        }
+                    }
+
+                    yield new ProxyMessage.SyncManifest(optionalString(object, "origin"), integer(object, "chunkSize"), files);
+                }
+                case QUEUE_JOIN -> new ProxyMessage.QueueJoin(
+                        string(object, "arena"),
+                        optionalString(object, "map"),
+                        optionalString(object, "origin"),
+                        SerializedPlayerCodec.fromJson(object.get("player"))
+                );
+                case QUEUE_LEAVE -> new ProxyMessage.QueueLeave(uuid(object, "uuid"), optionalString(object, "origin"));
+                case DUEL_REQUEST -> {
+                    SerializedPlayer requester = SerializedPlayerCodec.fromJson(object.get("requester"));
+                    SerializedPlayer target = SerializedPlayerCodec.fromJson(object.get("target"));
+
+                    int rounds = 1;
+                    if (object.has("rounds") && object.get("rounds").isJsonPrimitive()) {
+                        try {
+                            rounds = object.get("rounds").getAsInt();
+                        } catch (NumberFormatException ignored) {
+                        }
+                    }
+
+                    yield new ProxyMessage.DuelRequest(
+                            string(object, "arena"),
+                            optionalString(object, "map"),
+                            optionalString(object, "origin"),
+                            requester,
+                            target,
+                            uuidsFromJson(object, "requesterParty"),
+                            uuidsFromJson(object, "targetParty"),
+                            playersFromJson(object),
+                            rounds
+                    );
+                }
+                case DUEL_ROSTER -> {
+                    List<String> players = new ArrayList<>();
+                    if (object.has("players") && object.get("players").isJsonArray()) {
+                        for (JsonElement element : object.getAsJsonArray("players")) {
+                            if (element.isJsonPrimitive() && !element.getAsString().isEmpty()) {
+                                players.add(element.getAsString());
+                            }
+                        }
+                    }
+
+                    yield new ProxyMessage.DuelRoster(players);
+                }
+                case DUEL_RESULT -> new ProxyMessage.DuelResult(optionalString(object, "origin"), string(object, "message"));
+                case QUEUE_MATCH -> new ProxyMessage.QueueMatch(
+                        string(object, "arena"),
+                        string(object, "map"),
+                        object.has("duel") && object.get("duel").getAsBoolean(),
+                        optionalString(object, "origin"),
+                        playersFromJson(object)
+                );
+                case ARENA_JOIN -> new ProxyMessage.ArenaJoin(
+                        string(object, "arena"),
+                        string(object, "map"),
+                        object.has("duel") && object.get("duel").getAsBoolean(),
+                        optionalString(object, "origin"),
+                        playersFromJson(object)
+                );
+                case SPECTATE_REQUEST -> {
+                    String mode = string(object, "mode");
+                    ProxySpectateHandler.ProxySpectateRequest.Mode parsedMode;
+                    try {
+                        parsedMode = ProxySpectateHandler.ProxySpectateRequest.Mode.valueOf(mode.toUpperCase(Locale.ROOT));
+                    } catch (IllegalArgumentException e) {
+                        throw new IOException("Unknown spectate mode " + mode);
+                    }
+
+                    yield new ProxyMessage.SpectateRequest(
+                            optionalString(object, "origin"),
+                            SerializedPlayerCodec.fromJson(object.get("spectator")),
+                            parsedMode,
+                            optionalString(object, "arena"),
+                            optionalString(object, "map"),
+                            object.has("target") ? uuid(object, "target") : null,
+                            optionalString(object, "targetName")
+                    );
+                }
+                case SPECTATE_READY -> new ProxyMessage.SpectateReady(
+                        optionalString(object, "origin"),
+                        uuid(object, "uuid"),
+                        optionalString(object, "arena"),
+                        optionalString(object, "map")
+                );
+                case SPECTATE_REJECT -> new ProxyMessage.SpectateReject(
+                        optionalString(object, "origin"),
+                        uuid(object, "uuid"),
+                        optionalString(object, "reason")
+                );
+            };
+        } catch (IllegalStateException | UnsupportedOperationException | ClassCastException e) {
+            // Thrown by Gson when a field has an unexpected type
+            throw new IOException("Invalid JSON proxy message: " + e.getMessage());
+        }
+    }
+
+    private static void writeUuids(MessageOutput output, List<UUID> uuids) {
+        output.writeVarInt(uuids.size());
+        uuids.forEach(output::writeUuid);
+    }
+
+    private static List<UUID> readUuids(MessageInput input) throws IOException {
+        int count = input.readCount(Long.BYTES * 2);
+        List<UUID> uuids = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            uuids.add(input.readUuid());
+        }
+
+        return uuids;
+    }
+
+    private static void writePlayers(MessageOutput output, List<SerializedPlayer> players) {
+        output.writeVarInt(players.size());
+        for (SerializedPlayer player : players) {
+            SerializedPlayerCodec.write(output, player);
+        }
+    }
+
+    private static List<SerializedPlayer> readPlayers(MessageInput input) throws IOException {
+        // A player is at least its unique id followed by three empty lengths
+        int count = input.readCount(Long.BYTES * 2 + 3);
+        List<SerializedPlayer> players = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            players.add(SerializedPlayerCodec.read(input));
+        }
+
+        return players;
+    }
+
+    private static ProxySpectateHandler.ProxySpectateRequest.Mode readMode(int ordinal) throws IOException {
+        ProxySpectateHandler.ProxySpectateRequest.Mode[] modes = ProxySpectateHandler.ProxySpectateRequest.Mode.values();
+        if (ordinal >= modes.length) {
+            throw new IOException("Unknown spectate mode " + ordinal);
+        }
+
+        return modes[ordinal];
+    }
+
+    private static JsonArray uuidsToJson(List<UUID> uuids) {
+        JsonArray array = new JsonArray();
+        uuids.forEach(uuid -> array.add(uuid.toString()));
+        return array;
+    }
+
+    private static List<UUID> uuidsFromJson(JsonObject object, String field) {
+        List<UUID> uuids = new ArrayList<>();
+        if (object.has(field) && object.get(field).isJsonArray()) {
+            for (JsonElement element : object.getAsJsonArray(field)) {
+                if (!element.isJsonPrimitive()) {
+                    continue;
+                }
+
+                try {
+                    uuids.add(UUID.fromString(element.getAsString()));
+                } catch (IllegalArgumentException ignored) {
+                }
+            }
+        }
+
+        return uuids;
+    }
+
+    private static JsonArray playersToJson(List<SerializedPlayer> players) {
+        JsonArray array = new JsonArray();
+        players.forEach(player -> array.add(SerializedPlayerCodec.toJson(player)));
+        return array;
+    }
+
+    private static List<SerializedPlayer> playersFromJson(JsonObject object) throws IOException {
+        List<SerializedPlayer> players = new ArrayList<>();
+        if (object.has("players") && object.get("players").isJsonArray()) {
+            for (JsonElement element : object.getAsJsonArray("players")) {
+                players.add(SerializedPlayerCodec.fromJson(element));
+            }
+        }
+
+        return players;
+    }
+
+    private static void addOptional(JsonObject object, String field, @Nullable String value) {
+        if (value != null && !value.isEmpty()) {
+            object.addProperty(field, value);
+        }
+    }
+
+    private static String string(JsonObject object, String field) throws IOException {
+        JsonElement element = object.get(field);
+        if (element == null || !element.isJsonPrimitive()) {
+            throw new IOException("Missing field " + field + " in proxy message");
+        }
+
+        return element.getAsString();
+    }
+
+    private static int integer(JsonObject object, String field) throws IOException {
+        String value = string(object, field);
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            throw new IOException("Invalid number " + value + " in field " + field + " of proxy message");
+        }
+    }
+
+    @Nullable
+    private static String optionalString(JsonObject object, String field) {
+        JsonElement element = object.get(field);
+        if (element == null || !element.isJsonPrimitive() || element.getAsString().isEmpty()) {
+            return null;
+        }
+
+        return element.getAsString();
+    }
+
+    private static UUID uuid(JsonObject object, String field) throws IOException {
+        String value = string(object, field);
+        try {
+            return UUID.fromString(value);
+        } catch (IllegalArgumentException e) {
+            throw new IOException("Invalid uuid " + value + " in field " + field + " of proxy message");
+        }
+    }
+
+    private static byte[] base64(String value) throws IOException {
+        try {
+            return Base64.getDecoder().decode(value);
+        } catch (IllegalArgumentException e) {
+            throw new IOException("Invalid base64 in proxy message");
+        }
+    }
+
+    /**
+     * The format to encode proxy messages in.
+     */
+    public enum Format {
+        /**
+         * The compact binary format.
+         */
+        BINARY,
+        /**
+         * The JSON format, which older versions understand.
+         */
+        JSON
+    }
+
+    private enum Type {
+        SYNC_CONFIG(1, "sync_config"),
+        SYNC_REQUEST(2, "sync_request"),
+        QUEUE_JOIN(3, "queue_join"),
+        QUEUE_LEAVE(4, "queue_leave"),
+        DUEL_REQUEST(5, "duel_req"),
+        DUEL_ROSTER(6, "duel_roster"),
+        DUEL_RESULT(7, "duel_result"),
+        QUEUE_MATCH(8, "queue_match"),
+        ARENA_JOIN(9, "arena_join"),
+        SPECTATE_REQUEST(10, "spectate_request"),
+        SPECTATE_READY(11, "spectate_ready"),
+        SPECTATE_REJECT(12, "spectate_reject"),
+        SYNC_MANIFEST(13, "sync_manifest");
+
+        private static final Type[] BY_ID = new Type[16];
+
+        static {
+            for (Type type : values()) {
+                BY_ID[type.id] = type;
+            }
+        }
+
+        private final int id;
+        private final String name;
+
+        Type(int id, String name) {
+            this.id = id;
+            this.name = name;
+        }
+
+        static Type of(ProxyMessage message) {
+            return switch (message) {
+                case ProxyMessage.SyncConfig msg -> SYNC_CONFIG;
+                case ProxyMessage.SyncRequest msg -> SYNC_REQUEST;
+                case ProxyMessage.SyncManifest msg -> SYNC_MANIFEST;
+                case ProxyMessage.QueueJoin msg -> QUEUE_JOIN;
+                case ProxyMessage.QueueLeave msg -> QUEUE_LEAVE;
+                case ProxyMessage.DuelRequest msg -> DUEL_REQUEST;
+                case ProxyMessage.DuelRoster msg -> DUEL_ROSTER;
+                case ProxyMessage.DuelResult msg -> DUEL_RESULT;
+                case ProxyMessage.QueueMatch msg -> QUEUE_MATCH;
+                case ProxyMessage.ArenaJoin msg -> ARENA_JOIN;
+                case ProxyMessage.SpectateRequest msg -> SPECTATE_REQUEST;
+                case ProxyMessage.SpectateReady msg -> SPECTATE_READY;
+                case ProxyMessage.SpectateReject msg -> SPECTATE_REJECT;
+            };
+        }
+
+        static Type byId(int id) throws IOException {
+            Type type = id < BY_ID.length ? BY_ID[id] : null;
+            if (type == null) {
+                throw new IOException("Unknown proxy message type " + id);
+            }
+
+            return type;
+        }
+
+        static Type byName(String name) throws IOException {
+            String lowerName = name.toLowerCase(Locale.ROOT);
+            for (Type type : values()) {
+                if (type.name.equals(lowerName)) {
+                    return type;
+                }
+            }
+
+            throw new IOException("Unknown proxy message type " + name);
+        }
+    }
+}
@@ -0,0 +1,158 @@
+package org.battleplugins.arena.proxy.message;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import org.battleplugins.arena.proxy.Elements;
+import org.battleplugins.arena.proxy.SerializedPlayer;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Encodes and decodes {@link SerializedPlayer}s in both
+ * the binary and the JSON format of proxy messages.
+ */
+public final class SerializedPlayerCodec {
+    private static final Elements[] ELEMENTS = Elements.values();
+
+    private SerializedPlayerCodec() {
+    }
+
+    static void write(MessageOutput output, SerializedPlayer player) {
+        output.writeUuid(UUID.fromString(player.getUuid()));
+
+        output.writeVarInt(player.getElements().size());
+        for (Elements element : player.getElements()) {
+            output.writeByte(element.ordinal());
+        }
+
+        output.writeVarInt(player.getAbilities().size());
+        for (Map.Entry<Integer, String> entry : player.getAbilities().entrySet()) {
+            output.writeVarInt(entry.getKey());
+            output.writeString(entry.getValue());
+        }
+
+        output.writeNullableString(player.getOrigin());
+    }
+
+    static SerializedPlayer read(MessageInput input) throws IOException {
+        String uuid = input.readUuid().toString();
+
+        int elementCount = input.readCount(1);
+        List<Elements> elements = new ArrayList<>(elementCount);
+        for (int i = 0; i < elementCount; i++) {
+            int ordinal = input.readByte();
+
+            // Elements added by newer versions are skipped, like unknown element names are
+            if (ordinal < ELEMENTS.length) {
+                elements.add(ELEMENTS[ordinal]);
+            }
+        }
+
+        int abilityCount = input.readCount(2);
+        HashMap<Integer, String> abilities = new HashMap<>(abilityCount);
+        for (int i = 0; i < abilityCount; i++) {
+            abilities.put(input.readVarInt(), input.readString());
+        }
+
+        return new SerializedPlayer(uuid, elements, abilities, input.readNullableString());
+    }
+
+    /**
+     * Converts the given player to the JSON format of proxy messages.
+     *
+     * @param player the player
+     * @return the player in JSON format
+     */
+    public static JsonObject toJson(SerializedPlayer player) {
+        JsonObject object = new JsonObject();
+        object.addProperty("uuid", player.getUuid());
+
+        if (!player.getElements().isEmpty()) {
+            JsonArray elements = new JsonArray();
+            player.getElements().forEach(element -> elements.add(element.name()));
+            object.add("elements", elements);
+        }
+
+        if (!player.getAbilities().isEmpty()) {
+            JsonObject abilities = new JsonObject();
+            player.getAbilities().forEach((slot, ability) -> abilities.addProperty(String.valueOf(slot), ability));
+            object.add("abilities", abilities);
+        }
+
+        if (player.getOrigin() != null && !player.getOrigin().isEmpty()) {
+            object.addProperty("origin", player.getOrigin());
+        }
+
+        return object;
+    }
+
+    /**
+     * Reads a player from the JSON format of proxy messages. Older
+     * versions sent some players as just their unique id, which is
+     * accepted as well.
+     *
+     * @param element the player in JSON format
+     * @return the player
+     * @throws IOException if the element is not a valid player
+     */
+    public static SerializedPlayer fromJson(JsonElement element) throws IOException {
+        if (element == null || element.isJsonNull()) {
+            throw new IOException("Missing player in proxy message");
+        }
+
+        if (element.isJsonPrimitive()) {
+            return new SerializedPlayer(validUuid(element.getAsString()));
+        }
+
+        if (!element.isJsonObject()) {
+            throw new IOException("Invalid player in proxy message");
+        }
+
+        JsonObject object = element.getAsJsonObject();
+        if (!object.has("uuid") || !object.get("uuid").isJsonPrimitive()) {
+            throw new IOException("Missing player uuid in proxy message");
+        }
+
+        SerializedPlayer player = new SerializedPlayer(validUuid(object.get("uuid").getAsString()));
+        if (object.has("elements") && object.get("elements").isJsonArray()) {
+            for (JsonElement elementName : object.getAsJsonArray("elements")) {
+                try {
+                    player.getElements().add(Elements.valueOf(elementName.getAsString()));
+                } catch (IllegalArgumentException | IllegalStateException | UnsupportedOperationException ignored) {
+                    // Ignore unknown elements for forwards compatibility
+                }
+            }
+        }
+
+        if (object.has("abilities") && object.get("abilities").isJsonObject()) {
+            for (Map.Entry<String, JsonElement> entry : object.getAsJsonObject("abilities").entrySet()) {
+                try {
+                    player.getAbilities().put(Integer.parseInt(entry.getKey()), entry.getValue().getAsString());
+                } catch (NumberFormatException | IllegalStateException | UnsupportedOperationException ignored) {
+                    // Ignore invalid ability slots
+                }
+            }
+        }
+
+        if (object.has("origin") && object.get("origin").isJsonPrimitive()) {
+            String origin = object.get("origin").getAsString();
+            player.setOrigin(origin.isEmpty() ? null : origin);
+        }
+
+        return player;
+    }
+
+    private static String validUuid(String uuid) throws IOException {
+        try {
+            return UUID.fromString(uuid).toString();
+        } catch (IllegalArgumentException e) {
+            throw new IOException("Invalid player uuid " + uuid + " in proxy message");
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package org.battleplugins.arena.resolver;
+
+import net.kyori.adventure.text.Component;
+
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * A {@link ResolverProvider} which reads its value every time it
+ * is resolved, rather than when the resolver is built.
+ * <p>
+ * Since the value always reflects the current state, resolvers made up of
+ * lazy providers can be built once and kept. A provider whose value is null
+ * is treated as if it was not defined, so state which may be missing, such
+ * as the team of a player, can be provided this way too.
+ *
+ * @param <T> the type of the value
+ */
+class LazyResolverProvider<T> implements ResolverProvider<T> {
+    private final Supplier<T> supplier;
+    private final Function<T, String> toString;
+    private final Function<T, Component> toComponent;
+
+    LazyResolverProvider(Supplier<T> supplier, Function<T, String> toString, Function<T, Component> toComponent) {
+        this.supplier = supplier;
+        this.toString = toString;
+        this.toComponent = toComponent;
+    }
+
+    boolean isPresent() {
+        return this.supplier.get() != null;
+    }
+
+    @Override
+    public T resolve(Resolver resolver) {
+        return this.supplier.get();
+    }
+
+    @Override
+    public String toString(Resolver resolver) {
+        return this.toString.apply(this.resolve(resolver));
+    }
+
+    @Override
+    public Component toComponent(Resolver resolver) {
+        return this.toComponent.apply(this.resolve(resolver));
+    }
+}
@@ -0,0 +1,160 @@
+package org.battleplugins.arena.resolver;
+
+import net.kyori.adventure.text.Component;
+import net.kyori.adventure.text.TextReplacementConfig;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * A template containing <code>%placeholder%</code> slots, parsed once
+ * so it can be resolved without searching for every known placeholder.
+ * <p>
+ * Placeholders resolve the same way as replacing every known
+ * <code>%placeholder%</code> in turn: the leftmost occurrence of a known
+ * placeholder wins, and text between two percent signs which is not a known
+ * placeholder is left as is, without consuming its percent signs.
+ * <p>
+ * String templates record the text between each pair of consecutive percent
+ * signs, so resolving one is a single pass which only looks up the candidates
+ * it contains. Components are resolved in a single replacement pass matching
+ * any of the known placeholders, rather than one pass per placeholder.
+ * <p>
+ * Parsed templates and placeholder patterns are cached by their source string,
+ * since the same scoreboard lines and messages are resolved over and over again.
+ */
+final class PlaceholderTemplate {
+    private static final int MAX_CACHED_TEMPLATES = 4096;
+
+    private static final Map<String, PlaceholderTemplate> STRING_TEMPLATES = new ConcurrentHashMap<>();
+    private static final Map<String, Pattern> PATTERNS = new ConcurrentHashMap<>();
+
+    // The positions of the percent signs, and the text between each consecutive pair of them
+    private final int[] delimiters;
+    private final String[] candidates;
+
+    private PlaceholderTemplate(int[] delimiters, String[] candidates) {
+        this.delimiters = delimiters;
+        this.candidates = candidates;
+    }
+
+    /**
+     * Resolves the placeholders in the given string.
+     *
+     * @param string the string to resolve
+     * @param lookup looks up the value of a placeholder by its name,
+     *               returning null if the placeholder is unknown
+     * @return the resolved string
+     */
+    static String resolve(String string, Function<String, String> lookup) {
+        if (string.indexOf('%') == -1) {
+            return string;
+        }
+
+        PlaceholderTemplate template = cached(STRING_TEMPLATES, string, PlaceholderTemplate::parse);
+
+        StringBuilder builder = null;
+        int start = 0;
+        for (int i = 0; i < template.candidates.length; i++) {
+            // The opening percent sign was the closing one of the previous placeholder
+            int open = template.delimiters[i];
+            if (open < start || template.candidates[i].isEmpty()) {
+                continue;
+            }
+
+            String value = lookup.apply(template.candidates[i]);
+            if (value == null) {
+                continue;
+            }
+
+            if (builder == null) {
+                builder = new StringBuilder(string.length() + 16);
+            }
+
+            builder.append(string, start, open).append(value);
+            start = template.delimiters[i + 1] + 1;
+        }
+
+        return builder == null ? string : builder.append(string, start, string.length()).toString();
+    }
+
+    /**
+     * Resolves the placeholders in the given component.
+     *
+     * @param component the component to resolve
+     * @param pattern the pattern of the known placeholders, from {@link #pattern}
+     * @param lookup looks up the value of a placeholder by its name,
+     *               returning null if the placeholder is unknown
+     * @return the resolved component
+     */
+    static Component resolve(Component component, Pattern pattern, Function<String, Component> lookup) {
+        return component.replaceText(TextReplacementConfig.builder()
+                .match(pattern)
+                .replacement((result, original) -> {
+                    Component value = lookup.apply(result.group(1));
+                    return value == null ? original : value;
+                })
+                .build()
+        );
+    }
+
+    /**
+     * Gets the pattern matching any of the given placeholders.
+     *
+     * @param names the names of the placeholders
+     * @return the pattern matching the placeholders, or null if there are none
+     */
+    static Pattern pattern(Collection<String> names) {
+        if (names.isEmpty()) {
+            return null;
+        }
+
+        String key = names.stream()
+                .sorted()
+                .map(Pattern::quote)
+                .collect(Collectors.joining("|"));
+
+        return cached(PATTERNS, key, alternatives -> Pattern.compile("%(" + alternatives + ")%"));
+    }
+
+    private static PlaceholderTemplate parse(String string) {
+        List<Integer> delimiters = new ArrayList<>();
+        for (int i = string.indexOf('%'); i != -1; i = string.indexOf('%', i + 1)) {
+            delimiters.add(i);
+        }
+
+        int[] positions = new int[delimiters.size()];
+        String[] candidates = new String[Math.max(0, positions.length - 1)];
+        for (int i = 0; i < positions.length; i++) {
+            positions[i] = delimiters.get(i);
+            if (i > 0) {
+                candidates[i - 1] = string.substring(positions[i - 1] + 1, positions[i]);
+            }
+        }
+
+        return new PlaceholderTemplate(positions, candidates);
+    }
+
+    private static <K, V> V cached(Map<K, V> cache, K key, Function<K, V> compiler) {
+        V value = cache.get(key);
+        if (value != null) {
+            return value;
+        }
+
+        // Templates are mostly loaded from configs, but some are built at runtime,
+        // so start over rather than letting the cache grow without bound
+        if (cache.size() >= MAX_CACHED_TEMPLATES) {
+            cache.clear();
+        }
+
+        value = compiler.apply(key);
+        cache.put(key, value);
+        return value;
+    }
+}
@@ -2,40 +2,82 @@ package org.battleplugins.arena.resolver;
 
 import net.kyori.adventure.text.Component;
 
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
-
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * A resolver made up of its own providers, layered on top of the
+ * resolvers it was built from.
+ * <p>
+ * Rather than copying the providers of every resolver it extends, a resolver
+ * keeps a reference to them and falls back to them when looking up a key. This
+ * means extending a resolver only costs as much as the keys being defined.
+ * <p>
+ * Resolvers which are kept around, such as those of competitions and players,
+ * cache the pattern of every placeholder they know. Components are resolved one
+ * layer at a time using those patterns, so a short-lived resolver extending one
+ * only builds a pattern for the keys it defines itself.
+ */
 class ResolverImpl implements Resolver {
-    private final Map<ResolverKey<?>, ResolverProvider<?>> results;
+    private static final ResolverImpl[] NO_LAYERS = new ResolverImpl[0];
 
-    ResolverImpl(Map<ResolverKey<?>, ResolverProvider<?>> results) {
-        this.results = new HashMap<>(results);
+    private final Map<ResolverKey<?>, ResolverProvider<?>> results;
+    // Searched in order after this resolver's own providers
+    private final ResolverImpl[] layers;
+
+    // Providers keyed by the name they are referenced by in placeholders
+    private Map<String, ResolverProvider<?>> placeholders;
+    // Matches any placeholder known to this resolver or its layers
+    private Pattern placeholderPattern;
+    private boolean placeholderPatternResolved;
+    // Matches any placeholder defined by this resolver itself
+    private Pattern ownPlaceholderPattern;
+    private boolean ownPlaceholderPatternResolved;
+
+    ResolverImpl(Map<ResolverKey<?>, ResolverProvider<?>> results, ResolverImpl[] layers) {
+        this.results = Map.copyOf(results);
+        this.layers = layers;
     }
 
     @Override
     public String resolveToString(String string) {
-        for (Map.Entry<ResolverKey<?>, ResolverProvider<?>> entry : this.results.entrySet()) {
-            String key = "%" + entry.getKey().getName().replace("-", "_") + "%";
-            string = string.replace(key, entry.getValue().toString(this));
-        }
-
-        return string;
+        return PlaceholderTemplate.resolve(string, placeholder -> {
+            ResolverProvider<?> provider = this.findPlaceholder(placeholder);
+            return provider == null ? null : provider.toString(this);
+        });
     }
 
     @Override
     public Component resolveToComponent(Component component) {
-        for (Map.Entry<ResolverKey<?>, ResolverProvider<?>> entry : this.results.entrySet()) {
-            String key = "%" + entry.getKey().getName().replace("-", "_") + "%";
-            component = component.replaceText(builder -> builder.matchLiteral(key).replacement(entry.getValue().toComponent(this)));
+        // Our own placeholders first, since they take precedence over those of our layers
+        Component resolved = this.resolveToComponent(component, this.getOwnPlaceholderPattern());
+        for (ResolverImpl layer : this.layers) {
+            resolved = this.resolveToComponent(resolved, layer.getPlaceholderPattern());
         }
 
-        return component;
+        return resolved;
+    }
+
+    private Component resolveToComponent(Component component, Pattern pattern) {
+        if (pattern == null) {
+            return component;
+        }
+
+        return PlaceholderTemplate.resolve(component, pattern, placeholder -> {
+            ResolverProvider<?> provider = this.findPlaceholder(placeholder);
+            return provider == null ? null : provider.toComponent(this);
+        });
     }
 
     @SuppressWarnings("unchecked")
     @Override
     public <T> T resolve(ResolverKey<T> key) {
-        ResolverProvider<?> provider = this.results.get(key);
+        ResolverProvider<?> provider = this.find(key);
         if (provider == null) {
             throw new IllegalArgumentException("No provider defined for key " + key);
         }
@@ -45,7 +87,7 @@ class ResolverImpl implements Resolver {
 
     @Override
     public <T> String resolveToString(ResolverKey<T> key) {
-        ResolverProvider<?> provider = this.results.get(key);
+        ResolverProvider<?> provider = this.find(key);
         if (provider == null) {
             throw new IllegalArgumentException("No provider defined for key " + key);
         }
@@ -55,23 +97,117 @@ class ResolverImpl implements Resolver {
 
     @Override
     public boolean has(ResolverKey<?> key) {
-        return this.results.containsKey(key);
+        return this.find(key) != null;
     }
 
     @Override
     public void mergeInto(Builder builder) {
-        ((BuilderImpl) builder).results.putAll(this.results);
+        ((BuilderImpl) builder).merge(this);
     }
 
     @Override
     public Builder toBuilder() {
-        BuilderImpl builder = new BuilderImpl();
-        builder.results.putAll(this.results);
-        return builder;
+        return new BuilderImpl(this);
+    }
+
+    private boolean isEmpty() {
+        return this.results.isEmpty() && this.layers.length == 0;
+    }
+
+    private ResolverProvider<?> find(ResolverKey<?> key) {
+        ResolverProvider<?> provider = this.results.get(key);
+        if (isPresent(provider)) {
+            return provider;
+        }
+
+        for (ResolverImpl layer : this.layers) {
+            provider = layer.find(key);
+            if (provider != null) {
+                return provider;
+            }
+        }
+
+        return null;
+    }
+
+    private ResolverProvider<?> findPlaceholder(String name) {
+        ResolverProvider<?> provider = this.getPlaceholders().get(name);
+        if (isPresent(provider)) {
+            return provider;
+        }
+
+        for (ResolverImpl layer : this.layers) {
+            provider = layer.findPlaceholder(name);
+            if (provider != null) {
+                return provider;
+            }
+        }
+
+        return null;
+    }
+
+    private Pattern getPlaceholderPattern() {
+        if (!this.placeholderPatternResolved) {
+            Set<String> names = new HashSet<>();
+            this.collectPlaceholders(names);
+
+            this.placeholderPattern = PlaceholderTemplate.pattern(names);
+            this.placeholderPatternResolved = true;
+        }
+
+        return this.placeholderPattern;
+    }
+
+    private Pattern getOwnPlaceholderPattern() {
+        if (!this.ownPlaceholderPatternResolved) {
+            this.ownPlaceholderPattern = PlaceholderTemplate.pattern(this.getPlaceholders().keySet());
+            this.ownPlaceholderPatternResolved = true;
+        }
+
+        return this.ownPlaceholderPattern;
+    }
+
+    private void collectPlaceholders(Set<String> names) {
+        names.addAll(this.getPlaceholders().keySet());
+        for (ResolverImpl layer : this.layers) {
+            layer.collectPlaceholders(names);
+        }
+    }
+
+    private Map<String, ResolverProvider<?>> getPlaceholders() {
+        if (this.placeholders == null) {
+            Map<String, ResolverProvider<?>> placeholders = new HashMap<>(this.results.size());
+            for (Map.Entry<ResolverKey<?>, ResolverProvider<?>> entry : this.results.entrySet()) {
+                placeholders.put(entry.getKey().getName().replace("-", "_"), entry.getValue());
+            }
+
+            this.placeholders = placeholders;
+        }
+
+        return this.placeholders;
+    }
+
+    private static boolean isPresent(ResolverProvider<?> provider) {
+        // Lazy providers without a value fall back to the layers below
+        if (provider instanceof LazyResolverProvider<?> lazyProvider) {
+            return lazyProvider.isPresent();
+        }
+
+        return provider != null;
     }
 
     static class BuilderImpl implements Resolver.Builder {
-        private final Map<ResolverKey<?>, ResolverProvider<?>> results = new HashMap<>();
+        // Ordered from the lowest to the highest precedence
+        private final List<ResolverImpl> layers = new ArrayList<>(2);
+
+        private Map<ResolverKey<?>, ResolverProvider<?>> results = new HashMap<>();
+
+        BuilderImpl() {
+        }
+
+        BuilderImpl(ResolverImpl parent) {
+            this.layers.add(parent);
+        }
 
         @Override
         public <T> Builder define(ResolverKey<T> key, ResolverProvider<T> provider) {
@@ -79,9 +215,33 @@ class ResolverImpl implements Resolver {
             return this;
         }
 
+        void merge(ResolverImpl resolver) {
+            if (resolver.isEmpty()) {
+                return;
+            }
+
+            // Merged providers take precedence over everything defined before
+            // them, so anything defined so far becomes a layer of its own
+            if (!this.results.isEmpty()) {
+                this.layers.add(new ResolverImpl(this.results, NO_LAYERS));
+                this.results = new HashMap<>();
+            }
+
+            this.layers.add(resolver);
+        }
+
         @Override
         public Resolver build() {
-            return new ResolverImpl(this.results);
+            if (this.results.isEmpty() && this.layers.size() == 1) {
+                return this.layers.get(0);
+            }
+
+            ResolverImpl[] layers = new ResolverImpl[this.layers.size()];
+            for (int i = 0; i < layers.length; i++) {
+                layers[i] = this.layers.get(layers.length - i - 1);
+            }
+
+            return new ResolverImpl(this.results, layers);
         }
     }
 }
@@ -15,9 +15,11 @@ import java.time.Duration;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 public final class ResolverKeys {
     private static final Map<String, ResolverKey<?>> RESOLVER_KEYS = new HashMap<>();
+    private static final Map<String, ResolverKey<Object>> STAT_KEYS = new ConcurrentHashMap<>();
     
     public static final ResolverKey<Arena> ARENA = register("arena", Arena.class);
     public static final ResolverKey<Integer> ALIVE_PLAYERS = register("alive-players", Integer.class);
@@ -62,6 +64,17 @@ public final class ResolverKeys {
         return key;
     }
 
+    /**
+     * Gets the key the value of the given stat is resolved by. The
+     * key is only created once per stat.
+     *
+     * @param stat the stat to get the key for
+     * @return the key for the stat
+     */
+    public static ResolverKey<Object> stat(ArenaStat<?> stat) {
+        return STAT_KEYS.computeIfAbsent(stat.getKey(), key -> ResolverKey.create("stat_" + key, Object.class));
+    }
+
     @SuppressWarnings("unchecked")
     public static <T> ResolverKey<T> get(String name) {
         return (ResolverKey<T>) RESOLVER_KEYS.get(name);
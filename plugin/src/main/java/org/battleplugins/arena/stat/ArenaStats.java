@@ -2,12 +2,19 @@ package org.battleplugins.arena.stat;
 
 import org.jetbrains.annotations.Nullable;
 
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
 public final class ArenaStats {
     private static final Map<String, ArenaStat<?>> STATS = new HashMap<>();
+    private static final Map<ArenaStat<?>, Integer> ORDINALS = new IdentityHashMap<>();
+    private static final List<ArenaStat<?>> ORDERED_STATS = new ArrayList<>();
+
+    private static Set<ArenaStat<?>> values = Set.of();
 
     public static final ArenaStat<Integer> DEATHS = register(new SimpleArenaStat<>("deaths", "Deaths", 0, Integer.class));
     public static final ArenaStat<Integer> LIVES = register(new SimpleArenaStat<>("lives", "Lives", 1, Integer.class));
@@ -18,6 +25,11 @@ public final class ArenaStats {
 
     public static <T extends ArenaStat<?>> T register(T stat) {
         STATS.put(stat.getKey(), stat);
+        if (ORDINALS.putIfAbsent(stat, ORDERED_STATS.size()) == null) {
+            ORDERED_STATS.add(stat);
+        }
+
+        values = Set.copyOf(STATS.values());
         return stat;
     }
 
@@ -27,6 +39,28 @@ public final class ArenaStats {
     }
 
     public static Set<ArenaStat<?>> values() {
-        return Set.copyOf(STATS.values());
+        return values;
+    }
+
+    /**
+     * Gets the ordinal of the given stat, which stays the same
+     * for as long as the server is running.
+     *
+     * @param stat the stat to get the ordinal of
+     * @return the ordinal of the stat, or -1 if it was never registered
+     */
+    public static int ordinal(ArenaStat<?> stat) {
+        Integer ordinal = ORDINALS.get(stat);
+        return ordinal == null ? -1 : ordinal;
+    }
+
+    /**
+     * Gets the stat with the given ordinal.
+     *
+     * @param ordinal the ordinal of the stat
+     * @return the stat with the given ordinal
+     */
+    public static ArenaStat<?> byOrdinal(int ordinal) {
+        return ORDERED_STATS.get(ordinal);
     }
 }
@@ -0,0 +1,250 @@
+package org.battleplugins.arena.stat;
+
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.BiConsumer;
+
+/**
+ * Stores the values of {@link ArenaStat}s for a {@link StatHolder}.
+ * <p>
+ * Integer and double stats registered in {@link ArenaStats} are stored
+ * unboxed in arrays indexed by the ordinal of the stat, so reading and
+ * updating them does not go through a map or allocate. Stats of any other
+ * type, or stats which were never registered, are kept in a map instead.
+ */
+public final class StatValues {
+    private int[] ints = new int[0];
+    private double[] doubles = new double[0];
+    private boolean[] present = new boolean[0];
+
+    private final Map<ArenaStat<?>, Object> objects = new HashMap<>();
+
+    // Incremented whenever a stat without a value is given one
+    private int version;
+
+    /**
+     * Sets every registered stat to its default value.
+     */
+    public void setDefaults() {
+        for (ArenaStat<?> stat : ArenaStats.values()) {
+            this.setDefault(stat);
+        }
+    }
+
+    /**
+     * Gets whether a value is set for the given stat.
+     *
+     * @param stat the stat
+     * @return whether a value is set for the stat
+     */
+    public boolean has(ArenaStat<?> stat) {
+        int ordinal = denseOrdinal(stat);
+        if (ordinal == -1) {
+            return this.objects.containsKey(stat);
+        }
+
+        return ordinal < this.present.length && this.present[ordinal];
+    }
+
+    /**
+     * Gets the value of the given stat.
+     *
+     * @param stat the stat
+     * @param <T> the type of the stat
+     * @return the value of the stat, or null if it is not set
+     */
+    @Nullable
+    @SuppressWarnings("unchecked")
+    public <T> T get(ArenaStat<T> stat) {
+        int ordinal = denseOrdinal(stat);
+        if (ordinal == -1) {
+            return (T) this.objects.get(stat);
+        }
+
+        if (ordinal >= this.present.length || !this.present[ordinal]) {
+            return null;
+        }
+
+        return stat.getType() == Integer.class ? (T) Integer.valueOf(this.ints[ordinal]) : (T) Double.valueOf(this.doubles[ordinal]);
+    }
+
+    /**
+     * Sets the value of the given stat.
+     *
+     * @param stat the stat
+     * @param value the value of the stat, or null to unset it
+     * @param <T> the type of the stat
+     */
+    public <T> void set(ArenaStat<T> stat, @Nullable T value) {
+        int ordinal = denseOrdinal(stat);
+        if (ordinal == -1) {
+            if (value == null) {
+                this.objects.remove(stat);
+            } else if (this.objects.put(stat, value) == null) {
+                this.version++;
+            }
+
+            return;
+        }
+
+        if (value == null) {
+            if (ordinal < this.present.length) {
+                this.present[ordinal] = false;
+            }
+
+            return;
+        }
+
+        this.ensureCapacity(ordinal);
+        this.markPresent(ordinal);
+        if (stat.getType() == Integer.class) {
+            this.ints[ordinal] = ((Number) value).intValue();
+        } else {
+            this.doubles[ordinal] = ((Number) value).doubleValue();
+        }
+    }
+
+    /**
+     * Gets the value of the given integer stat.
+     *
+     * @param stat the stat
+     * @return the value of the stat, or its default value if it is not set
+     */
+    public int getInt(ArenaStat<Integer> stat) {
+        int ordinal = denseOrdinal(stat);
+        if (ordinal != -1 && ordinal < this.present.length && this.present[ordinal]) {
+            return this.ints[ordinal];
+        }
+
+        Integer value = ordinal == -1 ? (Integer) this.objects.get(stat) : null;
+        return value == null ? stat.getDefaultValue() : value;
+    }
+
+    /**
+     * Sets the value of the given integer stat.
+     *
+     * @param stat the stat
+     * @param value the value of the stat
+     */
+    public void setInt(ArenaStat<Integer> stat, int value) {
+        int ordinal = denseOrdinal(stat);
+        if (ordinal == -1) {
+            if (this.objects.put(stat, value) == null) {
+                this.version++;
+            }
+
+            return;
+        }
+
+        this.ensureCapacity(ordinal);
+        this.ints[ordinal] = value;
+        this.markPresent(ordinal);
+    }
+
+    /**
+     * Gets the value of the given double stat.
+     *
+     * @param stat the stat
+     * @return the value of the stat, or its default value if it is not set
+     */
+    public double getDouble(ArenaStat<Double> stat) {
+        int ordinal = denseOrdinal(stat);
+        if (ordinal != -1 && ordinal < this.present.length && this.present[ordinal]) {
+            return this.doubles[ordinal];
+        }
+
+        Double value = ordinal == -1 ? (Double) this.objects.get(stat) : null;
+        return value == null ? stat.getDefaultValue() : value;
+    }
+
+    /**
+     * Sets the value of the given double stat.
+     *
+     * @param stat the stat
+     * @param value the value of the stat
+     */
+    public void setDouble(ArenaStat<Double> stat, double value) {
+        int ordinal = denseOrdinal(stat);
+        if (ordinal == -1) {
+            if (this.objects.put(stat, value) == null) {
+                this.version++;
+            }
+
+            return;
+        }
+
+        this.ensureCapacity(ordinal);
+        this.doubles[ordinal] = value;
+        this.markPresent(ordinal);
+    }
+
+    /**
+     * Gets a counter which changes whenever a stat without a value is
+     * given one, so anything built from the set of stats with a value can
+     * tell when it has to be rebuilt.
+     *
+     * @return the version of the set of stats with a value
+     */
+    public int getVersion() {
+        return this.version;
+    }
+
+    /**
+     * Unsets every stat.
+     */
+    public void clear() {
+        Arrays.fill(this.present, false);
+        this.objects.clear();
+    }
+
+    /**
+     * Calls the given consumer for every stat which is set.
+     *
+     * @param consumer the consumer to call with each stat and its value
+     */
+    public void forEach(BiConsumer<ArenaStat<?>, Object> consumer) {
+        for (int ordinal = 0; ordinal < this.present.length; ordinal++) {
+            if (this.present[ordinal]) {
+                ArenaStat<?> stat = ArenaStats.byOrdinal(ordinal);
+                consumer.accept(stat, this.get(stat));
+            }
+        }
+
+        this.objects.forEach(consumer);
+    }
+
+    private <T> void setDefault(ArenaStat<T> stat) {
+        this.set(stat, stat.getDefaultValue());
+    }
+
+    private void markPresent(int ordinal) {
+        if (!this.present[ordinal]) {
+            this.present[ordinal] = true;
+            this.version++;
+        }
+    }
+
+    private void ensureCapacity(int ordinal) {
+        if (ordinal < this.present.length) {
+            return;
+        }
+
+        // Stats may be registered after values have been stored
+        int length = Math.max(ordinal + 1, this.present.length * 2);
+        this.ints = Arrays.copyOf(this.ints, length);
+        this.doubles = Arrays.copyOf(this.doubles, length);
+        this.present = Arrays.copyOf(this.present, length);
+    }
+
+    private static int denseOrdinal(ArenaStat<?> stat) {
+        Class<?> type = stat.getType();
+        if (type != Integer.class && type != Double.class) {
+            return -1;
+        }
+
+        return ArenaStats.ordinal(stat);
+    }
+}
@@ -0,0 +1,104 @@
+package org.battleplugins.arena.stat.store;
+
+import org.bukkit.configuration.ConfigurationSection;
+import org.bukkit.configuration.InvalidConfigurationException;
+import org.bukkit.configuration.file.YamlConfiguration;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * A {@link StatStore} which keeps the stats of each player
+ * in their own file, in the plugin data folder.
+ */
+public class FileStatStore implements StatStore {
+    private final Path directory;
+
+    public FileStatStore(Path directory) {
+        this.directory = directory;
+    }
+
+    @Override
+    public Map<String, Map<String, Double>> load(UUID player) throws IOException {
+        YamlConfiguration config = this.read(player);
+
+        Map<String, Map<String, Double>> stats = new HashMap<>();
+        for (String arena : config.getKeys(false)) {
+            ConfigurationSection section = config.getConfigurationSection(arena);
+            if (section == null) {
+                continue;
+            }
+
+            Map<String, Double> arenaStats = new HashMap<>();
+            for (String stat : section.getKeys(false)) {
+                arenaStats.put(stat, section.getDouble(stat));
+            }
+
+            stats.put(arena, arenaStats);
+        }
+
+        return stats;
+    }
+
+    @Override
+    public void save(Map<StatKey, Double> deltas) throws IOException {
+        Map<UUID, Map<StatKey, Double>> byPlayer = new HashMap<>();
+        deltas.forEach((key, delta) -> byPlayer.computeIfAbsent(key.player(), k -> new HashMap<>()).put(key, delta));
+
+        Files.createDirectories(this.directory);
+
+        // Each file is replaced atomically, so the deltas of every player written so far are saved
+        Set<StatKey> saved = new HashSet<>();
+        for (Map.Entry<UUID, Map<StatKey, Double>> entry : byPlayer.entrySet()) {
+            try {
+                this.save(entry.getKey(), entry.getValue());
+            } catch (IOException e) {
+                throw new StatSaveException("Failed to save stats for " + entry.getKey(), e, saved);
+            }
+
+            saved.addAll(entry.getValue().keySet());
+        }
+    }
+
+    private void save(UUID player, Map<StatKey, Double> deltas) throws IOException {
+        YamlConfiguration config = this.read(player);
+        for (Map.Entry<StatKey, Double> delta : deltas.entrySet()) {
+            String path = delta.getKey().arena() + "." + delta.getKey().stat();
+            config.set(path, config.getDouble(path) + delta.getValue());
+        }
+
+        // Write to a temporary file first so a crash never leaves a half written file behind
+        Path file = this.file(player);
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        Files.writeString(temp, config.saveToString());
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private YamlConfiguration read(UUID player) throws IOException {
+        YamlConfiguration config = new YamlConfiguration();
+
+        Path file = this.file(player);
+        if (Files.notExists(file)) {
+            return config;
+        }
+
+        try {
+            config.loadFromString(Files.readString(file));
+        } catch (InvalidConfigurationException e) {
+            throw new IOException("Invalid stats file " + file, e);
+        }
+
+        return config;
+    }
+
+    private Path file(UUID player) {
+        return this.directory.resolve(player + ".yml");
+    }
+}
@@ -0,0 +1,87 @@
+package org.battleplugins.arena.stat.store;
+
+import org.battleplugins.arena.BattleArenaConfig;
+import redis.clients.jedis.Jedis;
+import redis.clients.jedis.JedisPool;
+import redis.clients.jedis.JedisPoolConfig;
+import redis.clients.jedis.Transaction;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * A {@link StatStore} which keeps stats in Redis, using the
+ * same connection settings as proxy messaging.
+ * <p>
+ * The stats of each player are kept in a single hash, with a
+ * field for every arena and stat pair. Each batch of deltas is
+ * applied in a single transaction, so it is saved in full or not at all.
+ */
+public class RedisStatStore implements StatStore {
+    private final JedisPool pool;
+    private final String prefix;
+
+    public RedisStatStore(BattleArenaConfig config, String prefix) {
+        JedisPoolConfig poolConfig = new JedisPoolConfig();
+        poolConfig.setMaxTotal(2);
+        poolConfig.setMaxIdle(2);
+        poolConfig.setMinIdle(0);
+
+        String password = config.getRedisPassword() == null || config.getRedisPassword().isEmpty() ? null : config.getRedisPassword();
+        this.pool = new JedisPool(poolConfig, config.getRedisHost(), config.getRedisPort(), 2000, password, config.getRedisDatabase());
+        this.prefix = prefix;
+    }
+
+    @Override
+    public Map<String, Map<String, Double>> load(UUID player) throws IOException {
+        Map<String, String> fields;
+        try (Jedis jedis = this.pool.getResource()) {
+            fields = jedis.hgetAll(this.key(player));
+        } catch (Exception e) {
+            throw new IOException("Failed to load stats for " + player, e);
+        }
+
+        Map<String, Map<String, Double>> stats = new HashMap<>();
+        for (Map.Entry<String, String> entry : fields.entrySet()) {
+            // Stat keys cannot contain a colon, but arena names might
+            int separator = entry.getKey().lastIndexOf(':');
+            if (separator == -1) {
+                continue;
+            }
+
+            try {
+                stats.computeIfAbsent(entry.getKey().substring(0, separator), k -> new HashMap<>())
+                        .put(entry.getKey().substring(separator + 1), Double.parseDouble(entry.getValue()));
+            } catch (NumberFormatException ignored) {
+            }
+        }
+
+        return stats;
+    }
+
+    @Override
+    public void save(Map<StatKey, Double> deltas) throws IOException {
+        try (Jedis jedis = this.pool.getResource()) {
+            Transaction transaction = jedis.multi();
+            for (Map.Entry<StatKey, Double> entry : deltas.entrySet()) {
+                StatKey key = entry.getKey();
+                transaction.hincrByFloat(this.key(key.player()), key.arena() + ":" + key.stat(), entry.getValue());
+            }
+
+            transaction.exec();
+        } catch (Exception e) {
+            throw new IOException("Failed to save " + deltas.size() + " stats", e);
+        }
+    }
+
+    @Override
+    public void close() {
+        this.pool.close();
+    }
+
+    private String key(UUID player) {
+        return this.prefix + ":" + player;
+    }
+}
@@ -0,0 +1,144 @@
+package org.battleplugins.arena.stat.store;
+
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * A {@link StatStore} which keeps stats in a SQL database
+ * reached through JDBC, such as MySQL or SQLite.
+ * <p>
+ * Every value is a row keyed by player, arena and stat. Deltas are
+ * applied as increments, so several servers can share the same table.
+ */
+public class SqlStatStore implements StatStore {
+    private final String url;
+    private final String username;
+    private final String password;
+    private final String table;
+
+    private Connection connection;
+
+    public SqlStatStore(String url, String username, String password, String table) {
+        this.url = url;
+        this.username = username;
+        this.password = password;
+        this.table = table;
+    }
+
+    @Override
+    public Map<String, Map<String, Double>> load(UUID player) throws IOException {
+        try (PreparedStatement statement = this.connection().prepareStatement("SELECT arena, stat, value FROM " + this.table + " WHERE player = ?")) {
+            statement.setString(1, player.toString());
+
+            Map<String, Map<String, Double>> stats = new HashMap<>();
+            try (ResultSet result = statement.executeQuery()) {
+                while (result.next()) {
+                    stats.computeIfAbsent(result.getString(1), k -> new HashMap<>()).put(result.getString(2), result.getDouble(3));
+                }
+            }
+
+            return stats;
+        } catch (SQLException e) {
+            this.closeConnection();
+            throw new IOException("Failed to load stats for " + player, e);
+        }
+    }
+
+    @Override
+    public void save(Map<StatKey, Double> deltas) throws IOException {
+        try {
+            Connection connection = this.connection();
+            connection.setAutoCommit(false);
+            try (PreparedStatement update = connection.prepareStatement("UPDATE " + this.table + " SET value = value + ? WHERE player = ? AND arena = ? AND stat = ?");
+                 PreparedStatement insert = connection.prepareStatement("INSERT INTO " + this.table + " (player, arena, stat, value) VALUES (?, ?, ?, ?)")) {
+                // Update and insert are used rather than an upsert since the syntax for it differs between databases
+                List<StatKey> keys = new ArrayList<>(deltas.keySet());
+                for (StatKey key : keys) {
+                    update.setDouble(1, deltas.get(key));
+                    update.setString(2, key.player().toString());
+                    update.setString(3, key.arena());
+                    update.setString(4, key.stat());
+                    update.addBatch();
+                }
+
+                int[] updated = update.executeBatch();
+                boolean inserting = false;
+                for (int i = 0; i < updated.length; i++) {
+                    if (updated[i] != 0) {
+                        continue;
+                    }
+
+                    StatKey key = keys.get(i);
+                    insert.setString(1, key.player().toString());
+                    insert.setString(2, key.arena());
+                    insert.setString(3, key.stat());
+                    insert.setDouble(4, deltas.get(key));
+                    insert.addBatch();
+                    inserting = true;
+                }
+
+                if (inserting) {
+                    insert.executeBatch();
+                }
+
+                connection.commit();
+            } catch (SQLException e) {
+                connection.rollback();
+                throw e;
+            } finally {
+                connection.setAutoCommit(true);
+            }
+        } catch (SQLException e) {
+            this.closeConnection();
+            throw new IOException("Failed to save " + deltas.size() + " stats", e);
+        }
+    }
+
+    @Override
+    public void close() {
+        this.closeConnection();
+    }
+
+    private Connection connection() throws SQLException {
+        if (this.connection != null && this.connection.isValid(2)) {
+            return this.connection;
+        }
+
+        this.closeConnection();
+        this.connection = DriverManager.getConnection(this.url, this.username, this.password);
+        try (Statement statement = this.connection.createStatement()) {
+            statement.executeUpdate("CREATE TABLE IF NOT EXISTS " + this.table + " ("
+                    + "player CHAR(36) NOT NULL, "
+                    + "arena VARCHAR(64) NOT NULL, "
+                    + "stat VARCHAR(64) NOT NULL, "
+                    + "value DOUBLE NOT NULL, "
+                    + "PRIMARY KEY (player, arena, stat))"
+            );
+        }
+
+        return this.connection;
+    }
+
+    private void closeConnection() {
+        if (this.connection == null) {
+            return;
+        }
+
+        try {
+            this.connection.close();
+        } catch (SQLException ignored) {
+        }
+
+        this.connection = null;
+    }
+}
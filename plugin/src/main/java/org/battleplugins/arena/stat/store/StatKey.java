@@ -0,0 +1,13 @@
+package org.battleplugins.arena.stat.store;
+
+import java.util.UUID;
+
+/**
+ * Identifies a single persisted stat value.
+ *
+ * @param player the unique id of the player the value belongs to
+ * @param arena the name of the arena the value was earned in
+ * @param stat the key of the stat
+ */
+public record StatKey(UUID player, String arena, String stat) {
+}
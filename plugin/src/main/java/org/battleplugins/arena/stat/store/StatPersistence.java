@@ -0,0 +1,365 @@
+package org.battleplugins.arena.stat.store;
+
+import org.battleplugins.arena.ArenaPlayer;
+import org.battleplugins.arena.BattleArena;
+import org.battleplugins.arena.BattleArenaConfig;
+import org.battleplugins.arena.stat.ArenaStat;
+import org.battleplugins.arena.stat.ArenaStats;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Persists the lifetime stats of players to a {@link StatStore}.
+ * <p>
+ * When a player's stats are reset or they leave a competition, the change of
+ * every tracked stat since they joined is recorded. Changes are measured from the
+ * values which were last recorded for the player, so recording a player twice
+ * never counts the same change twice. Recorded changes are held in
+ * memory and coalesced by player, arena and stat, then written to the store in
+ * batches from a single worker thread, so storage is never accessed from the
+ * main thread. The number of distinct pending changes is bounded, so an
+ * unavailable store cannot use up an unbounded amount of memory.
+ * <p>
+ * Stats read back for commands and placeholders are loaded on the worker
+ * thread and kept in a least recently used cache. Cached stats include any
+ * changes which have not been written yet.
+ */
+public class StatPersistence {
+    private final BattleArena plugin;
+    private final StatStore store;
+    private final List<String> trackedStats;
+    private final int batchSize;
+    private final int maxPendingWrites;
+
+    private final ScheduledExecutorService executor;
+
+    // Guards the pending changes, cache and loading state, which are shared
+    // between the main thread and the worker thread
+    private final Object lock = new Object();
+    private final Map<UUID, Map<String, Map<String, Double>>> cache;
+    private final Map<UUID, CompletableFuture<Map<String, Map<String, Double>>>> loading = new HashMap<>();
+    private Map<StatKey, Double> pending = new HashMap<>();
+    private boolean flushQueued;
+    private int dropped;
+
+    public StatPersistence(BattleArena plugin, StatStore store, BattleArenaConfig config) {
+        this.plugin = plugin;
+        this.store = store;
+        this.trackedStats = config.getTrackedStats();
+        this.batchSize = Math.max(1, config.getStatsBatchSize());
+        this.maxPendingWrites = Math.max(this.batchSize, config.getStatsMaxPendingWrites());
+
+        int cacheSize = Math.max(0, config.getStatsCacheSize());
+        this.cache = new LinkedHashMap<>(16, 0.75f, true) {
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<UUID, Map<String, Map<String, Double>>> eldest) {
+                return this.size() > cacheSize;
+            }
+        };
+
+        this.executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "BattleArena-Stats");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        long interval = Math.max(1, config.getStatsFlushInterval());
+        this.executor.scheduleWithFixedDelay(this::flush, interval, interval, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Creates the stat persistence using the store
+     * configured in the given config.
+     *
+     * @param plugin the plugin
+     * @param config the config
+     * @return the stat persistence
+     */
+    public static StatPersistence create(BattleArena plugin, BattleArenaConfig config) {
+        StatStore store = switch (config.getStatsStorage().toLowerCase(Locale.ROOT)) {
+            case "sql" -> new SqlStatStore(config.getStatsSqlUrl(), config.getStatsSqlUsername(), config.getStatsSqlPassword(), config.getStatsSqlTable());
+            case "redis" -> new RedisStatStore(config, config.getStatsRedisPrefix());
+            case "file" -> new FileStatStore(plugin.getDataFolder().toPath().resolve("stats"));
+            default -> {
+                plugin.warn("Unknown stats storage {}, falling back to file storage.", config.getStatsStorage());
+                yield new FileStatStore(plugin.getDataFolder().toPath().resolve("stats"));
+            }
+        };
+
+        return new StatPersistence(plugin, store, config);
+    }
+
+    /**
+     * Records the change of every tracked stat of the given
+     * player since their stats were last recorded.
+     *
+     * @param player the player to record the stats of
+     */
+    public void record(ArenaPlayer player) {
+        UUID uuid = player.getPlayer().getUniqueId();
+        String arena = player.getArena().getName();
+
+        RecordedStats recorded = player.getMetadata(RecordedStats.class);
+        Map<String, Double> values = new HashMap<>();
+        Map<StatKey, Double> deltas = new HashMap<>();
+        for (String key : this.trackedStats) {
+            ArenaStat<?> stat = ArenaStats.get(key);
+            if (stat == null || !(player.getStat(stat) instanceof Number value)) {
+                continue;
+            }
+
+            double delta = value.doubleValue() - (recorded == null ? defaultValue(stat) : recorded.value(stat));
+            values.put(stat.getKey(), value.doubleValue());
+            if (delta != 0) {
+                deltas.put(new StatKey(uuid, arena, stat.getKey()), delta);
+            }
+        }
+
+        player.setMetadata(RecordedStats.class, new RecordedStats(values));
+        if (deltas.isEmpty()) {
+            return;
+        }
+
+        boolean flush;
+        synchronized (this.lock) {
+            deltas.forEach(this::add);
+
+            flush = !this.flushQueued && this.pending.size() >= this.batchSize;
+            if (flush) {
+                this.flushQueued = true;
+            }
+        }
+
+        if (flush) {
+            this.executor.execute(this::flush);
+        }
+    }
+
+    /**
+     * Records the stats of the given player before they are
+     * reset to their default values.
+     *
+     * @param player the player whose stats are about to be reset
+     */
+    public void recordBeforeReset(ArenaPlayer player) {
+        this.record(player);
+
+        // Changes after the reset are measured from the default values again
+        player.removeMetadata(RecordedStats.class);
+    }
+
+    /**
+     * Gets the lifetime stats of the given player, loading
+     * them from the store if they are not cached.
+     * <p>
+     * The returned future may be completed off the main thread.
+     *
+     * @param player the unique id of the player
+     * @return the stats of the player, keyed by arena and then by stat
+     */
+    public CompletableFuture<Map<String, Map<String, Double>>> getStats(UUID player) {
+        synchronized (this.lock) {
+            Map<String, Map<String, Double>> stats = this.cache.get(player);
+            if (stats != null) {
+                return CompletableFuture.completedFuture(copy(stats));
+            }
+
+            return this.load(player);
+        }
+    }
+
+    /**
+     * Gets a lifetime stat of the given player if their stats are cached,
+     * starting to load them in the background otherwise.
+     *
+     * @param player the unique id of the player
+     * @param arena the name of the arena
+     * @param stat the key of the stat
+     * @return the value of the stat, or null if the stats of the player are not cached
+     */
+    @Nullable
+    public Double getCachedStat(UUID player, String arena, String stat) {
+        synchronized (this.lock) {
+            Map<String, Map<String, Double>> stats = this.cache.get(player);
+            if (stats == null) {
+                this.load(player);
+                return null;
+            }
+
+            return stats.getOrDefault(arena, Map.of()).getOrDefault(stat, 0.0);
+        }
+    }
+
+    /**
+     * Removes the stats of the given player from the cache, so
+     * they are loaded from the store again the next time they are read.
+     *
+     * @param player the unique id of the player
+     */
+    public void invalidate(UUID player) {
+        synchronized (this.lock) {
+            this.cache.remove(player);
+        }
+    }
+
+    /**
+     * Writes every pending change to the store and stops the worker thread.
+     */
+    public void shutdown() {
+        this.executor.shutdown();
+        try {
+            if (!this.executor.awaitTermination(10, TimeUnit.SECONDS)) {
+                this.plugin.warn("Timed out waiting for pending stat writes to finish.");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        // Anything recorded after the last scheduled flush. The worker has stopped by
+        // now, so this is written from the calling thread while the plugin shuts down
+        this.flush();
+
+        try {
+            this.store.close();
+        } catch (IOException e) {
+            this.plugin.error("Failed to close stats storage", e);
+        }
+    }
+
+    private void add(StatKey key, double delta) {
+        if (!this.pending.containsKey(key) && this.pending.size() >= this.maxPendingWrites) {
+            this.dropped++;
+            return;
+        }
+
+        this.pending.merge(key, delta, Double::sum);
+
+        Map<String, Map<String, Double>> cached = this.cache.get(key.player());
+        if (cached != null) {
+            cached.computeIfAbsent(key.arena(), k -> new HashMap<>()).merge(key.stat(), delta, Double::sum);
+        }
+    }
+
+    private CompletableFuture<Map<String, Map<String, Double>>> load(UUID player) {
+        CompletableFuture<Map<String, Map<String, Double>>> future = this.loading.get(player);
+        if (future != null) {
+            return future;
+        }
+
+        CompletableFuture<Map<String, Map<String, Double>>> loadFuture = new CompletableFuture<>();
+        this.loading.put(player, loadFuture);
+        this.executor.execute(() -> {
+            try {
+                Map<String, Map<String, Double>> stats = this.store.load(player);
+                Map<String, Map<String, Double>> loaded;
+                synchronized (this.lock) {
+                    // Changes which have not been written yet are not in the store. Writes
+                    // happen on this thread, so none can be in progress at the same time
+                    for (Map.Entry<StatKey, Double> entry : this.pending.entrySet()) {
+                        StatKey key = entry.getKey();
+                        if (key.player().equals(player)) {
+                            stats.computeIfAbsent(key.arena(), k -> new HashMap<>()).merge(key.stat(), entry.getValue(), Double::sum);
+                        }
+                    }
+
+                    this.loading.remove(player);
+                    this.cache.put(player, stats);
+                    loaded = copy(stats);
+                }
+
+                loadFuture.complete(loaded);
+            } catch (Throwable e) {
+                synchronized (this.lock) {
+                    this.loading.remove(player);
+                }
+
+                this.plugin.warn("Failed to load stats for {}: {}", player, e.getMessage());
+                loadFuture.completeExceptionally(e);
+            }
+        });
+
+        return loadFuture;
+    }
+
+    private void flush() {
+        Map<StatKey, Double> writing;
+        int dropped;
+        synchronized (this.lock) {
+            this.flushQueued = false;
+
+            writing = this.pending;
+            dropped = this.dropped;
+            this.pending = new HashMap<>();
+            this.dropped = 0;
+        }
+
+        if (dropped > 0) {
+            this.plugin.warn("Dropped {} stat changes as {} changes were already waiting to be saved.", dropped, this.maxPendingWrites);
+        }
+
+        List<Map.Entry<StatKey, Double>> entries = new ArrayList<>(writing.entrySet());
+        for (int start = 0; start < entries.size(); start += this.batchSize) {
+            Map<StatKey, Double> batch = new HashMap<>();
+            for (Map.Entry<StatKey, Double> entry : entries.subList(start, Math.min(entries.size(), start + this.batchSize))) {
+                batch.put(entry.getKey(), entry.getValue());
+            }
+
+            try {
+                this.store.save(batch);
+            } catch (Throwable e) {
+                this.plugin.warn("Failed to save stats, retrying later: {}", e.getMessage());
+
+                // Put everything which was not saved back, so it is retried on the next flush.
+                // Deltas the store did save must not be applied again.
+                Set<StatKey> saved = e instanceof StatSaveException saveException ? saveException.getSaved() : Set.of();
+                synchronized (this.lock) {
+                    Iterator<Map.Entry<StatKey, Double>> iterator = entries.listIterator(start);
+                    while (iterator.hasNext()) {
+                        Map.Entry<StatKey, Double> entry = iterator.next();
+                        if (!saved.contains(entry.getKey())) {
+                            this.pending.merge(entry.getKey(), entry.getValue(), Double::sum);
+                        }
+                    }
+                }
+
+                return;
+            }
+        }
+    }
+
+    private static double defaultValue(ArenaStat<?> stat) {
+        return stat.getDefaultValue() instanceof Number number ? number.doubleValue() : 0;
+    }
+
+    private static Map<String, Map<String, Double>> copy(Map<String, Map<String, Double>> stats) {
+        Map<String, Map<String, Double>> copy = new HashMap<>(stats.size());
+        stats.forEach((arena, values) -> copy.put(arena, Map.copyOf(values)));
+        return Map.copyOf(copy);
+    }
+
+    /**
+     * The values of the stats of a player when they were last recorded.
+     */
+    private record RecordedStats(Map<String, Double> values) {
+
+        double value(ArenaStat<?> stat) {
+            Double value = this.values.get(stat.getKey());
+            return value == null ? defaultValue(stat) : value;
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package org.battleplugins.arena.stat.store;
+
+import java.io.IOException;
+import java.util.Set;
+
+/**
+ * Thrown by a {@link StatStore} when only some of the deltas of a
+ * batch could be saved.
+ */
+public class StatSaveException extends IOException {
+    private final Set<StatKey> saved;
+
+    public StatSaveException(String message, Throwable cause, Set<StatKey> saved) {
+        super(message, cause);
+        this.saved = Set.copyOf(saved);
+    }
+
+    /**
+     * Gets the keys of the deltas which were saved
+     * before the store failed.
+     *
+     * @return the keys of the saved deltas
+     */
+    public Set<StatKey> getSaved() {
+        return this.saved;
+    }
+}
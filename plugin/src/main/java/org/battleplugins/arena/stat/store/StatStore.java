@@ -0,0 +1,42 @@
+package org.battleplugins.arena.stat.store;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * A backend which persists the lifetime stats of players.
+ * <p>
+ * Stores are only ever called from the {@link StatPersistence} worker
+ * thread, so implementations may block but do not need to be thread safe.
+ */
+public interface StatStore extends Closeable {
+
+    /**
+     * Loads every stored stat of the given player.
+     *
+     * @param player the unique id of the player
+     * @return the stat values of the player, keyed by arena and then by stat
+     * @throws IOException if the stats could not be loaded
+     */
+    Map<String, Map<String, Double>> load(UUID player) throws IOException;
+
+    /**
+     * Adds the given deltas to the stored stat values,
+     * treating missing values as zero.
+     *
+     * <p>
+     * If saving fails, either none of the deltas may have been saved,
+     * or a {@link StatSaveException} must tell which of them were, since
+     * the deltas which were not saved are retried later.
+     *
+     * @param deltas the amount to add to each stat
+     * @throws IOException if the deltas could not be saved
+     */
+    void save(Map<StatKey, Double> deltas) throws IOException;
+
+    @Override
+    default void close() throws IOException {
+    }
+}
@@ -5,10 +5,7 @@ import com.sk89q.worldedit.EditSession;
 import com.sk89q.worldedit.WorldEdit;
 import com.sk89q.worldedit.WorldEditException;
 import com.sk89q.worldedit.bukkit.BukkitAdapter;
-import com.sk89q.worldedit.extent.clipboard.Clipboard;
 import com.sk89q.worldedit.extent.clipboard.io.BuiltInClipboardFormat;
-import com.sk89q.worldedit.extent.clipboard.io.ClipboardFormats;
-import com.sk89q.worldedit.extent.clipboard.io.ClipboardReader;
 import com.sk89q.worldedit.function.operation.ForwardExtentCopy;
 import com.sk89q.worldedit.function.operation.Operation;
 import com.sk89q.worldedit.function.operation.Operations;
@@ -99,6 +96,11 @@ public final class BlockUtil {
 
 
     public static void runOperationSliced(Plugin plugin, Operation op, long nanosPerTick, Runnable onComplete) {
+        runOperationSliced(plugin, op, nanosPerTick, onComplete, null);
+    }
+
+    // onFailure is run instead of onComplete if the operation fails part way through
+    public static void runOperationSliced(Plugin plugin, Operation op, long nanosPerTick, Runnable onComplete, Runnable onFailure) {
         final Operation[] cur = { op };
         new BukkitRunnable() {
             @Override public void run() {
@@ -114,6 +116,7 @@ public final class BlockUtil {
                 } catch (WorldEditException ex) {
                     BattleArena.getInstance().error("WorldEdit operation failed while copying", ex);
                     cancel();
+                    if (onFailure != null) onFailure.run();
                 }
             }
         }.runTaskTimer(plugin, 1L, 1L);   // run every tick, not every 5 ticks
@@ -124,6 +127,11 @@ public final class BlockUtil {
     }
 
     public static boolean pasteSchematic(String map, String arena, World world, Bounds bounds, Runnable onComplete) {
+        return pasteSchematic(map, arena, world, bounds, onComplete, null);
+    }
+
+    // onFailure is run instead of onComplete if the schematic turns out to be unreadable once the paste was started
+    public static boolean pasteSchematic(String map, String arena, World world, Bounds bounds, Runnable onComplete, Runnable onFailure) {
         final Plugin plugin = BattleArena.getInstance();
 
         Path path = plugin.getDataFolder().toPath()
@@ -148,16 +156,22 @@ public final class BlockUtil {
         final Path schematicPath = path; // effectively final
 
         Bukkit.getScheduler().runTaskAsynchronously(plugin, () -> {
-            Clipboard clipboard;
-            try (ClipboardReader reader = ClipboardFormats.findByFile(schematicPath.toFile())
-                    .getReader(Files.newInputStream(schematicPath))) {
-                clipboard = reader.read();
+            SchematicCache.Lease lease;
+            try {
+                lease = SchematicCache.acquire(schematicPath);
             } catch (IOException ex) {
                 plugin.getLogger().severe("Failed to read schematic: " + ex.getMessage());
+                runOnMainThread(plugin, onFailure);
                 return;
             }
 
-            try (EditSession session = WorldEdit.getInstance()
+            if (lease == null) {
+                plugin.getLogger().severe("Failed to read schematic: unknown format for " + schematicPath);
+                runOnMainThread(plugin, onFailure);
+                return;
+            }
+
+            try (lease; EditSession session = WorldEdit.getInstance()
                     .newEditSessionBuilder()
                     .world(BukkitAdapter.adapt(world))
                     .fastMode(true)
@@ -165,7 +179,7 @@ public final class BlockUtil {
                     .relightMode(RelightMode.OPTIMAL)
                     .build()
             ) {
-                Operation paste = new ClipboardHolder(clipboard)
+                Operation paste = new ClipboardHolder(lease.getClipboard())
                         .createPaste(session)
                         .to(BlockVector3.at(bounds.getMinX(), bounds.getMinY(), bounds.getMinZ()))
                         .ignoreAirBlocks(true)
@@ -187,6 +201,12 @@ public final class BlockUtil {
         return true;
     }
 
+    private static void runOnMainThread(Plugin plugin, Runnable task) {
+        if (task != null) {
+            Bukkit.getScheduler().runTask(plugin, task);
+        }
+    }
+
     public static void unticketRegion(World world, Bounds b, Plugin plugin) {
         int minChunkX = Math.floorDiv(b.getMinX(), 16);
         int minChunkZ = Math.floorDiv(b.getMinZ(), 16);
@@ -0,0 +1,281 @@
+package org.battleplugins.arena.util;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * An append-only log of inventory backups, split across rolling segment files.
+ * <p>
+ * Every record has a header holding the player, timestamp, length and checksum
+ * of its payload, so the log can be replayed without any other state, and a
+ * record which was only partially written can be detected. Records are only
+ * ever appended to the newest segment by a single writer, while any thread
+ * may read records through memory mappings of the segments.
+ */
+final class InventoryBackupLog implements Closeable {
+    static final int HEADER_SIZE = 36;
+
+    private static final int RECORD_MAGIC = 0xBA1B4C06;
+    private static final long MAX_SEGMENT_SIZE = 64L * 1024L * 1024L;
+    private static final String SEGMENT_PREFIX = "segment-";
+    private static final String SEGMENT_SUFFIX = ".log";
+
+    private final Path directory;
+    private final Map<Integer, MappedByteBuffer> mappings = new ConcurrentHashMap<>();
+
+    private FileChannel active;
+    private int activeSegment;
+    private long activeSize;
+
+    InventoryBackupLog(Path directory) {
+        this.directory = directory;
+    }
+
+    /**
+     * Gets the ids of every segment, oldest first.
+     *
+     * @return the ids of every segment
+     * @throws IOException if the segments could not be listed
+     */
+    List<Integer> segments() throws IOException {
+        if (Files.notExists(this.directory)) {
+            return List.of();
+        }
+
+        try (Stream<Path> files = Files.list(this.directory)) {
+            return files.map(path -> path.getFileName().toString())
+                    .filter(name -> name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX))
+                    .map(name -> Integer.parseInt(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length())))
+                    .sorted()
+                    .toList();
+        }
+    }
+
+    /**
+     * Opens the given segment for appending, discarding anything after
+     * the given size, such as a record which was only partially written.
+     *
+     * @param segment the id of the segment
+     * @param size the size of the valid part of the segment
+     * @throws IOException if the segment could not be opened
+     */
+    void openActive(int segment, long size) throws IOException {
+        Files.createDirectories(this.directory);
+        if (this.active != null) {
+            this.active.close();
+        }
+
+        this.active = FileChannel.open(this.path(segment), StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        if (this.active.size() > size) {
+            this.active.truncate(size);
+            this.mappings.remove(segment);
+        }
+
+        this.active.position(size);
+        this.activeSegment = segment;
+        this.activeSize = size;
+    }
+
+    int getActiveSegment() {
+        return this.activeSegment;
+    }
+
+    long getActiveSize() {
+        return this.activeSize;
+    }
+
+    /**
+     * Appends a record to the log, rolling over to a new
+     * segment if the current one is full.
+     *
+     * @param uuid the player the record belongs to
+     * @param timestamp the timestamp of the record
+     * @param payload the payload of the record
+     * @return the location of the record
+     * @throws IOException if the record could not be written
+     */
+    Location append(UUID uuid, long timestamp, byte[] payload) throws IOException {
+        if (this.activeSize > 0 && this.activeSize + HEADER_SIZE + payload.length > MAX_SEGMENT_SIZE) {
+            this.active.force(false);
+            this.openActive(this.activeSegment + 1, 0);
+        }
+
+        CRC32 crc = new CRC32();
+        crc.update(payload);
+
+        ByteBuffer buffer = ByteBuffer.allocate(HEADER_SIZE + payload.length);
+        buffer.putInt(RECORD_MAGIC)
+                .putLong(uuid.getMostSignificantBits())
+                .putLong(uuid.getLeastSignificantBits())
+                .putLong(timestamp)
+                .putInt(payload.length)
+                .putInt((int) crc.getValue())
+                .put(payload)
+                .flip();
+
+        while (buffer.hasRemaining()) {
+            this.active.write(buffer);
+        }
+
+        Location location = new Location(this.activeSegment, this.activeSize, payload.length, timestamp);
+        this.activeSize += buffer.limit();
+        return location;
+    }
+
+    /**
+     * Reads the payload of the record at the given location.
+     *
+     * @param location the location of the record
+     * @return the payload of the record
+     * @throws IOException if the record could not be read
+     */
+    byte[] read(Location location) throws IOException {
+        long end = location.offset() + HEADER_SIZE + location.length();
+
+        MappedByteBuffer mapping = this.mappings.get(location.segment());
+        if (mapping == null || mapping.capacity() < end) {
+            // The newest segment keeps growing, so it is mapped again once a record past its mapping is read
+            try (FileChannel channel = FileChannel.open(this.path(location.segment()), StandardOpenOption.READ)) {
+                mapping = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            }
+
+            this.mappings.put(location.segment(), mapping);
+        }
+
+        if (mapping.capacity() < end) {
+            throw new IOException("Inventory backup record at " + location + " is past the end of its segment");
+        }
+
+        byte[] payload = new byte[location.length()];
+        mapping.get((int) location.offset() + HEADER_SIZE, payload);
+        return payload;
+    }
+
+    /**
+     * Reads every record in the given segment from the given offset,
+     * stopping at the first record which is incomplete or corrupt.
+     *
+     * @param segment the id of the segment
+     * @param offset the offset to start reading from
+     * @param consumer the consumer to call for each record
+     * @return the offset after the last valid record
+     * @throws IOException if the segment could not be read
+     */
+    long scan(int segment, long offset, RecordConsumer consumer) throws IOException {
+        try (FileChannel channel = FileChannel.open(this.path(segment), StandardOpenOption.READ)) {
+            long size = channel.size();
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+            while (offset + HEADER_SIZE <= size) {
+                header.clear();
+                channel.read(header, offset);
+                header.flip();
+
+                if (header.getInt() != RECORD_MAGIC) {
+                    break;
+                }
+
+                UUID uuid = new UUID(header.getLong(), header.getLong());
+                long timestamp = header.getLong();
+                int length = header.getInt();
+                int checksum = header.getInt();
+                if (length < 0 || offset + HEADER_SIZE + length > size) {
+                    break;
+                }
+
+                ByteBuffer payload = ByteBuffer.allocate(length);
+                channel.read(payload, offset + HEADER_SIZE);
+                payload.flip();
+
+                CRC32 crc = new CRC32();
+                crc.update(payload);
+                if ((int) crc.getValue() != checksum) {
+                    break;
+                }
+
+                consumer.accept(uuid, new Location(segment, offset, length, timestamp));
+                offset += HEADER_SIZE + length;
+            }
+
+            return offset;
+        }
+    }
+
+    /**
+     * Gets the size of the given segment.
+     *
+     * @param segment the id of the segment
+     * @return the size of the segment
+     * @throws IOException if the size could not be read
+     */
+    long size(int segment) throws IOException {
+        return segment == this.activeSegment ? this.activeSize : Files.size(this.path(segment));
+    }
+
+    /**
+     * Deletes the given segment.
+     *
+     * @param segment the id of the segment
+     * @throws IOException if the segment could not be deleted
+     */
+    void delete(int segment) throws IOException {
+        this.mappings.remove(segment);
+        Files.deleteIfExists(this.path(segment));
+    }
+
+    /**
+     * Forces everything appended so far to be written to disk.
+     *
+     * @throws IOException if the log could not be written
+     */
+    void force() throws IOException {
+        if (this.active != null) {
+            this.active.force(false);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        this.mappings.clear();
+        if (this.active != null) {
+            this.active.force(false);
+            this.active.close();
+            this.active = null;
+        }
+    }
+
+    private Path path(int segment) {
+        return this.directory.resolve(SEGMENT_PREFIX + String.format("%08d", segment) + SEGMENT_SUFFIX);
+    }
+
+    /**
+     * The location of a record in the log.
+     *
+     * @param segment the id of the segment the record is in
+     * @param offset the offset of the record in the segment
+     * @param length the length of the payload of the record
+     * @param timestamp the timestamp of the record
+     */
+    record Location(int segment, long offset, int length, long timestamp) {
+
+        long size() {
+            return HEADER_SIZE + (long) this.length;
+        }
+    }
+
+    interface RecordConsumer {
+
+        void accept(UUID uuid, Location location) throws IOException;
+    }
+}
@@ -0,0 +1,502 @@
+package org.battleplugins.arena.util;
+
+import org.battleplugins.arena.BattleArena;
+import org.battleplugins.arena.util.InventoryBackupLog.Location;
+import org.bukkit.inventory.ItemStack;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Stores {@link InventoryBackup}s in an {@link InventoryBackupLog} from a
+ * single writer thread.
+ * <p>
+ * Backups are serialized on the calling thread, then compressed and appended
+ * to the log by the writer, so saving a backup never blocks on disk. The
+ * location of every live backup is kept in an in-memory index keyed by player,
+ * which is periodically saved as a snapshot. On startup the snapshot is loaded
+ * and only the records appended after it are replayed from the log.
+ * <p>
+ * Backups beyond the configured maximum are dropped from the index, leaving
+ * dead records in their segment. Once most of a segment is dead, the records
+ * which are still live are copied to the end of the log and the segment is
+ * deleted. Backups saved in the old layout, with a file for every backup,
+ * are migrated to the log in the background the first time the store is
+ * opened, and are read from the old layout until the migration has finished.
+ */
+final class InventoryBackupStore {
+    private static final String LOG_DIRECTORY = "log";
+    private static final String INDEX_FILE = "index";
+    private static final int INDEX_VERSION = 1;
+
+    // The number of records appended between index snapshots
+    private static final int SNAPSHOT_INTERVAL = 256;
+    // Segments with less live data than this are compacted
+    private static final double COMPACTION_THRESHOLD = 0.5;
+
+    private static final Location[] NO_LOCATIONS = new Location[0];
+
+    // Locations of the live backups of every player, newest first
+    private final Map<UUID, Location[]> index = new ConcurrentHashMap<>();
+    private final Map<UUID, List<InventoryBackup>> pending = new ConcurrentHashMap<>();
+
+    // Only accessed from the writer thread, other than reads from the log
+    private final Map<Integer, Long> liveBytes = new HashMap<>();
+    private volatile InventoryBackupLog log;
+    private int unsavedRecords;
+
+    private ExecutorService writer;
+    private CompletableFuture<Void> opened;
+    private volatile boolean migrated;
+    private volatile int maxBackups = 1;
+
+    /**
+     * Opens the store in the background, if it is not open already.
+     *
+     * @param maxBackups the maximum number of backups to keep for each player
+     */
+    synchronized void start(int maxBackups) {
+        this.maxBackups = Math.max(1, maxBackups);
+        if (this.opened != null) {
+            return;
+        }
+
+        this.writer = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "BattleArena Backup Writer");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        this.migrated = false;
+        this.opened = CompletableFuture.runAsync(() -> {
+            try {
+                this.open();
+            } catch (IOException e) {
+                throw new CompletionException(e);
+            }
+        }, this.writer);
+
+        this.opened.exceptionally(e -> {
+            BattleArena.getInstance().error("Failed to open inventory backups", e);
+            return null;
+        });
+
+        // Migrating may take a while, so backups can be loaded from the log while it runs
+        this.opened.thenRunAsync(this::migrate, this.writer);
+    }
+
+    /**
+     * Queues the given backup to be written.
+     *
+     * @param backup the backup to write
+     * @param maxBackups the maximum number of backups to keep for the player
+     */
+    void save(InventoryBackup backup, int maxBackups) {
+        // Items have to be serialized on the calling thread, as they may still be modified afterwards
+        byte[] data = serialize(backup);
+
+        UUID uuid = backup.getUuid();
+        this.pending.computeIfAbsent(uuid, key -> new CopyOnWriteArrayList<>()).add(backup);
+
+        // The store is opened by the first task of the writer, so it is open by the time this runs
+        this.start(maxBackups);
+        this.writer.execute(() -> {
+            try {
+                if (this.log == null) {
+                    throw new IOException("Inventory backups are not open");
+                }
+
+                this.append(uuid, backup.getTimestampMillis(), data);
+                this.compact();
+            } catch (IOException e) {
+                BattleArena.getInstance().error("Failed to save inventory backup for {}", uuid, e);
+            } finally {
+                this.pending.computeIfPresent(uuid, (key, backups) -> {
+                    backups.remove(backup);
+                    return backups.isEmpty() ? null : backups;
+                });
+            }
+        });
+    }
+
+    /**
+     * Loads the backups of the given player, newest first. The items
+     * of backups read from disk are only read when they are requested.
+     *
+     * @param uuid the unique id of the player
+     * @return the backups of the player
+     */
+    List<InventoryBackup> load(UUID uuid) {
+        this.start(BattleArena.getInstance().getMainConfig().getMaxBackups());
+
+        // Normally the store has long been opened by the time backups are requested. Opening
+        // only loads the index of the log, backups in the old layout are migrated afterwards
+        this.opened.exceptionally(e -> null).join();
+
+        List<InventoryBackup> backups = new ArrayList<>(this.pending.getOrDefault(uuid, List.of()));
+        for (Location location : this.index.getOrDefault(uuid, NO_LOCATIONS)) {
+            add(backups, new InventoryBackup(location.timestamp(), uuid, () -> this.readItems(uuid, location.timestamp())));
+        }
+
+        if (!this.migrated) {
+            try {
+                for (InventoryBackup backup : LegacyInventoryBackups.load(this.root(), uuid)) {
+                    add(backups, backup);
+                }
+            } catch (IOException e) {
+                BattleArena.getInstance().error("Failed to load inventory backups for {}", uuid, e);
+            }
+        }
+
+        backups.sort((a, b) -> Long.compare(b.getTimestampMillis(), a.getTimestampMillis()));
+        return backups;
+    }
+
+    /**
+     * Waits for every queued backup to be written, saves
+     * the index and closes the store.
+     */
+    synchronized void flush() {
+        if (this.writer == null) {
+            return;
+        }
+
+        this.writer.execute(() -> {
+            try {
+                if (this.log != null) {
+                    this.saveIndex();
+                    this.log.close();
+                    this.log = null;
+                }
+            } catch (IOException e) {
+                BattleArena.getInstance().error("Failed to save inventory backup index", e);
+            }
+        });
+
+        this.writer.shutdown();
+        try {
+            if (!this.writer.awaitTermination(30, TimeUnit.SECONDS)) {
+                BattleArena.getInstance().warn("Timed out waiting for inventory backups to be saved.");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        this.writer = null;
+        this.opened = null;
+        this.index.clear();
+        this.liveBytes.clear();
+    }
+
+    private void open() throws IOException {
+        Path directory = this.root().resolve(LOG_DIRECTORY);
+        this.log = new InventoryBackupLog(directory);
+        this.index.clear();
+        this.liveBytes.clear();
+
+        // Replay everything appended after the last snapshot of the index
+        Position snapshot = this.loadIndex(directory.resolve(INDEX_FILE));
+        List<Integer> segments = this.log.segments();
+
+        int activeSegment = segments.isEmpty() ? 1 : segments.get(segments.size() - 1);
+        long activeSize = 0;
+        for (int segment : segments) {
+            if (snapshot != null && segment < snapshot.segment()) {
+                continue;
+            }
+
+            long start = snapshot != null && segment == snapshot.segment() ? snapshot.offset() : 0;
+            long end = this.log.scan(segment, start, this::put);
+            if (segment == activeSegment) {
+                activeSize = end;
+            }
+        }
+
+        this.log.openActive(activeSegment, activeSize);
+
+        // Remove segments which no longer hold any live backups
+        for (int segment : segments) {
+            if (segment != activeSegment && this.liveBytes.getOrDefault(segment, 0L) == 0) {
+                this.log.delete(segment);
+            }
+        }
+
+        this.saveIndex();
+    }
+
+    private void migrate() {
+        try {
+            if (this.log == null) {
+                return;
+            }
+
+            Path root = this.root();
+            if (LegacyInventoryBackups.exists(root)) {
+                BattleArena.getInstance().info("Migrating inventory backups to the backup log...");
+
+                int players = LegacyInventoryBackups.migrate(root, this::append);
+                BattleArena.getInstance().info("Migrated inventory backups of {} players.", players);
+            }
+
+            this.migrated = true;
+            this.saveIndex();
+        } catch (IOException e) {
+            // Backups in the old layout are still read from there, and the migration is retried on the next start
+            BattleArena.getInstance().error("Failed to migrate inventory backups", e);
+        }
+    }
+
+    private void append(UUID uuid, long timestamp, byte[] data) throws IOException {
+        try (ByteArrayOutputStream byteStream = new ByteArrayOutputStream(data.length / 2)) {
+            try (GZIPOutputStream stream = new GZIPOutputStream(byteStream)) {
+                stream.write(data);
+            }
+
+            this.put(uuid, this.log.append(uuid, timestamp, byteStream.toByteArray()));
+        }
+
+        if (++this.unsavedRecords >= SNAPSHOT_INTERVAL) {
+            this.saveIndex();
+        }
+    }
+
+    private void put(UUID uuid, Location location) {
+        Location[] current = this.index.getOrDefault(uuid, NO_LOCATIONS);
+
+        List<Location> locations = new ArrayList<>(current.length + 1);
+        boolean added = false;
+        for (Location existing : current) {
+            // A backup copied during compaction replaces the original
+            if (existing.timestamp() == location.timestamp()) {
+                this.addLiveBytes(existing, -1);
+                continue;
+            }
+
+            if (!added && location.timestamp() > existing.timestamp()) {
+                locations.add(location);
+                added = true;
+            }
+
+            locations.add(existing);
+        }
+
+        if (!added) {
+            locations.add(location);
+        }
+
+        this.addLiveBytes(location, 1);
+
+        // Drop the oldest backups, leaving them to be removed by compaction
+        while (locations.size() > this.maxBackups) {
+            this.addLiveBytes(locations.remove(locations.size() - 1), -1);
+        }
+
+        this.index.put(uuid, locations.toArray(Location[]::new));
+    }
+
+    private void addLiveBytes(Location location, int sign) {
+        this.liveBytes.merge(location.segment(), sign * location.size(), Long::sum);
+    }
+
+    private void compact() throws IOException {
+        for (Map.Entry<Integer, Long> entry : List.copyOf(this.liveBytes.entrySet())) {
+            int segment = entry.getKey();
+            if (segment == this.log.getActiveSegment()) {
+                continue;
+            }
+
+            long size = this.log.size(segment);
+            if (size > 0 && entry.getValue() >= size * COMPACTION_THRESHOLD) {
+                continue;
+            }
+
+            // Copy the live backups to the end of the log, so the segment can be deleted
+            for (Map.Entry<UUID, Location[]> backups : List.copyOf(this.index.entrySet())) {
+                for (Location location : backups.getValue()) {
+                    if (location.segment() == segment) {
+                        byte[] payload = this.log.read(location);
+                        this.put(backups.getKey(), this.log.append(backups.getKey(), location.timestamp(), payload));
+                    }
+                }
+            }
+
+            // The index must no longer point at the segment before it is deleted
+            this.saveIndex();
+            this.log.delete(segment);
+            this.liveBytes.remove(segment);
+        }
+    }
+
+    private ItemStack[] readItems(UUID uuid, long timestamp) {
+        InventoryBackupLog log = this.log;
+        if (log == null) {
+            throw new IllegalStateException("Inventory backups are not open");
+        }
+
+        // Look the location up again, as the backup may have been moved by compaction
+        for (Location location : this.index.getOrDefault(uuid, NO_LOCATIONS)) {
+            if (location.timestamp() != timestamp) {
+                continue;
+            }
+
+            try (DataInputStream stream = new DataInputStream(new GZIPInputStream(new ByteArrayInputStream(log.read(location))))) {
+                return deserialize(stream);
+            } catch (IOException e) {
+                throw new IllegalArgumentException("Failed to load inventory backup for " + uuid + "! Corrupted backup?", e);
+            }
+        }
+
+        throw new IllegalArgumentException("Inventory backup for " + uuid + " no longer exists");
+    }
+
+    @Nullable
+    private Position loadIndex(Path path) throws IOException {
+        if (Files.notExists(path)) {
+            return null;
+        }
+
+        try (DataInputStream stream = new DataInputStream(new BufferedInputStream(Files.newInputStream(path)))) {
+            int version = stream.readInt();
+            if (version != INDEX_VERSION) {
+                BattleArena.getInstance().warn("Unsupported inventory backup index version {}, rebuilding it from the log.", version);
+                return null;
+            }
+
+            Position position = new Position(stream.readInt(), stream.readLong());
+
+            int players = stream.readInt();
+            for (int i = 0; i < players; i++) {
+                UUID uuid = new UUID(stream.readLong(), stream.readLong());
+                int count = stream.readInt();
+                for (int j = 0; j < count; j++) {
+                    this.put(uuid, new Location(stream.readInt(), stream.readLong(), stream.readInt(), stream.readLong()));
+                }
+            }
+
+            return position;
+        } catch (IOException e) {
+            BattleArena.getInstance().warn("Failed to read inventory backup index, rebuilding it from the log: {}", e.getMessage());
+
+            this.index.clear();
+            this.liveBytes.clear();
+            return null;
+        }
+    }
+
+    private void saveIndex() throws IOException {
+        // Everything the snapshot refers to must be on disk before it is
+        this.log.force();
+
+        Path path = this.root().resolve(LOG_DIRECTORY).resolve(INDEX_FILE);
+        Path temp = path.resolveSibling(INDEX_FILE + ".tmp");
+        try (DataOutputStream stream = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+            stream.writeInt(INDEX_VERSION);
+            stream.writeInt(this.log.getActiveSegment());
+            stream.writeLong(this.log.getActiveSize());
+
+            stream.writeInt(this.index.size());
+            for (Map.Entry<UUID, Location[]> entry : this.index.entrySet()) {
+                stream.writeLong(entry.getKey().getMostSignificantBits());
+                stream.writeLong(entry.getKey().getLeastSignificantBits());
+                stream.writeInt(entry.getValue().length);
+                for (Location location : entry.getValue()) {
+                    stream.writeInt(location.segment());
+                    stream.writeLong(location.offset());
+                    stream.writeInt(location.length());
+                    stream.writeLong(location.timestamp());
+                }
+            }
+        }
+
+        Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        this.unsavedRecords = 0;
+    }
+
+    private Path root() {
+        return BattleArena.getInstance().getBackupPath(InventoryBackup.INVENTORY_TYPE);
+    }
+
+    private static void add(List<InventoryBackup> backups, InventoryBackup backup) {
+        // A queued backup may have been written since it was copied
+        for (InventoryBackup existing : backups) {
+            if (existing.getTimestampMillis() == backup.getTimestampMillis()) {
+                return;
+            }
+        }
+
+        backups.add(backup);
+    }
+
+    private record Position(int segment, long offset) {
+    }
+
+    static byte[] serialize(InventoryBackup backup) {
+        try (ByteArrayOutputStream byteStream = new ByteArrayOutputStream();
+             DataOutputStream stream = new DataOutputStream(byteStream)) {
+            ItemStack[] items = backup.getItems();
+
+            stream.writeLong(backup.getTimestampMillis());
+            stream.writeInt(items.length);
+            for (ItemStack item : items) {
+                if (item == null) {
+                    stream.writeBoolean(false);
+                    continue;
+                }
+
+                stream.writeBoolean(true);
+
+                byte[] itemBytes = item.serializeAsBytes();
+                stream.writeInt(itemBytes.length);
+                stream.write(itemBytes);
+            }
+
+            stream.flush();
+            return byteStream.toByteArray();
+        } catch (IOException e) {
+            // Only thrown by the underlying stream, which is in memory
+            throw new IllegalStateException("Failed to serialize inventory backup", e);
+        }
+    }
+
+    static ItemStack[] deserialize(DataInputStream stream) throws IOException {
+        stream.readLong(); // Timestamp, which is also stored alongside the backup
+
+        int length = stream.readInt();
+        ItemStack[] items = new ItemStack[length];
+        for (int i = 0; i < length; i++) {
+            boolean itemPresent = stream.readBoolean();
+            if (itemPresent) {
+                int itemLength = stream.readInt();
+                byte[] itemBytes = new byte[itemLength];
+
+                stream.readFully(itemBytes);
+                items[i] = ItemStack.deserializeBytes(itemBytes);
+            }
+        }
+
+        return items;
+    }
+}
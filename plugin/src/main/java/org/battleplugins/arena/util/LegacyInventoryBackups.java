@@ -0,0 +1,218 @@
+package org.battleplugins.arena.util;
+
+import org.battleplugins.arena.BattleArena;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Reads inventory backups stored in the layout used before the
+ * {@link InventoryBackupLog}, where every backup of a player is its own
+ * file in a directory named after the player, and migrates them to the log.
+ * <p>
+ * Backups which cannot be read while migrating are moved to a separate
+ * directory rather than failing the migration, so they can be inspected.
+ */
+final class LegacyInventoryBackups {
+    private static final String CORRUPT_DIRECTORY = "corrupt";
+    private static final String INDEX_FILE = "index";
+    private static final int INDEX_VERSION = 1;
+
+    private LegacyInventoryBackups() {
+    }
+
+    /**
+     * Gets whether the given directory contains any backups
+     * which have not been migrated yet.
+     *
+     * @param root the directory backups are stored in
+     * @return whether there are backups to migrate
+     * @throws IOException if the directory could not be listed
+     */
+    static boolean exists(Path root) throws IOException {
+        return !directories(root).isEmpty();
+    }
+
+    /**
+     * Loads the backups of the given player, newest first.
+     *
+     * @param root the directory backups are stored in
+     * @param uuid the unique id of the player
+     * @return the backups of the player
+     * @throws IOException if the backups could not be listed
+     */
+    static List<InventoryBackup> load(Path root, UUID uuid) throws IOException {
+        Path directory = root.resolve(uuid.toString());
+
+        List<InventoryBackup> backups = new ArrayList<>();
+        for (Entry entry : entries(directory)) {
+            backups.add(new InventoryBackup(entry.timestamp(), uuid, () -> {
+                try (DataInputStream stream = new DataInputStream(open(directory.resolve(entry.file())))) {
+                    return InventoryBackupStore.deserialize(stream);
+                } catch (IOException e) {
+                    throw new IllegalArgumentException("Failed to load inventory backup for " + uuid + "! Corrupted file?", e);
+                }
+            }));
+        }
+
+        return backups;
+    }
+
+    /**
+     * Passes every backup in the old layout to the given consumer, oldest first
+     * for each player, and deletes the backups of each player once all of them
+     * have been consumed. Backups which cannot be read are skipped.
+     *
+     * @param root the directory backups are stored in
+     * @param consumer the consumer to pass each serialized backup to
+     * @return the number of players whose backups were migrated
+     * @throws IOException if the backups could not be listed or consumed
+     */
+    static int migrate(Path root, BackupConsumer consumer) throws IOException {
+        int migrated = 0;
+        for (Path directory : directories(root)) {
+            UUID uuid = UUID.fromString(directory.getFileName().toString());
+
+            List<Entry> entries;
+            try {
+                entries = new ArrayList<>(entries(directory));
+            } catch (IOException e) {
+                BattleArena.getInstance().warn("Skipping inventory backups of {} as they could not be listed: {}", uuid, e.getMessage());
+                quarantine(root, directory, uuid.toString());
+                continue;
+            }
+
+            entries.sort(Comparator.comparingLong(Entry::timestamp));
+            Set<String> consumed = new HashSet<>();
+            for (Entry entry : entries) {
+                byte[] data;
+                try (InputStream stream = open(directory.resolve(entry.file()))) {
+                    data = stream.readAllBytes();
+                } catch (IOException e) {
+                    BattleArena.getInstance().warn("Skipping inventory backup {} of {} as it could not be read: {}", entry.file(), uuid, e.getMessage());
+                    continue;
+                }
+
+                consumer.accept(uuid, entry.timestamp(), data);
+                consumed.add(entry.file());
+            }
+
+            // Anything which was not migrated is kept aside rather than deleted
+            try (Stream<Path> files = Files.list(directory)) {
+                for (Path file : files.toList()) {
+                    String name = file.getFileName().toString();
+                    if (name.equals(INDEX_FILE) || consumed.contains(name)) {
+                        Files.delete(file);
+                    } else {
+                        quarantine(root, file, uuid + "-" + name);
+                    }
+                }
+            }
+
+            Files.delete(directory);
+            migrated++;
+        }
+
+        return migrated;
+    }
+
+    private static void quarantine(Path root, Path path, String name) throws IOException {
+        Path directory = root.resolve(CORRUPT_DIRECTORY);
+        Files.createDirectories(directory);
+        Files.move(path, directory.resolve(name), StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    private static List<Path> directories(Path root) throws IOException {
+        if (Files.notExists(root)) {
+            return List.of();
+        }
+
+        try (Stream<Path> files = Files.list(root)) {
+            return files.filter(Files::isDirectory)
+                    .filter(path -> isUuid(path.getFileName().toString()))
+                    .toList();
+        }
+    }
+
+    private static List<Entry> entries(Path directory) throws IOException {
+        if (Files.notExists(directory)) {
+            return List.of();
+        }
+
+        Path indexPath = directory.resolve(INDEX_FILE);
+        if (Files.exists(indexPath)) {
+            try (DataInputStream stream = new DataInputStream(new ByteArrayInputStream(Files.readAllBytes(indexPath)))) {
+                int version = stream.readInt();
+                if (version != INDEX_VERSION) {
+                    throw new IOException("Unsupported inventory backup index version " + version);
+                }
+
+                int size = stream.readInt();
+                List<Entry> entries = new ArrayList<>(size);
+                for (int i = 0; i < size; i++) {
+                    entries.add(new Entry(stream.readLong(), stream.readUTF()));
+                }
+
+                return entries;
+            }
+        }
+
+        // The oldest backups have no index, but their timestamp is at the start of every file
+        List<Entry> entries = new ArrayList<>();
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path path : files.filter(path -> path.getFileName().toString().endsWith(".dat")).toList()) {
+                try (DataInputStream stream = new DataInputStream(open(path))) {
+                    entries.add(new Entry(stream.readLong(), path.getFileName().toString()));
+                } catch (IOException e) {
+                    // Left out, so it is kept aside when migrating
+                    BattleArena.getInstance().warn("Skipping unreadable inventory backup {}: {}", path, e.getMessage());
+                }
+            }
+        }
+
+        entries.sort((a, b) -> Long.compare(b.timestamp(), a.timestamp()));
+        return entries;
+    }
+
+    private static InputStream open(Path path) throws IOException {
+        InputStream stream = new BufferedInputStream(Files.newInputStream(path));
+
+        // Backups written before compression was added are stored as is
+        stream.mark(2);
+        boolean compressed = stream.read() == 0x1F && stream.read() == 0x8B;
+        stream.reset();
+
+        return compressed ? new GZIPInputStream(stream) : stream;
+    }
+
+    private static boolean isUuid(String name) {
+        try {
+            UUID.fromString(name);
+            return name.length() == 36;
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    interface BackupConsumer {
+
+        void accept(UUID uuid, long timestamp, byte[] data) throws IOException;
+    }
+
+    private record Entry(long timestamp, String file) {
+    }
+}
@@ -1,25 +1,240 @@
 package org.battleplugins.arena.util;
 
+import java.util.ArrayDeque;
+import java.util.Deque;
 import java.util.HashMap;
-import java.util.Optional;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BiFunction;
+import java.util.function.Function;
 
+/**
+ * A {@link HashMap} keyed by classes, where lookups also match any
+ * supertype of the requested class.
+ * <p>
+ * When multiple keys are assignable from the requested class, the most
+ * specific one wins: the class itself, then its superclasses from nearest
+ * to furthest, then its interfaces in breadth-first order, and finally
+ * {@link Object}. Resolved values are memoized per requested class in a
+ * copy-on-write identity map, so a lookup after warm-up is a single identity
+ * hash probe. The cache is invalidated whenever the map is modified.
+ * <p>
+ * Modifications made through the {@link #keySet()}, {@link #values()} or
+ * {@link #entrySet()} views are not tracked and will not invalidate the cache.
+ *
+ * @param <K> the class key type
+ * @param <V> the value type
+ */
 public class PolymorphicHashMap<K extends Class<?>, V> extends HashMap<K, V> {
+    private static final Object MISSING = new Object();
+    // Stands in for keys mapped to null, since the resolved map reads null as a miss
+    private static final Object NULL = new Object();
+
+    private final AtomicReference<Map<Class<?>, Object>> resolved = new AtomicReference<>(new IdentityHashMap<>());
 
     @Override
     public boolean containsKey(Object key) {
-        return this.findEntry((K) key).isPresent();
+        return this.resolve(key) != MISSING;
     }
 
     @Override
+    @SuppressWarnings("unchecked")
     public V get(Object key) {
-        Optional<Entry<K, V>> entry = this.findEntry((K) key);
-        return entry.map(Entry::getValue).orElse(null);
+        Object value = this.resolve(key);
+        return value == MISSING || value == NULL ? null : (V) value;
+    }
+
+    @Override
+    public V put(K key, V value) {
+        try {
+            return super.put(key, value);
+        } finally {
+            this.invalidate();
+        }
+    }
+
+    @Override
+    public void putAll(Map<? extends K, ? extends V> map) {
+        try {
+            super.putAll(map);
+        } finally {
+            this.invalidate();
+        }
+    }
+
+    @Override
+    public V putIfAbsent(K key, V value) {
+        try {
+            return super.putIfAbsent(key, value);
+        } finally {
+            this.invalidate();
+        }
+    }
+
+    @Override
+    public V remove(Object key) {
+        try {
+            return super.remove(key);
+        } finally {
+            this.invalidate();
+        }
+    }
+
+    @Override
+    public boolean remove(Object key, Object value) {
+        try {
+            return super.remove(key, value);
+        } finally {
+            this.invalidate();
+        }
+    }
+
+    @Override
+    public V replace(K key, V value) {
+        try {
+            return super.replace(key, value);
+        } finally {
+            this.invalidate();
+        }
+    }
+
+    @Override
+    public boolean replace(K key, V oldValue, V newValue) {
+        try {
+            return super.replace(key, oldValue, newValue);
+        } finally {
+            this.invalidate();
+        }
+    }
+
+    @Override
+    public void replaceAll(BiFunction<? super K, ? super V, ? extends V> function) {
+        try {
+            super.replaceAll(function);
+        } finally {
+            this.invalidate();
+        }
+    }
+
+    @Override
+    public V computeIfAbsent(K key, Function<? super K, ? extends V> mappingFunction) {
+        try {
+            return super.computeIfAbsent(key, mappingFunction);
+        } finally {
+            this.invalidate();
+        }
     }
 
-    private Optional<Entry<K, V>> findEntry(K key) {
-        return this.entrySet()
-                .stream()
-                .filter(e -> e.getKey().isAssignableFrom(key))
-                .findFirst();
+    @Override
+    public V computeIfPresent(K key, BiFunction<? super K, ? super V, ? extends V> remappingFunction) {
+        try {
+            return super.computeIfPresent(key, remappingFunction);
+        } finally {
+            this.invalidate();
+        }
+    }
+
+    @Override
+    public V compute(K key, BiFunction<? super K, ? super V, ? extends V> remappingFunction) {
+        try {
+            return super.compute(key, remappingFunction);
+        } finally {
+            this.invalidate();
+        }
+    }
+
+    @Override
+    public V merge(K key, V value, BiFunction<? super V, ? super V, ? extends V> remappingFunction) {
+        try {
+            return super.merge(key, value, remappingFunction);
+        } finally {
+            this.invalidate();
+        }
+    }
+
+    @Override
+    public void clear() {
+        try {
+            super.clear();
+        } finally {
+            this.invalidate();
+        }
+    }
+
+    private void invalidate() {
+        // The resolved map may not have been initialized yet if
+        // the map is modified during construction (i.e. by HashMap)
+        if (this.resolved != null) {
+            this.resolved.set(new IdentityHashMap<>());
+        }
+    }
+
+    private Object resolve(Object key) {
+        if (!(key instanceof Class<?> clazz)) {
+            return MISSING;
+        }
+
+        Map<Class<?>, Object> resolved = this.resolved.get();
+        Object value = resolved.get(clazz);
+        if (value != null) {
+            return value;
+        }
+
+        value = this.findMostSpecific(clazz);
+
+        // Publish a copy containing the newly resolved class. If the
+        // map was modified in the meantime, the result is discarded
+        Map<Class<?>, Object> updated = new IdentityHashMap<>(resolved);
+        updated.put(clazz, value);
+        this.resolved.compareAndSet(resolved, updated);
+        return value;
+    }
+
+    private Object findMostSpecific(Class<?> clazz) {
+        if (this.isEmpty()) {
+            return MISSING;
+        }
+
+        // Walk the superclass chain first, from nearest to furthest
+        Deque<Class<?>> interfaces = new ArrayDeque<>();
+        for (Class<?> current = clazz; current != null && current != Object.class; current = current.getSuperclass()) {
+            Object value = this.findExact(current);
+            if (value != MISSING) {
+                return value;
+            }
+
+            interfaces.addAll(List.of(current.getInterfaces()));
+        }
+
+        // Then the interfaces, breadth-first
+        Set<Class<?>> visited = new HashSet<>();
+        while (!interfaces.isEmpty()) {
+            Class<?> current = interfaces.poll();
+            if (!visited.add(current)) {
+                continue;
+            }
+
+            Object value = this.findExact(current);
+            if (value != MISSING) {
+                return value;
+            }
+
+            interfaces.addAll(List.of(current.getInterfaces()));
+        }
+
+        return this.findExact(Object.class);
+    }
+
+    private Object findExact(Class<?> clazz) {
+        V value = super.get(clazz);
+        if (value == null) {
+            return super.containsKey(clazz) ? NULL : MISSING;
+        }
+
+        return value;
     }
-}
\ No newline at end of file
+}
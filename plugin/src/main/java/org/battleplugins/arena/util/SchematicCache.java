@@ -0,0 +1,239 @@
+package org.battleplugins.arena.util;
+
+import com.fastasyncworldedit.core.extent.clipboard.DiskOptimizedClipboard;
+import com.sk89q.worldedit.extent.clipboard.Clipboard;
+import com.sk89q.worldedit.extent.clipboard.io.ClipboardFormat;
+import com.sk89q.worldedit.extent.clipboard.io.ClipboardFormats;
+import com.sk89q.worldedit.extent.clipboard.io.ClipboardReader;
+import org.battleplugins.arena.BattleArena;
+import org.battleplugins.arena.BattleArenaConfig;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A cache of decoded schematics, so a schematic only has to be read
+ * and decoded once rather than every time it is pasted.
+ * <p>
+ * Schematics are keyed by their path, and are decoded again whenever the
+ * modification time or size of the file changes. The cache is bounded by an
+ * estimate of the memory used by the decoded clipboards, evicting the least
+ * recently used schematics once the configured budget has been exceeded.
+ * <p>
+ * A decoded clipboard is only ever used by one paste at a time. Each paste
+ * leases a clipboard from the cache, and pastes of the same schematic running
+ * at the same time decode their own copy. Leased clipboards are returned to the
+ * cache once the paste has finished, and clipboards which are evicted or no
+ * longer match their file are closed.
+ */
+public final class SchematicCache {
+    private static final long BYTES_PER_MEGABYTE = 1024L * 1024L;
+    // Decoded clipboards store each block as a palette index
+    private static final long BYTES_PER_BLOCK = 2;
+
+    private static final Map<Path, Entry> ENTRIES = new LinkedHashMap<>(16, 0.75f, true);
+
+    // The estimated size of the idle clipboards in the cache
+    private static long usedBytes;
+
+    private SchematicCache() {
+    }
+
+    /**
+     * Leases the decoded schematic at the given path, decoding it
+     * if no idle copy is cached or the file has changed.
+     * <p>
+     * The lease must be closed once the clipboard is no longer used.
+     *
+     * @param path the path of the schematic
+     * @return the leased schematic, or null if the format of the file is not recognized
+     * @throws IOException if the schematic could not be read
+     */
+    @Nullable
+    public static Lease acquire(Path path) throws IOException {
+        BasicFileAttributes attributes = Files.readAttributes(path, BasicFileAttributes.class);
+        long modified = attributes.lastModifiedTime().toMillis();
+        long size = attributes.size();
+
+        synchronized (ENTRIES) {
+            Entry entry = ENTRIES.get(path);
+            if (entry != null && entry.matches(modified, size)) {
+                Clipboard clipboard = entry.idle.pollFirst();
+                if (clipboard != null) {
+                    usedBytes -= entry.bytes;
+                    return new Lease(path, entry, clipboard);
+                }
+            } else if (entry != null) {
+                retire(path);
+            }
+        }
+
+        ClipboardFormat format = ClipboardFormats.findByFile(path.toFile());
+        if (format == null) {
+            return null;
+        }
+
+        Clipboard clipboard;
+        try (InputStream inputStream = Files.newInputStream(path);
+             ClipboardReader reader = format.getReader(inputStream)) {
+            clipboard = reader.read();
+        }
+
+        synchronized (ENTRIES) {
+            Entry entry = ENTRIES.get(path);
+            if (entry == null || !entry.matches(modified, size)) {
+                if (entry != null) {
+                    retire(path);
+                }
+
+                entry = new Entry(modified, size, estimateBytes(clipboard, size));
+                ENTRIES.put(path, entry);
+            }
+
+            return new Lease(path, entry, clipboard);
+        }
+    }
+
+    /**
+     * Removes the schematic at the given path from the cache.
+     *
+     * @param path the path of the schematic
+     */
+    public static void invalidate(Path path) {
+        synchronized (ENTRIES) {
+            retire(path);
+        }
+    }
+
+    /**
+     * Removes every schematic from the cache.
+     */
+    public static void clear() {
+        synchronized (ENTRIES) {
+            for (Entry entry : ENTRIES.values()) {
+                closeAll(entry);
+            }
+
+            ENTRIES.clear();
+            usedBytes = 0;
+        }
+    }
+
+    private static void release(Path path, Entry entry, Clipboard clipboard) {
+        long budget = budget();
+        synchronized (ENTRIES) {
+            // The schematic changed or was evicted while the clipboard was leased
+            if (budget <= 0 || ENTRIES.get(path) != entry || entry.bytes > budget) {
+                close(clipboard);
+                return;
+            }
+
+            entry.idle.addFirst(clipboard);
+            usedBytes += entry.bytes;
+
+            // Evict the least recently used clipboards, but always keep the one just returned
+            Iterator<Map.Entry<Path, Entry>> iterator = ENTRIES.entrySet().iterator();
+            while (usedBytes > budget && iterator.hasNext()) {
+                Entry eldest = iterator.next().getValue();
+                while (usedBytes > budget && eldest.idle.size() > (eldest == entry ? 1 : 0)) {
+                    close(eldest.idle.pollLast());
+                    usedBytes -= eldest.bytes;
+                }
+            }
+        }
+    }
+
+    private static void retire(Path path) {
+        Entry entry = ENTRIES.remove(path);
+        if (entry != null) {
+            closeAll(entry);
+        }
+    }
+
+    private static void closeAll(Entry entry) {
+        Clipboard clipboard;
+        while ((clipboard = entry.idle.pollFirst()) != null) {
+            close(clipboard);
+            usedBytes -= entry.bytes;
+        }
+    }
+
+    private static void close(Clipboard clipboard) {
+        try {
+            clipboard.close();
+        } catch (Exception e) {
+            BattleArena.getInstance().warn("Failed to close cached schematic: {}", e.getMessage());
+        }
+    }
+
+    private static long estimateBytes(Clipboard clipboard, long fileSize) {
+        // Disk backed clipboards keep their blocks in a mapped file rather than on the heap
+        if (clipboard instanceof DiskOptimizedClipboard diskClipboard) {
+            return diskClipboard.getFile().length();
+        }
+
+        return clipboard.getRegion().getVolume() * BYTES_PER_BLOCK + fileSize;
+    }
+
+    private static long budget() {
+        BattleArenaConfig config = BattleArena.getInstance().getMainConfig();
+        return config == null ? 0 : config.getSchematicCacheSize() * BYTES_PER_MEGABYTE;
+    }
+
+    /**
+     * A decoded schematic leased from the cache, which
+     * is returned to the cache once the lease is closed.
+     */
+    public static final class Lease implements AutoCloseable {
+        private final Path path;
+        private final Entry entry;
+        private final Clipboard clipboard;
+        private boolean closed;
+
+        private Lease(Path path, Entry entry, Clipboard clipboard) {
+            this.path = path;
+            this.entry = entry;
+            this.clipboard = clipboard;
+        }
+
+        public Clipboard getClipboard() {
+            return this.clipboard;
+        }
+
+        @Override
+        public void close() {
+            if (this.closed) {
+                return;
+            }
+
+            this.closed = true;
+            release(this.path, this.entry, this.clipboard);
+        }
+    }
+
+    private static final class Entry {
+        private final long modified;
+        private final long size;
+        private final long bytes;
+        private final Deque<Clipboard> idle = new ArrayDeque<>();
+
+        Entry(long modified, long size, long bytes) {
+            this.modified = modified;
+            this.size = size;
+            this.bytes = bytes;
+        }
+
+        boolean matches(long modified, long size) {
+            return this.modified == modified && this.size == size;
+        }
+    }
+}